@@ -0,0 +1,84 @@
+package emitir.relatorio;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import modelo.Relatorio;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import util.DadosBenchmark;
+
+/**
+ * Mede a geração do PDF simplificado de {@link EmitirRelatorio}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Xmx256m"})
+public class EmitirRelatorioBenchmark {
+
+    /**
+     * Quantidade de linhas do relatório.
+     */
+    @Param({"1000", "10000", "100000"})
+    public int linhas;
+
+    /**
+     * Linhas do relatório.
+     */
+    private List<Relatorio> relatorios;
+
+    /**
+     * Arquivo de saída temporário.
+     */
+    private File arquivo;
+
+    /**
+     * Prepara os dados e o arquivo de saída.
+     *
+     * @throws IOException se o arquivo temporário não puder ser criado
+     */
+    @Setup
+    public void preparar() throws IOException {
+        relatorios = DadosBenchmark.relatorios(linhas);
+        arquivo = File.createTempFile("emitir-relatorio-benchmark", ".pdf");
+    }
+
+    /**
+     * Remove o arquivo de saída.
+     */
+    @TearDown
+    public void encerrar() {
+        arquivo.delete();
+    }
+
+    /**
+     * Gera o relatório completo.
+     *
+     * @return tamanho do arquivo gerado
+     * @throws Exception se a geração falhar
+     */
+    @Benchmark
+    public long gerarPDF() throws Exception {
+        try (OutputStream saida = new BufferedOutputStream(new FileOutputStream(arquivo))) {
+            EmitirRelatorio.gerarPDF(relatorios.iterator(), saida);
+        }
+        return arquivo.length();
+    }
+}
@@ -0,0 +1,173 @@
+package socket;
+
+import com.fasterxml.jackson.databind.JavaType;
+import dto.Requisicao;
+import dto.Resposta;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import modelo.Categoria;
+import modelo.Produto;
+import modelo.enums.Acao;
+import modelo.enums.Embalagem;
+import modelo.enums.Entidade;
+import modelo.enums.Tamanho;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import util.DadosBenchmark;
+
+/**
+ * Mede idas e voltas do {@link ClientSocket} contra um {@link ServidorLocal}
+ * na interface de loopback.
+ *
+ * <p>
+ * O modo de transporte é lido pelo {@code ClientSocket} ao carregar a classe;
+ * como o JMH usa uma JVM nova para cada valor de parâmetro, cada modo é medido
+ * em um processo próprio.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientSocketBenchmark {
+
+    /**
+     * Modo de transporte do cliente.
+     */
+    @Param({"simples", "pipeline"})
+    public String modo;
+
+    /**
+     * Quantidade de produtos cadastrados no servidor.
+     */
+    @Param({"100"})
+    public int produtos;
+
+    /**
+     * Formatos oferecidos na negociação; vazio para o protocolo de linhas.
+     */
+    @Param({"", "json", "smile"})
+    public String formatos;
+
+    /**
+     * Quantidade de requisições disparadas de uma vez no teste concorrente.
+     */
+    private static final int CONCORRENTES = 32;
+
+    /**
+     * Servidor local usado nas medições.
+     */
+    private ServidorLocal servidor;
+
+    /**
+     * Requisição de busca de um produto.
+     */
+    private Requisicao<Produto> encontrar;
+
+    /**
+     * Requisição de listagem de produtos.
+     */
+    private Requisicao<Void> listar;
+
+    /**
+     * Tipo da resposta de busca.
+     */
+    private JavaType tipoProduto;
+
+    /**
+     * Tipo da resposta de listagem.
+     */
+    private JavaType tipoLista;
+
+    /**
+     * Cadastra os dados, inicia o servidor e aponta o cliente para ele.
+     *
+     * @throws IOException se o servidor não puder ser iniciado
+     */
+    @Setup
+    public void preparar() throws IOException {
+        ProcessadorLocal processador = new ProcessadorLocal();
+        processador.apply(new Requisicao<>(Acao.CRIAR, Entidade.CATEGORIA,
+                new Categoria(null, "Bebidas", Tamanho.PEQUENO, Embalagem.LATA)));
+        for (Produto p : DadosBenchmark.produtos(produtos)) {
+            p.setId(null);
+            p.setCategoriaId(1);
+            processador.apply(new Requisicao<>(Acao.CRIAR, Entidade.PRODUTO, p));
+        }
+        servidor = new ServidorLocal(0, processador, 0);
+        System.setProperty("cliente.host", "localhost");
+        System.setProperty("cliente.porta", String.valueOf(servidor.getPorta()));
+        System.setProperty("cliente.transporte.modo", modo);
+        System.setProperty("cliente.transporte.formatos", formatos);
+
+        encontrar = new Requisicao<>(Acao.ENCONTRAR, Entidade.PRODUTO, new Produto(1, null, null, null, null, null, null, null));
+        listar = new Requisicao<>(Acao.LISTAR, Entidade.PRODUTO, null);
+        tipoProduto = ClientSocket.tipoResposta(Produto.class);
+        tipoLista = ClientSocket.tipoRespostaLista(Produto.class);
+    }
+
+    /**
+     * Encerra o servidor.
+     */
+    @TearDown
+    public void encerrar() {
+        servidor.close();
+    }
+
+    /**
+     * Busca de um produto: requisição e resposta pequenas.
+     *
+     * @return resposta do servidor
+     */
+    @Benchmark
+    public Resposta<Produto> encontrarProduto() {
+        return ClientSocket.enviarRequisicao(encontrar, tipoProduto);
+    }
+
+    /**
+     * Listagem completa de produtos lida direto na lista tipada.
+     *
+     * @return resposta do servidor
+     */
+    @Benchmark
+    public Resposta<List<Produto>> listarProdutos() {
+        return ClientSocket.enviarRequisicao(listar, tipoLista);
+    }
+
+    /**
+     * Várias buscas disparadas ao mesmo tempo, como nas telas que carregam
+     * produtos e categorias em paralelo.
+     *
+     * @return quantidade de respostas com sucesso
+     */
+    @Benchmark
+    @OperationsPerInvocation(CONCORRENTES)
+    public int encontrarConcorrente() {
+        List<CompletableFuture<Resposta<Produto>>> futuros = new ArrayList<>(CONCORRENTES);
+        for (int i = 0; i < CONCORRENTES; i++) {
+            futuros.add(ClientSocket.enviarRequisicaoAsync(encontrar, tipoProduto));
+        }
+        int sucesso = 0;
+        for (CompletableFuture<Resposta<Produto>> futuro : futuros) {
+            if ("sucesso".equals(futuro.join().getStatus())) {
+                sucesso++;
+            }
+        }
+        return sucesso;
+    }
+}
@@ -0,0 +1,798 @@
+package socket;
+
+import dto.Alteracoes;
+import dto.Lote;
+import dto.MovimentoEstoque;
+import dto.Notificacao;
+import dto.Pagina;
+import dto.Requisicao;
+import dto.Resposta;
+import dto.SaldoEstoque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import modelo.Categoria;
+import modelo.Produto;
+import modelo.Registro;
+import modelo.Relatorio;
+import modelo.enums.Acao;
+import modelo.enums.Entidade;
+import modelo.enums.Movimentacao;
+import modelo.enums.Status;
+import util.JsonUtil;
+import util.TextoUtil;
+
+/**
+ * Implementação em memória das operações do backend, usada pelo
+ * {@link ServidorLocal}.
+ *
+ * <p>
+ * Reproduz as regras principais do servidor real: nome de categoria único
+ * (RN01), categoria com produtos não pode ser excluída (RN04), produto
+ * vinculado a categoria existente (RN05) e nome de produto único por categoria
+ * (RN11). Toda alteração de produto gera um {@link Registro} de
+ * movimentação. Requisições {@code LOTE} executam várias operações em
+ * sequência, opcionalmente desfazendo todas na primeira falha.</p>
+ *
+ * <p>
+ * Cada alteração de categoria ou produto recebe a próxima versão de um
+ * contador único, e cada exclusão deixa uma lápide com a sua versão. Uma
+ * listagem com {@code desdeVersao} devolve apenas o que mudou depois dela; se
+ * a versão pedida for anterior à lápide mais antiga ainda guardada, a resposta
+ * é a listagem completa.</p>
+ *
+ * <p>
+ * Cada alteração também gera uma {@link Notificacao}, entregue ao ouvinte
+ * informado em {@link #setOuvinte(Consumer)} ao fim da requisição; as de um
+ * lote desfeito são descartadas junto com ele.</p>
+ *
+ * <p>
+ * As operações são serializadas por sincronização; os objetos guardados nunca
+ * são alterados depois de publicados, sendo substituídos por cópias.</p>
+ */
+public class ProcessadorLocal implements Function<Requisicao<Object>, Resposta<?>> {
+
+    /**
+     * Categorias cadastradas, indexadas pelo identificador.
+     */
+    private final Map<Integer, Categoria> categorias = new LinkedHashMap<>();
+
+    /**
+     * Produtos cadastrados, indexados pelo identificador.
+     */
+    private final Map<Integer, Produto> produtos = new LinkedHashMap<>();
+
+    /**
+     * Nomes de todos os produtos já cadastrados, inclusive excluídos, para o
+     * relatório de movimentações.
+     */
+    private final Map<Integer, String> nomesProdutos = new HashMap<>();
+
+    /**
+     * Produto dono de cada par categoria e nome normalizado, para verificar a
+     * RN11 sem percorrer todos os produtos.
+     */
+    private final Map<String, Integer> chavesProdutos = new HashMap<>();
+
+    /**
+     * Lápides das categorias excluídas.
+     */
+    private Lapides categoriasRemovidas = new Lapides();
+
+    /**
+     * Lápides dos produtos excluídos.
+     */
+    private Lapides produtosRemovidos = new Lapides();
+
+    /**
+     * Última versão atribuída a uma alteração de categoria ou produto.
+     */
+    private long ultimaVersao;
+
+    /**
+     * Histórico de movimentações, em ordem de inserção.
+     */
+    private final List<Registro> registros = new ArrayList<>();
+
+    /**
+     * Último identificador atribuído a uma categoria.
+     */
+    private int ultimaCategoria;
+
+    /**
+     * Último identificador atribuído a um produto.
+     */
+    private int ultimoProduto;
+
+    /**
+     * Último identificador atribuído a um registro.
+     */
+    private int ultimoRegistro;
+
+    /**
+     * Notificações da requisição em andamento, entregues ao fim dela.
+     */
+    private final List<Notificacao<?>> notificacoes = new ArrayList<>();
+
+    /**
+     * Destino das notificações, ou null se ninguém as acompanha.
+     */
+    private Consumer<Notificacao<?>> ouvinte;
+
+    /**
+     * Define quem recebe as notificações das alterações. Chamado na ordem das
+     * alterações, ainda sob a sincronização do processador, e por isso não
+     * deve bloquear.
+     *
+     * @param ouvinte destino das notificações, ou null
+     */
+    public synchronized void setOuvinte(Consumer<Notificacao<?>> ouvinte) {
+        this.ouvinte = ouvinte;
+    }
+
+    /**
+     * Atende uma requisição de acordo com a entidade e a ação informadas.
+     *
+     * @param req requisição recebida, com {@code dados} ainda não tipados
+     * @return resposta da operação
+     */
+    @Override
+    public synchronized Resposta<?> apply(Requisicao<Object> req) {
+        try {
+            if (req.getAcao() == Acao.LOTE) {
+                return processarLote(req);
+            }
+            return executar(req);
+        } finally {
+            if (ouvinte != null) {
+                for (Notificacao<?> notificacao : notificacoes) {
+                    ouvinte.accept(notificacao);
+                }
+            }
+            notificacoes.clear();
+        }
+    }
+
+    /**
+     * Executa uma operação comum, fora de lote.
+     *
+     * @param req requisição ou operação do lote
+     * @return resposta da operação
+     */
+    private Resposta<?> executar(Requisicao<Object> req) {
+        if (req.getAcao() == null || req.getEntidade() == null) {
+            return erro("Requisição sem ação ou entidade");
+        }
+        return switch (req.getEntidade()) {
+            case CATEGORIA ->
+                processarCategoria(req);
+            case PRODUTO ->
+                processarProduto(req);
+            case REGISTRO ->
+                processarRegistro(req);
+            case RELATORIO ->
+                processarRelatorio(req);
+        };
+    }
+
+    /**
+     * Executa as operações de um lote na ordem recebida.
+     *
+     * <p>
+     * No modo tudo ou nada o estado é salvo antes da primeira operação e
+     * restaurado na primeira falha; as operações já executadas são informadas
+     * como desfeitas e as seguintes como não executadas.</p>
+     *
+     * @param req requisição com o {@link Lote} em {@code dados}
+     * @return resposta com o resultado de cada operação
+     */
+    @SuppressWarnings("unchecked")
+    private Resposta<?> processarLote(Requisicao<Object> req) {
+        Lote<Object> lote = JsonUtil.converter(req.getDados(), Lote.class);
+        if (lote == null || lote.getOperacoes() == null) {
+            return erro("Lote sem operações");
+        }
+        List<Requisicao<Object>> operacoes = lote.getOperacoes();
+        Runnable restaurar = lote.isTudoOuNada() ? salvarEstado() : null;
+        List<Resposta<?>> resultados = new ArrayList<>(operacoes.size());
+        int concluidas = 0;
+        for (int i = 0; i < operacoes.size(); i++) {
+            Requisicao<Object> operacao = operacoes.get(i);
+            Resposta<?> resultado;
+            if (operacao == null || operacao.getAcao() == Acao.LOTE) {
+                resultado = erro("Operação inválida no lote");
+            } else {
+                try {
+                    resultado = executar(operacao);
+                } catch (RuntimeException e) {
+                    resultado = erro(e.getMessage());
+                }
+            }
+            if (!"sucesso".equals(resultado.getStatus()) && restaurar != null) {
+                restaurar.run();
+                List<Resposta<?>> desfeitos = new ArrayList<>(operacoes.size());
+                for (int j = 0; j < operacoes.size(); j++) {
+                    desfeitos.add(j < i ? erro("Operação desfeita")
+                            : j == i ? resultado
+                            : erro("Operação não executada"));
+                }
+                return new Resposta<>("erro", "Lote desfeito: a operação " + (i + 1) + " falhou: "
+                        + resultado.getMensagem(), desfeitos);
+            }
+            if ("sucesso".equals(resultado.getStatus())) {
+                concluidas++;
+            }
+            resultados.add(resultado);
+        }
+        return sucesso(concluidas + " de " + operacoes.size() + " operações concluídas", resultados);
+    }
+
+    /**
+     * Salva o estado atual para que um lote tudo ou nada possa ser desfeito.
+     *
+     * @return ação que restaura o estado salvo
+     */
+    private Runnable salvarEstado() {
+        Map<Integer, Categoria> categoriasSalvas = new LinkedHashMap<>(categorias);
+        Map<Integer, Produto> produtosSalvos = new LinkedHashMap<>(produtos);
+        Map<Integer, String> nomesSalvos = new HashMap<>(nomesProdutos);
+        Map<String, Integer> chavesSalvas = new HashMap<>(chavesProdutos);
+        int totalRegistros = registros.size();
+        int categoria = ultimaCategoria;
+        int produto = ultimoProduto;
+        int registro = ultimoRegistro;
+        Lapides categoriasRemovidasSalvas = categoriasRemovidas.copiar();
+        Lapides produtosRemovidosSalvos = produtosRemovidos.copiar();
+        long versao = ultimaVersao;
+        int totalNotificacoes = notificacoes.size();
+        return () -> {
+            categorias.clear();
+            categorias.putAll(categoriasSalvas);
+            produtos.clear();
+            produtos.putAll(produtosSalvos);
+            nomesProdutos.clear();
+            nomesProdutos.putAll(nomesSalvos);
+            chavesProdutos.clear();
+            chavesProdutos.putAll(chavesSalvas);
+            registros.subList(totalRegistros, registros.size()).clear();
+            ultimaCategoria = categoria;
+            ultimoProduto = produto;
+            ultimoRegistro = registro;
+            categoriasRemovidas = categoriasRemovidasSalvas;
+            produtosRemovidos = produtosRemovidosSalvos;
+            ultimaVersao = versao;
+            notificacoes.subList(totalNotificacoes, notificacoes.size()).clear();
+        };
+    }
+
+    /**
+     * Operações sobre categorias.
+     *
+     * @param req requisição recebida
+     * @return resposta da operação
+     */
+    private Resposta<?> processarCategoria(Requisicao<Object> req) {
+        Categoria dados = JsonUtil.converter(req.getDados(), Categoria.class);
+        switch (req.getAcao()) {
+            case LISTAR:
+                if (req.getDesdeVersao() != null) {
+                    return listarAlteracoes(req, "Categorias listadas", categorias.values(), Categoria::getVersao, categoriasRemovidas);
+                }
+                return listar(req, "Categorias listadas", new ArrayList<>(categorias.values()), Categoria::getId);
+            case ENCONTRAR: {
+                Categoria c = dados == null ? null : categorias.get(dados.getId());
+                return c == null ? erro("Categoria não encontrada") : sucesso("Categoria encontrada", c);
+            }
+            case CRIAR: {
+                if (nomeCategoriaEmUso(dados.getNome(), null)) {
+                    return erro("Já existe uma categoria com o nome " + dados.getNome());
+                }
+                Categoria c = new Categoria(++ultimaCategoria, dados.getNome(), dados.getTamanho(), dados.getEmbalagem());
+                c.setVersao(++ultimaVersao);
+                categorias.put(c.getId(), c);
+                notificar(Entidade.CATEGORIA, Acao.CRIAR, c.getId(), c.getVersao(), c);
+                return sucesso("Categoria criada", c);
+            }
+            case ATUALIZAR: {
+                if (!categorias.containsKey(dados.getId())) {
+                    return erro("Categoria não encontrada");
+                }
+                if (nomeCategoriaEmUso(dados.getNome(), dados.getId())) {
+                    return erro("Já existe uma categoria com o nome " + dados.getNome());
+                }
+                Categoria c = new Categoria(dados.getId(), dados.getNome(), dados.getTamanho(), dados.getEmbalagem());
+                c.setVersao(++ultimaVersao);
+                categorias.put(c.getId(), c);
+                notificar(Entidade.CATEGORIA, Acao.ATUALIZAR, c.getId(), c.getVersao(), c);
+                return sucesso("Categoria atualizada", c);
+            }
+            case DELETAR: {
+                if (!categorias.containsKey(dados.getId())) {
+                    return erro("Categoria não encontrada");
+                }
+                boolean emUso = produtos.values().stream().anyMatch(p -> dados.getId().equals(p.getCategoriaId()));
+                if (emUso) {
+                    return erro("Categoria possui produtos vinculados");
+                }
+                categorias.remove(dados.getId());
+                categoriasRemovidas.registrar(dados.getId(), ++ultimaVersao);
+                notificar(Entidade.CATEGORIA, Acao.DELETAR, dados.getId(), ultimaVersao, null);
+                return sucesso("Categoria excluída", null);
+            }
+            default:
+                return erro("Ação não suportada para categoria: " + req.getAcao());
+        }
+    }
+
+    /**
+     * Operações sobre produtos.
+     *
+     * @param req requisição recebida
+     * @return resposta da operação
+     */
+    private Resposta<?> processarProduto(Requisicao<Object> req) {
+        switch (req.getAcao()) {
+            case LISTAR:
+                if (req.getDesdeVersao() != null) {
+                    return listarAlteracoes(req, "Produtos listados", produtos.values(), Produto::getVersao, produtosRemovidos);
+                }
+                return listar(req, "Produtos listados", new ArrayList<>(produtos.values()), Produto::getId);
+            case AUMENTAR:
+            case DIMINUIR: {
+                double percentual = ((Number) req.getDados()).doubleValue();
+                double fator = req.getAcao() == Acao.AUMENTAR ? 1 + percentual / 100 : 1 - percentual / 100;
+                long versao = ++ultimaVersao;
+                for (Produto p : new ArrayList<>(produtos.values())) {
+                    Produto novo = copiar(p);
+                    novo.setPreco(Math.round(p.getPreco() * fator * 100) / 100.0);
+                    novo.setVersao(versao);
+                    produtos.put(novo.getId(), novo);
+                }
+                // Uma notificação para o reajuste inteiro: os clientes sincronizam a lista
+                notificar(Entidade.PRODUTO, req.getAcao(), null, versao, null);
+                return sucesso("Preços reajustados", null);
+            }
+            case MOVIMENTAR: {
+                MovimentoEstoque movimento = JsonUtil.converter(req.getDados(), MovimentoEstoque.class);
+                if (movimento == null || movimento.getProdutoId() == null || movimento.getDelta() == null) {
+                    return erro("Movimentação inválida");
+                }
+                Produto atual = produtos.get(movimento.getProdutoId());
+                if (atual == null) {
+                    return erro("Produto não encontrado");
+                }
+                long quantidade = (long) atual.getQuantidade() + movimento.getDelta();
+                if (quantidade < 0) {
+                    return erro("Estoque insuficiente: disponível " + atual.getQuantidade());
+                }
+                if (quantidade > Integer.MAX_VALUE) {
+                    return erro("Quantidade excede o limite permitido");
+                }
+                Produto p = copiar(atual);
+                p.setQuantidade((int) quantidade);
+                p.setVersao(++ultimaVersao);
+                produtos.put(p.getId(), p);
+                notificar(Entidade.PRODUTO, Acao.MOVIMENTAR, p.getId(), p.getVersao(), p);
+                Status status = statusEstoque(p);
+                int delta = movimento.getDelta();
+                if (delta != 0) {
+                    registrar(p.getId(), Math.abs(delta), delta > 0 ? Movimentacao.ENTRADA : Movimentacao.SAIDA, status);
+                }
+                return sucesso("Estoque movimentado", new SaldoEstoque(p.getId(), p.getQuantidade(), status));
+            }
+            default:
+                break;
+        }
+
+        Produto dados = JsonUtil.converter(req.getDados(), Produto.class);
+        switch (req.getAcao()) {
+            case ENCONTRAR: {
+                Produto p = dados == null ? null : produtos.get(dados.getId());
+                return p == null ? erro("Produto não encontrado") : sucesso("Produto encontrado", p);
+            }
+            case CRIAR: {
+                String falha = validarProduto(dados, null);
+                if (falha != null) {
+                    return erro(falha);
+                }
+                Produto p = copiar(dados);
+                p.setId(++ultimoProduto);
+                p.setVersao(++ultimaVersao);
+                produtos.put(p.getId(), p);
+                nomesProdutos.put(p.getId(), p.getNome());
+                chavesProdutos.put(chave(p), p.getId());
+                notificar(Entidade.PRODUTO, Acao.CRIAR, p.getId(), p.getVersao(), p);
+                registrar(p.getId(), p.getQuantidade(), Movimentacao.NENHUM, Status.ADICIONADO);
+                return sucesso("Produto criado", p);
+            }
+            case ATUALIZAR: {
+                Produto atual = produtos.get(dados.getId());
+                if (atual == null) {
+                    return erro("Produto não encontrado");
+                }
+                String falha = validarProduto(dados, dados.getId());
+                if (falha != null) {
+                    return erro(falha);
+                }
+                Produto p = copiar(dados);
+                p.setVersao(++ultimaVersao);
+                produtos.put(p.getId(), p);
+                nomesProdutos.put(p.getId(), p.getNome());
+                chavesProdutos.remove(chave(atual));
+                chavesProdutos.put(chave(p), p.getId());
+                notificar(Entidade.PRODUTO, Acao.ATUALIZAR, p.getId(), p.getVersao(), p);
+                if (!p.getNome().equals(atual.getNome())) {
+                    registrar(p.getId(), 0, Movimentacao.NENHUM, Status.NOMEALTERADO);
+                }
+                int diferenca = p.getQuantidade() - atual.getQuantidade();
+                if (diferenca != 0) {
+                    registrar(p.getId(), Math.abs(diferenca), diferenca > 0 ? Movimentacao.ENTRADA : Movimentacao.SAIDA, statusEstoque(p));
+                }
+                return sucesso("Produto atualizado", p);
+            }
+            case DELETAR: {
+                Produto p = produtos.remove(dados.getId());
+                if (p == null) {
+                    return erro("Produto não encontrado");
+                }
+                chavesProdutos.remove(chave(p));
+                produtosRemovidos.registrar(p.getId(), ++ultimaVersao);
+                notificar(Entidade.PRODUTO, Acao.DELETAR, p.getId(), ultimaVersao, null);
+                registrar(p.getId(), p.getQuantidade(), Movimentacao.SAIDA, Status.DELETADO);
+                return sucesso("Produto excluído", null);
+            }
+            default:
+                return erro("Ação não suportada para produto: " + req.getAcao());
+        }
+    }
+
+    /**
+     * Operações sobre registros de movimentação.
+     *
+     * @param req requisição recebida
+     * @return resposta da operação
+     */
+    private Resposta<?> processarRegistro(Requisicao<Object> req) {
+        switch (req.getAcao()) {
+            case LISTAR:
+                return listar(req, "Registros listados", registros, Registro::getId);
+            case CRIAR: {
+                Registro dados = JsonUtil.converter(req.getDados(), Registro.class);
+                Registro r = registrar(dados.getProdutoId(), dados.getQuantidade(), dados.getMovimentacao(), dados.getStatus());
+                return sucesso("Registro criado", r);
+            }
+            default:
+                return erro("Ação não suportada para registro: " + req.getAcao());
+        }
+    }
+
+    /**
+     * Operações sobre relatórios.
+     *
+     * @param req requisição recebida
+     * @return resposta da operação
+     */
+    private Resposta<?> processarRelatorio(Requisicao<Object> req) {
+        if (req.getAcao() != Acao.LISTAR) {
+            return erro("Ação não suportada para relatório: " + req.getAcao());
+        }
+        if (req.getLimite() == null) {
+            List<Relatorio> relatorios = new ArrayList<>(registros.size());
+            for (Registro r : registros) {
+                relatorios.add(paraRelatorio(r));
+            }
+            return sucesso("Relatório gerado", relatorios);
+        }
+        // Só as linhas da página são convertidas
+        Pagina<Registro> origem = paginar(req, registros, Registro::getId);
+        List<Relatorio> relatorios = new ArrayList<>(origem.getItens().size());
+        for (Registro r : origem.getItens()) {
+            relatorios.add(paraRelatorio(r));
+        }
+        return sucesso("Relatório gerado", new Pagina<>(relatorios, origem.getPagina(), origem.getLimite(),
+                origem.getTotal(), origem.getProximoCursor()));
+    }
+
+    /**
+     * Responde a uma listagem, paginada se a requisição informar um limite.
+     *
+     * @param <T> tipo dos itens
+     * @param req requisição recebida
+     * @param mensagem mensagem de sucesso
+     * @param itens todos os itens, em ordem crescente de identificador
+     * @param extrairId função que obtém o identificador de um item
+     * @return resposta com a lista completa ou com uma {@link Pagina}
+     */
+    private static <T> Resposta<?> listar(Requisicao<Object> req, String mensagem, List<T> itens, Function<T, Integer> extrairId) {
+        if (req.getLimite() == null) {
+            return sucesso(mensagem, new ArrayList<>(itens));
+        }
+        return sucesso(mensagem, paginar(req, itens, extrairId));
+    }
+
+    /**
+     * Responde a uma listagem incremental com os itens alterados e as lápides
+     * posteriores à versão pedida.
+     *
+     * @param <T> tipo dos itens
+     * @param req requisição com {@code desdeVersao} informado
+     * @param mensagem mensagem de sucesso
+     * @param itens todos os itens, em ordem crescente de identificador
+     * @param extrairVersao função que obtém a versão de um item
+     * @param removidos lápides da entidade
+     * @return resposta com as {@link Alteracoes}
+     */
+    private <T> Resposta<?> listarAlteracoes(Requisicao<Object> req, String mensagem, Collection<T> itens,
+            Function<T, Long> extrairVersao, Lapides removidos) {
+        long desde = req.getDesdeVersao();
+        if (desde <= 0 || desde < removidos.horizonte) {
+            // Exclusões anteriores já foram esquecidas: só a lista inteira é confiável
+            return sucesso(mensagem, new Alteracoes<>(new ArrayList<>(itens), new ArrayList<>(), ultimaVersao, true));
+        }
+        List<T> alterados = new ArrayList<>();
+        for (T item : itens) {
+            if (extrairVersao.apply(item) > desde) {
+                alterados.add(item);
+            }
+        }
+        return sucesso(mensagem, new Alteracoes<>(alterados, removidos.desde(desde), ultimaVersao, false));
+    }
+
+    /**
+     * Recorta a página pedida de uma listagem.
+     *
+     * <p>
+     * Com cursor, a página começa no primeiro item de identificador maior que
+     * o cursor (localizado por busca binária, já que os identificadores são
+     * crescentes); sem cursor, começa em {@code pagina * limite}. O cursor
+     * devolvido é o identificador do último item da página.</p>
+     *
+     * @param <T> tipo dos itens
+     * @param req requisição com {@code limite} informado
+     * @param itens todos os itens, em ordem crescente de identificador
+     * @param extrairId função que obtém o identificador de um item
+     * @return página recortada
+     */
+    private static <T> Pagina<T> paginar(Requisicao<Object> req, List<T> itens, Function<T, Integer> extrairId) {
+        int limite = Math.max(1, req.getLimite());
+        Integer pagina = null;
+        int inicio;
+        if (req.getCursor() != null) {
+            int cursor;
+            try {
+                cursor = Integer.parseInt(req.getCursor());
+            } catch (NumberFormatException e) {
+                cursor = Integer.MAX_VALUE;
+            }
+            int baixo = 0;
+            int alto = itens.size();
+            while (baixo < alto) {
+                int meio = (baixo + alto) >>> 1;
+                if (extrairId.apply(itens.get(meio)) <= cursor) {
+                    baixo = meio + 1;
+                } else {
+                    alto = meio;
+                }
+            }
+            inicio = baixo;
+        } else {
+            pagina = req.getPagina() == null ? 0 : Math.max(0, req.getPagina());
+            inicio = (int) Math.min(itens.size(), (long) pagina * limite);
+        }
+        int fim = (int) Math.min(itens.size(), (long) inicio + limite);
+        List<T> recorte = new ArrayList<>(itens.subList(inicio, fim));
+        String proximoCursor = fim < itens.size() && fim > inicio
+                ? String.valueOf(extrairId.apply(itens.get(fim - 1)))
+                : null;
+        return new Pagina<>(recorte, pagina, limite, (long) itens.size(), proximoCursor);
+    }
+
+    /**
+     * Valida as regras de cadastro de produto.
+     *
+     * @param p produto recebido
+     * @param idAtual identificador do próprio produto em atualizações, ou null
+     * @return mensagem de erro, ou null se o produto for válido
+     */
+    private String validarProduto(Produto p, Integer idAtual) {
+        if (p.getCategoriaId() == null || !categorias.containsKey(p.getCategoriaId())) {
+            return "Categoria inexistente";
+        }
+        Integer dono = chavesProdutos.get(chave(p));
+        if (dono != null && !dono.equals(idAtual)) {
+            return "Já existe um produto com o nome " + p.getNome() + " nesta categoria";
+        }
+        return null;
+    }
+
+    /**
+     * Monta a chave de unicidade de um produto (RN11).
+     *
+     * @param p produto
+     * @return categoria e nome normalizado
+     */
+    private static String chave(Produto p) {
+        return p.getCategoriaId() + ":" + TextoUtil.normalizar(p.getNome());
+    }
+
+    /**
+     * Verifica se o nome já pertence a outra categoria.
+     *
+     * @param nome nome a verificar
+     * @param idAtual identificador da própria categoria em atualizações, ou
+     * null
+     * @return true se o nome já estiver em uso
+     */
+    private boolean nomeCategoriaEmUso(String nome, Integer idAtual) {
+        String normalizado = TextoUtil.normalizar(nome);
+        return categorias.values().stream()
+                .anyMatch(c -> !c.getId().equals(idAtual) && TextoUtil.normalizar(c.getNome()).equals(normalizado));
+    }
+
+    /**
+     * Acrescenta um registro de movimentação ao histórico.
+     *
+     * @param produtoId produto movimentado
+     * @param quantidade quantidade movimentada
+     * @param movimentacao tipo de movimentação
+     * @param status status resultante
+     * @return registro criado
+     */
+    private Registro registrar(Integer produtoId, Integer quantidade, Movimentacao movimentacao, Status status) {
+        Registro r = new Registro(++ultimoRegistro, new Date(), produtoId, quantidade, movimentacao, status);
+        registros.add(r);
+        notificar(Entidade.REGISTRO, Acao.CRIAR, r.getId(), null, r);
+        return r;
+    }
+
+    /**
+     * Guarda a notificação de uma alteração, a ser entregue ao fim da
+     * requisição.
+     *
+     * @param entidade entidade alterada
+     * @param acao ação executada
+     * @param id identificador do item, ou null se vários mudaram
+     * @param versao versão da alteração, ou null
+     * @param dados item após a alteração, ou null
+     */
+    private void notificar(Entidade entidade, Acao acao, Integer id, Long versao, Object dados) {
+        if (ouvinte != null) {
+            notificacoes.add(new Notificacao<>(entidade, acao, id, versao, dados));
+        }
+    }
+
+    /**
+     * Converte um registro para a linha de relatório correspondente.
+     *
+     * @param r registro de movimentação
+     * @return linha de relatório
+     */
+    private Relatorio paraRelatorio(Registro r) {
+        return new Relatorio(r.getId(), r.getProdutoId(), nomesProdutos.get(r.getProdutoId()), r.getQuantidade(),
+                String.valueOf(r.getMovimentacao()), String.valueOf(r.getStatus()), r.getData());
+    }
+
+    /**
+     * Calcula o status do estoque em relação aos limites do produto.
+     *
+     * @param p produto
+     * @return ABAIXO, ACIMA ou DENTRO
+     */
+    private static Status statusEstoque(Produto p) {
+        if (p.getQuantidade() < p.getQuantidadeMinima()) {
+            return Status.ABAIXO;
+        }
+        if (p.getQuantidade() > p.getQuantidadeMaxima()) {
+            return Status.ACIMA;
+        }
+        return Status.DENTRO;
+    }
+
+    /**
+     * Cria uma cópia independente de um produto.
+     *
+     * @param p produto de origem
+     * @return cópia
+     */
+    private static Produto copiar(Produto p) {
+        Produto copia = new Produto(p.getId(), p.getNome(), p.getPreco(), p.getUnidade(), p.getCategoriaId(),
+                p.getQuantidade(), p.getQuantidadeMinima(), p.getQuantidadeMaxima());
+        copia.setVersao(p.getVersao());
+        return copia;
+    }
+
+    /**
+     * Monta uma resposta de sucesso.
+     *
+     * @param mensagem mensagem da operação
+     * @param dados dados retornados
+     * @return resposta de sucesso
+     */
+    private static Resposta<?> sucesso(String mensagem, Object dados) {
+        return new Resposta<>("sucesso", mensagem, dados);
+    }
+
+    /**
+     * Monta uma resposta de erro.
+     *
+     * @param mensagem descrição do erro
+     * @return resposta de erro
+     */
+    private static Resposta<?> erro(String mensagem) {
+        return new Resposta<>("erro", mensagem, null);
+    }
+
+    /**
+     * Lápides das exclusões de uma entidade, da mais antiga para a mais
+     * recente. Apenas as {@link #LIMITE} mais recentes são guardadas; a versão
+     * da última descartada passa a ser o horizonte das listagens
+     * incrementais.
+     */
+    private static final class Lapides {
+
+        /**
+         * Quantidade máxima de lápides guardadas.
+         */
+        private static final int LIMITE = 10000;
+
+        /**
+         * Versão da exclusão de cada id, em ordem de exclusão.
+         */
+        private final LinkedHashMap<Integer, Long> versoes = new LinkedHashMap<>();
+
+        /**
+         * Versão da lápide descartada mais recente, ou 0.
+         */
+        private long horizonte;
+
+        /**
+         * Registra a exclusão de um id.
+         *
+         * @param id identificador excluído
+         * @param versao versão da exclusão
+         */
+        void registrar(Integer id, long versao) {
+            versoes.put(id, versao);
+            if (versoes.size() > LIMITE) {
+                Iterator<Map.Entry<Integer, Long>> maisAntiga = versoes.entrySet().iterator();
+                horizonte = maisAntiga.next().getValue();
+                maisAntiga.remove();
+            }
+        }
+
+        /**
+         * Identificadores excluídos depois de uma versão.
+         *
+         * @param versao versão conhecida pelo cliente
+         * @return identificadores excluídos depois dela
+         */
+        List<Integer> desde(long versao) {
+            List<Integer> ids = new ArrayList<>();
+            for (Map.Entry<Integer, Long> lapide : versoes.entrySet()) {
+                if (lapide.getValue() > versao) {
+                    ids.add(lapide.getKey());
+                }
+            }
+            return ids;
+        }
+
+        /**
+         * Cria uma cópia independente, para desfazer lotes.
+         *
+         * @return cópia das lápides
+         */
+        Lapides copiar() {
+            Lapides copia = new Lapides();
+            copia.versoes.putAll(versoes);
+            copia.horizonte = horizonte;
+            return copia;
+        }
+    }
+}
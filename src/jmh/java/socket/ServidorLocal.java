@@ -0,0 +1,427 @@
+package socket;
+
+import com.fasterxml.jackson.databind.JavaType;
+import dto.Notificacao;
+import dto.Requisicao;
+import dto.Resposta;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import modelo.enums.Acao;
+import util.Formato;
+import util.JsonUtil;
+
+/**
+ * Servidor local em processo que substitui o backend em testes e medições.
+ *
+ * <p>
+ * Fala o mesmo protocolo do servidor real (uma linha JSON por requisição e por
+ * resposta) e atende cada conexão em uma thread virtual própria, mantendo-a
+ * aberta para várias requisições. Requisições com {@code id} de correlação são
+ * processadas em paralelo e respondidas assim que ficam prontas, possivelmente
+ * fora de ordem, como no modo pipelining do {@link ConexaoPipeline};
+ * requisições sem {@code id} são respondidas em ordem.</p>
+ *
+ * <p>
+ * O processamento é delegado a uma função, por padrão um
+ * {@link ProcessadorLocal} com os dados em memória. Um atraso artificial pode
+ * ser configurado para simular a latência do servidor real.</p>
+ *
+ * <p>
+ * Uma requisição {@code ASSINAR} transforma a conexão em um canal de
+ * notificações (ver {@link CanalNotificacoes}): depois da confirmação, cada
+ * {@link Notificacao} passada a {@link #publicar(Notificacao)} é escrita nela.
+ * Com um {@link ProcessadorLocal}, as alterações que ele faz são publicadas
+ * automaticamente. Cada assinante tem uma fila própria, esvaziada por uma
+ * thread virtual, de modo que um cliente lento não atrasa o processamento;
+ * se a fila encher, a conexão é encerrada e o cliente, ao reconectar,
+ * sincroniza tudo de novo.</p>
+ *
+ * <p>
+ * Uma requisição {@code NEGOCIAR} que ofereça um dos formatos aceitos passa a
+ * conexão para o modo de quadros (ver {@link Enquadramento}). Sem formatos
+ * aceitos, a negociação segue para o processador como qualquer requisição e
+ * é recusada, como faria um servidor que não conhece o modo. A compressão é
+ * aceita sempre que oferecida, e as respostas a partir de
+ * {@link Enquadramento#COMPRESSAO_MINIMA} bytes seguem comprimidas.</p>
+ */
+public class ServidorLocal implements AutoCloseable {
+
+    /**
+     * Socket de escuta do servidor.
+     */
+    private final ServerSocket servidor;
+
+    /**
+     * Função que produz a resposta para cada requisição recebida.
+     */
+    private final Function<Requisicao<Object>, Resposta<?>> processador;
+
+    /**
+     * Atraso artificial aplicado a cada requisição, em milissegundos.
+     */
+    private final long atrasoMs;
+
+    /**
+     * Quantidade máxima de notificações aguardando envio a um assinante.
+     */
+    private static final int LIMITE_FILA = 10000;
+
+    /**
+     * Conexões que assinaram as notificações.
+     */
+    private final List<Assinante> assinantes = new CopyOnWriteArrayList<>();
+
+    /**
+     * Formatos de quadro aceitos na negociação.
+     */
+    private final List<Formato> formatos;
+
+    /**
+     * Tipo das requisições lidas dos quadros.
+     */
+    private static final JavaType REQUISICAO = JsonUtil.tipo(Requisicao.class, JsonUtil.tipo(Object.class));
+
+    /**
+     * Inicia um servidor local escutando na interface de loopback, aceitando
+     * todos os formatos de quadro disponíveis.
+     *
+     * @param porta porta de escuta, ou 0 para escolher uma porta livre
+     * @param processador função que atende as requisições
+     * @param atrasoMs atraso artificial por requisição, em milissegundos
+     * @throws IOException se não for possível abrir a porta
+     */
+    public ServidorLocal(int porta, Function<Requisicao<Object>, Resposta<?>> processador, long atrasoMs) throws IOException {
+        this(porta, processador, atrasoMs, Formato.disponiveis("json,smile,cbor"));
+    }
+
+    /**
+     * Inicia um servidor local escutando na interface de loopback.
+     *
+     * @param porta porta de escuta, ou 0 para escolher uma porta livre
+     * @param processador função que atende as requisições
+     * @param atrasoMs atraso artificial por requisição, em milissegundos
+     * @param formatos formatos de quadro aceitos; vazio para atender apenas
+     * o protocolo de linhas
+     * @throws IOException se não for possível abrir a porta
+     */
+    public ServidorLocal(int porta, Function<Requisicao<Object>, Resposta<?>> processador, long atrasoMs,
+            List<Formato> formatos) throws IOException {
+        this.servidor = new ServerSocket(porta, 50, InetAddress.getLoopbackAddress());
+        this.processador = processador;
+        this.atrasoMs = atrasoMs;
+        this.formatos = List.copyOf(formatos);
+        if (processador instanceof ProcessadorLocal local) {
+            local.setOuvinte(this::publicar);
+        }
+        Thread.ofVirtual().name("servidor-local").start(this::aceitar);
+    }
+
+    /**
+     * Obtém a porta em que o servidor está escutando.
+     *
+     * @return porta de escuta
+     */
+    public int getPorta() {
+        return servidor.getLocalPort();
+    }
+
+    /**
+     * Envia uma notificação a todas as conexões que a assinaram.
+     *
+     * <p>
+     * Apenas enfileira a linha já serializada; a escrita é feita pela thread
+     * de cada assinante.</p>
+     *
+     * @param notificacao alteração a divulgar
+     */
+    public void publicar(Notificacao<?> notificacao) {
+        if (assinantes.isEmpty()) {
+            return;
+        }
+        byte[] json = JsonUtil.toJsonBytes(notificacao);
+        for (Assinante assinante : assinantes) {
+            if (!assinante.fila.offer(json)) {
+                // Assinante lento: ao reconectar ele sincroniza tudo de novo
+                assinantes.remove(assinante);
+                assinante.encerrar();
+            }
+        }
+    }
+
+    /**
+     * Encerra o servidor. Conexões já abertas terminam quando o cliente
+     * fechar o socket.
+     */
+    @Override
+    public void close() {
+        try {
+            servidor.close();
+        } catch (IOException e) {
+            // Servidor já encerrado
+        }
+    }
+
+    /**
+     * Laço de aceitação de conexões.
+     */
+    private void aceitar() {
+        while (!servidor.isClosed()) {
+            try {
+                Socket socket = servidor.accept();
+                Thread.ofVirtual().start(() -> atender(socket));
+            } catch (IOException e) {
+                // Servidor encerrado
+            }
+        }
+    }
+
+    /**
+     * Atende uma conexão até que o cliente a encerre.
+     *
+     * @param socket conexão aceita
+     */
+    private void atender(Socket socket) {
+        try (socket) {
+            socket.setTcpNoDelay(true);
+            InputStream entrada = socket.getInputStream();
+            BufferedReader in = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8));
+            OutputStream out = new BufferedOutputStream(socket.getOutputStream());
+            Lock escrita = new ReentrantLock();
+            Assinante assinante = null;
+
+            try {
+                String linha;
+                while ((linha = in.readLine()) != null) {
+                    @SuppressWarnings("unchecked")
+                    Requisicao<Object> requisicao = JsonUtil.fromJson(linha, Requisicao.class);
+                    Formato formato = requisicao.getAcao() == Acao.NEGOCIAR && assinante == null
+                            ? Enquadramento.escolher(requisicao, formatos) : null;
+                    if (formato != null) {
+                        boolean compressao = Enquadramento.oferecido(requisicao);
+                        List<String> aceitos = compressao ? List.of(formato.getNome(), Enquadramento.DEFLATE) : List.of(formato.getNome());
+                        escrever(out, escrita, null, JsonUtil.toJsonBytes(new Resposta<>("sucesso", "Formato aceito", aceitos)), false);
+                        // O cliente só envia o primeiro quadro depois de ler a
+                        // resposta: o leitor de linhas não guardou nada além dela
+                        atenderQuadros(new DataInputStream(new BufferedInputStream(entrada)), out, escrita, formato,
+                                compressao ? Enquadramento.COMPRESSAO_MINIMA : 0);
+                        return;
+                    } else if (requisicao.getAcao() == Acao.ASSINAR && assinante == null) {
+                        // Registrado antes da confirmação: o que mudar a partir daqui fica na fila
+                        assinante = new Assinante(socket, out, escrita);
+                        assinantes.add(assinante);
+                        escrever(out, escrita, null, JsonUtil.toJsonBytes(new Resposta<>("sucesso", "Assinatura registrada", null)), false);
+                        Thread.ofVirtual().start(assinante::enviar);
+                    } else if (requisicao.getId() == null) {
+                        responder(out, escrita, null, 0, requisicao);
+                    } else {
+                        Thread.ofVirtual().start(() -> responder(out, escrita, null, 0, requisicao));
+                    }
+                }
+            } finally {
+                if (assinante != null) {
+                    assinantes.remove(assinante);
+                    assinante.encerrar();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // Cliente desconectado ou linha inválida: encerra a conexão
+        }
+    }
+
+    /**
+     * Atende uma conexão no modo de quadros até que o cliente a encerre.
+     *
+     * @param entrada fluxo de leitura dos quadros
+     * @param out fluxo de escrita da conexão
+     * @param escrita trava que serializa as respostas da conexão
+     * @param formato formato negociado
+     * @param compressaoMinima tamanho mínimo para comprimir uma resposta, ou
+     * zero se a compressão não foi acordada
+     * @throws IOException se a conexão falhar ou um quadro for inválido
+     */
+    private void atenderQuadros(DataInputStream entrada, OutputStream out, Lock escrita, Formato formato, int compressaoMinima)
+            throws IOException {
+        while (true) {
+            int cabecalho;
+            try {
+                cabecalho = Enquadramento.lerCabecalho(entrada);
+            } catch (EOFException e) {
+                return; // cliente encerrou a conexão
+            }
+            Requisicao<Object> requisicao = Enquadramento.ler(formato.leitor(REQUISICAO),
+                    Enquadramento.lerMensagem(entrada, cabecalho), Enquadramento.comprimido(cabecalho), null);
+            if (requisicao.getId() == null) {
+                responder(out, escrita, formato, compressaoMinima, requisicao);
+            } else {
+                Thread.ofVirtual().start(() -> responder(out, escrita, formato, compressaoMinima, requisicao));
+            }
+        }
+    }
+
+    /**
+     * Processa uma requisição e escreve a resposta na conexão.
+     *
+     * @param out fluxo de escrita da conexão, compartilhado entre as respostas
+     * @param escrita trava que serializa as respostas da conexão
+     * @param formato formato dos quadros, ou null no protocolo de linhas
+     * @param compressaoMinima tamanho mínimo para comprimir a resposta, ou
+     * zero para não comprimir
+     * @param requisicao requisição recebida
+     */
+    private void responder(OutputStream out, Lock escrita, Formato formato, int compressaoMinima, Requisicao<Object> requisicao) {
+        Resposta<?> resposta;
+        try {
+            if (atrasoMs > 0) {
+                Thread.sleep(atrasoMs);
+            }
+            resposta = processador.apply(requisicao);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            resposta = new Resposta<>("erro", "Servidor interrompido", null);
+        } catch (RuntimeException e) {
+            resposta = new Resposta<>("erro", e.getMessage(), null);
+        }
+        resposta.setId(requisicao.getId());
+
+        if (formato == null) {
+            escrever(out, escrita, null, JsonUtil.toJsonBytes(resposta), false);
+            return;
+        }
+        byte[] dados = formato.serializar(resposta);
+        // Comprimida antes de pegar a trava, sem atrasar as outras respostas
+        byte[] comprimido = Enquadramento.comprimir(dados, compressaoMinima, null);
+        escrever(out, escrita, formato, comprimido != null ? comprimido : dados, comprimido != null);
+    }
+
+    /**
+     * Escreve uma mensagem na conexão, como linha ou como quadro.
+     *
+     * @param out fluxo de escrita da conexão
+     * @param escrita trava que serializa as mensagens da conexão
+     * @param formato formato dos quadros, ou null no protocolo de linhas
+     * @param dados mensagem já serializada
+     * @param comprimido true se {@code dados} for um quadro comprimido
+     */
+    private static void escrever(OutputStream out, Lock escrita, Formato formato, byte[] dados, boolean comprimido) {
+        // Trava explícita em vez de synchronized: uma escrita bloqueada dentro de
+        // synchronized prende a thread portadora da thread virtual e, com um
+        // único processador, impede o cliente no mesmo processo de ler a resposta
+        escrita.lock();
+        try {
+            if (formato == null) {
+                out.write(dados);
+                out.write('\n');
+            } else {
+                Enquadramento.escrever(out, dados, comprimido);
+            }
+            out.flush();
+        } catch (IOException e) {
+            // Cliente desconectado
+        } finally {
+            escrita.unlock();
+        }
+    }
+
+    /**
+     * Conexão que assinou as notificações, com a fila das linhas ainda não
+     * enviadas.
+     */
+    private static final class Assinante {
+
+        /**
+         * Marcador colocado na fila para encerrar a thread de envio.
+         */
+        private static final byte[] FIM = new byte[0];
+
+        private final Socket socket;
+        private final OutputStream out;
+        private final Lock escrita;
+        private final BlockingQueue<byte[]> fila = new LinkedBlockingQueue<>(LIMITE_FILA);
+
+        private Assinante(Socket socket, OutputStream out, Lock escrita) {
+            this.socket = socket;
+            this.out = out;
+            this.escrita = escrita;
+        }
+
+        /**
+         * Laço da thread de envio: escreve as linhas enfileiradas, com um
+         * único envio ao socket para cada rajada.
+         */
+        private void enviar() {
+            try {
+                while (true) {
+                    byte[] json = fila.take();
+                    escrita.lock();
+                    try {
+                        while (json != null) {
+                            if (json == FIM) {
+                                return;
+                            }
+                            out.write(json);
+                            out.write('\n');
+                            json = fila.poll();
+                        }
+                        out.flush();
+                    } finally {
+                        escrita.unlock();
+                    }
+                }
+            } catch (IOException | InterruptedException e) {
+                encerrar();
+            }
+        }
+
+        /**
+         * Fecha a conexão e encerra a thread de envio.
+         */
+        private void encerrar() {
+            fila.clear();
+            fila.offer(FIM);
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // Conexão já encerrada
+            }
+        }
+    }
+
+    /**
+     * Inicia um servidor local independente, útil para usar a interface sem o
+     * backend real.
+     *
+     * <p>
+     * Argumentos opcionais: porta (padrão 3001), atraso por requisição em
+     * milissegundos (padrão 0) e formatos de quadro aceitos, separados por
+     * vírgula (padrão: todos os disponíveis; {@code linhas} para nenhum).</p>
+     *
+     * @param args argumentos de linha de comando
+     * @throws Exception se não for possível iniciar o servidor
+     */
+    public static void main(String[] args) throws Exception {
+        int porta = args.length > 0 ? Integer.parseInt(args[0]) : 3001;
+        long atraso = args.length > 1 ? Long.parseLong(args[1]) : 0;
+        List<Formato> formatos = Formato.disponiveis(args.length > 2 ? args[2] : "json,smile,cbor");
+        ServidorLocal servidor = new ServidorLocal(porta, new ProcessadorLocal(), atraso, formatos);
+        System.out.println("Servidor local escutando na porta " + servidor.getPorta());
+        Thread.currentThread().join();
+    }
+}
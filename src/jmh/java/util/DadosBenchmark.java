@@ -0,0 +1,60 @@
+package util;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import modelo.Produto;
+import modelo.Relatorio;
+
+/**
+ * Massas de dados realistas compartilhadas pelos benchmarks.
+ *
+ * <p>
+ * Os valores seguem o formato dos dados do servidor real: nomes acentuados,
+ * preços com centavos e movimentações com data, de modo que serialização,
+ * normalização e geração de PDF trabalhem sobre conteúdo representativo.</p>
+ */
+public class DadosBenchmark {
+
+    /**
+     * Nomes usados nos produtos gerados.
+     */
+    private static final String[] NOMES = {"Água Mineral", "Refrigerante Limão", "Suco de Maçã", "Cerveja Puro Malte", "Café Torrado"};
+
+    /**
+     * Construtor privado para impedir instanciação da classe.
+     */
+    private DadosBenchmark() {
+        // Impede instanciação
+    }
+
+    /**
+     * Gera uma lista de produtos.
+     *
+     * @param quantidade número de produtos
+     * @return produtos com identificadores a partir de 1
+     */
+    public static List<Produto> produtos(int quantidade) {
+        List<Produto> produtos = new ArrayList<>(quantidade);
+        for (int i = 1; i <= quantidade; i++) {
+            produtos.add(new Produto(i, NOMES[i % NOMES.length] + " " + i, 4.99 + i % 100, "UN", 1 + i % 10, 50, 10, 100));
+        }
+        return produtos;
+    }
+
+    /**
+     * Gera uma lista de linhas de relatório.
+     *
+     * @param quantidade número de linhas
+     * @return linhas de relatório com identificadores a partir de 1
+     */
+    public static List<Relatorio> relatorios(int quantidade) {
+        List<Relatorio> relatorios = new ArrayList<>(quantidade);
+        long agora = System.currentTimeMillis();
+        for (int i = 1; i <= quantidade; i++) {
+            relatorios.add(new Relatorio(i, 1 + i % 500, NOMES[i % NOMES.length] + " " + (1 + i % 500), 1 + i % 40,
+                    i % 2 == 0 ? "ENTRADA" : "SAIDA", "DENTRO", new Date(agora - i * 60_000L)));
+        }
+        return relatorios;
+    }
+}
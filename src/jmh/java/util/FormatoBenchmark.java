@@ -0,0 +1,104 @@
+package util;
+
+import com.fasterxml.jackson.databind.JavaType;
+import dto.Resposta;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import modelo.Relatorio;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compara os formatos do modo de quadros na listagem do relatório.
+ *
+ * <p>
+ * Mede a codificação e a leitura tipada de uma resposta com as linhas do
+ * relatório em cada {@link Formato}. O tamanho da mensagem codificada é
+ * escrito no console na preparação, para comparar os bytes trafegados.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FormatoBenchmark {
+
+    /**
+     * Formato medido.
+     */
+    @Param({"json", "smile", "cbor"})
+    public String formato;
+
+    /**
+     * Quantidade de linhas do relatório.
+     */
+    @Param({"50000"})
+    public int linhas;
+
+    /**
+     * Formato correspondente ao parâmetro.
+     */
+    private Formato codificacao;
+
+    /**
+     * Resposta com as linhas do relatório.
+     */
+    private Resposta<List<Relatorio>> resposta;
+
+    /**
+     * Resposta já codificada no formato.
+     */
+    private byte[] quadro;
+
+    /**
+     * Tipo da listagem de relatório.
+     */
+    private JavaType tipoRelatorio;
+
+    /**
+     * Prepara a resposta e a sua codificação.
+     */
+    @Setup
+    public void preparar() {
+        codificacao = Formato.porNome(formato);
+        if (!codificacao.isDisponivel()) {
+            throw new IllegalStateException("Formato " + formato + " indisponível no classpath");
+        }
+        resposta = new Resposta<>("sucesso", "Relatório gerado", DadosBenchmark.relatorios(linhas));
+        quadro = codificacao.serializar(resposta);
+        tipoRelatorio = JsonUtil.tipo(Resposta.class, JsonUtil.tipoLista(Relatorio.class));
+        System.out.println("Tamanho em " + formato + ": " + quadro.length + " bytes");
+    }
+
+    /**
+     * Codificação da resposta.
+     *
+     * @return bytes codificados
+     */
+    @Benchmark
+    public byte[] serializar() {
+        return codificacao.serializar(resposta);
+    }
+
+    /**
+     * Leitura tipada da resposta a partir do quadro recebido.
+     *
+     * @return resposta tipada
+     * @throws IOException se a leitura falhar
+     */
+    @Benchmark
+    public Resposta<List<Relatorio>> desserializar() throws IOException {
+        return codificacao.leitor(tipoRelatorio).readValue(quadro);
+    }
+}
@@ -0,0 +1,164 @@
+package util;
+
+import com.fasterxml.jackson.databind.JavaType;
+import dto.Requisicao;
+import dto.Resposta;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import modelo.Produto;
+import modelo.Relatorio;
+import modelo.enums.Acao;
+import modelo.enums.Entidade;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mede a serialização das requisições e a leitura das respostas.
+ *
+ * <p>
+ * Compara o caminho antigo de leitura (texto da linha, {@code Map} genérico e
+ * conversão com {@link JsonUtil#converter}) com a leitura tipada direto do
+ * fluxo usada pelo {@code ClientSocket}, para listas de produtos e de linhas
+ * de relatório.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonUtilBenchmark {
+
+    /**
+     * Quantidade de itens nas respostas de listagem.
+     */
+    @Param({"10", "1000"})
+    public int itens;
+
+    /**
+     * Requisição de criação de produto.
+     */
+    private Requisicao<Produto> requisicao;
+
+    /**
+     * Linha JSON de uma listagem de produtos.
+     */
+    private String linhaProdutos;
+
+    /**
+     * Bytes da listagem de produtos.
+     */
+    private byte[] bytesProdutos;
+
+    /**
+     * Linha JSON de uma listagem de relatório.
+     */
+    private String linhaRelatorio;
+
+    /**
+     * Bytes da listagem de relatório.
+     */
+    private byte[] bytesRelatorio;
+
+    /**
+     * Tipo da listagem de produtos.
+     */
+    private JavaType tipoProdutos;
+
+    /**
+     * Tipo da listagem de relatório.
+     */
+    private JavaType tipoRelatorio;
+
+    /**
+     * Prepara as massas de dados.
+     */
+    @Setup
+    public void preparar() {
+        requisicao = new Requisicao<>(Acao.CRIAR, Entidade.PRODUTO, DadosBenchmark.produtos(1).get(0));
+        linhaProdutos = JsonUtil.toJson(new Resposta<>("sucesso", "Produtos listados", DadosBenchmark.produtos(itens)));
+        bytesProdutos = (linhaProdutos + "\n").getBytes(StandardCharsets.UTF_8);
+        linhaRelatorio = JsonUtil.toJson(new Resposta<>("sucesso", "Relatório gerado", DadosBenchmark.relatorios(itens)));
+        bytesRelatorio = (linhaRelatorio + "\n").getBytes(StandardCharsets.UTF_8);
+        tipoProdutos = JsonUtil.tipo(Resposta.class, JsonUtil.tipoLista(Produto.class));
+        tipoRelatorio = JsonUtil.tipo(Resposta.class, JsonUtil.tipoLista(Relatorio.class));
+    }
+
+    /**
+     * Serialização de uma requisição para texto.
+     *
+     * @return linha JSON
+     */
+    @Benchmark
+    public String toJsonRequisicao() {
+        return JsonUtil.toJson(requisicao);
+    }
+
+    /**
+     * Serialização de uma requisição direto para bytes.
+     *
+     * @return bytes JSON
+     */
+    @Benchmark
+    public byte[] toJsonBytesRequisicao() {
+        return JsonUtil.toJsonBytes(requisicao);
+    }
+
+    /**
+     * Leitura genérica de uma listagem de produtos.
+     *
+     * @return resposta com os dados como {@code Map}
+     */
+    @Benchmark
+    public Resposta<?> fromJsonProdutos() {
+        return JsonUtil.fromJson(linhaProdutos, Resposta.class);
+    }
+
+    /**
+     * Caminho antigo: leitura genérica seguida da conversão de cada
+     * {@code Map} em {@link Relatorio}.
+     *
+     * @return linhas de relatório
+     */
+    @Benchmark
+    public Relatorio[] converterMapParaRelatorio() {
+        Resposta<?> resposta = JsonUtil.fromJson(linhaRelatorio, Resposta.class);
+        return JsonUtil.converter(resposta.getDados(), Relatorio[].class);
+    }
+
+    /**
+     * Caminho atual: leitura tipada de uma listagem de produtos direto do
+     * fluxo.
+     *
+     * @return resposta tipada
+     * @throws IOException se a leitura falhar
+     */
+    @Benchmark
+    public Resposta<List<Produto>> lerProdutosTipado() throws IOException {
+        return JsonUtil.ler(JsonUtil.abrirLeitura(new ByteArrayInputStream(bytesProdutos)), tipoProdutos);
+    }
+
+    /**
+     * Caminho atual: leitura tipada de uma listagem de relatório direto do
+     * fluxo.
+     *
+     * @return resposta tipada
+     * @throws IOException se a leitura falhar
+     */
+    @Benchmark
+    public Resposta<List<Relatorio>> lerRelatorioTipado() throws IOException {
+        return JsonUtil.ler(JsonUtil.abrirLeitura(new ByteArrayInputStream(bytesRelatorio)), tipoRelatorio);
+    }
+}
@@ -0,0 +1,80 @@
+package util;
+
+import java.text.Normalizer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mede a normalização de nomes usada na busca e na verificação de
+ * duplicidade.
+ *
+ * <p>
+ * Os métodos {@code *Anterior} reproduzem a implementação original, com a
+ * expressão regular compilada a cada chamada, para comparação.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TextoUtilBenchmark {
+
+    /**
+     * Texto de entrada: só ASCII, acentuado, com espaços nas pontas ou com
+     * caracteres fora do Latin-1.
+     */
+    @Param({"Cerveja Puro Malte", "Refrigerante de Limão Açúcar", "  água mineral sem gás  ", "Ḿaçã ẞ Ŝabão"})
+    public String texto;
+
+    /**
+     * Normalização completa (acentos, espaços e maiúsculas).
+     *
+     * @return texto normalizado
+     */
+    @Benchmark
+    public String normalizar() {
+        return TextoUtil.normalizar(texto);
+    }
+
+    /**
+     * Remoção de acentos apenas.
+     *
+     * @return texto sem acentos
+     */
+    @Benchmark
+    public String removerAcentos() {
+        return TextoUtil.removerAcentos(texto);
+    }
+
+    /**
+     * Normalização completa pela implementação original.
+     *
+     * @return texto normalizado
+     */
+    @Benchmark
+    public String normalizarAnterior() {
+        return Normalizer.normalize(texto, Normalizer.Form.NFD)
+                .replaceAll("\\p{InCombiningDiacriticalMarks}+", "").trim().toUpperCase();
+    }
+
+    /**
+     * Remoção de acentos pela implementação original.
+     *
+     * @return texto sem acentos
+     */
+    @Benchmark
+    public String removerAcentosAnterior() {
+        return Normalizer.normalize(texto, Normalizer.Form.NFD)
+                .replaceAll("\\p{InCombiningDiacriticalMarks}+", "");
+    }
+}
@@ -0,0 +1,117 @@
+package visao;
+
+import dto.Pagina;
+import dto.Resposta;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import modelo.Relatorio;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import servico.Paginador;
+import util.DadosBenchmark;
+
+/**
+ * Mede a geração do PDF de movimentações de {@link FrmEmitirRelatorio}.
+ *
+ * <p>
+ * Os dados vêm de uma lista em memória, servida ao {@link Paginador} em
+ * páginas do mesmo tamanho usado contra o servidor, de modo que apenas a
+ * montagem e a escrita do documento sejam medidas. O requisito RNF01 pede o
+ * relatório em até 3 segundos.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Djava.awt.headless=true", "-Xmx256m"})
+public class GerarPdfBenchmark {
+
+    /**
+     * Tamanho das páginas servidas ao paginador.
+     */
+    private static final int LIMITE = 500;
+
+    /**
+     * Quantidade de linhas do relatório.
+     */
+    @Param({"1000", "10000", "100000"})
+    public int linhas;
+
+    /**
+     * Linhas do relatório.
+     */
+    private List<Relatorio> relatorios;
+
+    /**
+     * Arquivo de saída temporário.
+     */
+    private File arquivo;
+
+    /**
+     * Prepara os dados e o arquivo de saída.
+     *
+     * @throws IOException se o arquivo temporário não puder ser criado
+     */
+    @Setup
+    public void preparar() throws IOException {
+        relatorios = DadosBenchmark.relatorios(linhas);
+        arquivo = File.createTempFile("relatorio-benchmark", ".pdf");
+    }
+
+    /**
+     * Remove o arquivo de saída.
+     */
+    @TearDown
+    public void encerrar() {
+        arquivo.delete();
+    }
+
+    /**
+     * Gera o relatório completo.
+     *
+     * @return tamanho do arquivo gerado
+     * @throws Exception se a geração falhar
+     */
+    @Benchmark
+    public long gerarPdf() throws Exception {
+        FrmEmitirRelatorio.gerarPdf(paginador(), arquivo.getAbsolutePath(), new GerenciadorTarefas.Progresso() {
+            @Override
+            public void informar(int percentual) {
+            }
+
+            @Override
+            public boolean cancelado() {
+                return false;
+            }
+        });
+        return arquivo.length();
+    }
+
+    /**
+     * Cria um paginador que serve a lista em memória com cursores numéricos.
+     *
+     * @return paginador sobre as linhas do relatório
+     */
+    private Paginador<Relatorio> paginador() {
+        return new Paginador<>("relatório", cursor -> {
+            int inicio = cursor == null ? 0 : Integer.parseInt(cursor);
+            int fim = Math.min(relatorios.size(), inicio + LIMITE);
+            String proximo = fim < relatorios.size() ? String.valueOf(fim) : null;
+            Pagina<Relatorio> pagina = new Pagina<>(relatorios.subList(inicio, fim), null, LIMITE, (long) relatorios.size(), proximo);
+            return new Resposta<>("sucesso", "Relatório gerado", pagina);
+        });
+    }
+}
@@ -1,8 +1,14 @@
 package controlador;
 
+import dto.Alteracoes;
+import dto.Notificacao;
 import dto.Resposta;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import modelo.Categoria;
 import servico.CategoriaServico;
+import socket.CanalNotificacoes;
 
 /**
  * Controlador responsável por gerenciar as operações relacionadas a categorias.
@@ -43,10 +49,21 @@ public class CategoriaControlador {
      * @return uma {@link Resposta} contendo o resultado da operação (sucesso ou
      * erro)
      */
-    public Resposta<?> criarCategoria(Categoria categoria) {
+    public Resposta<Categoria> criarCategoria(Categoria categoria) {
         return servico.criarCategoria(categoria);
     }
 
+    /**
+     * Versão assíncrona de {@link #criarCategoria(Categoria)}.
+     *
+     * @param categoria objeto Categoria contendo os dados da categoria a ser
+     * criada
+     * @return futuro com a {@link Resposta} da operação
+     */
+    public CompletableFuture<Resposta<Categoria>> criarCategoriaAsync(Categoria categoria) {
+        return servico.criarCategoriaAsync(categoria);
+    }
+
     /**
      * Atualiza os dados de uma categoria existente no sistema.
      *
@@ -59,6 +76,17 @@ public class CategoriaControlador {
         return servico.atualizarCategoria(categoria);
     }
 
+    /**
+     * Versão assíncrona de {@link #atualizarCategoria(Categoria)}.
+     *
+     * @param categoria objeto Categoria contendo os dados atualizados da
+     * categoria
+     * @return futuro com a {@link Resposta} da operação
+     */
+    public CompletableFuture<Resposta<?>> atualizarCategoriaAsync(Categoria categoria) {
+        return servico.atualizarCategoriaAsync(categoria);
+    }
+
     /**
      * Remove uma categoria do sistema com base no ID fornecido.
      *
@@ -70,6 +98,85 @@ public class CategoriaControlador {
         return servico.deletarCategoria(id);
     }
 
+    /**
+     * Versão assíncrona de {@link #deletarCategoria(Integer)}.
+     *
+     * @param id identificador único da categoria a ser removida
+     * @return futuro com a {@link Resposta} da operação
+     */
+    public CompletableFuture<Resposta<?>> deletarCategoriaAsync(Integer id) {
+        return servico.deletarCategoriaAsync(id);
+    }
+
+    /**
+     * Cria várias categorias em uma única requisição.
+     *
+     * @param categorias categorias a serem criadas, na ordem
+     * @param tudoOuNada true para desfazer todo o lote na primeira falha
+     * @return uma {@link Resposta} contendo o resultado de cada operação, na
+     * mesma ordem
+     */
+    public Resposta<List<Resposta<Categoria>>> criarCategorias(List<Categoria> categorias, boolean tudoOuNada) {
+        return servico.criarCategorias(categorias, tudoOuNada);
+    }
+
+    /**
+     * Versão assíncrona de {@link #criarCategorias(List, boolean)}.
+     *
+     * @param categorias categorias a serem criadas, na ordem
+     * @param tudoOuNada true para desfazer todo o lote na primeira falha
+     * @return futuro com a {@link Resposta} da operação
+     */
+    public CompletableFuture<Resposta<List<Resposta<Categoria>>>> criarCategoriasAsync(List<Categoria> categorias, boolean tudoOuNada) {
+        return servico.criarCategoriasAsync(categorias, tudoOuNada);
+    }
+
+    /**
+     * Atualiza várias categorias em uma única requisição.
+     *
+     * @param categorias categorias com os dados atualizados, na ordem
+     * @param tudoOuNada true para desfazer todo o lote na primeira falha
+     * @return uma {@link Resposta} contendo o resultado de cada operação, na
+     * mesma ordem
+     */
+    public Resposta<List<Resposta<Categoria>>> atualizarCategorias(List<Categoria> categorias, boolean tudoOuNada) {
+        return servico.atualizarCategorias(categorias, tudoOuNada);
+    }
+
+    /**
+     * Versão assíncrona de {@link #atualizarCategorias(List, boolean)}.
+     *
+     * @param categorias categorias com os dados atualizados, na ordem
+     * @param tudoOuNada true para desfazer todo o lote na primeira falha
+     * @return futuro com a {@link Resposta} da operação
+     */
+    public CompletableFuture<Resposta<List<Resposta<Categoria>>>> atualizarCategoriasAsync(List<Categoria> categorias, boolean tudoOuNada) {
+        return servico.atualizarCategoriasAsync(categorias, tudoOuNada);
+    }
+
+    /**
+     * Remove várias categorias em uma única requisição.
+     *
+     * @param ids identificadores das categorias a serem removidas, na ordem
+     * @param tudoOuNada true para desfazer todo o lote na primeira falha
+     * @return uma {@link Resposta} contendo o resultado de cada operação, na
+     * mesma ordem
+     */
+    public Resposta<List<Resposta<Categoria>>> deletarCategorias(List<Integer> ids, boolean tudoOuNada) {
+        return servico.deletarCategorias(ids, tudoOuNada);
+    }
+
+    /**
+     * Versão assíncrona de {@link #deletarCategorias(List, boolean)}.
+     *
+     * @param ids identificadores das categorias a serem removidas, na ordem
+     * @param tudoOuNada true para desfazer todo o lote na primeira falha
+     * @return futuro com a {@link Resposta} da operação
+     */
+    public CompletableFuture<Resposta<List<Resposta<Categoria>>>> deletarCategoriasAsync(List<Integer> ids, boolean tudoOuNada) {
+        return servico.deletarCategoriasAsync(ids, tudoOuNada);
+    }
+
     /**
      * Busca uma categoria específica no sistema.
      *
@@ -77,17 +184,98 @@ public class CategoriaControlador {
      * @return uma {@link Resposta} contendo a categoria encontrada ou mensagem
      * de erro
      */
-    public Resposta<?> encontrarCategoria(Categoria categoria) {
+    public Resposta<Categoria> encontrarCategoria(Categoria categoria) {
         return servico.encontrarCategoria(categoria);
     }
 
+    /**
+     * Versão assíncrona de {@link #encontrarCategoria(Categoria)}.
+     *
+     * @param categoria objeto Categoria contendo os critérios de busca
+     * @return futuro com a {@link Resposta} da operação
+     */
+    public CompletableFuture<Resposta<Categoria>> encontrarCategoriaAsync(Categoria categoria) {
+        return servico.encontrarCategoriaAsync(categoria);
+    }
+
     /**
      * Lista todas as categorias cadastradas no sistema.
      *
      * @return uma {@link Resposta} contendo a lista de categorias ou mensagem
      * de erro
      */
-    public Resposta<?> listarCategoria() {
+    public Resposta<List<Categoria>> listarCategoria() {
         return servico.listarCategoria();
     }
+
+    /**
+     * Versão assíncrona de {@link #listarCategoria()}.
+     *
+     * @return futuro com a {@link Resposta} da operação
+     */
+    public CompletableFuture<Resposta<List<Categoria>>> listarCategoriaAsync() {
+        return servico.listarCategoriaAsync();
+    }
+
+    /**
+     * Verifica, sem ir ao servidor, se outra categoria já usa o nome
+     * informado (RN01).
+     *
+     * @param categoria categoria com o nome; em alterações, com o próprio id
+     * @return true se o nome já estiver em uso por outra categoria
+     */
+    public boolean nomeEmUso(Categoria categoria) {
+        return servico.nomeEmUso(categoria);
+    }
+
+    /**
+     * Obtém as alterações de categorias desde uma versão conhecida.
+     *
+     * @param desdeVersao última versão conhecida, ou 0 para a listagem completa
+     * @return uma Resposta contendo as alterações e a nova versão
+     */
+    public Resposta<Alteracoes<Categoria>> sincronizar(long desdeVersao) {
+        return servico.sincronizar(desdeVersao);
+    }
+
+    /**
+     * Versão assíncrona de {@link #sincronizar(long)}.
+     *
+     * @param desdeVersao última versão conhecida, ou 0 para a listagem completa
+     * @return futuro com a resposta do servidor
+     */
+    public CompletableFuture<Resposta<Alteracoes<Categoria>>> sincronizarAsync(long desdeVersao) {
+        return servico.sincronizarAsync(desdeVersao);
+    }
+
+    /**
+     * Lê a última listagem de categorias guardada em disco, sem ir ao servidor.
+     *
+     * @return listagem completa guardada, com a sua versão, ou null se não
+     * houver
+     */
+    public Alteracoes<Categoria> lerCopiaLocal() {
+        return servico.lerCopiaLocal();
+    }
+
+    /**
+     * Obtém o instante em que as categorias guardadas em disco foram recebidas
+     * do servidor pela última vez.
+     *
+     * @return milissegundos desde a época, ou 0 se não houver cópia
+     */
+    public long copiaLocalAtualizadaEm() {
+        return servico.copiaLocalAtualizadaEm();
+    }
+
+    /**
+     * Acompanha as alterações de categorias feitas por qualquer cliente.
+     *
+     * @param ouvinte ação chamada para cada notificação, fora da thread de
+     * eventos
+     * @return assinatura, a ser fechada quando a tela for encerrada
+     */
+    public CanalNotificacoes.Assinatura ouvirAlteracoes(Consumer<Notificacao<Categoria>> ouvinte) {
+        return servico.ouvirAlteracoes(ouvinte);
+    }
 }
@@ -1,8 +1,15 @@
 package controlador;
 
+import dto.Alteracoes;
+import dto.Notificacao;
 import dto.Resposta;
+import dto.SaldoEstoque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import modelo.Produto;
 import servico.ProdutoServico;
+import socket.CanalNotificacoes;
 
 /**
  * Controlador responsável por gerenciar as operações relacionadas a produtos.
@@ -14,7 +21,7 @@ import servico.ProdutoServico;
  *
  * <p>
  * Fornece métodos para operações CRUD básicas e operações específicas de ajuste
- * de preços dos produtos.</p>
+ * de preços e movimentação de estoque dos produtos.</p>
  */
 public class ProdutoControlador {
 
@@ -42,10 +49,20 @@ public class ProdutoControlador {
      * @return uma {@link Resposta} contendo o resultado da operação (sucesso ou
      * erro)
      */
-    public Resposta<?> criarProduto(Produto produto) {
+    public Resposta<Produto> criarProduto(Produto produto) {
         return servico.criarProduto(produto);
     }
 
+    /**
+     * Versão assíncrona de {@link #criarProduto(Produto)}.
+     *
+     * @param produto objeto Produto contendo os dados do produto a ser criado
+     * @return futuro com a {@link Resposta} da operação
+     */
+    public CompletableFuture<Resposta<Produto>> criarProdutoAsync(Produto produto) {
+        return servico.criarProdutoAsync(produto);
+    }
+
     /**
      * Atualiza os dados de um produto existente no sistema.
      *
@@ -57,6 +74,16 @@ public class ProdutoControlador {
         return servico.atualizarProduto(produto);
     }
 
+    /**
+     * Versão assíncrona de {@link #atualizarProduto(Produto)}.
+     *
+     * @param produto objeto Produto contendo os dados atualizados do produto
+     * @return futuro com a {@link Resposta} da operação
+     */
+    public CompletableFuture<Resposta<?>> atualizarProdutoAsync(Produto produto) {
+        return servico.atualizarProdutoAsync(produto);
+    }
+
     /**
      * Remove um produto do sistema com base no ID fornecido.
      *
@@ -68,6 +95,85 @@ public class ProdutoControlador {
         return servico.deletarProduto(id);
     }
 
+    /**
+     * Versão assíncrona de {@link #deletarProduto(Integer)}.
+     *
+     * @param id identificador único do produto a ser removido
+     * @return futuro com a {@link Resposta} da operação
+     */
+    public CompletableFuture<Resposta<?>> deletarProdutoAsync(Integer id) {
+        return servico.deletarProdutoAsync(id);
+    }
+
+    /**
+     * Cria vários produtos em uma única requisição.
+     *
+     * @param produtos produtos a serem criados, na ordem
+     * @param tudoOuNada true para desfazer todo o lote na primeira falha
+     * @return uma {@link Resposta} contendo o resultado de cada operação, na
+     * mesma ordem
+     */
+    public Resposta<List<Resposta<Produto>>> criarProdutos(List<Produto> produtos, boolean tudoOuNada) {
+        return servico.criarProdutos(produtos, tudoOuNada);
+    }
+
+    /**
+     * Versão assíncrona de {@link #criarProdutos(List, boolean)}.
+     *
+     * @param produtos produtos a serem criados, na ordem
+     * @param tudoOuNada true para desfazer todo o lote na primeira falha
+     * @return futuro com a {@link Resposta} da operação
+     */
+    public CompletableFuture<Resposta<List<Resposta<Produto>>>> criarProdutosAsync(List<Produto> produtos, boolean tudoOuNada) {
+        return servico.criarProdutosAsync(produtos, tudoOuNada);
+    }
+
+    /**
+     * Atualiza vários produtos em uma única requisição.
+     *
+     * @param produtos produtos com os dados atualizados, na ordem
+     * @param tudoOuNada true para desfazer todo o lote na primeira falha
+     * @return uma {@link Resposta} contendo o resultado de cada operação, na
+     * mesma ordem
+     */
+    public Resposta<List<Resposta<Produto>>> atualizarProdutos(List<Produto> produtos, boolean tudoOuNada) {
+        return servico.atualizarProdutos(produtos, tudoOuNada);
+    }
+
+    /**
+     * Versão assíncrona de {@link #atualizarProdutos(List, boolean)}.
+     *
+     * @param produtos produtos com os dados atualizados, na ordem
+     * @param tudoOuNada true para desfazer todo o lote na primeira falha
+     * @return futuro com a {@link Resposta} da operação
+     */
+    public CompletableFuture<Resposta<List<Resposta<Produto>>>> atualizarProdutosAsync(List<Produto> produtos, boolean tudoOuNada) {
+        return servico.atualizarProdutosAsync(produtos, tudoOuNada);
+    }
+
+    /**
+     * Remove vários produtos em uma única requisição.
+     *
+     * @param ids identificadores dos produtos a serem removidos, na ordem
+     * @param tudoOuNada true para desfazer todo o lote na primeira falha
+     * @return uma {@link Resposta} contendo o resultado de cada operação, na
+     * mesma ordem
+     */
+    public Resposta<List<Resposta<Produto>>> deletarProdutos(List<Integer> ids, boolean tudoOuNada) {
+        return servico.deletarProdutos(ids, tudoOuNada);
+    }
+
+    /**
+     * Versão assíncrona de {@link #deletarProdutos(List, boolean)}.
+     *
+     * @param ids identificadores dos produtos a serem removidos, na ordem
+     * @param tudoOuNada true para desfazer todo o lote na primeira falha
+     * @return futuro com a {@link Resposta} da operação
+     */
+    public CompletableFuture<Resposta<List<Resposta<Produto>>>> deletarProdutosAsync(List<Integer> ids, boolean tudoOuNada) {
+        return servico.deletarProdutosAsync(ids, tudoOuNada);
+    }
+
     /**
      * Busca um produto específico no sistema.
      *
@@ -75,20 +181,65 @@ public class ProdutoControlador {
      * @return uma {@link Resposta} contendo o produto encontrado ou mensagem de
      * erro
      */
-    public Resposta<?> encontrarProduto(Produto produto) {
+    public Resposta<Produto> encontrarProduto(Produto produto) {
         return servico.encontrarProduto(produto);
     }
 
+    /**
+     * Versão assíncrona de {@link #encontrarProduto(Produto)}.
+     *
+     * @param produto objeto Produto contendo os critérios de busca
+     * @return futuro com a {@link Resposta} da operação
+     */
+    public CompletableFuture<Resposta<Produto>> encontrarProdutoAsync(Produto produto) {
+        return servico.encontrarProdutoAsync(produto);
+    }
+
     /**
      * Lista todos os produtos cadastrados no sistema.
      *
      * @return uma {@link Resposta} contendo a lista de produtos ou mensagem de
      * erro
      */
-    public Resposta<?> listarProduto() {
+    public Resposta<List<Produto>> listarProduto() {
         return servico.listarProduto();
     }
 
+    /**
+     * Versão assíncrona de {@link #listarProduto()}.
+     *
+     * @return futuro com a {@link Resposta} da operação
+     */
+    public CompletableFuture<Resposta<List<Produto>>> listarProdutoAsync() {
+        return servico.listarProdutoAsync();
+    }
+
+    /**
+     * Movimenta o estoque de um produto, aplicando a variação de forma atômica
+     * no servidor.
+     *
+     * @param produtoId identificador do produto movimentado
+     * @param delta variação da quantidade: positiva para entrada, negativa
+     * para saída
+     * @return uma {@link Resposta} contendo o {@link SaldoEstoque} resultante
+     * ou mensagem de erro
+     */
+    public Resposta<SaldoEstoque> movimentarEstoque(Integer produtoId, int delta) {
+        return servico.movimentarEstoque(produtoId, delta);
+    }
+
+    /**
+     * Versão assíncrona de {@link #movimentarEstoque(Integer, int)}.
+     *
+     * @param produtoId identificador do produto movimentado
+     * @param delta variação da quantidade: positiva para entrada, negativa
+     * para saída
+     * @return futuro com a {@link Resposta} da operação
+     */
+    public CompletableFuture<Resposta<SaldoEstoque>> movimentarEstoqueAsync(Integer produtoId, int delta) {
+        return servico.movimentarEstoqueAsync(produtoId, delta);
+    }
+
     /**
      * Aumenta o preço de todos os produtos por um percentual específico.
      *
@@ -100,6 +251,16 @@ public class ProdutoControlador {
         return servico.aumentarPrecoProduto(percentual);
     }
 
+    /**
+     * Versão assíncrona de {@link #aumentarPrecoProduto(Double)}.
+     *
+     * @param percentual valor percentual a ser aplicado no aumento dos preços
+     * @return futuro com a {@link Resposta} da operação
+     */
+    public CompletableFuture<Resposta<?>> aumentarPrecoProdutoAsync(Double percentual) {
+        return servico.aumentarPrecoProdutoAsync(percentual);
+    }
+
     /**
      * Diminui o preço de todos os produtos por um percentual específico.
      *
@@ -110,4 +271,77 @@ public class ProdutoControlador {
     public Resposta<?> diminuirPrecoProduto(Double percentual) {
         return servico.diminuirPrecoProduto(percentual);
     }
+
+    /**
+     * Versão assíncrona de {@link #diminuirPrecoProduto(Double)}.
+     *
+     * @param percentual valor percentual a ser aplicado na redução dos preços
+     * @return futuro com a {@link Resposta} da operação
+     */
+    public CompletableFuture<Resposta<?>> diminuirPrecoProdutoAsync(Double percentual) {
+        return servico.diminuirPrecoProdutoAsync(percentual);
+    }
+
+    /**
+     * Verifica, sem ir ao servidor, se outro produto da mesma categoria já
+     * usa o nome informado (RN11).
+     *
+     * @param produto produto com categoria e nome; em alterações, com o
+     * próprio id
+     * @return true se o nome já estiver em uso por outro produto da categoria
+     */
+    public boolean nomeEmUso(Produto produto) {
+        return servico.nomeEmUso(produto);
+    }
+
+    /**
+     * Obtém as alterações de produtos desde uma versão conhecida.
+     *
+     * @param desdeVersao última versão conhecida, ou 0 para a listagem completa
+     * @return uma Resposta contendo as alterações e a nova versão
+     */
+    public Resposta<Alteracoes<Produto>> sincronizar(long desdeVersao) {
+        return servico.sincronizar(desdeVersao);
+    }
+
+    /**
+     * Versão assíncrona de {@link #sincronizar(long)}.
+     *
+     * @param desdeVersao última versão conhecida, ou 0 para a listagem completa
+     * @return futuro com a resposta do servidor
+     */
+    public CompletableFuture<Resposta<Alteracoes<Produto>>> sincronizarAsync(long desdeVersao) {
+        return servico.sincronizarAsync(desdeVersao);
+    }
+
+    /**
+     * Lê a última listagem de produtos guardada em disco, sem ir ao servidor.
+     *
+     * @return listagem completa guardada, com a sua versão, ou null se não
+     * houver
+     */
+    public Alteracoes<Produto> lerCopiaLocal() {
+        return servico.lerCopiaLocal();
+    }
+
+    /**
+     * Obtém o instante em que os produtos guardados em disco foram recebidos
+     * do servidor pela última vez.
+     *
+     * @return milissegundos desde a época, ou 0 se não houver cópia
+     */
+    public long copiaLocalAtualizadaEm() {
+        return servico.copiaLocalAtualizadaEm();
+    }
+
+    /**
+     * Acompanha as alterações de produtos feitas por qualquer cliente.
+     *
+     * @param ouvinte ação chamada para cada notificação, fora da thread de
+     * eventos
+     * @return assinatura, a ser fechada quando a tela for encerrada
+     */
+    public CanalNotificacoes.Assinatura ouvirAlteracoes(Consumer<Notificacao<Produto>> ouvinte) {
+        return servico.ouvirAlteracoes(ouvinte);
+    }
 }
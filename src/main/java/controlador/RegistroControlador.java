@@ -1,8 +1,14 @@
 package controlador;
 
+import dto.Notificacao;
+import dto.Pagina;
 import dto.Resposta;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import modelo.Registro;
+import servico.Paginador;
 import servico.RegistroServico;
+import socket.CanalNotificacoes;
 
 /**
  * Controlador responsável por gerenciar as operações relacionadas a registros.
@@ -46,12 +52,99 @@ public class RegistroControlador {
     }
 
     /**
-     * Lista todos os registros cadastrados no sistema.
+     * Versão assíncrona de {@link #inserirRegistro(Registro)}.
      *
-     * @return uma {@link Resposta} contendo a lista de registros ou mensagem de
-     * erro
+     * @param r objeto Registro contendo os dados do registro a ser inserido
+     * @return futuro com a {@link Resposta} da operação
+     */
+    public CompletableFuture<Resposta<?>> inserirRegistroAsync(Registro r) {
+        return servico.inserirRegistroAsync(r);
+    }
+
+    /**
+     * Lista uma página de registros.
+     *
+     * @param pagina número da página, a partir de 0
+     * @param limite quantidade máxima de itens na página
+     * @return uma {@link Resposta} contendo a página ou mensagem de erro
+     */
+    public Resposta<Pagina<Registro>> listarRegistro(int pagina, int limite) {
+        return servico.listarRegistros(pagina, limite);
+    }
+
+    /**
+     * Versão assíncrona de {@link #listarRegistro(int, int)}.
+     *
+     * @param pagina número da página, a partir de 0
+     * @param limite quantidade máxima de itens na página
+     * @return futuro com a {@link Resposta} da operação
+     */
+    public CompletableFuture<Resposta<Pagina<Registro>>> listarRegistroAsync(int pagina, int limite) {
+        return servico.listarRegistrosAsync(pagina, limite);
+    }
+
+    /**
+     * Lista a página de registros posterior ao cursor informado.
+     *
+     * @param cursor cursor devolvido na página anterior, ou null para a
+     * primeira página
+     * @param limite quantidade máxima de itens na página
+     * @return uma {@link Resposta} contendo a página ou mensagem de erro
+     */
+    public Resposta<Pagina<Registro>> listarRegistroApos(String cursor, int limite) {
+        return servico.listarRegistrosApos(cursor, limite);
+    }
+
+    /**
+     * Versão assíncrona de {@link #listarRegistroApos(String, int)}.
+     *
+     * @param cursor cursor devolvido na página anterior, ou null para a
+     * primeira página
+     * @param limite quantidade máxima de itens na página
+     * @return futuro com a {@link Resposta} da operação
+     */
+    public CompletableFuture<Resposta<Pagina<Registro>>> listarRegistroAposAsync(String cursor, int limite) {
+        return servico.listarRegistrosAposAsync(cursor, limite);
+    }
+
+    /**
+     * Lê o início do histórico de registros guardado em disco, sem ir ao
+     * servidor.
+     *
+     * @return página com os registros guardados e o total conhecido, ou null
+     * se não houver cópia
+     */
+    public Pagina<Registro> lerCopiaLocal() {
+        return servico.lerCopiaLocal();
+    }
+
+    /**
+     * Obtém o instante em que os registros guardados em disco foram
+     * recebidos do servidor pela última vez.
+     *
+     * @return milissegundos desde a época, ou 0 se não houver cópia
+     */
+    public long copiaLocalAtualizadaEm() {
+        return servico.copiaLocalAtualizadaEm();
+    }
+
+    /**
+     * Percorre registros página a página, sem carregar a listagem completa.
+     *
+     * @return iterador que busca cada página ao alcançá-la
+     */
+    public Paginador<Registro> percorrerRegistros() {
+        return servico.percorrerRegistros();
+    }
+
+    /**
+     * Acompanha as alterações de registros de movimentação feitas por qualquer cliente.
+     *
+     * @param ouvinte ação chamada para cada notificação, fora da thread de
+     * eventos
+     * @return assinatura, a ser fechada quando a tela for encerrada
      */
-    public Resposta<?> listarRegistro() {
-        return servico.listarRegistros();
+    public CanalNotificacoes.Assinatura ouvirRegistros(Consumer<Notificacao<Registro>> ouvinte) {
+        return servico.ouvirRegistros(ouvinte);
     }
 }
@@ -1,6 +1,10 @@
 package controlador;
 
+import dto.Pagina;
 import dto.Resposta;
+import java.util.concurrent.CompletableFuture;
+import modelo.Relatorio;
+import servico.Paginador;
 import servico.RelatorioServico;
 
 /**
@@ -34,12 +38,57 @@ public class RelatorioControlador {
     }
 
     /**
-     * Lista todos os relatórios disponíveis no sistema.
+     * Lista uma página de dados de relatório.
      *
-     * @return uma {@link Resposta} contendo a lista de relatórios ou mensagem
-     * de erro
+     * @param pagina número da página, a partir de 0
+     * @param limite quantidade máxima de itens na página
+     * @return uma {@link Resposta} contendo a página ou mensagem de erro
      */
-    public Resposta<?> listarRelatorio() {
-        return servico.listarRelatorio();
+    public Resposta<Pagina<Relatorio>> listarRelatorio(int pagina, int limite) {
+        return servico.listarRelatorio(pagina, limite);
+    }
+
+    /**
+     * Versão assíncrona de {@link #listarRelatorio(int, int)}.
+     *
+     * @param pagina número da página, a partir de 0
+     * @param limite quantidade máxima de itens na página
+     * @return futuro com a {@link Resposta} da operação
+     */
+    public CompletableFuture<Resposta<Pagina<Relatorio>>> listarRelatorioAsync(int pagina, int limite) {
+        return servico.listarRelatorioAsync(pagina, limite);
+    }
+
+    /**
+     * Lista a página de dados de relatório posterior ao cursor informado.
+     *
+     * @param cursor cursor devolvido na página anterior, ou null para a
+     * primeira página
+     * @param limite quantidade máxima de itens na página
+     * @return uma {@link Resposta} contendo a página ou mensagem de erro
+     */
+    public Resposta<Pagina<Relatorio>> listarRelatorioApos(String cursor, int limite) {
+        return servico.listarRelatorioApos(cursor, limite);
+    }
+
+    /**
+     * Versão assíncrona de {@link #listarRelatorioApos(String, int)}.
+     *
+     * @param cursor cursor devolvido na página anterior, ou null para a
+     * primeira página
+     * @param limite quantidade máxima de itens na página
+     * @return futuro com a {@link Resposta} da operação
+     */
+    public CompletableFuture<Resposta<Pagina<Relatorio>>> listarRelatorioAposAsync(String cursor, int limite) {
+        return servico.listarRelatorioAposAsync(cursor, limite);
+    }
+
+    /**
+     * Percorre dados de relatório página a página, sem carregar a listagem completa.
+     *
+     * @return iterador que busca cada página ao alcançá-la
+     */
+    public Paginador<Relatorio> percorrerRelatorio() {
+        return servico.percorrerRelatorio();
     }
 }
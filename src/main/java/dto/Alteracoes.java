@@ -0,0 +1,191 @@
+package dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * DTO com as alterações de uma listagem desde uma versão conhecida.
+ *
+ * <p>
+ * É devolvido no campo {@code dados} da {@link Resposta} quando a
+ * {@link Requisicao} de listagem informa {@code desdeVersao}. Traz os itens
+ * criados ou alterados depois dessa versão, os ids dos itens excluídos
+ * (lápides) e a versão atual do servidor, a ser enviada no próximo pedido.
+ * Assim, o volume transferido depende da quantidade de alterações e não do
+ * tamanho do cadastro.</p>
+ *
+ * <p>
+ * Formato esperado:</p>
+ *
+ * <pre>
+ * {
+ *   "alterados": [ ... ],
+ *   "removidos": [ 12, 40 ],
+ *   "versao": 1873,
+ *   "completo": false
+ * }
+ * </pre>
+ *
+ * <p>
+ * Com {@code completo} o servidor devolveu a listagem inteira em
+ * {@code alterados}, que substitui a anterior: isso acontece quando a versão
+ * pedida é anterior às lápides ainda guardadas. Servidores que não suportam a
+ * listagem incremental ignoram o parâmetro e devolvem a lista completa; ela é
+ * aceita da mesma forma, sem versão.</p>
+ *
+ * @param <T> tipo dos itens
+ */
+public class Alteracoes<T> {
+
+    /**
+     * Itens criados ou alterados depois da versão pedida, ou todos os itens
+     * se a resposta for completa.
+     */
+    private List<T> alterados = new ArrayList<>();
+
+    /**
+     * Identificadores dos itens excluídos depois da versão pedida.
+     */
+    private List<Integer> removidos = new ArrayList<>();
+
+    /**
+     * Versão atual do servidor, ou null se não informada.
+     */
+    private Long versao;
+
+    /**
+     * Indica que {@link #alterados} é a listagem completa.
+     */
+    private boolean completo;
+
+    /**
+     * Construtor padrão necessário para serialização/deserialização JSON.
+     */
+    public Alteracoes() {
+    }
+
+    /**
+     * Cria uma resposta completa a partir de uma lista, usada quando o
+     * servidor responde sem suporte à listagem incremental.
+     *
+     * @param itens todos os itens da listagem
+     */
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public Alteracoes(List<T> itens) {
+        this.alterados = itens;
+        this.completo = true;
+    }
+
+    /**
+     * Construtor completo.
+     *
+     * @param alterados itens criados ou alterados
+     * @param removidos identificadores dos itens excluídos
+     * @param versao versão atual do servidor
+     * @param completo true se {@code alterados} for a listagem completa
+     */
+    public Alteracoes(List<T> alterados, List<Integer> removidos, Long versao, boolean completo) {
+        this.alterados = alterados;
+        this.removidos = removidos;
+        this.versao = versao;
+        this.completo = completo;
+    }
+
+    /**
+     * Monta uma resposta completa a partir de uma listagem inteira, usando
+     * como versão a maior versão entre os itens.
+     *
+     * <p>
+     * A maior versão é um ponto de partida seguro: toda alteração com versão
+     * menor ou igual já está refletida na listagem.</p>
+     *
+     * @param <T> tipo dos itens
+     * @param itens todos os itens da listagem
+     * @param extrairVersao função que obtém a versão de um item
+     * @return alterações completas
+     */
+    public static <T> Alteracoes<T> completas(List<T> itens, Function<T, Long> extrairVersao) {
+        long maior = 0;
+        for (T item : itens) {
+            Long versao = extrairVersao.apply(item);
+            if (versao != null && versao > maior) {
+                maior = versao;
+            }
+        }
+        return new Alteracoes<>(itens, new ArrayList<>(), maior, true);
+    }
+
+    /**
+     * Obtém os itens criados ou alterados.
+     *
+     * @return itens alterados, ou todos os itens se a resposta for completa
+     */
+    public List<T> getAlterados() {
+        return alterados;
+    }
+
+    /**
+     * Define os itens criados ou alterados.
+     *
+     * @param alterados itens alterados
+     */
+    public void setAlterados(List<T> alterados) {
+        this.alterados = alterados;
+    }
+
+    /**
+     * Obtém os identificadores dos itens excluídos.
+     *
+     * @return identificadores excluídos
+     */
+    public List<Integer> getRemovidos() {
+        return removidos;
+    }
+
+    /**
+     * Define os identificadores dos itens excluídos.
+     *
+     * @param removidos identificadores excluídos
+     */
+    public void setRemovidos(List<Integer> removidos) {
+        this.removidos = removidos;
+    }
+
+    /**
+     * Obtém a versão atual do servidor.
+     *
+     * @return versão a enviar no próximo pedido, ou null se não informada
+     */
+    public Long getVersao() {
+        return versao;
+    }
+
+    /**
+     * Define a versão atual do servidor.
+     *
+     * @param versao versão atual
+     */
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
+    /**
+     * Indica se a resposta traz a listagem completa.
+     *
+     * @return true se {@code alterados} substituir a listagem anterior
+     */
+    public boolean isCompleto() {
+        return completo;
+    }
+
+    /**
+     * Define se a resposta traz a listagem completa.
+     *
+     * @param completo true se {@code alterados} for a listagem completa
+     */
+    public void setCompleto(boolean completo) {
+        this.completo = completo;
+    }
+}
@@ -0,0 +1,122 @@
+package dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import modelo.enums.Acao;
+import modelo.enums.Entidade;
+
+/**
+ * DTO que representa um lote de operações enviado em uma única
+ * {@link Requisicao}.
+ *
+ * <p>
+ * É o campo {@code dados} de uma requisição com a ação {@code LOTE}. Cada
+ * operação do lote tem o mesmo formato de uma requisição comum (ação, entidade
+ * e dados) e o servidor as executa na ordem recebida, devolvendo no campo
+ * {@code dados} da {@link Resposta} uma lista com o resultado de cada uma, na
+ * mesma ordem.</p>
+ *
+ * <p>
+ * Formato esperado:</p>
+ *
+ * <pre>
+ * {
+ *   "tudoOuNada": true,
+ *   "operacoes": [
+ *     { "acao": "CRIAR", "entidade": "PRODUTO", "dados": { ... } },
+ *     { "acao": "DELETAR", "entidade": "PRODUTO", "dados": { "id": 7 } }
+ *   ]
+ * }
+ * </pre>
+ *
+ * <p>
+ * Com {@code tudoOuNada} a primeira operação que falhar desfaz as anteriores:
+ * a resposta do lote vem com status de erro e nenhuma alteração é mantida.
+ * Sem ele cada operação é independente e o lote responde com sucesso mesmo que
+ * algumas falhem; o resultado de cada uma deve ser conferido na lista.</p>
+ *
+ * @param <T> tipo dos dados das operações
+ */
+public class Lote<T> {
+
+    /**
+     * Operações a executar, na ordem.
+     */
+    private List<Requisicao<T>> operacoes;
+
+    /**
+     * Indica se uma falha deve desfazer todas as operações do lote.
+     */
+    private boolean tudoOuNada;
+
+    /**
+     * Construtor padrão necessário para serialização/deserialização JSON.
+     */
+    public Lote() {
+    }
+
+    /**
+     * Construtor completo para criação de lotes.
+     *
+     * @param operacoes operações a executar, na ordem
+     * @param tudoOuNada true para desfazer todo o lote na primeira falha
+     */
+    public Lote(List<Requisicao<T>> operacoes, boolean tudoOuNada) {
+        this.operacoes = operacoes;
+        this.tudoOuNada = tudoOuNada;
+    }
+
+    /**
+     * Monta um lote que aplica a mesma ação a vários objetos de uma entidade.
+     *
+     * @param <T> tipo dos objetos
+     * @param acao ação aplicada a cada objeto
+     * @param entidade entidade dos objetos
+     * @param itens objetos, um por operação
+     * @param tudoOuNada true para desfazer todo o lote na primeira falha
+     * @return lote com uma operação por objeto
+     */
+    public static <T> Lote<T> de(Acao acao, Entidade entidade, List<? extends T> itens, boolean tudoOuNada) {
+        List<Requisicao<T>> operacoes = new ArrayList<>(itens.size());
+        for (T item : itens) {
+            operacoes.add(new Requisicao<>(acao, entidade, item));
+        }
+        return new Lote<>(operacoes, tudoOuNada);
+    }
+
+    /**
+     * Obtém as operações do lote.
+     *
+     * @return operações a executar, na ordem
+     */
+    public List<Requisicao<T>> getOperacoes() {
+        return operacoes;
+    }
+
+    /**
+     * Define as operações do lote.
+     *
+     * @param operacoes operações a executar, na ordem
+     */
+    public void setOperacoes(List<Requisicao<T>> operacoes) {
+        this.operacoes = operacoes;
+    }
+
+    /**
+     * Indica se uma falha deve desfazer todas as operações do lote.
+     *
+     * @return true se o lote for tudo ou nada
+     */
+    public boolean isTudoOuNada() {
+        return tudoOuNada;
+    }
+
+    /**
+     * Define se uma falha deve desfazer todas as operações do lote.
+     *
+     * @param tudoOuNada true para desfazer todo o lote na primeira falha
+     */
+    public void setTudoOuNada(boolean tudoOuNada) {
+        this.tudoOuNada = tudoOuNada;
+    }
+}
@@ -0,0 +1,87 @@
+package dto;
+
+/**
+ * DTO que representa uma movimentação de estoque enviada ao servidor.
+ *
+ * <p>
+ * É o campo {@code dados} de uma {@link Requisicao} com a ação
+ * {@code MOVIMENTAR}. Leva apenas o produto e a variação da quantidade
+ * (positiva para entrada, negativa para saída): o servidor aplica a variação
+ * sobre a quantidade atual de forma atômica, de modo que operadores
+ * simultâneos não sobrescrevam as movimentações uns dos outros.</p>
+ *
+ * <p>
+ * Formato esperado:</p>
+ *
+ * <pre>
+ * {
+ *   "produtoId": 7,
+ *   "delta": -3
+ * }
+ * </pre>
+ */
+public class MovimentoEstoque {
+
+    /**
+     * Identificador do produto movimentado.
+     */
+    private Integer produtoId;
+
+    /**
+     * Variação da quantidade: positiva para entrada, negativa para saída.
+     */
+    private Integer delta;
+
+    /**
+     * Construtor padrão necessário para serialização/deserialização JSON.
+     */
+    public MovimentoEstoque() {
+    }
+
+    /**
+     * Construtor completo para criação de movimentações.
+     *
+     * @param produtoId identificador do produto movimentado
+     * @param delta variação da quantidade
+     */
+    public MovimentoEstoque(Integer produtoId, Integer delta) {
+        this.produtoId = produtoId;
+        this.delta = delta;
+    }
+
+    /**
+     * Obtém o identificador do produto movimentado.
+     *
+     * @return identificador do produto
+     */
+    public Integer getProdutoId() {
+        return produtoId;
+    }
+
+    /**
+     * Define o identificador do produto movimentado.
+     *
+     * @param produtoId identificador do produto
+     */
+    public void setProdutoId(Integer produtoId) {
+        this.produtoId = produtoId;
+    }
+
+    /**
+     * Obtém a variação da quantidade.
+     *
+     * @return variação, positiva para entrada e negativa para saída
+     */
+    public Integer getDelta() {
+        return delta;
+    }
+
+    /**
+     * Define a variação da quantidade.
+     *
+     * @param delta variação, positiva para entrada e negativa para saída
+     */
+    public void setDelta(Integer delta) {
+        this.delta = delta;
+    }
+}
@@ -0,0 +1,190 @@
+package dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import modelo.enums.Acao;
+import modelo.enums.Entidade;
+
+/**
+ * DTO que representa uma alteração enviada pelo servidor aos clientes que
+ * assinaram as notificações de uma entidade.
+ *
+ * <p>
+ * Depois de uma {@link Requisicao} {@code ASSINAR}, o servidor mantém a
+ * conexão aberta e escreve uma linha JSON como esta para cada alteração feita
+ * por qualquer cliente. Criações e alterações trazem o item completo em
+ * {@code dados}; exclusões trazem apenas o {@code id}.</p>
+ *
+ * <p>
+ * Formato esperado:</p>
+ *
+ * <pre>
+ * {
+ *   "entidade": "PRODUTO",
+ *   "acao": "ATUALIZAR",
+ *   "id": 7,
+ *   "versao": 1874,
+ *   "dados": { ... }
+ * }
+ * </pre>
+ *
+ * <p>
+ * Uma notificação sem {@code id} não se refere a um item: indica que muitos
+ * itens mudaram de uma vez (por exemplo, um reajuste de preços) ou que
+ * notificações podem ter sido perdidas (a conexão foi restabelecida). Em
+ * ambos os casos quem a recebe deve sincronizar a entidade inteira (ver
+ * {@link #isSincronizar()}).</p>
+ *
+ * @param <T> tipo do item alterado
+ */
+public class Notificacao<T> {
+
+    /**
+     * Entidade alterada.
+     */
+    private Entidade entidade;
+
+    /**
+     * Ação que produziu a alteração (CRIAR, ATUALIZAR, DELETAR, etc.).
+     */
+    private Acao acao;
+
+    /**
+     * Identificador do item alterado, ou null se a notificação não se referir
+     * a um único item.
+     */
+    private Integer id;
+
+    /**
+     * Versão atribuída à alteração, ou null se não informada.
+     */
+    private Long versao;
+
+    /**
+     * Item após a alteração, ou null em exclusões.
+     */
+    private T dados;
+
+    /**
+     * Construtor padrão necessário para serialização/deserialização JSON.
+     */
+    public Notificacao() {
+    }
+
+    /**
+     * Construtor completo para criação de notificações.
+     *
+     * @param entidade entidade alterada
+     * @param acao ação que produziu a alteração
+     * @param id identificador do item, ou null
+     * @param versao versão da alteração, ou null
+     * @param dados item após a alteração, ou null
+     */
+    public Notificacao(Entidade entidade, Acao acao, Integer id, Long versao, T dados) {
+        this.entidade = entidade;
+        this.acao = acao;
+        this.id = id;
+        this.versao = versao;
+        this.dados = dados;
+    }
+
+    /**
+     * Indica se a notificação pede a sincronização da entidade inteira, em
+     * vez de se referir a um único item.
+     *
+     * @return true se não houver {@code id}
+     */
+    @JsonIgnore
+    public boolean isSincronizar() {
+        return id == null;
+    }
+
+    /**
+     * Obtém a entidade alterada.
+     *
+     * @return entidade
+     */
+    public Entidade getEntidade() {
+        return entidade;
+    }
+
+    /**
+     * Define a entidade alterada.
+     *
+     * @param entidade entidade
+     */
+    public void setEntidade(Entidade entidade) {
+        this.entidade = entidade;
+    }
+
+    /**
+     * Obtém a ação que produziu a alteração.
+     *
+     * @return ação
+     */
+    public Acao getAcao() {
+        return acao;
+    }
+
+    /**
+     * Define a ação que produziu a alteração.
+     *
+     * @param acao ação
+     */
+    public void setAcao(Acao acao) {
+        this.acao = acao;
+    }
+
+    /**
+     * Obtém o identificador do item alterado.
+     *
+     * @return identificador, ou null se a notificação pedir sincronização
+     */
+    public Integer getId() {
+        return id;
+    }
+
+    /**
+     * Define o identificador do item alterado.
+     *
+     * @param id identificador
+     */
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    /**
+     * Obtém a versão atribuída à alteração.
+     *
+     * @return versão, ou null se não informada
+     */
+    public Long getVersao() {
+        return versao;
+    }
+
+    /**
+     * Define a versão atribuída à alteração.
+     *
+     * @param versao versão
+     */
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
+    /**
+     * Obtém o item após a alteração.
+     *
+     * @return item, ou null em exclusões
+     */
+    public T getDados() {
+        return dados;
+    }
+
+    /**
+     * Define o item após a alteração.
+     *
+     * @param dados item
+     */
+    public void setDados(T dados) {
+        this.dados = dados;
+    }
+}
@@ -0,0 +1,201 @@
+package dto;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import java.util.List;
+
+/**
+ * DTO que representa uma página de uma listagem paginada.
+ *
+ * <p>
+ * É devolvido no campo {@code dados} da {@link Resposta} quando a
+ * {@link Requisicao} de listagem informa um {@code limite}. A página pode ter
+ * sido pedida por número ({@code pagina}, a partir de 0) ou por cursor: nesse
+ * caso o servidor devolve em {@code proximoCursor} o valor a ser enviado na
+ * próxima requisição, ou null quando não houver mais itens.</p>
+ *
+ * <p>
+ * Formato esperado:</p>
+ *
+ * <pre>
+ * {
+ *   "itens": [ ... ],
+ *   "pagina": 0,
+ *   "limite": 500,
+ *   "total": 48213,
+ *   "proximoCursor": "500"
+ * }
+ * </pre>
+ *
+ * <p>
+ * Servidores que ainda não suportam paginação ignoram os parâmetros e devolvem
+ * a lista completa; ela é aceita como uma página única, sem próximo
+ * cursor.</p>
+ *
+ * @param <T> tipo dos itens da página
+ */
+public class Pagina<T> {
+
+    /**
+     * Itens da página, na ordem da listagem.
+     */
+    private List<T> itens;
+
+    /**
+     * Número da página (a partir de 0), ou null se pedida por cursor.
+     */
+    private Integer pagina;
+
+    /**
+     * Quantidade máxima de itens pedida.
+     */
+    private Integer limite;
+
+    /**
+     * Total de itens da listagem completa, se informado pelo servidor.
+     */
+    private Long total;
+
+    /**
+     * Cursor para a próxima página, ou null se esta for a última.
+     */
+    private String proximoCursor;
+
+    /**
+     * Construtor padrão necessário para serialização/deserialização JSON.
+     */
+    public Pagina() {
+    }
+
+    /**
+     * Cria uma página única a partir de uma lista completa, usada quando o
+     * servidor responde sem paginação.
+     *
+     * @param itens todos os itens da listagem
+     */
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public Pagina(List<T> itens) {
+        this.itens = itens;
+        this.pagina = 0;
+        this.limite = itens.size();
+        this.total = (long) itens.size();
+    }
+
+    /**
+     * Construtor completo para criação de páginas.
+     *
+     * @param itens itens da página
+     * @param pagina número da página, ou null se pedida por cursor
+     * @param limite quantidade máxima de itens pedida
+     * @param total total de itens da listagem completa
+     * @param proximoCursor cursor da próxima página, ou null
+     */
+    public Pagina(List<T> itens, Integer pagina, Integer limite, Long total, String proximoCursor) {
+        this.itens = itens;
+        this.pagina = pagina;
+        this.limite = limite;
+        this.total = total;
+        this.proximoCursor = proximoCursor;
+    }
+
+    /**
+     * Obtém os itens da página.
+     *
+     * @return itens da página
+     */
+    public List<T> getItens() {
+        return itens;
+    }
+
+    /**
+     * Define os itens da página.
+     *
+     * @param itens itens da página
+     */
+    public void setItens(List<T> itens) {
+        this.itens = itens;
+    }
+
+    /**
+     * Obtém o número da página.
+     *
+     * @return número da página a partir de 0, ou null se pedida por cursor
+     */
+    public Integer getPagina() {
+        return pagina;
+    }
+
+    /**
+     * Define o número da página.
+     *
+     * @param pagina número da página
+     */
+    public void setPagina(Integer pagina) {
+        this.pagina = pagina;
+    }
+
+    /**
+     * Obtém a quantidade máxima de itens pedida.
+     *
+     * @return limite de itens
+     */
+    public Integer getLimite() {
+        return limite;
+    }
+
+    /**
+     * Define a quantidade máxima de itens pedida.
+     *
+     * @param limite limite de itens
+     */
+    public void setLimite(Integer limite) {
+        this.limite = limite;
+    }
+
+    /**
+     * Obtém o total de itens da listagem completa.
+     *
+     * @return total de itens, ou null se o servidor não informou
+     */
+    public Long getTotal() {
+        return total;
+    }
+
+    /**
+     * Define o total de itens da listagem completa.
+     *
+     * @param total total de itens
+     */
+    public void setTotal(Long total) {
+        this.total = total;
+    }
+
+    /**
+     * Obtém o cursor da próxima página.
+     *
+     * @return cursor a enviar na próxima requisição, ou null se esta for a
+     * última página
+     */
+    public String getProximoCursor() {
+        return proximoCursor;
+    }
+
+    /**
+     * Define o cursor da próxima página.
+     *
+     * @param proximoCursor cursor da próxima página
+     */
+    public void setProximoCursor(String proximoCursor) {
+        this.proximoCursor = proximoCursor;
+    }
+
+    /**
+     * Indica se há uma próxima página a ser pedida por cursor.
+     *
+     * @return true se houver próximo cursor
+     */
+    @JsonIgnore
+    public boolean temProxima() {
+        return proximoCursor != null;
+    }
+}
@@ -1,5 +1,6 @@
 package dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import modelo.enums.Acao;
 import modelo.enums.Entidade;
 
@@ -23,10 +24,32 @@ import modelo.enums.Entidade;
  * }
  * </pre>
  *
+ * <p>
+ * O campo opcional {@code id} só é enviado no modo de transporte com
+ * pipelining, em que várias requisições trafegam pela mesma conexão e o
+ * servidor devolve o mesmo {@code id} na {@link Resposta} correspondente.</p>
+ *
+ * <p>
+ * Os campos opcionais {@code limite}, {@code pagina} e {@code cursor} pedem uma
+ * listagem paginada: com {@code limite} informado o servidor devolve uma
+ * {@link Pagina} em vez da lista completa, a partir da página indicada ou dos
+ * itens posteriores ao cursor recebido na página anterior.</p>
+ *
+ * <p>
+ * O campo opcional {@code desdeVersao} pede uma listagem incremental: o
+ * servidor devolve {@link Alteracoes} com apenas os itens alterados e os ids
+ * dos excluídos depois da versão informada.</p>
+ *
  * @param <T> tipo do objeto contido no campo {@code dados}
  */
 public class Requisicao<T> {
 
+    /**
+     * Identificador de correlação da requisição (opcional).
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long id;
+
     /**
      * Ação a ser realizada (ex.: CRIAR, ATUALIZAR, LISTAR).
      */
@@ -43,6 +66,31 @@ public class Requisicao<T> {
      */
     private T dados;
 
+    /**
+     * Número da página desejada, a partir de 0 (opcional).
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer pagina;
+
+    /**
+     * Quantidade máxima de itens por página (opcional).
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer limite;
+
+    /**
+     * Cursor devolvido na página anterior, a partir do qual a listagem
+     * continua (opcional).
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String cursor;
+
+    /**
+     * Versão a partir da qual as alterações são pedidas (opcional).
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long desdeVersao;
+
     /**
      * Construtor padrão, necessário para serialização/deserialização JSON.
      */
@@ -115,4 +163,95 @@ public class Requisicao<T> {
     public void setDados(T dados) {
         this.dados = dados;
     }
+
+    /**
+     * Obtém o identificador de correlação da requisição.
+     *
+     * @return identificador de correlação, ou null fora do modo pipelining
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Define o identificador de correlação da requisição.
+     *
+     * @param id identificador de correlação
+     */
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    /**
+     * Obtém o número da página desejada.
+     *
+     * @return número da página a partir de 0, ou null
+     */
+    public Integer getPagina() {
+        return pagina;
+    }
+
+    /**
+     * Define o número da página desejada.
+     *
+     * @param pagina número da página a partir de 0
+     */
+    public void setPagina(Integer pagina) {
+        this.pagina = pagina;
+    }
+
+    /**
+     * Obtém a quantidade máxima de itens por página.
+     *
+     * @return limite de itens, ou null para a listagem completa
+     */
+    public Integer getLimite() {
+        return limite;
+    }
+
+    /**
+     * Define a quantidade máxima de itens por página.
+     *
+     * @param limite limite de itens
+     */
+    public void setLimite(Integer limite) {
+        this.limite = limite;
+    }
+
+    /**
+     * Obtém o cursor a partir do qual a listagem continua.
+     *
+     * @return cursor da página anterior, ou null
+     */
+    public String getCursor() {
+        return cursor;
+    }
+
+    /**
+     * Define o cursor a partir do qual a listagem continua.
+     *
+     * @param cursor cursor recebido na página anterior
+     */
+    public void setCursor(String cursor) {
+        this.cursor = cursor;
+    }
+
+    /**
+     * Obtém a versão a partir da qual as alterações são pedidas.
+     *
+     * @return última versão conhecida pelo cliente, ou null para a listagem
+     * completa
+     */
+    public Long getDesdeVersao() {
+        return desdeVersao;
+    }
+
+    /**
+     * Define a versão a partir da qual as alterações são pedidas.
+     *
+     * @param desdeVersao última versão conhecida pelo cliente
+     */
+    public void setDesdeVersao(Long desdeVersao) {
+        this.desdeVersao = desdeVersao;
+    }
 }
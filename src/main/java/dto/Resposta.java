@@ -1,5 +1,9 @@
 package dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import modelo.enums.TipoErro;
+
 /**
  * DTO responsável por representar a resposta enviada pelo servidor ao cliente
  * após o processamento de uma requisição.
@@ -26,10 +30,29 @@ package dto;
  * }
  * </pre>
  *
+ * <p>
+ * No modo de transporte com pipelining a resposta traz também o campo
+ * {@code id}, igual ao da {@link Requisicao} que a originou. Ele é sempre
+ * serializado antes dos demais campos, para que o cliente conheça o tipo dos
+ * dados antes de lê-los.</p>
+ *
+ * <p>
+ * Quando o servidor não chega a responder, o próprio cliente monta uma
+ * resposta de erro e informa em {@code erro} o tipo da falha de comunicação
+ * (ver {@link TipoErro}). Em respostas vindas do servidor o campo é null e não
+ * é serializado.</p>
+ *
  * @param <T> tipo do dado retornado pelo servidor
  */
+@JsonPropertyOrder({"id", "status", "mensagem", "dados"})
 public class Resposta<T> {
 
+    /**
+     * Identificador de correlação da requisição respondida (opcional).
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long id;
+
     /**
      * Status da operação ("sucesso", "erro", etc.).
      */
@@ -45,6 +68,13 @@ public class Resposta<T> {
      */
     private T dados;
 
+    /**
+     * Tipo da falha de comunicação, em respostas de erro montadas pelo
+     * cliente (opcional).
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private TipoErro erro;
+
     /**
      * Construtor padrão necessário para serialização/deserialização JSON.
      */
@@ -90,4 +120,40 @@ public class Resposta<T> {
     public T getDados() {
         return dados;
     }
+
+    /**
+     * Obtém o tipo da falha de comunicação.
+     *
+     * @return tipo da falha, ou null se a resposta veio do servidor
+     */
+    public TipoErro getErro() {
+        return erro;
+    }
+
+    /**
+     * Define o tipo da falha de comunicação.
+     *
+     * @param erro tipo da falha
+     */
+    public void setErro(TipoErro erro) {
+        this.erro = erro;
+    }
+
+    /**
+     * Obtém o identificador de correlação da requisição respondida.
+     *
+     * @return identificador de correlação, ou null fora do modo pipelining
+     */
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * Define o identificador de correlação da requisição respondida.
+     *
+     * @param id identificador de correlação
+     */
+    public void setId(Long id) {
+        this.id = id;
+    }
 }
@@ -0,0 +1,114 @@
+package dto;
+
+import modelo.enums.Status;
+
+/**
+ * DTO que representa o saldo de um produto após uma movimentação de estoque.
+ *
+ * <p>
+ * É devolvido no campo {@code dados} da {@link Resposta} a uma
+ * {@link MovimentoEstoque}, com a quantidade resultante e o status do estoque
+ * em relação aos limites do produto. Com ele o cliente atualiza a tela sem
+ * buscar o produto novamente.</p>
+ *
+ * <p>
+ * Formato esperado:</p>
+ *
+ * <pre>
+ * {
+ *   "produtoId": 7,
+ *   "quantidade": 12,
+ *   "status": "DENTRO"
+ * }
+ * </pre>
+ */
+public class SaldoEstoque {
+
+    /**
+     * Identificador do produto movimentado.
+     */
+    private Integer produtoId;
+
+    /**
+     * Quantidade em estoque após a movimentação.
+     */
+    private Integer quantidade;
+
+    /**
+     * Status do estoque após a movimentação (ABAIXO, ACIMA ou DENTRO).
+     */
+    private Status status;
+
+    /**
+     * Construtor padrão necessário para serialização/deserialização JSON.
+     */
+    public SaldoEstoque() {
+    }
+
+    /**
+     * Construtor completo para criação de saldos.
+     *
+     * @param produtoId identificador do produto movimentado
+     * @param quantidade quantidade após a movimentação
+     * @param status status do estoque após a movimentação
+     */
+    public SaldoEstoque(Integer produtoId, Integer quantidade, Status status) {
+        this.produtoId = produtoId;
+        this.quantidade = quantidade;
+        this.status = status;
+    }
+
+    /**
+     * Obtém o identificador do produto movimentado.
+     *
+     * @return identificador do produto
+     */
+    public Integer getProdutoId() {
+        return produtoId;
+    }
+
+    /**
+     * Define o identificador do produto movimentado.
+     *
+     * @param produtoId identificador do produto
+     */
+    public void setProdutoId(Integer produtoId) {
+        this.produtoId = produtoId;
+    }
+
+    /**
+     * Obtém a quantidade em estoque após a movimentação.
+     *
+     * @return quantidade resultante
+     */
+    public Integer getQuantidade() {
+        return quantidade;
+    }
+
+    /**
+     * Define a quantidade em estoque após a movimentação.
+     *
+     * @param quantidade quantidade resultante
+     */
+    public void setQuantidade(Integer quantidade) {
+        this.quantidade = quantidade;
+    }
+
+    /**
+     * Obtém o status do estoque após a movimentação.
+     *
+     * @return status do estoque
+     */
+    public Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Define o status do estoque após a movimentação.
+     *
+     * @param status status do estoque
+     */
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+}
@@ -3,12 +3,13 @@ package emitir.relatorio;
 import com.itextpdf.text.*;
 import com.itextpdf.text.pdf.*;
 import controlador.RelatorioControlador;
-import dto.Resposta;
 import modelo.Relatorio;
 
 import java.io.FileOutputStream;
-import java.util.List;
+import java.io.OutputStream;
+import java.util.Iterator;
 import javax.swing.JOptionPane;
+import visao.GerenciadorTarefas;
 
 /**
  * Formulário responsável pela emissão de relatórios em formato PDF.
@@ -33,39 +34,42 @@ public class EmitirRelatorio extends javax.swing.JFrame {
      */
     private final RelatorioControlador controlador = new RelatorioControlador();
 
+    /**
+     * Executor da busca e da geração do relatório fora da thread de eventos.
+     */
+    private final GerenciadorTarefas tarefas = new GerenciadorTarefas(this);
+
+    /**
+     * Quantidade de linhas acumuladas na tabela antes de gravá-las no arquivo.
+     */
+    private static final int LINHAS_POR_DESCARGA = 500;
+
     /**
      * Processa a solicitação de emissão de relatório quando o botão é acionado.
      *
      * <p>
      * Recupera os dados do servidor através do controlador, valida a presença
-     * de dados e inicia a geração do arquivo PDF.</p>
+     * de dados e inicia a geração do arquivo PDF. Todo o trabalho roda fora da
+     * EDT; apenas as mensagens finais são exibidas nela.</p>
      *
      * @param evt evento de ação do botão
      */
     private void btnEmitirActionPerformed(java.awt.event.ActionEvent evt) {
-        try {
-            Resposta<?> resposta = controlador.listarRelatorio();
+        tarefas.executar("emitir", GerenciadorTarefas.Politica.IGNORAR, progresso -> {
+            Iterator<Relatorio> relatorios = controlador.percorrerRelatorio();
 
-            if (!"sucesso".equalsIgnoreCase(resposta.getStatus())) {
-                JOptionPane.showMessageDialog(this, "Erro: " + resposta.getMensagem());
-                return;
+            if (!relatorios.hasNext()) {
+                return "Nenhum dado disponível para gerar o relatório.";
             }
 
-            @SuppressWarnings("unchecked")
-            List<Relatorio> relatorios = (List<Relatorio>) resposta.getDados();
-
-            if (relatorios == null || relatorios.isEmpty()) {
-                JOptionPane.showMessageDialog(this, "Nenhum dado disponível para gerar o relatório.");
-                return;
+            try (OutputStream saida = new FileOutputStream("relatorio.pdf")) {
+                gerarPDF(relatorios, saida);
             }
-
-            gerarPDF(relatorios);
-            JOptionPane.showMessageDialog(this, "Relatório gerado com sucesso!");
-
-        } catch (Exception e) {
+            return "Relatório gerado com sucesso!";
+        }, mensagem -> JOptionPane.showMessageDialog(this, mensagem), e -> {
             e.printStackTrace();
             JOptionPane.showMessageDialog(this, "Erro ao gerar relatório: " + e.getMessage());
-        }
+        });
     }
 
     /**
@@ -75,13 +79,23 @@ public class EmitirRelatorio extends javax.swing.JFrame {
      * Cria um documento PDF com cabeçalho centralizado e tabela contendo todas
      * as movimentações do sistema, organizadas em colunas específicas.</p>
      *
-     * @param relatorios lista de registros de relatório a serem incluídos no
-     * PDF
+     * <p>
+     * A tabela é gravada em partes, a cada {@link #LINHAS_POR_DESCARGA}
+     * linhas, para que a memória usada não cresça com o número de
+     * registros.</p>
+     *
+     * <p>
+     * Não depende do estado da janela; é visível no pacote para ser medido
+     * pelos benchmarks.</p>
+     *
+     * @param relatorios registros de relatório a serem incluídos no PDF,
+     * buscados página a página
+     * @param saida destino do arquivo PDF
      * @throws Exception se ocorrer erro durante a geração do PDF
      */
-    private void gerarPDF(List<Relatorio> relatorios) throws Exception {
+    static void gerarPDF(Iterator<Relatorio> relatorios, OutputStream saida) throws Exception {
         Document document = new Document(PageSize.A4);
-        PdfWriter.getInstance(document, new FileOutputStream("relatorio.pdf"));
+        PdfWriter.getInstance(document, saida);
         document.open();
 
         // Cabeçalho
@@ -95,6 +109,8 @@ public class EmitirRelatorio extends javax.swing.JFrame {
         table.setWidthPercentage(100);
         table.setSpacingBefore(10f);
         table.setSpacingAfter(10f);
+        table.setHeaderRows(1);
+        table.setComplete(false);
 
         table.addCell("ID");
         table.addCell("Data");
@@ -103,15 +119,22 @@ public class EmitirRelatorio extends javax.swing.JFrame {
         table.addCell("Movimentação");
         table.addCell("Status");
 
-        for (Relatorio r : relatorios) {
+        int linhas = 0;
+        while (relatorios.hasNext()) {
+            Relatorio r = relatorios.next();
             table.addCell(String.valueOf(r.getId()));
-            table.addCell(String.valueOf(r.getData()));
+            table.addCell(r.getData() == null ? "-" : String.valueOf(r.getData()));
             table.addCell(String.valueOf(r.getNomeProduto()));
             table.addCell(String.valueOf(r.getQuantidade()));
             table.addCell(String.valueOf(r.getMovimentacao()));
             table.addCell(String.valueOf(r.getStatus()));
+
+            if (++linhas % LINHAS_POR_DESCARGA == 0) {
+                document.add(table); // grava as linhas prontas e as descarta da tabela
+            }
         }
 
+        table.setComplete(true);
         document.add(table);
         document.close();
     }
@@ -0,0 +1,79 @@
+package metrica;
+
+import com.fasterxml.jackson.databind.JavaType;
+import java.lang.reflect.Type;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento do JDK Flight Recorder para cada serialização, desserialização ou
+ * conversão de JSON.
+ */
+@Name("cliente.Json")
+@Label("Conversão JSON")
+@Category({"Cliente", "JSON"})
+@Description("Serialização ou desserialização de um valor JSON")
+@StackTrace(false)
+public class EventoJson extends Event {
+
+    /**
+     * Conversão de objeto em JSON.
+     */
+    public static final String SERIALIZAR = "serializar";
+
+    /**
+     * Leitura de JSON em um objeto.
+     */
+    public static final String DESSERIALIZAR = "desserializar";
+
+    /**
+     * Conversão entre objetos já lidos, sem texto JSON.
+     */
+    public static final String CONVERTER = "converter";
+
+    @Label("Operação")
+    String operacao;
+
+    @Label("Tipo")
+    String tipo;
+
+    @Label("Tamanho")
+    @Description("Bytes do JSON; caracteres quando o JSON é uma String")
+    @DataAmount
+    long bytes;
+
+    /**
+     * Cria e inicia o evento.
+     *
+     * @return evento em andamento
+     */
+    public static EventoJson iniciar() {
+        EventoJson evento = new EventoJson();
+        evento.begin();
+        return evento;
+    }
+
+    /**
+     * Encerra o evento e o grava, se a gravação estiver ativa.
+     *
+     * @param operacao {@link #SERIALIZAR}, {@link #DESSERIALIZAR} ou
+     * {@link #CONVERTER}
+     * @param tipo tipo do objeto convertido, ou null
+     * @param bytes tamanho do JSON, ou zero se não houver
+     */
+    public void concluir(String operacao, Type tipo, long bytes) {
+        end();
+        if (shouldCommit()) {
+            this.operacao = operacao;
+            this.tipo = tipo instanceof JavaType generico ? generico.toCanonical()
+                    : tipo == null ? null : tipo.getTypeName();
+            this.bytes = bytes;
+            commit();
+        }
+    }
+}
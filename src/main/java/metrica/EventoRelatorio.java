@@ -0,0 +1,92 @@
+package metrica;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento do JDK Flight Recorder para uma fase da geração do relatório em PDF.
+ *
+ * <p>
+ * O relatório é gerado em blocos, e cada bloco passa pelas quatro fases em
+ * sequência, com um evento para cada uma:</p>
+ *
+ * <ul>
+ * <li>{@link #BUSCA} – consumo dos registros, com as páginas pedidas ao
+ * servidor;</li>
+ * <li>{@link #MAPEAMENTO} – conversão dos registros nos textos das
+ * células;</li>
+ * <li>{@link #MONTAGEM} – criação das células da tabela;</li>
+ * <li>{@link #GRAVACAO} – paginação pelo iText e escrita no arquivo.</li>
+ * </ul>
+ */
+@Name("cliente.Relatorio")
+@Label("Fase do relatório")
+@Category({"Cliente", "Relatório"})
+@Description("Uma fase de um bloco da geração do relatório em PDF")
+@StackTrace(false)
+public class EventoRelatorio extends Event {
+
+    /**
+     * Busca dos registros.
+     */
+    public static final String BUSCA = "busca";
+
+    /**
+     * Conversão dos registros em texto.
+     */
+    public static final String MAPEAMENTO = "mapeamento";
+
+    /**
+     * Criação das células.
+     */
+    public static final String MONTAGEM = "montagem";
+
+    /**
+     * Paginação e escrita no arquivo.
+     */
+    public static final String GRAVACAO = "gravacao";
+
+    @Label("Fase")
+    String fase;
+
+    @Label("Linhas")
+    int linhas;
+
+    @Label("Bytes gravados")
+    @DataAmount
+    long bytes;
+
+    /**
+     * Cria e inicia o evento.
+     *
+     * @return evento em andamento
+     */
+    public static EventoRelatorio iniciar() {
+        EventoRelatorio evento = new EventoRelatorio();
+        evento.begin();
+        return evento;
+    }
+
+    /**
+     * Encerra o evento e o grava, se a gravação estiver ativa.
+     *
+     * @param fase {@link #BUSCA}, {@link #MAPEAMENTO}, {@link #MONTAGEM} ou
+     * {@link #GRAVACAO}
+     * @param linhas registros tratados na fase
+     * @param bytes bytes gravados no arquivo, ou zero
+     */
+    public void concluir(String fase, int linhas, long bytes) {
+        end();
+        if (shouldCommit()) {
+            this.fase = fase;
+            this.linhas = linhas;
+            this.bytes = bytes;
+            commit();
+        }
+    }
+}
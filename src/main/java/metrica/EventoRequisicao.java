@@ -0,0 +1,97 @@
+package metrica;
+
+import dto.Alteracoes;
+import dto.Pagina;
+import dto.Resposta;
+import java.util.Collection;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import modelo.enums.Acao;
+import modelo.enums.Entidade;
+
+/**
+ * Evento do JDK Flight Recorder para cada requisição síncrona ao servidor.
+ *
+ * <p>
+ * Cobre a requisição inteira, inclusive repetições e a troca de servidor. Os
+ * eventos {@link EventoJson} gravados dentro dele mostram quanto do tempo foi
+ * conversão de JSON; o restante é espera pela rede e pelo servidor.</p>
+ */
+@Name("cliente.Requisicao")
+@Label("Requisição ao servidor")
+@Category({"Cliente", "Transporte"})
+@Description("Envio de uma requisição e leitura da resposta, com repetições")
+@StackTrace(false)
+public class EventoRequisicao extends Event {
+
+    @Label("Ação")
+    String acao;
+
+    @Label("Entidade")
+    String entidade;
+
+    @Label("Status")
+    String status;
+
+    @Label("Tipo de erro")
+    @Description("Falha de comunicação, vazio se o servidor respondeu")
+    String erro;
+
+    @Label("Linhas")
+    @Description("Itens devolvidos nos dados da resposta")
+    int linhas;
+
+    /**
+     * Cria e inicia o evento.
+     *
+     * @return evento em andamento
+     */
+    public static EventoRequisicao iniciar() {
+        EventoRequisicao evento = new EventoRequisicao();
+        evento.begin();
+        return evento;
+    }
+
+    /**
+     * Encerra o evento e o grava, se a gravação estiver ativa.
+     *
+     * @param acao ação da requisição
+     * @param entidade entidade da requisição
+     * @param resposta resposta do servidor ou de erro
+     */
+    public void concluir(Acao acao, Entidade entidade, Resposta<?> resposta) {
+        end();
+        if (shouldCommit()) {
+            this.acao = acao == null ? null : acao.name();
+            this.entidade = entidade == null ? null : entidade.name();
+            this.status = resposta.getStatus();
+            this.erro = resposta.getErro() == null ? null : resposta.getErro().name();
+            this.linhas = linhas(resposta.getDados());
+            commit();
+        }
+    }
+
+    /**
+     * Conta os itens dos dados de uma resposta.
+     *
+     * @param dados dados da resposta
+     * @return tamanho da lista, da página ou das alterações; 1 para um objeto
+     * e 0 se não houver dados
+     */
+    private static int linhas(Object dados) {
+        if (dados instanceof Collection<?> lista) {
+            return lista.size();
+        }
+        if (dados instanceof Pagina<?> pagina) {
+            return pagina.getItens() == null ? 0 : pagina.getItens().size();
+        }
+        if (dados instanceof Alteracoes<?> alteracoes) {
+            return alteracoes.getAlterados().size() + alteracoes.getRemovidos().size();
+        }
+        return dados == null ? 0 : 1;
+    }
+}
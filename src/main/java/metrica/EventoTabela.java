@@ -0,0 +1,64 @@
+package metrica;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Evento do JDK Flight Recorder para a aplicação de dados recebidos a uma
+ * tabela das telas.
+ *
+ * <p>
+ * Mede apenas o trabalho na thread de eventos (preencher o modelo, reordenar
+ * e filtrar); a busca no servidor aparece nos eventos
+ * {@link EventoRequisicao} e {@link EventoJson}.</p>
+ */
+@Name("cliente.Tabela")
+@Label("Recarga de tabela")
+@Category({"Cliente", "Telas"})
+@Description("Aplicação de linhas recebidas do servidor a uma tabela")
+@StackTrace(false)
+public class EventoTabela extends Event {
+
+    @Label("Tabela")
+    String tabela;
+
+    @Label("Linhas")
+    @Description("Linhas incluídas, alteradas ou removidas")
+    int linhas;
+
+    @Label("Carga completa")
+    @Description("false para alterações incrementais e blocos do histórico")
+    boolean completa;
+
+    /**
+     * Cria e inicia o evento.
+     *
+     * @return evento em andamento
+     */
+    public static EventoTabela iniciar() {
+        EventoTabela evento = new EventoTabela();
+        evento.begin();
+        return evento;
+    }
+
+    /**
+     * Encerra o evento e o grava, se a gravação estiver ativa.
+     *
+     * @param tabela nome da tabela
+     * @param linhas linhas aplicadas
+     * @param completa true se a tabela foi preenchida do zero
+     */
+    public void concluir(String tabela, int linhas, boolean completa) {
+        end();
+        if (shouldCommit()) {
+            this.tabela = tabela;
+            this.linhas = linhas;
+            this.completa = completa;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package metrica;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de valores inteiros não negativos com faixas log-lineares, no
+ * estilo do HdrHistogram.
+ *
+ * <p>
+ * Cada potência de dois é dividida em {@value #SUBFAIXAS} faixas de mesma
+ * largura, de modo que qualquer valor, de microssegundos a horas ou de bytes
+ * a gigabytes, é guardado com erro relativo de no máximo 1/{@value #SUBFAIXAS}
+ * em um vetor fixo de contadores. Registrar um valor é apenas o incremento de
+ * um contador atômico, sem alocação nem bloqueio, e pode ser feito por várias
+ * threads ao mesmo tempo.</p>
+ *
+ * <p>
+ * As leituras (contagem, percentis, média) não são atômicas em relação às
+ * escritas concorrentes: servem para acompanhamento, não para contabilidade
+ * exata.</p>
+ */
+public class Histograma {
+
+    /**
+     * Bits da subdivisão de cada potência de dois.
+     */
+    private static final int BITS_SUBFAIXA = 4;
+
+    /**
+     * Faixas por potência de dois.
+     */
+    private static final int SUBFAIXAS = 1 << BITS_SUBFAIXA;
+
+    /**
+     * Contadores por faixa, suficientes para qualquer {@code long} positivo.
+     */
+    private final AtomicLongArray contagens = new AtomicLongArray((Long.SIZE - BITS_SUBFAIXA + 1) * SUBFAIXAS);
+
+    /**
+     * Quantidade de valores registrados.
+     */
+    private final AtomicLong contagem = new AtomicLong();
+
+    /**
+     * Soma dos valores registrados.
+     */
+    private final AtomicLong soma = new AtomicLong();
+
+    /**
+     * Maior valor registrado.
+     */
+    private final AtomicLong maximo = new AtomicLong();
+
+    /**
+     * Registra um valor. Valores negativos contam como zero.
+     *
+     * @param valor valor medido
+     */
+    public void registrar(long valor) {
+        if (valor < 0) {
+            valor = 0;
+        }
+        contagens.incrementAndGet(faixa(valor));
+        contagem.incrementAndGet();
+        soma.addAndGet(valor);
+        if (valor > maximo.get()) {
+            maximo.accumulateAndGet(valor, Math::max);
+        }
+    }
+
+    /**
+     * Obtém a quantidade de valores registrados.
+     *
+     * @return contagem
+     */
+    public long getContagem() {
+        return contagem.get();
+    }
+
+    /**
+     * Obtém a média dos valores registrados.
+     *
+     * @return média, ou zero se não houver valores
+     */
+    public double getMedia() {
+        long n = contagem.get();
+        return n == 0 ? 0 : (double) soma.get() / n;
+    }
+
+    /**
+     * Obtém o maior valor registrado.
+     *
+     * @return máximo exato, ou zero se não houver valores
+     */
+    public long getMaximo() {
+        return maximo.get();
+    }
+
+    /**
+     * Obtém o valor abaixo do qual está a fração pedida dos registros.
+     *
+     * @param percentil percentil entre 0 e 100
+     * @return valor aproximado (ponto médio da faixa, limitado ao máximo), ou
+     * zero se não houver valores
+     */
+    public long percentil(double percentil) {
+        long n = contagem.get();
+        if (n == 0) {
+            return 0;
+        }
+        long alvo = Math.max(1, (long) Math.ceil(n * Math.min(100, Math.max(0, percentil)) / 100.0));
+        long acumulado = 0;
+        for (int i = 0; i < contagens.length(); i++) {
+            acumulado += contagens.get(i);
+            if (acumulado >= alvo) {
+                return Math.min(valorMedio(i), maximo.get());
+            }
+        }
+        return maximo.get();
+    }
+
+    /**
+     * Descarta todos os valores registrados.
+     */
+    public void zerar() {
+        for (int i = 0; i < contagens.length(); i++) {
+            contagens.set(i, 0);
+        }
+        contagem.set(0);
+        soma.set(0);
+        maximo.set(0);
+    }
+
+    /**
+     * Calcula a faixa de um valor: os valores pequenos têm uma faixa cada; os
+     * demais são agrupados pela potência de dois e pelos bits seguintes ao
+     * mais significativo.
+     *
+     * @param valor valor não negativo
+     * @return índice da faixa
+     */
+    private static int faixa(long valor) {
+        if (valor < SUBFAIXAS) {
+            return (int) valor;
+        }
+        int expoente = 63 - Long.numberOfLeadingZeros(valor);
+        int subfaixa = (int) (valor >>> (expoente - BITS_SUBFAIXA)) & (SUBFAIXAS - 1);
+        return (expoente - BITS_SUBFAIXA + 1) * SUBFAIXAS + subfaixa;
+    }
+
+    /**
+     * Ponto médio dos valores de uma faixa.
+     *
+     * @param faixa índice da faixa
+     * @return valor representativo
+     */
+    private static long valorMedio(int faixa) {
+        if (faixa < SUBFAIXAS) {
+            return faixa;
+        }
+        int expoente = faixa / SUBFAIXAS + BITS_SUBFAIXA - 1;
+        long largura = 1L << (expoente - BITS_SUBFAIXA);
+        long inicio = (1L << expoente) + (faixa % SUBFAIXAS) * largura;
+        return inicio + largura / 2;
+    }
+}
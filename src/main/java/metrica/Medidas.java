@@ -0,0 +1,301 @@
+package metrica;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import modelo.enums.TipoErro;
+
+/**
+ * Medidas das requisições de um par (ação, entidade).
+ *
+ * <p>
+ * Os tempos são guardados em microssegundos e os tamanhos em bytes, cada
+ * etapa em um {@link Histograma} próprio:</p>
+ *
+ * <ul>
+ * <li><b>conexão</b> – obter a conexão: espera por uma vaga no pool e, se
+ * preciso, abertura do socket;</li>
+ * <li><b>serialização</b> – conversão da requisição em JSON;</li>
+ * <li><b>espera</b> – do envio até a chegada do início da resposta, que
+ * inclui o processamento no servidor e a ida e volta na rede;</li>
+ * <li><b>desserialização</b> – leitura da resposta no tipo de destino, que
+ * inclui a transferência do restante dos bytes e a descompressão;</li>
+ * <li><b>compressão</b> – compressão das requisições e descompressão das
+ * respostas no modo de quadros, com os tamanhos antes e depois para o
+ * cálculo da taxa;</li>
+ * <li><b>total</b> – a requisição inteira, do ponto de vista de quem chamou,
+ * inclusive repetições.</li>
+ * </ul>
+ *
+ * <p>
+ * As falhas de comunicação são contadas por {@link TipoErro}; as respostas de
+ * erro devolvidas pelo próprio servidor são contadas à parte, como recusas.</p>
+ */
+public class Medidas {
+
+    /**
+     * Tempo para obter a conexão, em microssegundos.
+     */
+    private final Histograma conexao = new Histograma();
+
+    /**
+     * Tempo de serialização, em microssegundos.
+     */
+    private final Histograma serializacao = new Histograma();
+
+    /**
+     * Tempo do envio até o início da resposta, em microssegundos.
+     */
+    private final Histograma espera = new Histograma();
+
+    /**
+     * Tempo de desserialização, em microssegundos.
+     */
+    private final Histograma desserializacao = new Histograma();
+
+    /**
+     * Tempo total da requisição, em microssegundos.
+     */
+    private final Histograma total = new Histograma();
+
+    /**
+     * Tamanho da requisição, em bytes.
+     */
+    private final Histograma bytesRequisicao = new Histograma();
+
+    /**
+     * Tamanho da resposta, em bytes.
+     */
+    private final Histograma bytesResposta = new Histograma();
+
+    /**
+     * Tempo de compressão e descompressão das mensagens, em microssegundos.
+     */
+    private final Histograma compressao = new Histograma();
+
+    /**
+     * Soma dos tamanhos originais das mensagens comprimidas, em bytes.
+     */
+    private final AtomicLong bytesOriginais = new AtomicLong();
+
+    /**
+     * Soma dos tamanhos comprimidos das mesmas mensagens, em bytes.
+     */
+    private final AtomicLong bytesComprimidos = new AtomicLong();
+
+    /**
+     * Falhas de comunicação, indexadas pelo ordinal de {@link TipoErro}.
+     */
+    private final AtomicLongArray falhas = new AtomicLongArray(TipoErro.values().length);
+
+    /**
+     * Respostas com status de erro devolvidas pelo servidor.
+     */
+    private final AtomicLong recusas = new AtomicLong();
+
+    /**
+     * Registra o tempo para obter a conexão.
+     *
+     * @param nanos duração em nanossegundos
+     */
+    public void registrarConexao(long nanos) {
+        conexao.registrar(nanos / 1000);
+    }
+
+    /**
+     * Registra a serialização da requisição.
+     *
+     * @param nanos duração em nanossegundos
+     * @param bytes tamanho da requisição serializada
+     */
+    public void registrarSerializacao(long nanos, long bytes) {
+        serializacao.registrar(nanos / 1000);
+        bytesRequisicao.registrar(bytes);
+    }
+
+    /**
+     * Registra a chegada e a leitura de uma resposta.
+     *
+     * @param esperaNanos tempo do envio até o início da resposta
+     * @param desserializacaoNanos tempo de leitura da resposta
+     * @param bytes tamanho da resposta
+     */
+    public void registrarResposta(long esperaNanos, long desserializacaoNanos, long bytes) {
+        espera.registrar(esperaNanos / 1000);
+        desserializacao.registrar(desserializacaoNanos / 1000);
+        bytesResposta.registrar(bytes);
+    }
+
+    /**
+     * Registra a compressão de uma requisição ou a descompressão de uma
+     * resposta.
+     *
+     * @param nanos tempo gasto, em nanossegundos
+     * @param original tamanho da mensagem sem compressão
+     * @param comprimido tamanho da mensagem comprimida
+     */
+    public void registrarCompressao(long nanos, long original, long comprimido) {
+        compressao.registrar(nanos / 1000);
+        bytesOriginais.addAndGet(original);
+        bytesComprimidos.addAndGet(comprimido);
+    }
+
+    /**
+     * Registra a conclusão de uma requisição.
+     *
+     * @param nanos duração total em nanossegundos
+     * @param erro tipo da falha de comunicação, ou null se houve resposta
+     * @param recusada true se o servidor respondeu com status de erro
+     */
+    public void registrarConclusao(long nanos, TipoErro erro, boolean recusada) {
+        total.registrar(nanos / 1000);
+        if (erro != null) {
+            falhas.incrementAndGet(erro.ordinal());
+        } else if (recusada) {
+            recusas.incrementAndGet();
+        }
+    }
+
+    /**
+     * Obtém o histograma dos tempos para obter a conexão, em microssegundos.
+     *
+     * @return histograma
+     */
+    public Histograma getConexao() {
+        return conexao;
+    }
+
+    /**
+     * Obtém o histograma dos tempos de serialização, em microssegundos.
+     *
+     * @return histograma
+     */
+    public Histograma getSerializacao() {
+        return serializacao;
+    }
+
+    /**
+     * Obtém o histograma dos tempos de espera pelo início da resposta, em
+     * microssegundos.
+     *
+     * @return histograma
+     */
+    public Histograma getEspera() {
+        return espera;
+    }
+
+    /**
+     * Obtém o histograma dos tempos de desserialização, em microssegundos.
+     *
+     * @return histograma
+     */
+    public Histograma getDesserializacao() {
+        return desserializacao;
+    }
+
+    /**
+     * Obtém o histograma dos tempos totais das requisições, em microssegundos.
+     *
+     * @return histograma
+     */
+    public Histograma getTotal() {
+        return total;
+    }
+
+    /**
+     * Obtém o histograma dos tamanhos das requisições, em bytes.
+     *
+     * @return histograma
+     */
+    public Histograma getBytesRequisicao() {
+        return bytesRequisicao;
+    }
+
+    /**
+     * Obtém o histograma dos tamanhos das respostas, em bytes.
+     *
+     * @return histograma
+     */
+    public Histograma getBytesResposta() {
+        return bytesResposta;
+    }
+
+    /**
+     * Obtém o histograma dos tempos de compressão e descompressão, em
+     * microssegundos.
+     *
+     * @return histograma
+     */
+    public Histograma getCompressao() {
+        return compressao;
+    }
+
+    /**
+     * Obtém a soma dos tamanhos originais das mensagens comprimidas.
+     *
+     * @return bytes antes da compressão
+     */
+    public long getBytesOriginais() {
+        return bytesOriginais.get();
+    }
+
+    /**
+     * Obtém a soma dos tamanhos comprimidos das mensagens.
+     *
+     * @return bytes depois da compressão
+     */
+    public long getBytesComprimidos() {
+        return bytesComprimidos.get();
+    }
+
+    /**
+     * Obtém a quantidade de falhas de comunicação de um tipo.
+     *
+     * @param tipo tipo da falha
+     * @return quantidade
+     */
+    public long getFalhas(TipoErro tipo) {
+        return falhas.get(tipo.ordinal());
+    }
+
+    /**
+     * Obtém a quantidade total de falhas de comunicação.
+     *
+     * @return quantidade
+     */
+    public long getFalhas() {
+        long soma = 0;
+        for (int i = 0; i < falhas.length(); i++) {
+            soma += falhas.get(i);
+        }
+        return soma;
+    }
+
+    /**
+     * Obtém a quantidade de respostas de erro devolvidas pelo servidor.
+     *
+     * @return quantidade
+     */
+    public long getRecusas() {
+        return recusas.get();
+    }
+
+    /**
+     * Descarta todas as medidas.
+     */
+    public void zerar() {
+        conexao.zerar();
+        serializacao.zerar();
+        espera.zerar();
+        desserializacao.zerar();
+        total.zerar();
+        bytesRequisicao.zerar();
+        bytesResposta.zerar();
+        compressao.zerar();
+        bytesOriginais.set(0);
+        bytesComprimidos.set(0);
+        for (int i = 0; i < falhas.length(); i++) {
+            falhas.set(i, 0);
+        }
+        recusas.set(0);
+    }
+}
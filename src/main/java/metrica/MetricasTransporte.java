@@ -0,0 +1,350 @@
+package metrica;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import modelo.enums.Acao;
+import modelo.enums.Entidade;
+import modelo.enums.TipoErro;
+
+/**
+ * Registro das {@link Medidas} do transporte, por par (ação, entidade).
+ *
+ * <p>
+ * As medidas de cada par ficam em uma posição fixa de um vetor indexado pelos
+ * ordinais das enumerações e são criadas no primeiro uso, de modo que
+ * localizá-las a cada requisição não aloca nem bloqueia.</p>
+ *
+ * <p>
+ * Os valores podem ser consultados de três formas:</p>
+ *
+ * <ul>
+ * <li>{@link #relatorio()}: texto com os percentis de cada etapa, por par;</li>
+ * <li>uma linha de resumo escrita no console a cada
+ * {@code metricas.log.ms} (desligada com zero);</li>
+ * <li>o MBean {@value #NOME_MBEAN}, visível no JConsole ou VisualVM, que
+ * expõe o relatório, os totais e o estado dos disjuntores dos
+ * servidores.</li>
+ * </ul>
+ */
+public class MetricasTransporte {
+
+    /**
+     * Nome com que o MBean é registrado.
+     */
+    public static final String NOME_MBEAN = "cliente:type=Transporte";
+
+    /**
+     * Colunas do vetor: uma por entidade, mais uma para requisições sem
+     * entidade.
+     */
+    private static final int ENTIDADES = Entidade.values().length + 1;
+
+    /**
+     * Medidas por par, na posição {@code acao * ENTIDADES + entidade}.
+     */
+    private static final AtomicReferenceArray<Medidas> medidas = new AtomicReferenceArray<>((Acao.values().length + 1) * ENTIDADES);
+
+    /**
+     * Fornece o estado dos disjuntores dos servidores.
+     */
+    private static volatile Supplier<? extends Map<String, ?>> estadoServidores = Map::of;
+
+    /**
+     * Tarefa que escreve o resumo periódico, ou null se desligada.
+     */
+    private static ScheduledExecutorService registroPeriodico;
+
+    /**
+     * Indica se o MBean já foi registrado.
+     */
+    private static boolean iniciado;
+
+    /**
+     * Construtor privado para impedir instanciação da classe.
+     */
+    private MetricasTransporte() {
+        // Impede instanciação
+    }
+
+    /**
+     * Registra o MBean e, se configurado, inicia o resumo periódico. Chamadas
+     * seguintes são ignoradas.
+     *
+     * @param intervaloLogMs intervalo do resumo no console, ou zero para não
+     * escrever
+     * @param estados fornece o estado do disjuntor de cada servidor
+     */
+    public static synchronized void iniciar(long intervaloLogMs, Supplier<? extends Map<String, ?>> estados) {
+        if (iniciado) {
+            return;
+        }
+        iniciado = true;
+        estadoServidores = estados;
+        try {
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            servidor.registerMBean(new MonitorTransporte(), new ObjectName(NOME_MBEAN));
+        } catch (JMException | RuntimeException e) {
+            System.out.println("Erro ao registrar métricas no JMX: " + e.getMessage());
+        }
+        if (intervaloLogMs > 0) {
+            registroPeriodico = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "metricas-transporte");
+                t.setDaemon(true);
+                return t;
+            });
+            registroPeriodico.scheduleAtFixedRate(MetricasTransporte::escreverResumo,
+                    intervaloLogMs, intervaloLogMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Obtém as medidas de um par, criando-as no primeiro uso.
+     *
+     * @param acao ação da requisição, ou null
+     * @param entidade entidade da requisição, ou null
+     * @return medidas do par
+     */
+    public static Medidas de(Acao acao, Entidade entidade) {
+        int linha = acao == null ? Acao.values().length : acao.ordinal();
+        int coluna = entidade == null ? ENTIDADES - 1 : entidade.ordinal();
+        int posicao = linha * ENTIDADES + coluna;
+        Medidas atual = medidas.get(posicao);
+        if (atual == null) {
+            medidas.compareAndSet(posicao, null, new Medidas());
+            atual = medidas.get(posicao);
+        }
+        return atual;
+    }
+
+    /**
+     * Obtém o total de requisições concluídas.
+     *
+     * @return requisições, com ou sem sucesso
+     */
+    public static long getRequisicoes() {
+        long soma = 0;
+        for (int i = 0; i < medidas.length(); i++) {
+            Medidas m = medidas.get(i);
+            soma += m == null ? 0 : m.getTotal().getContagem();
+        }
+        return soma;
+    }
+
+    /**
+     * Obtém o total de falhas de comunicação.
+     *
+     * @return falhas de todos os tipos
+     */
+    public static long getFalhas() {
+        long soma = 0;
+        for (int i = 0; i < medidas.length(); i++) {
+            Medidas m = medidas.get(i);
+            soma += m == null ? 0 : m.getFalhas();
+        }
+        return soma;
+    }
+
+    /**
+     * Obtém o total de respostas de erro devolvidas pelos servidores.
+     *
+     * @return recusas
+     */
+    public static long getRecusas() {
+        long soma = 0;
+        for (int i = 0; i < medidas.length(); i++) {
+            Medidas m = medidas.get(i);
+            soma += m == null ? 0 : m.getRecusas();
+        }
+        return soma;
+    }
+
+    /**
+     * Obtém a taxa de compressão de todas as mensagens comprimidas.
+     *
+     * @return tamanho original dividido pelo comprimido, ou zero se nada foi
+     * comprimido
+     */
+    public static double getTaxaCompressao() {
+        long originais = 0;
+        long comprimidos = 0;
+        for (int i = 0; i < medidas.length(); i++) {
+            Medidas m = medidas.get(i);
+            if (m != null) {
+                originais += m.getBytesOriginais();
+                comprimidos += m.getBytesComprimidos();
+            }
+        }
+        return comprimidos == 0 ? 0 : (double) originais / comprimidos;
+    }
+
+    /**
+     * Obtém o estado do disjuntor de cada servidor.
+     *
+     * @return estado por {@code host:porta}
+     */
+    public static Map<String, ?> estadoServidores() {
+        return estadoServidores.get();
+    }
+
+    /**
+     * Descarta todas as medidas.
+     */
+    public static void zerar() {
+        for (int i = 0; i < medidas.length(); i++) {
+            Medidas m = medidas.get(i);
+            if (m != null) {
+                m.zerar();
+            }
+        }
+    }
+
+    /**
+     * Monta o relatório completo: para cada par com requisições, a contagem,
+     * os percentis de cada etapa e as falhas por tipo.
+     *
+     * @return relatório em texto, uma etapa por linha
+     */
+    public static String relatorio() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Servidores: ").append(estadoServidores()).append('\n');
+        for (int i = 0; i < medidas.length(); i++) {
+            Medidas m = medidas.get(i);
+            if (m == null || m.getTotal().getContagem() == 0) {
+                continue;
+            }
+            sb.append(nomePar(i))
+                    .append(": requisições=").append(m.getTotal().getContagem())
+                    .append(" falhas=").append(m.getFalhas())
+                    .append(" recusas=").append(m.getRecusas()).append('\n');
+            linha(sb, "total", m.getTotal(), true);
+            linha(sb, "conexão", m.getConexao(), true);
+            linha(sb, "serialização", m.getSerializacao(), true);
+            linha(sb, "espera", m.getEspera(), true);
+            linha(sb, "desserialização", m.getDesserializacao(), true);
+            linha(sb, "bytes requisição", m.getBytesRequisicao(), false);
+            linha(sb, "bytes resposta", m.getBytesResposta(), false);
+            linha(sb, "compressão", m.getCompressao(), true);
+            if (m.getBytesComprimidos() > 0) {
+                sb.append(String.format("  %-17s %s -> %s (%.1fx)%n", "taxa compressão", bytes(m.getBytesOriginais()),
+                        bytes(m.getBytesComprimidos()), (double) m.getBytesOriginais() / m.getBytesComprimidos()));
+            }
+            if (m.getFalhas() > 0) {
+                sb.append("  falhas:");
+                for (TipoErro tipo : TipoErro.values()) {
+                    if (m.getFalhas(tipo) > 0) {
+                        sb.append(' ').append(tipo).append('=').append(m.getFalhas(tipo));
+                    }
+                }
+                sb.append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Monta o resumo de uma linha: por par, a contagem, as falhas e os
+     * percentis 50 e 99 do tempo total.
+     *
+     * @return resumo, ou texto indicando que não houve requisições
+     */
+    public static String resumo() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < medidas.length(); i++) {
+            Medidas m = medidas.get(i);
+            if (m == null || m.getTotal().getContagem() == 0) {
+                continue;
+            }
+            Histograma total = m.getTotal();
+            sb.append(sb.length() == 0 ? "" : " | ").append(nomePar(i))
+                    .append(" n=").append(total.getContagem())
+                    .append(" falhas=").append(m.getFalhas())
+                    .append(" p50=").append(tempo(total.percentil(50)))
+                    .append(" p99=").append(tempo(total.percentil(99)));
+        }
+        return sb.length() == 0 ? "sem requisições" : sb.toString();
+    }
+
+    /**
+     * Escreve o resumo no console.
+     */
+    private static void escreverResumo() {
+        System.out.println("Métricas do transporte: " + resumo());
+    }
+
+    /**
+     * Acrescenta ao relatório a linha de um histograma.
+     *
+     * @param sb relatório
+     * @param nome nome da etapa
+     * @param h histograma
+     * @param tempo true se os valores forem microssegundos, false se bytes
+     */
+    private static void linha(StringBuilder sb, String nome, Histograma h, boolean tempo) {
+        if (h.getContagem() == 0) {
+            return;
+        }
+        sb.append(String.format("  %-17s n=%d média=%s p50=%s p90=%s p99=%s máx=%s%n", nome, h.getContagem(),
+                formatar(Math.round(h.getMedia()), tempo), formatar(h.percentil(50), tempo),
+                formatar(h.percentil(90), tempo), formatar(h.percentil(99), tempo),
+                formatar(h.getMaximo(), tempo)));
+    }
+
+    /**
+     * Formata um valor de histograma.
+     *
+     * @param valor microssegundos ou bytes
+     * @param tempo true se o valor for de tempo
+     * @return valor com unidade
+     */
+    private static String formatar(long valor, boolean tempo) {
+        return tempo ? tempo(valor) : bytes(valor);
+    }
+
+    /**
+     * Formata um tempo.
+     *
+     * @param micros tempo em microssegundos
+     * @return tempo com unidade
+     */
+    private static String tempo(long micros) {
+        if (micros < 1000) {
+            return micros + "us";
+        }
+        return micros < 1_000_000 ? String.format("%.1fms", micros / 1000.0) : String.format("%.2fs", micros / 1_000_000.0);
+    }
+
+    /**
+     * Formata um tamanho.
+     *
+     * @param bytes tamanho em bytes
+     * @return tamanho com unidade
+     */
+    private static String bytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + "B";
+        }
+        return bytes < 1024 * 1024 ? String.format("%.1fKB", bytes / 1024.0) : String.format("%.1fMB", bytes / (1024.0 * 1024));
+    }
+
+    /**
+     * Nome de um par a partir da sua posição no vetor.
+     *
+     * @param posicao posição no vetor
+     * @return texto {@code ACAO/ENTIDADE}
+     */
+    private static String nomePar(int posicao) {
+        int linha = posicao / ENTIDADES;
+        int coluna = posicao % ENTIDADES;
+        String acao = linha < Acao.values().length ? Acao.values()[linha].name() : "-";
+        String entidade = coluna < Entidade.values().length ? Entidade.values()[coluna].name() : "-";
+        return acao + "/" + entidade;
+    }
+}
@@ -0,0 +1,51 @@
+package metrica;
+
+import java.util.Map;
+
+/**
+ * MBean que expõe as métricas do transporte via JMX, delegando a
+ * {@link MetricasTransporte}.
+ */
+public class MonitorTransporte implements MonitorTransporteMBean {
+
+    @Override
+    public long getRequisicoes() {
+        return MetricasTransporte.getRequisicoes();
+    }
+
+    @Override
+    public long getFalhas() {
+        return MetricasTransporte.getFalhas();
+    }
+
+    @Override
+    public long getRecusas() {
+        return MetricasTransporte.getRecusas();
+    }
+
+    @Override
+    public double getTaxaCompressao() {
+        return MetricasTransporte.getTaxaCompressao();
+    }
+
+    @Override
+    public String[] getEstadoServidores() {
+        Map<String, ?> estados = MetricasTransporte.estadoServidores();
+        String[] itens = new String[estados.size()];
+        int i = 0;
+        for (Map.Entry<String, ?> estado : estados.entrySet()) {
+            itens[i++] = estado.getKey() + "=" + estado.getValue();
+        }
+        return itens;
+    }
+
+    @Override
+    public String getRelatorio() {
+        return MetricasTransporte.relatorio();
+    }
+
+    @Override
+    public void zerar() {
+        MetricasTransporte.zerar();
+    }
+}
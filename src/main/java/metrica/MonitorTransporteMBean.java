@@ -0,0 +1,59 @@
+package metrica;
+
+/**
+ * Interface de gerenciamento JMX das métricas do transporte.
+ *
+ * <p>
+ * Registrada como {@value MetricasTransporte#NOME_MBEAN} por
+ * {@link MetricasTransporte#iniciar}.</p>
+ */
+public interface MonitorTransporteMBean {
+
+    /**
+     * Obtém o total de requisições concluídas.
+     *
+     * @return requisições, com ou sem sucesso
+     */
+    long getRequisicoes();
+
+    /**
+     * Obtém o total de falhas de comunicação.
+     *
+     * @return falhas de todos os tipos
+     */
+    long getFalhas();
+
+    /**
+     * Obtém o total de respostas de erro devolvidas pelos servidores.
+     *
+     * @return recusas
+     */
+    long getRecusas();
+
+    /**
+     * Obtém a taxa de compressão das mensagens comprimidas.
+     *
+     * @return tamanho original dividido pelo comprimido, ou zero se nada foi
+     * comprimido
+     */
+    double getTaxaCompressao();
+
+    /**
+     * Obtém o estado do disjuntor de cada servidor.
+     *
+     * @return um item {@code host:porta=ESTADO} por servidor
+     */
+    String[] getEstadoServidores();
+
+    /**
+     * Obtém o relatório completo das métricas.
+     *
+     * @return relatório em texto
+     */
+    String getRelatorio();
+
+    /**
+     * Descarta todas as medidas.
+     */
+    void zerar();
+}
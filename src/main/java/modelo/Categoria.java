@@ -1,5 +1,6 @@
 package modelo;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import modelo.enums.Embalagem;
 import modelo.enums.Tamanho;
 
@@ -37,6 +38,14 @@ public class Categoria {
      */
     private Embalagem embalagem;
 
+    /**
+     * Versão da última alteração, atribuída pelo servidor a partir de um
+     * contador que só cresce. Permite pedir apenas o que mudou desde uma
+     * versão conhecida.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long versao;
+
     /**
      * Construtor padrão necessário para serialização e frameworks.
      */
@@ -129,4 +138,22 @@ public class Categoria {
     public void setEmbalagem(Embalagem embalagem) {
         this.embalagem = embalagem;
     }
+
+    /**
+     * Obtém a versão em que a categoria foi alterada pela última vez.
+     *
+     * @return versão atribuída pelo servidor, ou null se não informada
+     */
+    public Long getVersao() {
+        return versao;
+    }
+
+    /**
+     * Define a versão da última alteração.
+     *
+     * @param versao versão atribuída pelo servidor
+     */
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
 }
@@ -1,5 +1,7 @@
 package modelo;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 /**
  * Representa um produto no sistema de controle de estoque.
  *
@@ -54,6 +56,14 @@ public class Produto {
      */
     private Integer quantidadeMaxima;
 
+    /**
+     * Versão da última alteração, atribuída pelo servidor a partir de um
+     * contador que só cresce. Permite pedir apenas o que mudou desde uma
+     * versão conhecida.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long versao;
+
     /**
      * Construtor padrão necessário para serialização e frameworks.
      */
@@ -226,4 +236,22 @@ public class Produto {
     public void setQuantidadeMaxima(Integer quantidadeMaxima) {
         this.quantidadeMaxima = quantidadeMaxima;
     }
+
+    /**
+     * Obtém a versão em que o produto foi alterado pela última vez.
+     *
+     * @return versão atribuída pelo servidor, ou null se não informada
+     */
+    public Long getVersao() {
+        return versao;
+    }
+
+    /**
+     * Define a versão da última alteração.
+     *
+     * @param versao versão atribuída pelo servidor
+     */
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
 }
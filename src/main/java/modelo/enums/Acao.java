@@ -5,7 +5,8 @@ package modelo.enums;
  *
  * <p>
  * Representa as operações básicas de CRUD (Create, Read, Update, Delete) e
- * operações específicas de negócio como aumento e diminuição de valores.</p>
+ * operações específicas de negócio como aumento e diminuição de valores e
+ * movimentação de estoque.</p>
  */
 public enum Acao {
     /**
@@ -35,5 +36,23 @@ public enum Acao {
     /**
      * Operação para diminuir valores (ex: preços)
      */
-    DIMINUIR;
+    DIMINUIR,
+    /**
+     * Operação para movimentar o estoque de um produto (entrada ou saída)
+     */
+    MOVIMENTAR,
+    /**
+     * Operação que agrupa várias operações em uma única requisição
+     */
+    LOTE,
+    /**
+     * Operação que mantém a conexão aberta para receber as alterações feitas
+     * por outros clientes
+     */
+    ASSINAR,
+    /**
+     * Operação que combina com o servidor o formato das mensagens seguintes
+     * da conexão
+     */
+    NEGOCIAR;
 }
@@ -0,0 +1,36 @@
+package modelo.enums;
+
+/**
+ * Enumeração que classifica as falhas de comunicação com o servidor.
+ *
+ * <p>
+ * É informada pelo próprio cliente na {@link dto.Resposta} de erro montada
+ * quando não há resposta do servidor, para que quem a recebe saiba se vale a
+ * pena tentar de novo sem precisar interpretar a mensagem.</p>
+ */
+public enum TipoErro {
+    /**
+     * O servidor não respondeu dentro do tempo limite
+     */
+    TEMPO_ESGOTADO,
+    /**
+     * Não foi possível abrir conexão com o servidor
+     */
+    SERVIDOR_INDISPONIVEL,
+    /**
+     * A conexão caiu antes da resposta chegar
+     */
+    CONEXAO_PERDIDA,
+    /**
+     * Todos os servidores falharam recentemente; a requisição nem foi enviada
+     */
+    CIRCUITO_ABERTO,
+    /**
+     * A resposta chegou, mas não pôde ser lida
+     */
+    RESPOSTA_INVALIDA,
+    /**
+     * A espera pela resposta foi interrompida
+     */
+    INTERROMPIDO;
+}
@@ -0,0 +1,73 @@
+package principal;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import servico.ImportadorProdutos;
+
+/**
+ * Ponto de entrada sem interface gráfica para importar produtos de um arquivo
+ * CSV.
+ *
+ * <p>Usa o mesmo arquivo de configuração e o mesmo servidor da aplicação. O
+ * progresso é exibido a cada 10% e, ao final, um resumo com as primeiras
+ * linhas rejeitadas.</p>
+ *
+ * <p>Uso: {@code java -cp <classpath> principal.ImportarProdutos produtos.csv}.
+ * O código de saída é 0 quando todas as linhas foram importadas, 2 quando
+ * alguma foi rejeitada e 1 quando o arquivo não pôde ser importado.</p>
+ */
+public class ImportarProdutos {
+
+    /**
+     * Construtor padrão da classe de importação.
+     */
+    public ImportarProdutos() {
+    }
+
+    /**
+     * Importa o arquivo informado e exibe o resumo.
+     *
+     * @param args caminho do arquivo CSV
+     */
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.out.println("Uso: ImportarProdutos <arquivo.csv>");
+            System.exit(1);
+        }
+        Path arquivo = Path.of(args[0]);
+        if (!Files.isReadable(arquivo)) {
+            System.out.println("Erro ao abrir o arquivo: " + arquivo);
+            System.exit(1);
+        }
+
+        ImportadorProdutos.Resumo resumo;
+        try {
+            int[] ultimo = {0};
+            resumo = new ImportadorProdutos().importar(arquivo, percentual -> {
+                if (percentual >= ultimo[0] + 10 || percentual == 100) {
+                    ultimo[0] = percentual - percentual % 10;
+                    System.out.println("Importando... " + percentual + "%");
+                }
+            });
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Erro ao importar produtos: " + e.getMessage());
+            System.exit(1);
+            return;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.out.println("Importação interrompida");
+            System.exit(1);
+            return;
+        }
+
+        System.out.println("Importação concluída: " + resumo);
+        for (String erro : resumo.getErros()) {
+            System.out.println("  " + erro);
+        }
+        if (resumo.getRejeitadas() > resumo.getErros().size()) {
+            System.out.println("  ... e mais " + (resumo.getRejeitadas() - resumo.getErros().size()) + " linhas rejeitadas");
+        }
+        System.exit(resumo.getRejeitadas() > 0 ? 2 : 0);
+    }
+}
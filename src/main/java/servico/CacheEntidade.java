@@ -0,0 +1,360 @@
+package servico;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Cache em memória de entidades indexadas por id, compartilhado pelos serviços.
+ *
+ * <p>
+ * Cada entrada expira após um tempo de vida (TTL) e, quando o limite de
+ * entradas é atingido, a menos usada recentemente é descartada. Além das
+ * entradas individuais o cache guarda a ordem da última listagem completa, de
+ * modo que uma nova listagem possa ser atendida localmente enquanto nenhuma
+ * entrada da lista tiver expirado ou sido descartada.</p>
+ *
+ * <p>
+ * Os serviços atualizam o cache quando uma escrita é confirmada pelo servidor
+ * e o invalidam quando o efeito da escrita não pode ser reproduzido localmente
+ * (criação, reajuste em lote). Cada invalidação avança uma geração: uma
+ * listagem que estava em andamento durante a escrita não é guardada, evitando
+ * que dados antigos voltem ao cache. Os objetos são copiados na entrada e na
+ * saída, para que alterações feitas pelas telas não afetem as entradas.</p>
+ *
+ * @param <T> tipo da entidade
+ */
+public class CacheEntidade<T> {
+
+    /**
+     * Entrada do cache com o instante de expiração.
+     *
+     * @param <T> tipo da entidade
+     */
+    private static final class Entrada<T> {
+
+        /**
+         * Entidade guardada.
+         */
+        private final T valor;
+
+        /**
+         * Instante de expiração, em nanossegundos.
+         */
+        private final long expiraEm;
+
+        /**
+         * Cria uma entrada.
+         *
+         * @param valor entidade guardada
+         * @param expiraEm instante de expiração, em nanossegundos
+         */
+        Entrada(T valor, long expiraEm) {
+            this.valor = valor;
+            this.expiraEm = expiraEm;
+        }
+    }
+
+    /**
+     * Entradas por id, em ordem de acesso (a primeira é a menos usada).
+     */
+    private final LinkedHashMap<Integer, Entrada<T>> entradas;
+
+    /**
+     * Ids da última listagem completa, na ordem devolvida pelo servidor, ou
+     * null se não houver listagem válida.
+     */
+    private List<Integer> lista;
+
+    /**
+     * Contador de invalidações, usado para descartar listagens obsoletas.
+     */
+    private long geracao;
+
+    /**
+     * Tempo de vida das entradas, em nanossegundos.
+     */
+    private final long ttlNanos;
+
+    /**
+     * Extrai o id de uma entidade.
+     */
+    private final Function<T, Integer> extrairId;
+
+    /**
+     * Produz uma cópia independente de uma entidade.
+     */
+    private final UnaryOperator<T> copiar;
+
+    /**
+     * Consultas atendidas pelo cache.
+     */
+    private final AtomicLong acertos = new AtomicLong();
+
+    /**
+     * Consultas que precisaram ir ao servidor.
+     */
+    private final AtomicLong faltas = new AtomicLong();
+
+    /**
+     * Cria um cache.
+     *
+     * @param tamanhoMaximo número máximo de entidades guardadas
+     * @param ttlMs tempo de vida das entradas em milissegundos; zero ou
+     * negativo desativa o cache
+     * @param extrairId função que obtém o id da entidade
+     * @param copiar função que copia a entidade
+     */
+    public CacheEntidade(int tamanhoMaximo, long ttlMs, Function<T, Integer> extrairId, UnaryOperator<T> copiar) {
+        this.ttlNanos = ttlMs * 1_000_000L;
+        this.extrairId = extrairId;
+        this.copiar = copiar;
+        this.entradas = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Entrada<T>> maisAntiga) {
+                if (size() > tamanhoMaximo) {
+                    lista = null; // a listagem deixa de estar completa
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Obtém uma entidade pelo id.
+     *
+     * @param id identificador da entidade
+     * @return cópia da entidade, ou null se não estiver no cache ou tiver
+     * expirado
+     */
+    public synchronized T obter(Integer id) {
+        T valor = id == null ? null : valido(id);
+        contar(valor != null);
+        return valor == null ? null : copiar.apply(valor);
+    }
+
+    /**
+     * Obtém a última listagem completa.
+     *
+     * @return cópias das entidades na ordem do servidor, ou null se não houver
+     * listagem válida
+     */
+    public synchronized List<T> listar() {
+        List<T> resultado = null;
+        if (lista != null) {
+            resultado = new ArrayList<>(lista.size());
+            for (Integer id : lista) {
+                T valor = valido(id);
+                if (valor == null) {
+                    lista = null;
+                    resultado = null;
+                    break;
+                }
+                resultado.add(copiar.apply(valor));
+            }
+        }
+        contar(resultado != null);
+        return resultado;
+    }
+
+    /**
+     * Obtém a geração atual, a ser informada em {@link #guardarLista} quando a
+     * listagem chegar do servidor.
+     *
+     * @return geração atual
+     */
+    public synchronized long geracao() {
+        return geracao;
+    }
+
+    /**
+     * Guarda ou substitui uma entidade confirmada pelo servidor.
+     *
+     * @param valor entidade a guardar
+     */
+    public synchronized void guardar(T valor) {
+        colocar(valor);
+        geracao++;
+    }
+
+    /**
+     * Aplica uma alteração confirmada pelo servidor a uma entidade guardada,
+     * sem afetar a listagem. Se a entidade não estiver no cache nada é
+     * guardado.
+     *
+     * @param id identificador da entidade
+     * @param alteracao alteração aplicada sobre uma cópia da entidade
+     */
+    public synchronized void alterar(Integer id, Consumer<T> alteracao) {
+        T valor = id == null ? null : valido(id);
+        if (valor != null) {
+            T novo = copiar.apply(valor);
+            alteracao.accept(novo);
+            colocar(novo);
+        }
+        geracao++;
+    }
+
+    /**
+     * Guarda uma listagem completa recebida do servidor.
+     *
+     * <p>
+     * A listagem é ignorada se o cache foi invalidado depois que ela foi
+     * solicitada.</p>
+     *
+     * @param valores entidades na ordem do servidor
+     * @param geracaoSolicitacao geração obtida antes de enviar a requisição
+     */
+    public synchronized void guardarLista(List<T> valores, long geracaoSolicitacao) {
+        if (geracaoSolicitacao != geracao || ttlNanos <= 0) {
+            return;
+        }
+        List<Integer> ids = new ArrayList<>(valores.size());
+        for (T valor : valores) {
+            Integer id = extrairId.apply(valor);
+            if (id == null) {
+                return; // sem id não é possível reconstruir a listagem
+            }
+            ids.add(id);
+        }
+        entradas.clear();
+        for (T valor : valores) {
+            colocar(valor);
+        }
+        // Guardada por último: o descarte por tamanho durante a carga anularia a lista
+        lista = entradas.size() == ids.size() ? ids : null;
+    }
+
+    /**
+     * Aplica o resultado de uma listagem incremental: as entidades alteradas
+     * são substituídas, as novas entram no fim da listagem guardada e as
+     * excluídas saem dela, sem recarregar as demais.
+     *
+     * @param alterados entidades criadas ou alteradas, na ordem do servidor
+     * @param removidos identificadores das entidades excluídas
+     */
+    public synchronized void aplicarAlteracoes(List<T> alterados, List<Integer> removidos) {
+        Set<Integer> listados = lista == null ? null : new HashSet<>(lista);
+        for (T valor : alterados) {
+            colocar(valor);
+            Integer id = extrairId.apply(valor);
+            if (listados != null && id != null && listados.add(id)) {
+                lista.add(id);
+            }
+        }
+        for (Integer id : removidos) {
+            entradas.remove(id);
+        }
+        if (lista != null && !removidos.isEmpty()) {
+            lista.removeAll(new HashSet<>(removidos));
+        }
+        geracao++;
+    }
+
+    /**
+     * Remove uma entidade e a retira da listagem.
+     *
+     * @param id identificador da entidade
+     */
+    public synchronized void remover(Integer id) {
+        entradas.remove(id);
+        if (lista != null) {
+            lista.remove(id);
+        }
+        geracao++;
+    }
+
+    /**
+     * Marca a listagem como incompleta, mantendo as entradas individuais. Usado
+     * quando uma entidade nova foi criada no servidor.
+     */
+    public synchronized void invalidarLista() {
+        lista = null;
+        geracao++;
+    }
+
+    /**
+     * Descarta todo o conteúdo do cache.
+     */
+    public synchronized void invalidar() {
+        entradas.clear();
+        lista = null;
+        geracao++;
+    }
+
+    /**
+     * Obtém o número de consultas atendidas pelo cache.
+     *
+     * @return total de acertos
+     */
+    public long getAcertos() {
+        return acertos.get();
+    }
+
+    /**
+     * Obtém o número de consultas que precisaram ir ao servidor.
+     *
+     * @return total de faltas
+     */
+    public long getFaltas() {
+        return faltas.get();
+    }
+
+    /**
+     * Resume os contadores do cache.
+     *
+     * @return texto com acertos, faltas e entradas guardadas
+     */
+    @Override
+    public synchronized String toString() {
+        return "acertos=" + acertos.get() + ", faltas=" + faltas.get() + ", entradas=" + entradas.size();
+    }
+
+    /**
+     * Insere uma entidade sem alterar a geração.
+     *
+     * @param valor entidade a guardar
+     */
+    private void colocar(T valor) {
+        Integer id = valor == null ? null : extrairId.apply(valor);
+        if (id == null || ttlNanos <= 0) {
+            return;
+        }
+        entradas.put(id, new Entrada<>(copiar.apply(valor), System.nanoTime() + ttlNanos));
+    }
+
+    /**
+     * Obtém uma entidade ainda válida, descartando-a se tiver expirado.
+     *
+     * @param id identificador da entidade
+     * @return entidade guardada, ou null
+     */
+    private T valido(Integer id) {
+        Entrada<T> entrada = entradas.get(id);
+        if (entrada == null) {
+            return null;
+        }
+        if (System.nanoTime() - entrada.expiraEm > 0) {
+            entradas.remove(id);
+            return null;
+        }
+        return entrada.valor;
+    }
+
+    /**
+     * Atualiza os contadores de acerto e falta.
+     *
+     * @param acerto true se a consulta foi atendida pelo cache
+     */
+    private void contar(boolean acerto) {
+        (acerto ? acertos : faltas).incrementAndGet();
+    }
+}
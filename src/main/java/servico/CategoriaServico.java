@@ -1,11 +1,26 @@
 package servico;
 
+import com.fasterxml.jackson.databind.JavaType;
+import dto.Alteracoes;
+import dto.Lote;
+import dto.Notificacao;
 import dto.Requisicao;
 import dto.Resposta;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import modelo.Categoria;
 import modelo.enums.Acao;
 import modelo.enums.Entidade;
+import socket.CanalNotificacoes;
 import socket.ClientSocket;
+import socket.ConfiguracaoCliente;
+import util.AssincronoUtil;
+import util.JsonUtil;
+import util.TextoUtil;
 
 /**
  * Serviço responsável por gerenciar as operações de negócio relacionadas a
@@ -22,6 +37,50 @@ import socket.ClientSocket;
  */
 public class CategoriaServico {
 
+    /**
+     * Cache de categorias compartilhado por todas as instâncias do serviço.
+     *
+     * <p>
+     * Listagens e buscas por id são atendidas localmente enquanto válidas; as
+     * escritas confirmadas pelo servidor atualizam ou invalidam as entradas.
+     * Tamanho e tempo de vida vêm das chaves {@code cache.tamanho} e
+     * {@code cache.ttl.ms} do arquivo de configuração do cliente.</p>
+     */
+    private static final CacheEntidade<Categoria> cache = new CacheEntidade<>(
+            ConfiguracaoCliente.inteiro("cache.tamanho", 1000),
+            ConfiguracaoCliente.longo("cache.ttl.ms", 60000),
+            c -> c.getId(),
+            CategoriaServico::copiar);
+
+    /**
+     * Cópia em disco da última listagem de categorias, alimentada pela
+     * sincronização e lida pelas telas ao abrir e enquanto o servidor estiver
+     * indisponível.
+     */
+    private static final CopiaLocal<Categoria> copia = new CopiaLocal<>("categorias", Categoria.class,
+            c -> c.getId(), CategoriaServico::copiar, Integer.MAX_VALUE);
+
+    /**
+     * Nomes de categoria já em uso (RN01), compartilhados por todas as
+     * instâncias do serviço e alimentados pelas listagens e escritas
+     * confirmadas.
+     */
+    private static final NomesEmUso<Categoria> nomes = new NomesEmUso<>(
+            c -> c.getId(),
+            c -> TextoUtil.normalizar(c.getNome()));
+
+    /** Tipo da resposta de busca, lida direto em {@link Categoria}. */
+    private static final JavaType RESPOSTA_CATEGORIA = ClientSocket.tipoResposta(Categoria.class);
+
+    /** Tipo da resposta de listagem, lida direto em uma lista de categorias. */
+    private static final JavaType RESPOSTA_LISTA = ClientSocket.tipoRespostaLista(Categoria.class);
+
+    /** Tipo da resposta de listagem incremental, com as alterações de categorias. */
+    private static final JavaType RESPOSTA_ALTERACOES = ClientSocket.tipoRespostaAlteracoes(Categoria.class);
+
+    /** Tipo da resposta de lote, com o resultado de cada operação sobre categorias. */
+    private static final JavaType RESPOSTA_LOTE = ClientSocket.tipoRespostaLote(Categoria.class);
+
     /**
      * Instância de categoria utilizada internamente para operações específicas.
      *
@@ -37,10 +96,61 @@ public class CategoriaServico {
      * @param categoria objeto Categoria contendo os dados da categoria a ser
      * criada
      * @return uma Resposta contendo o resultado da operação (sucesso ou erro)
+     * e, quando o servidor a devolve, a categoria criada com seu id
+     */
+    public Resposta<Categoria> criarCategoria(Categoria categoria) {
+        return AssincronoUtil.aguardar(criarCategoriaAsync(categoria));
+    }
+
+    /**
+     * Versão assíncrona de {@link #criarCategoria(Categoria)}.
+     *
+     * @param categoria objeto Categoria contendo os dados da categoria a ser
+     * criada
+     * @return futuro com a resposta do servidor
      */
-    public Resposta<?> criarCategoria(Categoria categoria) {
+    public CompletableFuture<Resposta<Categoria>> criarCategoriaAsync(Categoria categoria) {
         Requisicao<Categoria> req = new Requisicao<>(Acao.CRIAR, Entidade.CATEGORIA, categoria);
-        return ClientSocket.enviarRequisicao(req);
+        return ClientSocket.enviarRequisicaoAsync(req).thenApply(generica -> {
+            Resposta<Categoria> resposta = criada(generica);
+            if (sucesso(resposta)) {
+                Categoria criada = resposta.getDados();
+                if (criada != null && criada.getId() != null) {
+                    cache.guardar(criada);
+                    nomes.registrar(criada);
+                }
+                cache.invalidarLista(); // o novo registro não está na listagem guardada
+            }
+            return resposta;
+        });
+    }
+
+    /**
+     * Lê a resposta de uma criação sem exigir um formato para os dados.
+     *
+     * <p>
+     * O servidor pode devolver em {@code dados} a categoria criada, só o id,
+     * uma mensagem ou nada. A criação já foi feita quando a resposta chega,
+     * então dados que não formam uma categoria são descartados em vez
+     * de transformar o sucesso em falha de comunicação.</p>
+     *
+     * @param generica resposta com os dados ainda genéricos
+     * @return resposta com a categoria criada, ou sem dados se o servidor não a
+     * devolveu
+     */
+    private static Resposta<Categoria> criada(Resposta<?> generica) {
+        Categoria criada = null;
+        if (generica.getDados() instanceof Map) {
+            try {
+                criada = JsonUtil.converter(generica.getDados(), Categoria.class);
+            } catch (RuntimeException e) {
+                System.out.println("Dados da criação ignorados: " + e.getMessage());
+            }
+        }
+        Resposta<Categoria> resposta = new Resposta<>(generica.getStatus(), generica.getMensagem(), criada);
+        resposta.setId(generica.getId());
+        resposta.setErro(generica.getErro());
+        return resposta;
     }
 
     /**
@@ -51,8 +161,25 @@ public class CategoriaServico {
      * @return uma Resposta contendo o resultado da operação (sucesso ou erro)
      */
     public Resposta<?> atualizarCategoria(Categoria categoria) {
+        return AssincronoUtil.aguardar(atualizarCategoriaAsync(categoria));
+    }
+
+    /**
+     * Versão assíncrona de {@link #atualizarCategoria(Categoria)}.
+     *
+     * @param categoria objeto Categoria contendo os dados atualizados da
+     * categoria
+     * @return futuro com a resposta do servidor
+     */
+    public CompletableFuture<Resposta<?>> atualizarCategoriaAsync(Categoria categoria) {
         Requisicao<Categoria> req = new Requisicao<>(Acao.ATUALIZAR, Entidade.CATEGORIA, categoria);
-        return ClientSocket.enviarRequisicao(req);
+        return ClientSocket.enviarRequisicaoAsync(req).thenApply(resposta -> {
+            if (sucesso(resposta)) {
+                cache.guardar(categoria);
+                nomes.registrar(categoria);
+            }
+            return resposta;
+        });
     }
 
     /**
@@ -62,9 +189,124 @@ public class CategoriaServico {
      * @return uma Resposta contendo o resultado da operação (sucesso ou erro)
      */
     public Resposta<?> deletarCategoria(Integer id) {
+        return AssincronoUtil.aguardar(deletarCategoriaAsync(id));
+    }
+
+    /**
+     * Versão assíncrona de {@link #deletarCategoria(Integer)}.
+     *
+     * @param id identificador único da categoria a ser removida
+     * @return futuro com a resposta do servidor
+     */
+    public CompletableFuture<Resposta<?>> deletarCategoriaAsync(Integer id) {
         Categoria categoria = new Categoria(id, null, null, null);
         Requisicao<Categoria> req = new Requisicao<>(Acao.DELETAR, Entidade.CATEGORIA, categoria);
-        return ClientSocket.enviarRequisicao(req);
+        return ClientSocket.enviarRequisicaoAsync(req).thenApply(resposta -> {
+            if (sucesso(resposta)) {
+                cache.remover(id);
+                nomes.remover(id);
+            }
+            return resposta;
+        });
+    }
+
+    /**
+     * Cria várias categorias em uma única requisição.
+     *
+     * <p>
+     * Com {@code tudoOuNada} a primeira falha desfaz as criações anteriores
+     * e a resposta vem com status de erro; sem ele cada categoria é criada
+     * independentemente e o resultado de cada uma deve ser conferido na lista.</p>
+     *
+     * @param categorias categorias a serem criadas, na ordem
+     * @param tudoOuNada true para desfazer todo o lote na primeira falha
+     * @return uma Resposta contendo o resultado de cada criação, na mesma ordem
+     */
+    public Resposta<List<Resposta<Categoria>>> criarCategorias(List<Categoria> categorias, boolean tudoOuNada) {
+        return AssincronoUtil.aguardar(criarCategoriasAsync(categorias, tudoOuNada));
+    }
+
+    /**
+     * Versão assíncrona de {@link #criarCategorias(List, boolean)}.
+     *
+     * @param categorias categorias a serem criadas, na ordem
+     * @param tudoOuNada true para desfazer todo o lote na primeira falha
+     * @return futuro com a resposta do servidor
+     */
+    public CompletableFuture<Resposta<List<Resposta<Categoria>>>> criarCategoriasAsync(List<Categoria> categorias, boolean tudoOuNada) {
+        Lote<Categoria> lote = Lote.de(Acao.CRIAR, Entidade.CATEGORIA, categorias, tudoOuNada);
+        return enviarLote(lote).thenApply(resposta -> {
+            confirmadas(resposta, (i, criada) -> {
+                cache.guardar(criada);
+                nomes.registrar(criada);
+            });
+            if (sucesso(resposta)) {
+                cache.invalidarLista(); // os novos registros não estão na listagem guardada
+            }
+            return resposta;
+        });
+    }
+
+    /**
+     * Atualiza várias categorias em uma única requisição.
+     *
+     * @param categorias categorias com os dados atualizados, na ordem
+     * @param tudoOuNada true para desfazer todo o lote na primeira falha
+     * @return uma Resposta contendo o resultado de cada atualização, na mesma ordem
+     */
+    public Resposta<List<Resposta<Categoria>>> atualizarCategorias(List<Categoria> categorias, boolean tudoOuNada) {
+        return AssincronoUtil.aguardar(atualizarCategoriasAsync(categorias, tudoOuNada));
+    }
+
+    /**
+     * Versão assíncrona de {@link #atualizarCategorias(List, boolean)}.
+     *
+     * @param categorias categorias com os dados atualizados, na ordem
+     * @param tudoOuNada true para desfazer todo o lote na primeira falha
+     * @return futuro com a resposta do servidor
+     */
+    public CompletableFuture<Resposta<List<Resposta<Categoria>>>> atualizarCategoriasAsync(List<Categoria> categorias, boolean tudoOuNada) {
+        Lote<Categoria> lote = Lote.de(Acao.ATUALIZAR, Entidade.CATEGORIA, categorias, tudoOuNada);
+        return enviarLote(lote).thenApply(resposta -> {
+            confirmadas(resposta, (i, atualizada) -> {
+                cache.guardar(categorias.get(i));
+                nomes.registrar(categorias.get(i));
+            });
+            return resposta;
+        });
+    }
+
+    /**
+     * Remove várias categorias em uma única requisição.
+     *
+     * @param ids identificadores das categorias a serem removidas, na ordem
+     * @param tudoOuNada true para desfazer todo o lote na primeira falha
+     * @return uma Resposta contendo o resultado de cada remoção, na mesma ordem
+     */
+    public Resposta<List<Resposta<Categoria>>> deletarCategorias(List<Integer> ids, boolean tudoOuNada) {
+        return AssincronoUtil.aguardar(deletarCategoriasAsync(ids, tudoOuNada));
+    }
+
+    /**
+     * Versão assíncrona de {@link #deletarCategorias(List, boolean)}.
+     *
+     * @param ids identificadores das categorias a serem removidas, na ordem
+     * @param tudoOuNada true para desfazer todo o lote na primeira falha
+     * @return futuro com a resposta do servidor
+     */
+    public CompletableFuture<Resposta<List<Resposta<Categoria>>>> deletarCategoriasAsync(List<Integer> ids, boolean tudoOuNada) {
+        List<Categoria> categorias = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            categorias.add(new Categoria(id, null, null, null));
+        }
+        Lote<Categoria> lote = Lote.de(Acao.DELETAR, Entidade.CATEGORIA, categorias, tudoOuNada);
+        return enviarLote(lote).thenApply(resposta -> {
+            confirmadas(resposta, (i, removida) -> {
+                cache.remover(ids.get(i));
+                nomes.remover(ids.get(i));
+            });
+            return resposta;
+        });
     }
 
     /**
@@ -73,9 +315,28 @@ public class CategoriaServico {
      * @param categoria objeto Categoria contendo os critérios de busca
      * @return uma Resposta contendo a categoria encontrada ou mensagem de erro
      */
-    public Resposta<?> encontrarCategoria(Categoria categoria) {
+    public Resposta<Categoria> encontrarCategoria(Categoria categoria) {
+        return AssincronoUtil.aguardar(encontrarCategoriaAsync(categoria));
+    }
+
+    /**
+     * Versão assíncrona de {@link #encontrarCategoria(Categoria)}.
+     *
+     * @param categoria objeto Categoria contendo os critérios de busca
+     * @return futuro com a resposta do servidor
+     */
+    public CompletableFuture<Resposta<Categoria>> encontrarCategoriaAsync(Categoria categoria) {
+        Categoria emCache = cache.obter(categoria.getId());
+        if (emCache != null) {
+            return CompletableFuture.completedFuture(new Resposta<>("sucesso", "Categoria encontrada", emCache));
+        }
         Requisicao<Categoria> req = new Requisicao<>(Acao.ENCONTRAR, Entidade.CATEGORIA, categoria);
-        return ClientSocket.enviarRequisicao(req);
+        return ClientSocket.<Categoria>enviarRequisicaoAsync(req, RESPOSTA_CATEGORIA).thenApply(resposta -> {
+            if (sucesso(resposta) && resposta.getDados() != null) {
+                cache.guardar(resposta.getDados());
+            }
+            return resposta;
+        });
     }
 
     /**
@@ -83,8 +344,234 @@ public class CategoriaServico {
      *
      * @return uma Resposta contendo a lista de categorias ou mensagem de erro
      */
-    public Resposta<?> listarCategoria() {
+    public Resposta<List<Categoria>> listarCategoria() {
+        return AssincronoUtil.aguardar(listarCategoriaAsync());
+    }
+
+    /**
+     * Versão assíncrona de {@link #listarCategoria()}.
+     *
+     * @return futuro com a resposta do servidor
+     */
+    public CompletableFuture<Resposta<List<Categoria>>> listarCategoriaAsync() {
+        List<Categoria> emCache = cache.listar();
+        if (emCache != null) {
+            nomes.carregar(emCache, nomes.geracao());
+            return CompletableFuture.completedFuture(new Resposta<>("sucesso", "Categorias listadas", emCache));
+        }
+        long geracao = cache.geracao();
+        long geracaoNomes = nomes.geracao();
         Requisicao<Void> req = new Requisicao<>(Acao.LISTAR, Entidade.CATEGORIA, null);
-        return ClientSocket.enviarRequisicao(req);
+        return ClientSocket.<List<Categoria>>enviarRequisicaoAsync(req, RESPOSTA_LISTA).thenApply(resposta -> {
+            if (sucesso(resposta) && resposta.getDados() != null) {
+                cache.guardarLista(resposta.getDados(), geracao);
+                nomes.carregar(resposta.getDados(), geracaoNomes);
+            }
+            return resposta;
+        });
+    }
+
+    /**
+     * Obtém as alterações de categorias desde uma versão conhecida.
+     *
+     * <p>
+     * Com versão 0 a resposta é a listagem completa; com uma versão anterior o
+     * servidor envia só as categorias alteradas e os ids das excluídas depois
+     * dela, aplicados ao cache sem recarregar as demais. Se o servidor
+     * responder com uma versão anterior à pedida, como depois de reiniciado, a
+     * listagem completa é pedida de novo. O resultado também atualiza a cópia
+     * em disco.</p>
+     *
+     * @param desdeVersao última versão conhecida, ou 0
+     * @return uma Resposta contendo as alterações e a nova versão
+     */
+    public Resposta<Alteracoes<Categoria>> sincronizar(long desdeVersao) {
+        return AssincronoUtil.aguardar(sincronizarAsync(desdeVersao));
+    }
+
+    /**
+     * Versão assíncrona de {@link #sincronizar(long)}.
+     *
+     * @param desdeVersao última versão conhecida, ou 0
+     * @return futuro com a resposta do servidor
+     */
+    public CompletableFuture<Resposta<Alteracoes<Categoria>>> sincronizarAsync(long desdeVersao) {
+        if (desdeVersao <= 0) {
+            return listarCategoriaAsync().thenApply(resposta -> {
+                Resposta<Alteracoes<Categoria>> completa = new Resposta<>(resposta.getStatus(), resposta.getMensagem(),
+                        resposta.getDados() == null ? null : Alteracoes.completas(resposta.getDados(), c -> c.getVersao()));
+                completa.setErro(resposta.getErro());
+                if (sucesso(completa) && completa.getDados() != null) {
+                    copia.aplicar(0, completa.getDados());
+                }
+                return completa;
+            });
+        }
+        long geracao = cache.geracao();
+        long geracaoNomes = nomes.geracao();
+        Requisicao<Void> req = new Requisicao<>(Acao.LISTAR, Entidade.CATEGORIA, null);
+        req.setDesdeVersao(desdeVersao);
+        return ClientSocket.<Alteracoes<Categoria>>enviarRequisicaoAsync(req, RESPOSTA_ALTERACOES).thenCompose(resposta -> {
+            Alteracoes<Categoria> alteracoes = resposta.getDados();
+            if (!sucesso(resposta) || alteracoes == null) {
+                return CompletableFuture.completedFuture(resposta);
+            }
+            if (!alteracoes.isCompleto() && alteracoes.getVersao() != null && alteracoes.getVersao() < desdeVersao) {
+                // Versão do servidor anterior à pedida: ele foi reiniciado e a
+                // versão guardada não vale mais
+                return sincronizarAsync(0);
+            }
+            if (alteracoes.isCompleto()) {
+                if (alteracoes.getVersao() == null) {
+                    alteracoes = Alteracoes.completas(alteracoes.getAlterados(), c -> c.getVersao());
+                }
+                cache.guardarLista(alteracoes.getAlterados(), geracao);
+                nomes.carregar(alteracoes.getAlterados(), geracaoNomes);
+            } else {
+                cache.aplicarAlteracoes(alteracoes.getAlterados(), alteracoes.getRemovidos());
+                nomes.aplicar(alteracoes.getAlterados(), alteracoes.getRemovidos());
+            }
+            copia.aplicar(desdeVersao, alteracoes);
+            return CompletableFuture.completedFuture(new Resposta<>(resposta.getStatus(), resposta.getMensagem(), alteracoes));
+        });
+    }
+
+    /**
+     * Lê a última listagem de categorias guardada em disco, sem ir ao
+     * servidor.
+     *
+     * <p>
+     * Usada pelas telas para exibir as categorias antes da resposta do
+     * servidor e enquanto ele estiver indisponível. A versão da listagem pode
+     * ser enviada a {@link #sincronizar(long)} para obter só o que mudou desde
+     * então. Os nomes em uso (RN01) são carregados a partir dela, até que a
+     * sincronização os substitua.</p>
+     *
+     * @return listagem completa guardada, ou null se não houver
+     */
+    public Alteracoes<Categoria> lerCopiaLocal() {
+        long geracaoNomes = nomes.geracao();
+        Alteracoes<Categoria> guardada = copia.ler();
+        if (guardada != null) {
+            nomes.carregar(guardada.getAlterados(), geracaoNomes);
+        }
+        return guardada;
+    }
+
+    /**
+     * Obtém o instante em que as categorias guardadas em disco foram
+     * recebidas do servidor pela última vez.
+     *
+     * @return milissegundos desde a época, ou 0 se não houver cópia
+     */
+    public long copiaLocalAtualizadaEm() {
+        return copia.getAtualizadaEm();
+    }
+
+    /**
+     * Obtém o cache de categorias, para consulta dos contadores de acerto e
+     * falta.
+     *
+     * @return cache compartilhado de categorias
+     */
+    public static CacheEntidade<Categoria> getCache() {
+        return cache;
+    }
+
+    /**
+     * Verifica, sem ir ao servidor, se outra categoria já usa o nome
+     * informado (RN01).
+     *
+     * <p>
+     * A verificação usa as categorias da última listagem e das escritas
+     * confirmadas desde então. Um resultado falso não garante que o servidor
+     * aceitará o nome, pois outro cliente pode tê-lo usado nesse meio
+     * tempo.</p>
+     *
+     * @param categoria categoria com o nome; em alterações, com o próprio id
+     * @return true se o nome já estiver em uso por outra categoria
+     */
+    public boolean nomeEmUso(Categoria categoria) {
+        return nomes.emUso(categoria);
+    }
+
+    /**
+     * Acompanha as alterações de categorias feitas por qualquer cliente.
+     *
+     * <p>
+     * Cada notificação atualiza primeiro o cache e o índice de nomes e só
+     * então é repassada ao ouvinte, na thread do canal de notificações. Uma
+     * notificação de sincronização descarta o cache, pois alterações podem ter
+     * sido perdidas.</p>
+     *
+     * @param ouvinte ação chamada para cada notificação
+     * @return assinatura, a ser fechada quando a tela for encerrada
+     */
+    public CanalNotificacoes.Assinatura ouvirAlteracoes(Consumer<Notificacao<Categoria>> ouvinte) {
+        return CanalNotificacoes.assinar(Entidade.CATEGORIA, Categoria.class, notificacao -> {
+            if (notificacao.isSincronizar()) {
+                cache.invalidar();
+            } else if (notificacao.getAcao() == Acao.DELETAR) {
+                cache.remover(notificacao.getId());
+                nomes.remover(notificacao.getId());
+            } else if (notificacao.getDados() != null) {
+                cache.aplicarAlteracoes(List.of(notificacao.getDados()), List.of());
+                nomes.registrar(notificacao.getDados());
+            }
+            ouvinte.accept(notificacao);
+        });
+    }
+
+    /**
+     * Envia um lote de operações sobre categorias em uma única requisição.
+     *
+     * @param lote operações a executar
+     * @return futuro com a resposta do servidor
+     */
+    private static CompletableFuture<Resposta<List<Resposta<Categoria>>>> enviarLote(Lote<Categoria> lote) {
+        Requisicao<Lote<Categoria>> req = new Requisicao<>(Acao.LOTE, Entidade.CATEGORIA, lote);
+        return ClientSocket.enviarRequisicaoAsync(req, RESPOSTA_LOTE);
+    }
+
+    /**
+     * Entrega cada operação de um lote confirmada pelo servidor, com a sua
+     * posição no lote e os dados devolvidos.
+     *
+     * @param resposta resposta do lote
+     * @param acao ação executada para cada operação confirmada
+     */
+    private static void confirmadas(Resposta<List<Resposta<Categoria>>> resposta, BiConsumer<Integer, Categoria> acao) {
+        if (!sucesso(resposta) || resposta.getDados() == null) {
+            return;
+        }
+        List<Resposta<Categoria>> resultados = resposta.getDados();
+        for (int i = 0; i < resultados.size(); i++) {
+            if (sucesso(resultados.get(i))) {
+                acao.accept(i, resultados.get(i).getDados());
+            }
+        }
+    }
+
+    /**
+     * Produz uma cópia independente de uma categoria, para o cache e a cópia
+     * em disco.
+     *
+     * @param c categoria
+     * @return cópia da categoria
+     */
+    private static Categoria copiar(Categoria c) {
+        Categoria copia = new Categoria(c.getId(), c.getNome(), c.getTamanho(), c.getEmbalagem());
+        copia.setVersao(c.getVersao());
+        return copia;
+    }
+
+    /**
+     * Verifica se o servidor confirmou a operação.
+     *
+     * @param resposta resposta recebida
+     * @return true se o status for de sucesso
+     */
+    private static boolean sucesso(Resposta<?> resposta) {
+        return "sucesso".equalsIgnoreCase(resposta.getStatus());
     }
 }
@@ -0,0 +1,623 @@
+package servico;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import dto.Alteracoes;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+import socket.ConfiguracaoCliente;
+import util.Formato;
+import util.JsonUtil;
+
+/**
+ * Cópia em disco da última listagem conhecida de uma entidade.
+ *
+ * <p>
+ * Acompanha o fluxo de sincronização dos serviços: cada listagem completa
+ * substitui a cópia e cada listagem incremental é aplicada sobre ela. Assim,
+ * ao abrir, as telas exibem de imediato os dados da sessão anterior, pedem ao
+ * servidor só o que mudou desde a versão guardada e continuam utilizáveis,
+ * para consulta, enquanto o servidor estiver fora do ar.</p>
+ *
+ * <p>
+ * O arquivo tem um cabeçalho fixo seguido da lista no primeiro formato
+ * disponível entre Smile e JSON, comprimida com deflate. Na leitura o arquivo
+ * é mapeado em memória e lido direto do mapeamento. A gravação é feita em
+ * segundo plano, agrupando as alterações de um intervalo, e repetida ao
+ * encerrar o programa se houver alterações pendentes. Cada cópia alterna entre
+ * dois arquivos: o que foi mapeado na leitura nunca é substituído, pois em
+ * alguns sistemas um arquivo mapeado não pode ser trocado enquanto o
+ * mapeamento existir. Ao ler, vale o arquivo com a gravação mais
+ * recente.</p>
+ *
+ * <p>
+ * Cada cópia pertence aos servidores configurados ({@code servidores}, ou
+ * {@code host} e {@code porta}): o nome dos arquivos leva um resumo da
+ * identificação dos servidores, e o cabeçalho a identificação completa. Ao
+ * apontar o cliente para outro servidor, a cópia do anterior não é lida nem
+ * recebe as versões do novo; um arquivo cuja identificação não confere é
+ * descartado.</p>
+ *
+ * <p>
+ * O diretório vem da chave {@code copia.diretorio} do arquivo de configuração
+ * do cliente (vazio para {@code .sistema_de_cadastro} no diretório do
+ * usuário), o intervalo de gravação de {@code copia.gravacao.ms}, e
+ * {@code copia.ativa=false} desliga a cópia.</p>
+ *
+ * @param <T> tipo da entidade
+ */
+public class CopiaLocal<T> {
+
+    /**
+     * Identificação do arquivo de cópia ("CPL2").
+     */
+    private static final int MAGICO = 0x43504C32;
+
+    /**
+     * Tamanho da parte fixa do cabeçalho: identificação, formato, versão,
+     * total, instante da atualização, sequência da gravação, tamanho da
+     * identificação dos servidores e tamanho da lista. A identificação dos
+     * servidores vem logo depois, seguida da lista.
+     */
+    private static final int CABECALHO = 4 + 1 + 8 + 8 + 8 + 8 + 4 + 4;
+
+    /**
+     * Indica se as cópias estão ativas.
+     */
+    private static final boolean ATIVA = !"false".equalsIgnoreCase(ConfiguracaoCliente.texto("copia.ativa", "true"));
+
+    /**
+     * Diretório dos arquivos de cópia.
+     */
+    private static final Path DIRETORIO = diretorio(ConfiguracaoCliente.texto("copia.diretorio", ""));
+
+    /**
+     * Intervalo, em milissegundos, entre uma alteração e a gravação.
+     */
+    private static final long ATRASO_GRAVACAO_MS = ConfiguracaoCliente.longo("copia.gravacao.ms", 2000);
+
+    /**
+     * Identificação dos servidores configurados, gravada no cabeçalho.
+     */
+    private static final byte[] SERVIDOR = identificacaoServidor().getBytes(StandardCharsets.UTF_8);
+
+    /**
+     * Resumo da identificação dos servidores, usado no nome dos arquivos.
+     */
+    private static final String RESUMO_SERVIDOR = resumo(SERVIDOR);
+
+    /**
+     * Formato da lista nos arquivos gravados.
+     */
+    private static final Formato FORMATO = Formato.disponiveis("smile,json").get(0);
+
+    /**
+     * Cópias criadas, gravadas ao encerrar o programa.
+     */
+    private static final List<CopiaLocal<?>> COPIAS = new CopyOnWriteArrayList<>();
+
+    /**
+     * Thread que grava as cópias em segundo plano.
+     */
+    private static final ScheduledExecutorService GRAVADOR = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+        Thread thread = new Thread(tarefa, "copia-local");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            for (CopiaLocal<?> copia : COPIAS) {
+                copia.gravar();
+            }
+        }, "copia-local-encerramento"));
+    }
+
+    /**
+     * Nome da cópia, que dá nome aos arquivos.
+     */
+    private final String nome;
+
+    /**
+     * Tipo da lista gravada.
+     */
+    private final JavaType tipoLista;
+
+    /**
+     * Extrai o id de uma entidade.
+     */
+    private final Function<T, Integer> extrairId;
+
+    /**
+     * Produz uma cópia independente de uma entidade.
+     */
+    private final UnaryOperator<T> copiar;
+
+    /**
+     * Quantidade máxima de itens guardados em {@link #aplicarTrecho}.
+     */
+    private final int maximoItens;
+
+    /**
+     * Itens guardados por id, na ordem da listagem, ou null se não houver
+     * cópia.
+     */
+    private LinkedHashMap<Integer, T> itens;
+
+    /**
+     * Indica se os arquivos já foram lidos.
+     */
+    private boolean carregada;
+
+    /**
+     * Versão da listagem guardada.
+     */
+    private long versao;
+
+    /**
+     * Total de itens no servidor, que em listagens por trechos pode ser maior
+     * que a quantidade guardada.
+     */
+    private long total;
+
+    /**
+     * Instante, em milissegundos desde a época, em que o servidor enviou os
+     * dados guardados pela última vez.
+     */
+    private long atualizadaEm;
+
+    /**
+     * Sequência da última gravação, usada para escolher o arquivo mais
+     * recente.
+     */
+    private long sequencia;
+
+    /**
+     * Arquivo mapeado na leitura (0 ou 1), ou -1 se nenhum foi mapeado.
+     */
+    private int mapeado = -1;
+
+    /**
+     * Indica alterações ainda não gravadas.
+     */
+    private boolean pendente;
+
+    /**
+     * Indica que há uma gravação agendada.
+     */
+    private boolean agendada;
+
+    /**
+     * Bloqueio da escrita dos arquivos, que pode partir do gravador e do
+     * encerramento ao mesmo tempo.
+     */
+    private final Object escrita = new Object();
+
+    /**
+     * Cria uma cópia.
+     *
+     * @param nome nome da cópia, que dá nome aos arquivos
+     * @param tipo classe da entidade
+     * @param extrairId função que obtém o id da entidade
+     * @param copiar função que copia a entidade
+     * @param maximoItens quantidade máxima de itens guardados por
+     * {@link #aplicarTrecho}
+     */
+    public CopiaLocal(String nome, Class<T> tipo, Function<T, Integer> extrairId, UnaryOperator<T> copiar, int maximoItens) {
+        this.nome = nome;
+        this.tipoLista = JsonUtil.tipoLista(tipo);
+        this.extrairId = extrairId;
+        this.copiar = copiar;
+        this.maximoItens = maximoItens;
+        COPIAS.add(this);
+    }
+
+    /**
+     * Obtém a listagem guardada, lendo os arquivos na primeira consulta.
+     *
+     * @return cópias das entidades como listagem completa, com a versão
+     * guardada, ou null se não houver cópia
+     */
+    public synchronized Alteracoes<T> ler() {
+        carregar();
+        if (itens == null) {
+            return null;
+        }
+        List<T> lista = new ArrayList<>(itens.size());
+        for (T item : itens.values()) {
+            lista.add(copiar.apply(item));
+        }
+        return new Alteracoes<>(lista, new ArrayList<>(), versao, true);
+    }
+
+    /**
+     * Obtém o total de itens no servidor na última atualização.
+     *
+     * @return total informado, ou 0 se não houver cópia
+     */
+    public synchronized long getTotal() {
+        carregar();
+        return itens == null ? 0 : total;
+    }
+
+    /**
+     * Obtém o instante em que o servidor enviou os dados guardados pela
+     * última vez.
+     *
+     * @return milissegundos desde a época, ou 0 se não houver cópia
+     */
+    public synchronized long getAtualizadaEm() {
+        carregar();
+        return itens == null ? 0 : atualizadaEm;
+    }
+
+    /**
+     * Aplica à cópia uma listagem recebida do servidor.
+     *
+     * <p>
+     * Uma listagem completa substitui a cópia. Uma incremental só é aplicada
+     * se a cópia já refletir a versão pedida; caso contrário faltariam as
+     * alterações entre as duas versões, e a cópia é mantida como está até a
+     * próxima listagem completa.</p>
+     *
+     * @param desdeVersao versão enviada no pedido
+     * @param alteracoes listagem recebida
+     */
+    public synchronized void aplicar(long desdeVersao, Alteracoes<T> alteracoes) {
+        if (!ATIVA) {
+            return;
+        }
+        carregar();
+        long nova = alteracoes.getVersao() == null ? 0 : alteracoes.getVersao();
+        if (alteracoes.isCompleto()) {
+            itens = new LinkedHashMap<>();
+            versao = nova;
+        } else if (itens == null || versao < desdeVersao) {
+            return;
+        } else if (alteracoes.getAlterados().isEmpty() && alteracoes.getRemovidos().isEmpty() && nova <= versao) {
+            atualizadaEm = System.currentTimeMillis(); // confirmada, sem nada a gravar
+            return;
+        } else {
+            for (Integer id : alteracoes.getRemovidos()) {
+                itens.remove(id);
+            }
+            versao = Math.max(versao, nova);
+        }
+        for (T item : alteracoes.getAlterados()) {
+            Integer id = extrairId.apply(item);
+            if (id != null) {
+                itens.put(id, copiar.apply(item));
+            }
+        }
+        total = itens.size();
+        alterada();
+    }
+
+    /**
+     * Aplica à cópia um trecho de uma listagem que só cresce pelo fim, como o
+     * histórico de movimentações.
+     *
+     * <p>
+     * A cópia guarda apenas o início contínuo da listagem, até
+     * {@code maximoItens}: um trecho que começa depois do fim guardado é
+     * ignorado, e um que começa antes substitui os itens a partir da sua
+     * posição.</p>
+     *
+     * @param inicio posição do primeiro item do trecho na listagem
+     * @param trecho itens do trecho, na ordem da listagem
+     * @param totalServidor total de itens informado pelo servidor, ou null
+     */
+    public synchronized void aplicarTrecho(int inicio, List<T> trecho, Long totalServidor) {
+        if (!ATIVA) {
+            return;
+        }
+        carregar();
+        int guardados = itens == null ? 0 : itens.size();
+        if (inicio > guardados || inicio >= maximoItens) {
+            return;
+        }
+        LinkedHashMap<Integer, T> novos = new LinkedHashMap<>();
+        if (itens != null) {
+            for (T item : itens.values()) {
+                if (novos.size() == inicio) {
+                    break;
+                }
+                novos.put(extrairId.apply(item), item);
+            }
+        }
+        for (T item : trecho) {
+            Integer id = extrairId.apply(item);
+            if (novos.size() == maximoItens) {
+                break;
+            }
+            if (id != null) {
+                novos.put(id, copiar.apply(item));
+            }
+        }
+        itens = novos;
+        total = totalServidor == null ? Math.max(total, novos.size()) : totalServidor;
+        alterada();
+    }
+
+    /**
+     * Registra uma alteração e agenda a gravação, se ainda não houver uma
+     * agendada.
+     */
+    private void alterada() {
+        atualizadaEm = System.currentTimeMillis();
+        pendente = true;
+        if (!agendada) {
+            agendada = true;
+            GRAVADOR.schedule(this::gravar, ATRASO_GRAVACAO_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Lê a cópia do arquivo com a gravação mais recente, uma única vez.
+     *
+     * <p>
+     * Um arquivo ilegível é ignorado, e o outro é tentado em seguida.</p>
+     */
+    private void carregar() {
+        if (carregada) {
+            return;
+        }
+        carregada = true;
+        if (!ATIVA) {
+            return;
+        }
+        long[] sequencias = {-1, -1};
+        for (int slot = 0; slot < 2; slot++) {
+            sequencias[slot] = lerSequencia(arquivo(slot));
+            sequencia = Math.max(sequencia, sequencias[slot]);
+        }
+        int primeiro = sequencias[1] > sequencias[0] ? 1 : 0;
+        for (int slot : new int[]{primeiro, 1 - primeiro}) {
+            if (sequencias[slot] >= 0 && mapear(slot)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Lê a sequência de gravação do cabeçalho de um arquivo.
+     *
+     * @param arquivo arquivo de cópia
+     * @return sequência, ou -1 se o arquivo não existir, não for uma cópia
+     * válida ou for de outros servidores
+     */
+    private static long lerSequencia(Path arquivo) {
+        if (!Files.isRegularFile(arquivo)) {
+            return -1;
+        }
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            ByteBuffer cabecalho = ByteBuffer.allocate(CABECALHO + SERVIDOR.length);
+            while (cabecalho.hasRemaining() && canal.read(cabecalho) >= 0) {
+                // lê o cabeçalho inteiro
+            }
+            cabecalho.flip();
+            if (cabecalho.remaining() < CABECALHO || cabecalho.getInt(0) != MAGICO
+                    || (long) cabecalho.getInt(CABECALHO - 8) + cabecalho.getInt(CABECALHO - 4) != canal.size() - CABECALHO) {
+                return -1;
+            }
+            if (!deste(cabecalho)) {
+                System.out.println("Cópia local " + arquivo + " descartada: pertence a outros servidores");
+                Files.deleteIfExists(arquivo);
+                return -1;
+            }
+            return cabecalho.getLong(CABECALHO - 16);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Mapeia um arquivo em memória e lê a lista guardada nele.
+     *
+     * @param slot arquivo (0 ou 1)
+     * @return true se a cópia foi lida
+     */
+    private boolean mapear(int slot) {
+        Path arquivo = arquivo(slot);
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            MappedByteBuffer mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+            Formato formato = Formato.values()[mapa.get(4)];
+            long versaoLida = mapa.getLong(5);
+            long totalLido = mapa.getLong(13);
+            long atualizadaLida = mapa.getLong(21);
+            if (!formato.isDisponivel() || !deste(mapa)) {
+                return false;
+            }
+            List<T> lista;
+            try (InputStream entrada = new InflaterInputStream(
+                    new ByteBufferBackedInputStream(mapa.position(CABECALHO + SERVIDOR.length)))) {
+                lista = formato.leitor(tipoLista).readValue(entrada);
+            }
+            LinkedHashMap<Integer, T> lidos = new LinkedHashMap<>();
+            for (T item : lista) {
+                lidos.put(extrairId.apply(item), item);
+            }
+            itens = lidos;
+            versao = versaoLida;
+            total = totalLido;
+            atualizadaEm = atualizadaLida;
+            mapeado = slot;
+            return true;
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Cópia local " + arquivo + " ignorada: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Grava a cópia, se houver alterações pendentes, no arquivo que não foi
+     * mapeado na leitura.
+     */
+    private void gravar() {
+        List<T> lista;
+        long versaoGravada;
+        long totalGravado;
+        long atualizadaGravada;
+        long sequenciaGravada;
+        int slot;
+        synchronized (this) {
+            agendada = false;
+            if (!pendente || itens == null) {
+                return;
+            }
+            pendente = false;
+            // Os itens guardados nunca são alterados, só substituídos: a lista
+            // pode ser serializada fora do bloqueio
+            lista = new ArrayList<>(itens.values());
+            versaoGravada = versao;
+            totalGravado = total;
+            atualizadaGravada = atualizadaEm;
+            sequenciaGravada = ++sequencia;
+            slot = mapeado == 0 ? 1 : 0;
+        }
+        Path destino = arquivo(slot);
+        Path temporario = destino.resolveSibling(destino.getFileName() + ".tmp");
+        synchronized (escrita) {
+            escrever(lista, versaoGravada, totalGravado, atualizadaGravada, sequenciaGravada, destino, temporario);
+        }
+    }
+
+    /**
+     * Escreve um arquivo de cópia em um temporário e o move sobre o destino,
+     * de modo que uma gravação interrompida não danifique a cópia anterior.
+     *
+     * @param lista itens gravados
+     * @param versaoGravada versão da listagem
+     * @param totalGravado total de itens no servidor
+     * @param atualizadaGravada instante da última atualização
+     * @param sequenciaGravada sequência da gravação
+     * @param destino arquivo de cópia
+     * @param temporario arquivo temporário ao lado do destino
+     */
+    private static void escrever(List<?> lista, long versaoGravada, long totalGravado, long atualizadaGravada,
+            long sequenciaGravada, Path destino, Path temporario) {
+        try {
+            ByteArrayOutputStream conteudo = new ByteArrayOutputStream();
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try (DeflaterOutputStream saida = new DeflaterOutputStream(conteudo, deflater)) {
+                saida.write(FORMATO.serializar(lista));
+            } finally {
+                deflater.end();
+            }
+            ByteBuffer cabecalho = ByteBuffer.allocate(CABECALHO + SERVIDOR.length);
+            cabecalho.putInt(MAGICO).put((byte) FORMATO.ordinal()).putLong(versaoGravada).putLong(totalGravado)
+                    .putLong(atualizadaGravada).putLong(sequenciaGravada).putInt(SERVIDOR.length)
+                    .putInt(conteudo.size()).put(SERVIDOR).flip();
+
+            Files.createDirectories(DIRETORIO);
+            try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                ByteBuffer[] partes = {cabecalho, ByteBuffer.wrap(conteudo.toByteArray())};
+                while (partes[1].hasRemaining()) {
+                    canal.write(partes);
+                }
+                canal.force(true);
+            }
+            Files.move(temporario, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Falha ao gravar a cópia local " + destino + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Obtém o caminho de um dos arquivos da cópia.
+     *
+     * @param slot arquivo (0 ou 1)
+     * @return caminho do arquivo
+     */
+    private Path arquivo(int slot) {
+        return DIRETORIO.resolve(nome + "." + RESUMO_SERVIDOR + "." + slot + ".copia");
+    }
+
+    /**
+     * Verifica se o cabeçalho de um arquivo identifica os servidores
+     * configurados.
+     *
+     * @param cabecalho início do arquivo, com ao menos a parte fixa do
+     * cabeçalho
+     * @return true se a identificação gravada for a dos servidores atuais
+     */
+    private static boolean deste(ByteBuffer cabecalho) {
+        if (cabecalho.getInt(CABECALHO - 8) != SERVIDOR.length || cabecalho.limit() < CABECALHO + SERVIDOR.length) {
+            return false;
+        }
+        byte[] gravado = new byte[SERVIDOR.length];
+        cabecalho.get(CABECALHO, gravado);
+        return Arrays.equals(gravado, SERVIDOR);
+    }
+
+    /**
+     * Monta a identificação dos servidores configurados: os endereços de
+     * {@code servidores}, com a porta padrão onde faltar, em ordem alfabética,
+     * ou {@code host:porta} se a lista estiver vazia.
+     *
+     * @return identificação dos servidores
+     */
+    private static String identificacaoServidor() {
+        String host = ConfiguracaoCliente.texto("host", "localhost").trim();
+        String porta = String.valueOf(ConfiguracaoCliente.inteiro("porta", 3001));
+        TreeSet<String> enderecos = new TreeSet<>();
+        for (String endereco : ConfiguracaoCliente.texto("servidores", "").split(",")) {
+            endereco = endereco.trim();
+            if (!endereco.isEmpty()) {
+                enderecos.add(endereco.lastIndexOf(':') < 0 ? endereco + ":" + porta : endereco);
+            }
+        }
+        return enderecos.isEmpty() ? host + ":" + porta : String.join(",", enderecos);
+    }
+
+    /**
+     * Resume a identificação dos servidores para o nome dos arquivos.
+     *
+     * @param identificacao identificação dos servidores
+     * @return CRC-32 da identificação, em hexadecimal
+     */
+    private static String resumo(byte[] identificacao) {
+        CRC32 crc = new CRC32();
+        crc.update(identificacao);
+        return String.format("%08x", crc.getValue());
+    }
+
+    /**
+     * Resolve o diretório das cópias.
+     *
+     * @param configurado diretório configurado, possivelmente vazio
+     * @return diretório configurado, ou o padrão no diretório do usuário
+     */
+    private static Path diretorio(String configurado) {
+        if (!configurado.isBlank()) {
+            return Paths.get(configurado.trim());
+        }
+        return Paths.get(System.getProperty("user.home"), ".sistema_de_cadastro");
+    }
+}
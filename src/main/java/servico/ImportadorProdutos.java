@@ -0,0 +1,622 @@
+package servico;
+
+import dto.Resposta;
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.function.IntConsumer;
+import modelo.Categoria;
+import modelo.Produto;
+import socket.ConfiguracaoCliente;
+import util.AssincronoUtil;
+import util.TextoUtil;
+
+/**
+ * Importa produtos de um arquivo CSV, enviando-os ao servidor em lotes.
+ *
+ * <p>
+ * O arquivo é lido em fluxo, uma linha por vez: cada linha é convertida em
+ * {@link Produto}, tem a categoria resolvida pelo nome e é validada localmente
+ * pelas regras RN05 a RN11 antes de entrar no lote. As linhas rejeitadas não
+ * chegam ao servidor. Os lotes são enviados com {@link ProdutoServico#criarProdutosAsync}
+ * em várias requisições simultâneas; como a leitura espera uma vaga quando o
+ * número máximo de lotes em andamento é atingido, a memória ocupada não depende
+ * do tamanho do arquivo.</p>
+ *
+ * <p>
+ * A primeira linha é o cabeçalho, com as colunas em qualquer ordem:
+ * {@code nome}, {@code preco}, {@code unidade}, {@code categoria},
+ * {@code quantidade}, {@code quantidadeMinima} e {@code quantidadeMaxima}
+ * (acentos, maiúsculas e espaços são ignorados). O separador pode ser ponto e
+ * vírgula ou vírgula; campos entre aspas podem conter o separador. O preço
+ * aceita vírgula decimal.</p>
+ *
+ * <p>
+ * Tamanho do lote e número de lotes simultâneos vêm das chaves
+ * {@code importacao.lote} e {@code importacao.conexoes} do arquivo de
+ * configuração do cliente.</p>
+ */
+public class ImportadorProdutos {
+
+    /**
+     * Quantidade máxima de mensagens de rejeição guardadas no resumo.
+     */
+    private static final int MAXIMO_ERROS = 100;
+
+    /**
+     * Unidades aceitas (RN08), indexadas pela forma em maiúsculas. São os
+     * mesmos valores oferecidos na tela de produtos.
+     */
+    private static final Map<String, String> UNIDADES = Map.of("KG", "KG", "G", "g", "L", "L", "ML", "ml");
+
+    /**
+     * Colunas do arquivo, na ordem usada internamente.
+     */
+    private static final String[] COLUNAS = {"NOME", "PRECO", "UNIDADE", "CATEGORIA",
+        "QUANTIDADE", "QUANTIDADEMINIMA", "QUANTIDADEMAXIMA"};
+
+    /**
+     * Nomes alternativos aceitos no cabeçalho, já normalizados.
+     */
+    private static final Map<String, String> SINONIMOS = Map.of(
+            "PRECOUNITARIO", "PRECO",
+            "ESTOQUE", "QUANTIDADE",
+            "QTDESTOQUE", "QUANTIDADE",
+            "QTDMINIMA", "QUANTIDADEMINIMA",
+            "QTDMAXIMA", "QUANTIDADEMAXIMA");
+
+    /**
+     * Resultado de uma importação.
+     */
+    public static final class Resumo {
+
+        /**
+         * Linhas de dados lidas do arquivo.
+         */
+        private long lidas;
+
+        /**
+         * Produtos criados no servidor.
+         */
+        private long importados;
+
+        /**
+         * Linhas rejeitadas pela validação ou pelo servidor.
+         */
+        private long rejeitadas;
+
+        /**
+         * Primeiras mensagens de rejeição, com o número da linha.
+         */
+        private final List<String> erros = new ArrayList<>();
+
+        /**
+         * Duração da importação, em milissegundos.
+         */
+        private long duracaoMs;
+
+        /**
+         * Obtém a quantidade de linhas de dados lidas.
+         *
+         * @return linhas lidas, sem contar o cabeçalho e linhas em branco
+         */
+        public synchronized long getLidas() {
+            return lidas;
+        }
+
+        /**
+         * Obtém a quantidade de produtos criados no servidor.
+         *
+         * @return produtos importados
+         */
+        public synchronized long getImportados() {
+            return importados;
+        }
+
+        /**
+         * Obtém a quantidade de linhas rejeitadas.
+         *
+         * @return linhas rejeitadas pela validação ou pelo servidor
+         */
+        public synchronized long getRejeitadas() {
+            return rejeitadas;
+        }
+
+        /**
+         * Obtém as primeiras mensagens de rejeição.
+         *
+         * @return até {@value ImportadorProdutos#MAXIMO_ERROS} mensagens no
+         * formato {@code linha N: motivo}
+         */
+        public synchronized List<String> getErros() {
+            return new ArrayList<>(erros);
+        }
+
+        /**
+         * Obtém a duração da importação.
+         *
+         * @return duração em milissegundos
+         */
+        public synchronized long getDuracaoMs() {
+            return duracaoMs;
+        }
+
+        /**
+         * Conta uma linha lida.
+         */
+        private synchronized void contarLida() {
+            lidas++;
+        }
+
+        /**
+         * Conta produtos criados no servidor.
+         *
+         * @param quantidade produtos criados
+         */
+        private synchronized void contarImportados(int quantidade) {
+            importados += quantidade;
+        }
+
+        /**
+         * Conta uma linha rejeitada, guardando o motivo enquanto houver espaço.
+         *
+         * @param linha número da linha no arquivo
+         * @param motivo motivo da rejeição
+         */
+        private synchronized void rejeitar(long linha, String motivo) {
+            rejeitadas++;
+            if (erros.size() < MAXIMO_ERROS) {
+                erros.add("linha " + linha + ": " + motivo);
+            }
+        }
+
+        /**
+         * Resume a importação.
+         *
+         * @return texto com as contagens e a duração
+         */
+        @Override
+        public synchronized String toString() {
+            return "lidas=" + lidas + ", importadas=" + importados + ", rejeitadas=" + rejeitadas
+                    + ", duracao=" + duracaoMs + "ms";
+        }
+    }
+
+    /**
+     * Serviço usado para listar os produtos existentes e enviar os lotes.
+     */
+    private final ProdutoServico produtoServico = new ProdutoServico();
+
+    /**
+     * Serviço usado para resolver os nomes das categorias.
+     */
+    private final CategoriaServico categoriaServico = new CategoriaServico();
+
+    /**
+     * Quantidade de produtos por lote.
+     */
+    private final int tamanhoLote;
+
+    /**
+     * Número máximo de lotes enviados simultaneamente.
+     */
+    private final int conexoes;
+
+    /**
+     * Cria um importador com os valores do arquivo de configuração.
+     */
+    public ImportadorProdutos() {
+        this(ConfiguracaoCliente.inteiro("importacao.lote", 500), ConfiguracaoCliente.inteiro("importacao.conexoes", 4));
+    }
+
+    /**
+     * Cria um importador.
+     *
+     * @param tamanhoLote quantidade de produtos por lote
+     * @param conexoes número máximo de lotes enviados simultaneamente
+     */
+    public ImportadorProdutos(int tamanhoLote, int conexoes) {
+        this.tamanhoLote = Math.max(1, tamanhoLote);
+        this.conexoes = Math.max(1, conexoes);
+    }
+
+    /**
+     * Importa os produtos de um arquivo CSV.
+     *
+     * <p>
+     * Cada linha é independente: as rejeitadas são contadas no resumo e não
+     * impedem a importação das demais. Se a thread for interrompida a leitura
+     * para, mas os lotes já enviados não são desfeitos.</p>
+     *
+     * @param arquivo arquivo CSV codificado em UTF-8
+     * @param progresso recebe o percentual do arquivo já lido, de 0 a 100
+     * @return resumo da importação
+     * @throws IOException se o arquivo não puder ser lido ou não tiver as
+     * colunas obrigatórias
+     * @throws InterruptedException se a thread for interrompida
+     */
+    public Resumo importar(Path arquivo, IntConsumer progresso) throws IOException, InterruptedException {
+        long inicio = System.nanoTime();
+        long tamanho = Math.max(1, Files.size(arquivo));
+        Resumo resumo = new Resumo();
+        Map<String, Integer> categoriasPorNome = indexarCategorias();
+        Set<String> chaves = indexarProdutos();
+        Semaphore vagas = new Semaphore(conexoes);
+
+        try (ContadorBytes contador = new ContadorBytes(Files.newInputStream(arquivo));
+                BufferedReader in = new BufferedReader(new InputStreamReader(contador, StandardCharsets.UTF_8), 1 << 16)) {
+            char separador = detectarSeparador(in);
+            List<String> campos = new ArrayList<>();
+            if (!lerRegistro(in, separador, campos)) {
+                throw new IOException("Arquivo vazio");
+            }
+            int[] colunas = mapearColunas(campos);
+
+            List<Produto> lote = new ArrayList<>(tamanhoLote);
+            long[] linhas = new long[tamanhoLote];
+            long linha = 1;
+            int percentual = -1;
+            try {
+                while (lerRegistro(in, separador, campos)) {
+                    linha++;
+                    if (campos.size() == 1 && campos.get(0).isBlank()) {
+                        continue;
+                    }
+                    resumo.contarLida();
+                    Produto p = new Produto();
+                    String falha = converter(campos, colunas, categoriasPorNome, p);
+                    if (falha == null) {
+                        falha = validar(p, chaves);
+                    }
+                    if (falha != null) {
+                        resumo.rejeitar(linha, falha);
+                        continue;
+                    }
+                    linhas[lote.size()] = linha;
+                    lote.add(p);
+                    if (lote.size() == tamanhoLote) {
+                        enviar(lote, linhas, vagas, resumo);
+                        lote = new ArrayList<>(tamanhoLote);
+                        linhas = new long[tamanhoLote];
+                        if (Thread.interrupted()) {
+                            throw new InterruptedException();
+                        }
+                    }
+                    int atual = (int) (contador.lidos * 100 / tamanho);
+                    if (atual != percentual && atual < 100) {
+                        percentual = atual;
+                        progresso.accept(percentual);
+                    }
+                }
+                if (!lote.isEmpty()) {
+                    enviar(lote, linhas, vagas, resumo);
+                }
+            } finally {
+                // Espera os lotes em andamento, inclusive em caso de falha
+                vagas.acquireUninterruptibly(conexoes);
+            }
+        }
+        progresso.accept(100);
+        synchronized (resumo) {
+            resumo.duracaoMs = (System.nanoTime() - inicio) / 1_000_000;
+        }
+        return resumo;
+    }
+
+    /**
+     * Envia um lote sem esperar a resposta, aguardando antes uma vaga.
+     *
+     * @param lote produtos a criar
+     * @param linhas número da linha de cada produto no arquivo
+     * @param vagas vagas de lotes em andamento
+     * @param resumo resumo a atualizar quando a resposta chegar
+     * @throws InterruptedException se a thread for interrompida esperando a
+     * vaga
+     */
+    private void enviar(List<Produto> lote, long[] linhas, Semaphore vagas, Resumo resumo) throws InterruptedException {
+        vagas.acquire();
+        produtoServico.criarProdutosAsync(lote, false).whenComplete((resposta, erro) -> {
+            try {
+                contabilizar(lote.size(), linhas, resposta, erro, resumo);
+            } finally {
+                vagas.release();
+            }
+        });
+    }
+
+    /**
+     * Atualiza o resumo com a resposta de um lote.
+     *
+     * @param quantidade produtos enviados no lote
+     * @param linhas número da linha de cada produto no arquivo
+     * @param resposta resposta do servidor, ou null em caso de falha
+     * @param erro falha do envio, ou null
+     * @param resumo resumo a atualizar
+     */
+    private static void contabilizar(int quantidade, long[] linhas, Resposta<List<Resposta<Produto>>> resposta,
+            Throwable erro, Resumo resumo) {
+        if (erro != null || !"sucesso".equalsIgnoreCase(resposta.getStatus()) || resposta.getDados() == null) {
+            String motivo = erro != null ? AssincronoUtil.desembrulhar(erro).getMessage() : resposta.getMensagem();
+            for (int i = 0; i < quantidade; i++) {
+                resumo.rejeitar(linhas[i], motivo);
+            }
+            return;
+        }
+        List<Resposta<Produto>> resultados = resposta.getDados();
+        int criados = 0;
+        for (int i = 0; i < quantidade; i++) {
+            Resposta<Produto> resultado = i < resultados.size() ? resultados.get(i) : null;
+            if (resultado != null && "sucesso".equalsIgnoreCase(resultado.getStatus())) {
+                criados++;
+            } else {
+                resumo.rejeitar(linhas[i], resultado == null ? "sem resposta do servidor" : resultado.getMensagem());
+            }
+        }
+        resumo.contarImportados(criados);
+    }
+
+    /**
+     * Busca as categorias uma única vez e as indexa pelo nome normalizado.
+     *
+     * @return identificador de cada categoria pelo nome
+     */
+    private Map<String, Integer> indexarCategorias() {
+        Resposta<List<Categoria>> resposta = categoriaServico.listarCategoria();
+        if (!"sucesso".equalsIgnoreCase(resposta.getStatus()) || resposta.getDados() == null) {
+            throw new RuntimeException("Erro ao listar categorias: " + resposta.getMensagem());
+        }
+        Map<String, Integer> indice = new HashMap<>();
+        for (Categoria c : resposta.getDados()) {
+            indice.put(TextoUtil.normalizar(c.getNome()), c.getId());
+        }
+        return indice;
+    }
+
+    /**
+     * Busca os produtos existentes e monta as chaves de unicidade (RN11).
+     *
+     * @return chaves de categoria e nome já em uso
+     */
+    private Set<String> indexarProdutos() {
+        Resposta<List<Produto>> resposta = produtoServico.listarProduto();
+        if (!"sucesso".equalsIgnoreCase(resposta.getStatus()) || resposta.getDados() == null) {
+            throw new RuntimeException("Erro ao listar produtos: " + resposta.getMensagem());
+        }
+        Set<String> chaves = new HashSet<>();
+        for (Produto p : resposta.getDados()) {
+            chaves.add(chave(p));
+        }
+        return chaves;
+    }
+
+    /**
+     * Preenche um produto com os campos de uma linha.
+     *
+     * @param campos campos da linha
+     * @param colunas posição de cada coluna na linha, na ordem de
+     * {@link #COLUNAS}
+     * @param categoriasPorNome categorias indexadas pelo nome normalizado
+     * @param p produto a preencher
+     * @return motivo da rejeição, ou null se a linha for válida
+     */
+    private static String converter(List<String> campos, int[] colunas, Map<String, Integer> categoriasPorNome, Produto p) {
+        String[] valores = new String[COLUNAS.length];
+        for (int i = 0; i < COLUNAS.length; i++) {
+            valores[i] = colunas[i] < campos.size() ? campos.get(colunas[i]).trim() : "";
+        }
+        p.setNome(valores[0]);
+
+        String unidade = UNIDADES.get(valores[2].toUpperCase());
+        if (unidade == null) {
+            return "unidade inválida: " + valores[2] + " (RN08)";
+        }
+        p.setUnidade(unidade);
+
+        Integer categoriaId = categoriasPorNome.get(TextoUtil.normalizar(valores[3]));
+        if (categoriaId == null) {
+            return "categoria inexistente: " + valores[3] + " (RN05)";
+        }
+        p.setCategoriaId(categoriaId);
+
+        try {
+            p.setPreco(Double.valueOf(valores[1].indexOf(',') >= 0
+                    ? valores[1].replace(".", "").replace(',', '.')
+                    : valores[1]));
+        } catch (NumberFormatException e) {
+            return "preço inválido: " + valores[1];
+        }
+        try {
+            p.setQuantidade(Integer.valueOf(valores[4]));
+            p.setQuantidadeMinima(Integer.valueOf(valores[5]));
+            p.setQuantidadeMaxima(Integer.valueOf(valores[6]));
+        } catch (NumberFormatException e) {
+            return "quantidade inválida";
+        }
+        return null;
+    }
+
+    /**
+     * Valida as regras RN06 a RN11 e reserva a chave de unicidade do produto.
+     *
+     * @param p produto convertido, com categoria e unidade já verificadas
+     * @param chaves chaves de categoria e nome já em uso
+     * @return motivo da rejeição, ou null se o produto for válido
+     */
+    private static String validar(Produto p, Set<String> chaves) {
+        if (p.getNome().isEmpty() || p.getNome().length() > 100) {
+            return "o nome deve ter entre 1 e 100 caracteres (RN06)";
+        }
+        if (!(p.getPreco() > 0) || p.getPreco().isInfinite()) {
+            return "o preço deve ser maior que zero (RN07)";
+        }
+        if (p.getQuantidadeMinima() > p.getQuantidadeMaxima()) {
+            return "a quantidade mínima deve ser menor ou igual à máxima (RN09)";
+        }
+        if (p.getQuantidade() < p.getQuantidadeMinima() || p.getQuantidade() > p.getQuantidadeMaxima()) {
+            return "a quantidade deve estar entre a mínima e a máxima (RN10)";
+        }
+        if (!chaves.add(chave(p))) {
+            return "já existe um produto com o nome " + p.getNome() + " nesta categoria (RN11)";
+        }
+        return null;
+    }
+
+    /**
+     * Monta a chave de unicidade de um produto (RN11).
+     *
+     * @param p produto
+     * @return categoria e nome normalizado
+     */
+    private static String chave(Produto p) {
+        return p.getCategoriaId() + ":" + TextoUtil.normalizar(p.getNome());
+    }
+
+    /**
+     * Localiza as colunas obrigatórias no cabeçalho.
+     *
+     * @param cabecalho campos da primeira linha
+     * @return posição de cada coluna, na ordem de {@link #COLUNAS}
+     * @throws IOException se faltar alguma coluna
+     */
+    private static int[] mapearColunas(List<String> cabecalho) throws IOException {
+        int[] colunas = new int[COLUNAS.length];
+        Arrays.fill(colunas, -1);
+        for (int i = 0; i < cabecalho.size(); i++) {
+            String nome = TextoUtil.normalizar(cabecalho.get(i).replace("\uFEFF", "")).replaceAll("[^A-Z0-9]", "");
+            nome = SINONIMOS.getOrDefault(nome, nome);
+            for (int j = 0; j < COLUNAS.length; j++) {
+                if (COLUNAS[j].equals(nome) && colunas[j] == -1) {
+                    colunas[j] = i;
+                }
+            }
+        }
+        for (int j = 0; j < COLUNAS.length; j++) {
+            if (colunas[j] == -1) {
+                throw new IOException("Coluna obrigatória ausente no cabeçalho: " + COLUNAS[j].toLowerCase());
+            }
+        }
+        return colunas;
+    }
+
+    /**
+     * Escolhe o separador pela primeira linha, sem consumi-la.
+     *
+     * @param in leitor posicionado no início do arquivo
+     * @return ponto e vírgula ou vírgula, o que aparecer mais no cabeçalho
+     * @throws IOException se a leitura falhar
+     */
+    private static char detectarSeparador(BufferedReader in) throws IOException {
+        in.mark(1 << 15);
+        String cabecalho = in.readLine();
+        in.reset();
+        if (cabecalho == null) {
+            return ';';
+        }
+        long pontoEVirgula = cabecalho.chars().filter(c -> c == ';').count();
+        long virgula = cabecalho.chars().filter(c -> c == ',').count();
+        return virgula > pontoEVirgula ? ',' : ';';
+    }
+
+    /**
+     * Lê o próximo registro do CSV.
+     *
+     * <p>
+     * Campos entre aspas podem conter o separador, quebras de linha e aspas
+     * duplicadas ({@code ""}).</p>
+     *
+     * @param in leitor do arquivo
+     * @param separador separador de campos
+     * @param campos lista reaproveitada, preenchida com os campos do registro
+     * @return false se o arquivo tiver terminado
+     * @throws IOException se a leitura falhar
+     */
+    private static boolean lerRegistro(BufferedReader in, char separador, List<String> campos) throws IOException {
+        campos.clear();
+        StringBuilder campo = new StringBuilder();
+        boolean entreAspas = false;
+        int c = in.read();
+        if (c == -1) {
+            return false;
+        }
+        while (c != -1) {
+            if (entreAspas) {
+                if (c == '"') {
+                    in.mark(1);
+                    int seguinte = in.read();
+                    if (seguinte == '"') {
+                        campo.append('"');
+                    } else {
+                        entreAspas = false;
+                        in.reset();
+                    }
+                } else {
+                    campo.append((char) c);
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == separador) {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                campo.append((char) c);
+            }
+            c = in.read();
+        }
+        campos.add(campo.toString());
+        return true;
+    }
+
+    /**
+     * Conta os bytes lidos do arquivo, para calcular o progresso.
+     */
+    private static final class ContadorBytes extends FilterInputStream {
+
+        /**
+         * Bytes lidos até o momento. Escrito e lido apenas pela thread de
+         * leitura.
+         */
+        private long lidos;
+
+        /**
+         * Cria o contador.
+         *
+         * @param in fluxo do arquivo
+         */
+        ContadorBytes(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) {
+                lidos++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                lidos += n;
+            }
+            return n;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package servico;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Índice dos nomes já em uso, para recusar duplicidades sem ir ao servidor.
+ *
+ * <p>
+ * Cada entidade é indexada por uma chave de unicidade (o nome normalizado, ou
+ * a categoria e o nome normalizado no caso de produtos) que aponta para o id
+ * de quem a usa. O índice é alimentado pelas listagens que as telas já fazem
+ * e atualizado pelas escritas confirmadas pelo servidor, de modo que a
+ * consulta é apenas uma busca em tabela hash.</p>
+ *
+ * <p>
+ * O servidor continua sendo a autoridade: um nome ausente do índice pode estar
+ * em uso por uma escrita de outro cliente e ainda ser recusado por ele. Como
+ * no {@link CacheEntidade}, cada escrita avança uma geração, e uma listagem que
+ * estava em andamento durante a escrita é descartada em vez de trazer nomes
+ * antigos de volta.</p>
+ *
+ * @param <T> tipo da entidade
+ */
+public class NomesEmUso<T> {
+
+    /**
+     * Id de quem usa cada chave.
+     */
+    private final Map<String, Integer> donos = new HashMap<>();
+
+    /**
+     * Chave usada por cada id, para liberá-la em alterações e exclusões.
+     */
+    private final Map<Integer, String> chaves = new HashMap<>();
+
+    /**
+     * Contador de escritas, usado para descartar listagens obsoletas.
+     */
+    private long geracao;
+
+    /**
+     * Extrai o id de uma entidade.
+     */
+    private final Function<T, Integer> extrairId;
+
+    /**
+     * Monta a chave de unicidade de uma entidade.
+     */
+    private final Function<T, String> extrairChave;
+
+    /**
+     * Cria um índice vazio.
+     *
+     * @param extrairId função que obtém o id da entidade
+     * @param extrairChave função que monta a chave de unicidade da entidade
+     */
+    public NomesEmUso(Function<T, Integer> extrairId, Function<T, String> extrairChave) {
+        this.extrairId = extrairId;
+        this.extrairChave = extrairChave;
+    }
+
+    /**
+     * Geração atual, a ser informada em {@link #carregar(List, long)} pela
+     * listagem iniciada agora.
+     *
+     * @return geração atual
+     */
+    public synchronized long geracao() {
+        return geracao;
+    }
+
+    /**
+     * Substitui o conteúdo do índice por uma listagem completa, a menos que
+     * alguma escrita tenha sido registrada desde que ela foi solicitada.
+     *
+     * @param valores todas as entidades cadastradas
+     * @param geracaoSolicitacao geração obtida antes de enviar a listagem
+     */
+    public synchronized void carregar(List<T> valores, long geracaoSolicitacao) {
+        if (geracaoSolicitacao != geracao) {
+            return;
+        }
+        donos.clear();
+        chaves.clear();
+        for (T valor : valores) {
+            colocar(valor);
+        }
+    }
+
+    /**
+     * Registra a chave de uma entidade criada ou alterada, liberando a chave
+     * que ela usava antes.
+     *
+     * @param valor entidade confirmada pelo servidor
+     */
+    public synchronized void registrar(T valor) {
+        if (valor != null) {
+            liberar(extrairId.apply(valor));
+            colocar(valor);
+        }
+        geracao++;
+    }
+
+    /**
+     * Libera a chave de uma entidade excluída.
+     *
+     * @param id identificador da entidade
+     */
+    public synchronized void remover(Integer id) {
+        liberar(id);
+        geracao++;
+    }
+
+    /**
+     * Aplica o resultado de uma listagem incremental.
+     *
+     * @param alterados entidades criadas ou alteradas
+     * @param removidos identificadores das entidades excluídas
+     */
+    public synchronized void aplicar(List<T> alterados, List<Integer> removidos) {
+        for (T valor : alterados) {
+            liberar(extrairId.apply(valor));
+            colocar(valor);
+        }
+        for (Integer id : removidos) {
+            liberar(id);
+        }
+        geracao++;
+    }
+
+    /**
+     * Verifica se a chave de uma entidade já pertence a outra.
+     *
+     * @param valor entidade a verificar; em alterações, com o próprio id
+     * @return true se outra entidade conhecida já usa a mesma chave
+     */
+    public synchronized boolean emUso(T valor) {
+        Integer dono = donos.get(extrairChave.apply(valor));
+        return dono != null && !dono.equals(extrairId.apply(valor));
+    }
+
+    /**
+     * Indexa uma entidade. Entidades sem id são ignoradas.
+     *
+     * @param valor entidade
+     */
+    private void colocar(T valor) {
+        Integer id = extrairId.apply(valor);
+        if (id == null) {
+            return;
+        }
+        String chave = extrairChave.apply(valor);
+        donos.put(chave, id);
+        chaves.put(id, chave);
+    }
+
+    /**
+     * Remove a chave usada por um id, se ainda for dele.
+     *
+     * @param id identificador da entidade, ou null
+     */
+    private void liberar(Integer id) {
+        String chave = id == null ? null : chaves.remove(id);
+        if (chave != null && id.equals(donos.get(chave))) {
+            donos.remove(chave);
+        }
+    }
+}
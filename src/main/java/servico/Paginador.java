@@ -0,0 +1,130 @@
+package servico;
+
+import dto.Pagina;
+import dto.Resposta;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * Percorre uma listagem paginada do servidor, buscando uma página de cada vez.
+ *
+ * <p>
+ * A primeira página é pedida sem cursor; as seguintes usam o
+ * {@code proximoCursor} devolvido pela anterior, até que o servidor informe que
+ * não há mais itens. Apenas a página corrente fica em memória, de modo que
+ * listagens grandes (como o histórico de movimentações) possam ser consumidas
+ * sem carregar todos os itens de uma vez.</p>
+ *
+ * <p>
+ * As páginas são buscadas de forma síncrona na thread que avança o iterador;
+ * o uso esperado é dentro de uma tarefa em segundo plano. Não é seguro para uso
+ * concorrente.</p>
+ *
+ * @param <T> tipo dos itens
+ */
+public class Paginador<T> implements Iterator<T> {
+
+    /**
+     * Busca a página que começa após o cursor informado (null para a
+     * primeira).
+     */
+    private final Function<String, Resposta<Pagina<T>>> buscar;
+
+    /**
+     * Descrição da listagem, usada nas mensagens de erro.
+     */
+    private final String descricao;
+
+    /**
+     * Itens da página corrente ainda não percorridos.
+     */
+    private Iterator<T> itens = Collections.emptyIterator();
+
+    /**
+     * Cursor da próxima página, ou null.
+     */
+    private String cursor;
+
+    /**
+     * Indica se ainda há páginas a buscar.
+     */
+    private boolean haMais = true;
+
+    /**
+     * Total de itens informado pelo servidor, ou null.
+     */
+    private Long total;
+
+    /**
+     * Cria um paginador.
+     *
+     * @param descricao descrição da listagem, usada nas mensagens de erro
+     * @param buscar função que busca a página posterior ao cursor
+     */
+    public Paginador(String descricao, Function<String, Resposta<Pagina<T>>> buscar) {
+        this.descricao = descricao;
+        this.buscar = buscar;
+    }
+
+    /**
+     * Indica se ainda há itens, buscando a próxima página se necessário.
+     *
+     * @return true se houver mais itens
+     * @throws RuntimeException se o servidor devolver erro
+     */
+    @Override
+    public boolean hasNext() {
+        while (!itens.hasNext() && haMais) {
+            buscarPagina();
+        }
+        return itens.hasNext();
+    }
+
+    /**
+     * Obtém o próximo item.
+     *
+     * @return próximo item da listagem
+     * @throws NoSuchElementException se não houver mais itens
+     */
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return itens.next();
+    }
+
+    /**
+     * Obtém o total de itens da listagem, buscando a primeira página se ainda
+     * não tiver sido buscada.
+     *
+     * @return total informado pelo servidor, ou null se não for informado
+     */
+    public Long getTotal() {
+        if (haMais && cursor == null && total == null) {
+            hasNext();
+        }
+        return total;
+    }
+
+    /**
+     * Busca a próxima página e avança o cursor.
+     */
+    private void buscarPagina() {
+        Resposta<Pagina<T>> resposta = buscar.apply(cursor);
+        if (!"sucesso".equalsIgnoreCase(resposta.getStatus())) {
+            throw new RuntimeException("Erro ao listar " + descricao + ": " + resposta.getMensagem());
+        }
+        Pagina<T> pagina = resposta.getDados();
+        List<T> lista = pagina == null ? null : pagina.getItens();
+        itens = lista == null ? Collections.emptyIterator() : lista.iterator();
+        if (pagina != null && pagina.getTotal() != null) {
+            total = pagina.getTotal();
+        }
+        cursor = pagina == null ? null : pagina.getProximoCursor();
+        haMais = cursor != null;
+    }
+}
@@ -1,11 +1,28 @@
 package servico;
 
+import com.fasterxml.jackson.databind.JavaType;
+import dto.Alteracoes;
+import dto.MovimentoEstoque;
+import dto.Notificacao;
+import dto.Lote;
 import dto.Requisicao;
 import dto.Resposta;
+import dto.SaldoEstoque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import modelo.Produto;
 import modelo.enums.Acao;
 import modelo.enums.Entidade;
+import socket.CanalNotificacoes;
 import socket.ClientSocket;
+import socket.ConfiguracaoCliente;
+import util.AssincronoUtil;
+import util.JsonUtil;
+import util.TextoUtil;
 
 /**
  * Serviço responsável por gerenciar as operações de negócio relacionadas a produtos.
@@ -15,11 +32,58 @@ import socket.ClientSocket;
  * as respostas recebidas.</p>
  *
  * <p>Fornece métodos para operações CRUD básicas e operações específicas de
- * ajuste de preços em lote.</p>
+ * ajuste de preços em lote e movimentação de estoque.</p>
  *
  */
 public class ProdutoServico {
 
+    /**
+     * Cache de produtos compartilhado por todas as instâncias do serviço.
+     *
+     * <p>
+     * Listagens e buscas por id são atendidas localmente enquanto válidas; as
+     * escritas confirmadas pelo servidor atualizam ou invalidam as entradas.
+     * Tamanho e tempo de vida vêm das chaves {@code cache.tamanho} e
+     * {@code cache.ttl.ms} do arquivo de configuração do cliente.</p>
+     */
+    private static final CacheEntidade<Produto> cache = new CacheEntidade<>(
+            ConfiguracaoCliente.inteiro("cache.tamanho", 1000),
+            ConfiguracaoCliente.longo("cache.ttl.ms", 60000),
+            p -> p.getId(),
+            ProdutoServico::copiar);
+
+    /**
+     * Cópia em disco da última listagem de produtos, alimentada pela
+     * sincronização e lida pelas telas ao abrir e enquanto o servidor estiver
+     * indisponível.
+     */
+    private static final CopiaLocal<Produto> copia = new CopiaLocal<>("produtos", Produto.class,
+            p -> p.getId(), ProdutoServico::copiar, Integer.MAX_VALUE);
+
+    /**
+     * Pares de categoria e nome de produto já em uso (RN11), compartilhados
+     * por todas as instâncias do serviço e alimentados pelas listagens e
+     * escritas confirmadas.
+     */
+    private static final NomesEmUso<Produto> nomes = new NomesEmUso<>(
+            p -> p.getId(),
+            p -> p.getCategoriaId() + ":" + TextoUtil.normalizar(p.getNome()));
+
+    /** Tipo da resposta de busca, lida direto em {@link Produto}. */
+    private static final JavaType RESPOSTA_PRODUTO = ClientSocket.tipoResposta(Produto.class);
+
+    /** Tipo da resposta de listagem, lida direto em uma lista de produtos. */
+    private static final JavaType RESPOSTA_LISTA = ClientSocket.tipoRespostaLista(Produto.class);
+
+    /** Tipo da resposta de listagem incremental, com as alterações de produtos. */
+    private static final JavaType RESPOSTA_ALTERACOES = ClientSocket.tipoRespostaAlteracoes(Produto.class);
+
+    /** Tipo da resposta de lote, com o resultado de cada operação sobre produtos. */
+    private static final JavaType RESPOSTA_LOTE = ClientSocket.tipoRespostaLote(Produto.class);
+
+    /** Tipo da resposta de movimentação, lida direto em {@link SaldoEstoque}. */
+    private static final JavaType RESPOSTA_SALDO = ClientSocket.tipoResposta(SaldoEstoque.class);
+
     /** Instância de produto utilizada internamente para operações específicas. */
     private Produto Produto;
 
@@ -28,10 +92,60 @@ public class ProdutoServico {
      *
      * @param produto objeto Produto contendo os dados do produto a ser criado
      * @return uma Resposta contendo o resultado da operação (sucesso ou erro)
+     * e, quando o servidor o devolve, o produto criado com seu id
+     */
+    public Resposta<Produto> criarProduto(Produto produto) {
+        return AssincronoUtil.aguardar(criarProdutoAsync(produto));
+    }
+
+    /**
+     * Versão assíncrona de {@link #criarProduto(Produto)}.
+     *
+     * @param produto objeto Produto contendo os dados do produto a ser criado
+     * @return futuro com a resposta do servidor
      */
-    public Resposta<?> criarProduto(Produto produto) {
+    public CompletableFuture<Resposta<Produto>> criarProdutoAsync(Produto produto) {
         Requisicao<Produto> req = new Requisicao<>(Acao.CRIAR, Entidade.PRODUTO, produto);
-        return ClientSocket.enviarRequisicao(req);
+        return ClientSocket.enviarRequisicaoAsync(req).thenApply(generica -> {
+            Resposta<Produto> resposta = criado(generica);
+            if (sucesso(resposta)) {
+                Produto criado = resposta.getDados();
+                if (criado != null && criado.getId() != null) {
+                    cache.guardar(criado);
+                    nomes.registrar(criado);
+                }
+                cache.invalidarLista(); // o novo registro não está na listagem guardada
+            }
+            return resposta;
+        });
+    }
+
+    /**
+     * Lê a resposta de uma criação sem exigir um formato para os dados.
+     *
+     * <p>
+     * O servidor pode devolver em {@code dados} o produto criado, só o id,
+     * uma mensagem ou nada. A criação já foi feita quando a resposta chega,
+     * então dados que não formam um produto são descartados em vez
+     * de transformar o sucesso em falha de comunicação.</p>
+     *
+     * @param generica resposta com os dados ainda genéricos
+     * @return resposta com o produto criado, ou sem dados se o servidor não o
+     * devolveu
+     */
+    private static Resposta<Produto> criado(Resposta<?> generica) {
+        Produto criado = null;
+        if (generica.getDados() instanceof Map) {
+            try {
+                criado = JsonUtil.converter(generica.getDados(), Produto.class);
+            } catch (RuntimeException e) {
+                System.out.println("Dados da criação ignorados: " + e.getMessage());
+            }
+        }
+        Resposta<Produto> resposta = new Resposta<>(generica.getStatus(), generica.getMensagem(), criado);
+        resposta.setId(generica.getId());
+        resposta.setErro(generica.getErro());
+        return resposta;
     }
 
     /**
@@ -41,8 +155,24 @@ public class ProdutoServico {
      * @return uma Resposta contendo o resultado da operação (sucesso ou erro)
      */
     public Resposta<?> atualizarProduto(Produto produto) {
+        return AssincronoUtil.aguardar(atualizarProdutoAsync(produto));
+    }
+
+    /**
+     * Versão assíncrona de {@link #atualizarProduto(Produto)}.
+     *
+     * @param produto objeto Produto contendo os dados atualizados do produto
+     * @return futuro com a resposta do servidor
+     */
+    public CompletableFuture<Resposta<?>> atualizarProdutoAsync(Produto produto) {
         Requisicao<Produto> req = new Requisicao<>(Acao.ATUALIZAR, Entidade.PRODUTO, produto);
-        return ClientSocket.enviarRequisicao(req);
+        return ClientSocket.enviarRequisicaoAsync(req).thenApply(resposta -> {
+            if (sucesso(resposta)) {
+                cache.guardar(produto);
+                nomes.registrar(produto);
+            }
+            return resposta;
+        });
     }
 
     /**
@@ -52,9 +182,123 @@ public class ProdutoServico {
      * @return uma Resposta contendo o resultado da operação (sucesso ou erro)
      */
     public Resposta<?> deletarProduto(Integer id) {
+        return AssincronoUtil.aguardar(deletarProdutoAsync(id));
+    }
+
+    /**
+     * Versão assíncrona de {@link #deletarProduto(Integer)}.
+     *
+     * @param id identificador único do produto a ser removido
+     * @return futuro com a resposta do servidor
+     */
+    public CompletableFuture<Resposta<?>> deletarProdutoAsync(Integer id) {
         Produto produto = new Produto(id, null, null, null, null, null, null, null);
         Requisicao<Produto> req = new Requisicao<>(Acao.DELETAR, Entidade.PRODUTO, produto);
-        return ClientSocket.enviarRequisicao(req);
+        return ClientSocket.enviarRequisicaoAsync(req).thenApply(resposta -> {
+            if (sucesso(resposta)) {
+                cache.remover(id);
+                nomes.remover(id);
+            }
+            return resposta;
+        });
+    }
+
+    /**
+     * Cria vários produtos em uma única requisição.
+     *
+     * <p>Com {@code tudoOuNada} a primeira falha desfaz as criações anteriores
+     * e a resposta vem com status de erro; sem ele cada produto é criado
+     * independentemente e o resultado de cada um deve ser conferido na lista.</p>
+     *
+     * @param produtos produtos a serem criados, na ordem
+     * @param tudoOuNada true para desfazer todo o lote na primeira falha
+     * @return uma Resposta contendo o resultado de cada criação, na mesma ordem
+     */
+    public Resposta<List<Resposta<Produto>>> criarProdutos(List<Produto> produtos, boolean tudoOuNada) {
+        return AssincronoUtil.aguardar(criarProdutosAsync(produtos, tudoOuNada));
+    }
+
+    /**
+     * Versão assíncrona de {@link #criarProdutos(List, boolean)}.
+     *
+     * @param produtos produtos a serem criados, na ordem
+     * @param tudoOuNada true para desfazer todo o lote na primeira falha
+     * @return futuro com a resposta do servidor
+     */
+    public CompletableFuture<Resposta<List<Resposta<Produto>>>> criarProdutosAsync(List<Produto> produtos, boolean tudoOuNada) {
+        Lote<Produto> lote = Lote.de(Acao.CRIAR, Entidade.PRODUTO, produtos, tudoOuNada);
+        return enviarLote(lote).thenApply(resposta -> {
+            confirmadas(resposta, (i, criado) -> {
+                cache.guardar(criado);
+                nomes.registrar(criado);
+            });
+            if (sucesso(resposta)) {
+                cache.invalidarLista(); // os novos registros não estão na listagem guardada
+            }
+            return resposta;
+        });
+    }
+
+    /**
+     * Atualiza vários produtos em uma única requisição.
+     *
+     * @param produtos produtos com os dados atualizados, na ordem
+     * @param tudoOuNada true para desfazer todo o lote na primeira falha
+     * @return uma Resposta contendo o resultado de cada atualização, na mesma ordem
+     */
+    public Resposta<List<Resposta<Produto>>> atualizarProdutos(List<Produto> produtos, boolean tudoOuNada) {
+        return AssincronoUtil.aguardar(atualizarProdutosAsync(produtos, tudoOuNada));
+    }
+
+    /**
+     * Versão assíncrona de {@link #atualizarProdutos(List, boolean)}.
+     *
+     * @param produtos produtos com os dados atualizados, na ordem
+     * @param tudoOuNada true para desfazer todo o lote na primeira falha
+     * @return futuro com a resposta do servidor
+     */
+    public CompletableFuture<Resposta<List<Resposta<Produto>>>> atualizarProdutosAsync(List<Produto> produtos, boolean tudoOuNada) {
+        Lote<Produto> lote = Lote.de(Acao.ATUALIZAR, Entidade.PRODUTO, produtos, tudoOuNada);
+        return enviarLote(lote).thenApply(resposta -> {
+            confirmadas(resposta, (i, atualizado) -> {
+                cache.guardar(produtos.get(i));
+                nomes.registrar(produtos.get(i));
+            });
+            return resposta;
+        });
+    }
+
+    /**
+     * Remove vários produtos em uma única requisição.
+     *
+     * @param ids identificadores dos produtos a serem removidos, na ordem
+     * @param tudoOuNada true para desfazer todo o lote na primeira falha
+     * @return uma Resposta contendo o resultado de cada remoção, na mesma ordem
+     */
+    public Resposta<List<Resposta<Produto>>> deletarProdutos(List<Integer> ids, boolean tudoOuNada) {
+        return AssincronoUtil.aguardar(deletarProdutosAsync(ids, tudoOuNada));
+    }
+
+    /**
+     * Versão assíncrona de {@link #deletarProdutos(List, boolean)}.
+     *
+     * @param ids identificadores dos produtos a serem removidos, na ordem
+     * @param tudoOuNada true para desfazer todo o lote na primeira falha
+     * @return futuro com a resposta do servidor
+     */
+    public CompletableFuture<Resposta<List<Resposta<Produto>>>> deletarProdutosAsync(List<Integer> ids, boolean tudoOuNada) {
+        List<Produto> produtos = new ArrayList<>(ids.size());
+        for (Integer id : ids) {
+            produtos.add(new Produto(id, null, null, null, null, null, null, null));
+        }
+        Lote<Produto> lote = Lote.de(Acao.DELETAR, Entidade.PRODUTO, produtos, tudoOuNada);
+        return enviarLote(lote).thenApply(resposta -> {
+            confirmadas(resposta, (i, removido) -> {
+                cache.remover(ids.get(i));
+                nomes.remover(ids.get(i));
+            });
+            return resposta;
+        });
     }
 
     /**
@@ -63,9 +307,28 @@ public class ProdutoServico {
      * @param produto objeto Produto contendo os critérios de busca
      * @return uma Resposta contendo o produto encontrado ou mensagem de erro
      */
-    public Resposta<?> encontrarProduto(Produto produto) {
+    public Resposta<Produto> encontrarProduto(Produto produto) {
+        return AssincronoUtil.aguardar(encontrarProdutoAsync(produto));
+    }
+
+    /**
+     * Versão assíncrona de {@link #encontrarProduto(Produto)}.
+     *
+     * @param produto objeto Produto contendo os critérios de busca
+     * @return futuro com a resposta do servidor
+     */
+    public CompletableFuture<Resposta<Produto>> encontrarProdutoAsync(Produto produto) {
+        Produto emCache = cache.obter(produto.getId());
+        if (emCache != null) {
+            return CompletableFuture.completedFuture(new Resposta<>("sucesso", "Produto encontrado", emCache));
+        }
         Requisicao<Produto> req = new Requisicao<>(Acao.ENCONTRAR, Entidade.PRODUTO, produto);
-        return ClientSocket.enviarRequisicao(req);
+        return ClientSocket.<Produto>enviarRequisicaoAsync(req, RESPOSTA_PRODUTO).thenApply(resposta -> {
+            if (sucesso(resposta) && resposta.getDados() != null) {
+                cache.guardar(resposta.getDados());
+            }
+            return resposta;
+        });
     }
 
     /**
@@ -73,9 +336,163 @@ public class ProdutoServico {
      *
      * @return uma Resposta contendo a lista de produtos ou mensagem de erro
      */
-    public Resposta<?> listarProduto() {
+    public Resposta<List<Produto>> listarProduto() {
+        return AssincronoUtil.aguardar(listarProdutoAsync());
+    }
+
+    /**
+     * Versão assíncrona de {@link #listarProduto()}.
+     *
+     * @return futuro com a resposta do servidor
+     */
+    public CompletableFuture<Resposta<List<Produto>>> listarProdutoAsync() {
+        List<Produto> emCache = cache.listar();
+        if (emCache != null) {
+            nomes.carregar(emCache, nomes.geracao());
+            return CompletableFuture.completedFuture(new Resposta<>("sucesso", "Produtos listados", emCache));
+        }
+        long geracao = cache.geracao();
+        long geracaoNomes = nomes.geracao();
+        Requisicao<Void> req = new Requisicao<>(Acao.LISTAR, Entidade.PRODUTO, null);
+        return ClientSocket.<List<Produto>>enviarRequisicaoAsync(req, RESPOSTA_LISTA).thenApply(resposta -> {
+            if (sucesso(resposta) && resposta.getDados() != null) {
+                cache.guardarLista(resposta.getDados(), geracao);
+                nomes.carregar(resposta.getDados(), geracaoNomes);
+            }
+            return resposta;
+        });
+    }
+
+    /**
+     * Obtém as alterações de produtos desde uma versão conhecida.
+     *
+     * <p>Com versão 0 a resposta é a listagem completa, atendida pelo cache
+     * quando possível, com a maior versão entre os produtos como ponto de
+     * partida. Com uma versão anterior o servidor envia só os produtos
+     * alterados e os ids dos excluídos depois dela, que são aplicados ao
+     * cache sem recarregar os demais. Se o servidor responder com uma versão
+     * anterior à pedida, como depois de reiniciado, a listagem completa é
+     * pedida de novo. O resultado também atualiza a cópia em disco.</p>
+     *
+     * @param desdeVersao última versão conhecida, ou 0
+     * @return uma Resposta contendo as alterações e a nova versão
+     */
+    public Resposta<Alteracoes<Produto>> sincronizar(long desdeVersao) {
+        return AssincronoUtil.aguardar(sincronizarAsync(desdeVersao));
+    }
+
+    /**
+     * Versão assíncrona de {@link #sincronizar(long)}.
+     *
+     * @param desdeVersao última versão conhecida, ou 0
+     * @return futuro com a resposta do servidor
+     */
+    public CompletableFuture<Resposta<Alteracoes<Produto>>> sincronizarAsync(long desdeVersao) {
+        if (desdeVersao <= 0) {
+            return listarProdutoAsync().thenApply(resposta -> {
+                Resposta<Alteracoes<Produto>> completa = new Resposta<>(resposta.getStatus(), resposta.getMensagem(),
+                        resposta.getDados() == null ? null : Alteracoes.completas(resposta.getDados(), p -> p.getVersao()));
+                completa.setErro(resposta.getErro());
+                if (sucesso(completa) && completa.getDados() != null) {
+                    copia.aplicar(0, completa.getDados());
+                }
+                return completa;
+            });
+        }
+        long geracao = cache.geracao();
+        long geracaoNomes = nomes.geracao();
         Requisicao<Void> req = new Requisicao<>(Acao.LISTAR, Entidade.PRODUTO, null);
-        return ClientSocket.enviarRequisicao(req);
+        req.setDesdeVersao(desdeVersao);
+        return ClientSocket.<Alteracoes<Produto>>enviarRequisicaoAsync(req, RESPOSTA_ALTERACOES).thenCompose(resposta -> {
+            Alteracoes<Produto> alteracoes = resposta.getDados();
+            if (!sucesso(resposta) || alteracoes == null) {
+                return CompletableFuture.completedFuture(resposta);
+            }
+            if (!alteracoes.isCompleto() && alteracoes.getVersao() != null && alteracoes.getVersao() < desdeVersao) {
+                // Versão do servidor anterior à pedida: ele foi reiniciado e a
+                // versão guardada não vale mais
+                return sincronizarAsync(0);
+            }
+            if (alteracoes.isCompleto()) {
+                if (alteracoes.getVersao() == null) {
+                    alteracoes = Alteracoes.completas(alteracoes.getAlterados(), p -> p.getVersao());
+                }
+                cache.guardarLista(alteracoes.getAlterados(), geracao);
+                nomes.carregar(alteracoes.getAlterados(), geracaoNomes);
+            } else {
+                cache.aplicarAlteracoes(alteracoes.getAlterados(), alteracoes.getRemovidos());
+                nomes.aplicar(alteracoes.getAlterados(), alteracoes.getRemovidos());
+            }
+            copia.aplicar(desdeVersao, alteracoes);
+            return CompletableFuture.completedFuture(new Resposta<>(resposta.getStatus(), resposta.getMensagem(), alteracoes));
+        });
+    }
+
+    /**
+     * Lê a última listagem de produtos guardada em disco, sem ir ao servidor.
+     *
+     * <p>Usada pelas telas para exibir os produtos antes da resposta do
+     * servidor e enquanto ele estiver indisponível. A versão da listagem pode
+     * ser enviada a {@link #sincronizar(long)} para obter só o que mudou desde
+     * então. Os nomes em uso (RN11) são carregados a partir dela, até que a
+     * sincronização os substitua.</p>
+     *
+     * @return listagem completa guardada, ou null se não houver
+     */
+    public Alteracoes<Produto> lerCopiaLocal() {
+        long geracaoNomes = nomes.geracao();
+        Alteracoes<Produto> guardada = copia.ler();
+        if (guardada != null) {
+            nomes.carregar(guardada.getAlterados(), geracaoNomes);
+        }
+        return guardada;
+    }
+
+    /**
+     * Obtém o instante em que os produtos guardados em disco foram recebidos
+     * do servidor pela última vez.
+     *
+     * @return milissegundos desde a época, ou 0 se não houver cópia
+     */
+    public long copiaLocalAtualizadaEm() {
+        return copia.getAtualizadaEm();
+    }
+
+    /**
+     * Movimenta o estoque de um produto em uma única ida ao servidor.
+     *
+     * <p>A variação é aplicada pelo servidor sobre a quantidade atual, de modo
+     * que movimentações simultâneas de operadores diferentes não se
+     * sobrescrevem. A resposta traz a quantidade resultante e o status do
+     * estoque.</p>
+     *
+     * @param produtoId identificador do produto movimentado
+     * @param delta variação da quantidade: positiva para entrada, negativa para saída
+     * @return uma Resposta contendo o saldo resultante ou mensagem de erro
+     */
+    public Resposta<SaldoEstoque> movimentarEstoque(Integer produtoId, int delta) {
+        return AssincronoUtil.aguardar(movimentarEstoqueAsync(produtoId, delta));
+    }
+
+    /**
+     * Versão assíncrona de {@link #movimentarEstoque(Integer, int)}.
+     *
+     * @param produtoId identificador do produto movimentado
+     * @param delta variação da quantidade: positiva para entrada, negativa para saída
+     * @return futuro com a resposta do servidor
+     */
+    public CompletableFuture<Resposta<SaldoEstoque>> movimentarEstoqueAsync(Integer produtoId, int delta) {
+        Requisicao<MovimentoEstoque> req = new Requisicao<>(Acao.MOVIMENTAR, Entidade.PRODUTO,
+                new MovimentoEstoque(produtoId, delta));
+        return ClientSocket.<SaldoEstoque>enviarRequisicaoAsync(req, RESPOSTA_SALDO).thenApply(resposta -> {
+            if (sucesso(resposta) && resposta.getDados() != null) {
+                Integer quantidade = resposta.getDados().getQuantidade();
+                cache.alterar(produtoId, p -> p.setQuantidade(quantidade));
+            } else if (sucesso(resposta)) {
+                cache.invalidar(); // saldo não informado: a quantidade guardada ficou obsoleta
+            }
+            return resposta;
+        });
     }
 
     /**
@@ -85,8 +502,23 @@ public class ProdutoServico {
      * @return uma Resposta contendo o resultado da operação (sucesso ou erro)
      */
     public Resposta<?> aumentarPrecoProduto(Double percentual) {
-       Requisicao<Double> req = new Requisicao<>(Acao.AUMENTAR, Entidade.PRODUTO, percentual);
-        return ClientSocket.enviarRequisicao(req);
+        return AssincronoUtil.aguardar(aumentarPrecoProdutoAsync(percentual));
+    }
+
+    /**
+     * Versão assíncrona de {@link #aumentarPrecoProduto(Double)}.
+     *
+     * @param percentual valor percentual a ser aplicado no aumento dos preços
+     * @return futuro com a resposta do servidor
+     */
+    public CompletableFuture<Resposta<?>> aumentarPrecoProdutoAsync(Double percentual) {
+        Requisicao<Double> req = new Requisicao<>(Acao.AUMENTAR, Entidade.PRODUTO, percentual);
+        return ClientSocket.enviarRequisicaoAsync(req).thenApply(resposta -> {
+            if (sucesso(resposta)) {
+                cache.invalidar(); // todos os preços mudaram
+            }
+            return resposta;
+        });
     }
 
     /**
@@ -96,7 +528,129 @@ public class ProdutoServico {
      * @return uma Resposta contendo o resultado da operação (sucesso ou erro)
      */
     public Resposta<?> diminuirPrecoProduto(Double percentual) {
+        return AssincronoUtil.aguardar(diminuirPrecoProdutoAsync(percentual));
+    }
+
+    /**
+     * Versão assíncrona de {@link #diminuirPrecoProduto(Double)}.
+     *
+     * @param percentual valor percentual a ser aplicado na redução dos preços
+     * @return futuro com a resposta do servidor
+     */
+    public CompletableFuture<Resposta<?>> diminuirPrecoProdutoAsync(Double percentual) {
         Requisicao<Double> req = new Requisicao<>(Acao.DIMINUIR, Entidade.PRODUTO, percentual);
-        return ClientSocket.enviarRequisicao(req);
+        return ClientSocket.enviarRequisicaoAsync(req).thenApply(resposta -> {
+            if (sucesso(resposta)) {
+                cache.invalidar(); // todos os preços mudaram
+            }
+            return resposta;
+        });
+    }
+
+    /**
+     * Obtém o cache de produtos, para consulta dos contadores de acerto e
+     * falta.
+     *
+     * @return cache compartilhado de produtos
+     */
+    public static CacheEntidade<Produto> getCache() {
+        return cache;
+    }
+
+    /**
+     * Verifica, sem ir ao servidor, se outro produto da mesma categoria já
+     * usa o nome informado (RN11).
+     *
+     * <p>A verificação usa os produtos da última listagem e das escritas
+     * confirmadas desde então. Um resultado falso não garante que o servidor
+     * aceitará o nome, pois outro cliente pode tê-lo usado nesse meio
+     * tempo.</p>
+     *
+     * @param produto produto com categoria e nome; em alterações, com o
+     * próprio id
+     * @return true se o nome já estiver em uso por outro produto da categoria
+     */
+    public boolean nomeEmUso(Produto produto) {
+        return nomes.emUso(produto);
+    }
+
+    /**
+     * Acompanha as alterações de produtos feitas por qualquer cliente.
+     *
+     * <p>Cada notificação atualiza primeiro o cache e o índice de nomes e só
+     * então é repassada ao ouvinte, na thread do canal de notificações. Uma
+     * notificação de sincronização descarta o cache, pois alterações podem ter
+     * sido perdidas.</p>
+     *
+     * @param ouvinte ação chamada para cada notificação
+     * @return assinatura, a ser fechada quando a tela for encerrada
+     */
+    public CanalNotificacoes.Assinatura ouvirAlteracoes(Consumer<Notificacao<Produto>> ouvinte) {
+        return CanalNotificacoes.assinar(Entidade.PRODUTO, Produto.class, notificacao -> {
+            if (notificacao.isSincronizar()) {
+                cache.invalidar();
+            } else if (notificacao.getAcao() == Acao.DELETAR) {
+                cache.remover(notificacao.getId());
+                nomes.remover(notificacao.getId());
+            } else if (notificacao.getDados() != null) {
+                cache.aplicarAlteracoes(List.of(notificacao.getDados()), List.of());
+                nomes.registrar(notificacao.getDados());
+            }
+            ouvinte.accept(notificacao);
+        });
+    }
+
+    /**
+     * Envia um lote de operações sobre produtos em uma única requisição.
+     *
+     * @param lote operações a executar
+     * @return futuro com a resposta do servidor
+     */
+    private static CompletableFuture<Resposta<List<Resposta<Produto>>>> enviarLote(Lote<Produto> lote) {
+        Requisicao<Lote<Produto>> req = new Requisicao<>(Acao.LOTE, Entidade.PRODUTO, lote);
+        return ClientSocket.enviarRequisicaoAsync(req, RESPOSTA_LOTE);
+    }
+
+    /**
+     * Entrega cada operação de um lote confirmada pelo servidor, com a sua
+     * posição no lote e os dados devolvidos.
+     *
+     * @param resposta resposta do lote
+     * @param acao ação executada para cada operação confirmada
+     */
+    private static void confirmadas(Resposta<List<Resposta<Produto>>> resposta, BiConsumer<Integer, Produto> acao) {
+        if (!sucesso(resposta) || resposta.getDados() == null) {
+            return;
+        }
+        List<Resposta<Produto>> resultados = resposta.getDados();
+        for (int i = 0; i < resultados.size(); i++) {
+            if (sucesso(resultados.get(i))) {
+                acao.accept(i, resultados.get(i).getDados());
+            }
+        }
+    }
+
+    /**
+     * Produz uma cópia independente de um produto, para o cache e a cópia em
+     * disco.
+     *
+     * @param p produto
+     * @return cópia do produto
+     */
+    private static Produto copiar(Produto p) {
+        Produto copia = new Produto(p.getId(), p.getNome(), p.getPreco(), p.getUnidade(), p.getCategoriaId(),
+                p.getQuantidade(), p.getQuantidadeMinima(), p.getQuantidadeMaxima());
+        copia.setVersao(p.getVersao());
+        return copia;
+    }
+
+    /**
+     * Verifica se o servidor confirmou a operação.
+     *
+     * @param resposta resposta recebida
+     * @return true se o status for de sucesso
+     */
+    private static boolean sucesso(Resposta<?> resposta) {
+        return "sucesso".equalsIgnoreCase(resposta.getStatus());
     }
-}
\ No newline at end of file
+}
@@ -1,11 +1,20 @@
 package servico;
 
+import com.fasterxml.jackson.databind.JavaType;
+import dto.Alteracoes;
+import dto.Notificacao;
+import dto.Pagina;
 import dto.Requisicao;
 import dto.Resposta;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 import modelo.Registro;
 import modelo.enums.Acao;
 import modelo.enums.Entidade;
+import socket.CanalNotificacoes;
 import socket.ClientSocket;
+import socket.ConfiguracaoCliente;
+import util.AssincronoUtil;
 
 /**
  * Serviço responsável por gerenciar as operações de negócio relacionadas a
@@ -18,10 +27,29 @@ import socket.ClientSocket;
  *
  * <p>
  * Fornece métodos para inserir e listar registros de movimentação do
- * sistema.</p>
+ * sistema. Como o histórico cresce sem limite, a listagem é sempre paginada:
+ * por número de página, por cursor ou percorrendo todas as páginas com um
+ * {@link Paginador}.</p>
  */
 public class RegistroServico {
 
+    /** Tipo da resposta de listagem paginada, lida direto em uma {@link Pagina}. */
+    private static final JavaType RESPOSTA_PAGINA = ClientSocket.tipoRespostaPagina(Registro.class);
+
+    /** Quantidade de itens por página ao percorrer a listagem completa. */
+    private static final int LIMITE = ConfiguracaoCliente.inteiro("listagem.limite", 500);
+
+    /**
+     * Cópia em disco do início do histórico, alimentada pelas páginas
+     * listadas e limitada pela chave {@code copia.registros.maximo}. Como os
+     * registros só são acrescentados ao fim, as páginas completas guardadas
+     * nunca ficam desatualizadas.
+     */
+    private static final CopiaLocal<Registro> copia = new CopiaLocal<>("registros", Registro.class,
+            r -> r.getId(),
+            r -> new Registro(r.getId(), r.getData(), r.getProdutoId(), r.getQuantidade(), r.getMovimentacao(), r.getStatus()),
+            ConfiguracaoCliente.inteiro("copia.registros.maximo", 10000));
+
     /**
      * Insere um novo registro de movimentação no sistema.
      *
@@ -30,19 +58,133 @@ public class RegistroServico {
      * erro)
      */
     public Resposta<?> inserirRegistro(Registro r) {
+        return AssincronoUtil.aguardar(inserirRegistroAsync(r));
+    }
+
+    /**
+     * Versão assíncrona de {@link #inserirRegistro(Registro)}.
+     *
+     * @param r objeto Registro contendo os dados do registro a ser inserido
+     * @return futuro com a resposta do servidor
+     */
+    public CompletableFuture<Resposta<?>> inserirRegistroAsync(Registro r) {
         Requisicao<Registro> req = new Requisicao<>(Acao.CRIAR, Entidade.REGISTRO, r);
-        return ClientSocket.enviarRequisicao(req);
+        return ClientSocket.enviarRequisicaoAsync(req);
     }
 
     /**
-     * Lista todos os registros de movimentação cadastrados no sistema.
+     * Lista uma página de registros de movimentação.
      *
-     * @return uma {@link Resposta} contendo a lista de registros ou mensagem de
-     * erro
+     * @param pagina número da página, a partir de 0
+     * @param limite quantidade máxima de itens na página
+     * @return uma {@link Resposta} contendo a página ou mensagem de erro
      */
-    public Resposta<?> listarRegistros() {
+    public Resposta<Pagina<Registro>> listarRegistros(int pagina, int limite) {
+        return AssincronoUtil.aguardar(listarRegistrosAsync(pagina, limite));
+    }
+
+    /**
+     * Versão assíncrona de {@link #listarRegistros(int, int)}.
+     *
+     * @param pagina número da página, a partir de 0
+     * @param limite quantidade máxima de itens na página
+     * @return futuro com a resposta do servidor
+     */
+    public CompletableFuture<Resposta<Pagina<Registro>>> listarRegistrosAsync(int pagina, int limite) {
         Requisicao<Void> req = new Requisicao<>(Acao.LISTAR, Entidade.REGISTRO, null);
-        return ClientSocket.enviarRequisicao(req);
+        req.setPagina(pagina);
+        req.setLimite(limite);
+        return ClientSocket.<Pagina<Registro>>enviarRequisicaoAsync(req, RESPOSTA_PAGINA).thenApply(resposta -> {
+            Pagina<Registro> dados = resposta.getDados();
+            if ("sucesso".equalsIgnoreCase(resposta.getStatus()) && dados != null && dados.getItens() != null) {
+                // Servidor sem paginação devolve a listagem inteira em qualquer página
+                boolean inteira = dados.getItens().size() > limite
+                        || (dados.getPagina() != null && dados.getPagina() != pagina);
+                copia.aplicarTrecho(inteira ? 0 : pagina * limite, dados.getItens(), dados.getTotal());
+            }
+            return resposta;
+        });
+    }
+
+    /**
+     * Lê o início do histórico guardado em disco, sem ir ao servidor.
+     *
+     * <p>
+     * Usado pela tela de movimentações para exibir as primeiras linhas antes
+     * da resposta do servidor e enquanto ele estiver indisponível.</p>
+     *
+     * @return página com os registros guardados, a partir do primeiro, e o
+     * total conhecido do histórico; ou null se não houver cópia
+     */
+    public Pagina<Registro> lerCopiaLocal() {
+        Alteracoes<Registro> guardada = copia.ler();
+        if (guardada == null) {
+            return null;
+        }
+        return new Pagina<>(guardada.getAlterados(), 0, guardada.getAlterados().size(), copia.getTotal(), null);
     }
 
+    /**
+     * Obtém o instante em que os registros guardados em disco foram recebidos
+     * do servidor pela última vez.
+     *
+     * @return milissegundos desde a época, ou 0 se não houver cópia
+     */
+    public long copiaLocalAtualizadaEm() {
+        return copia.getAtualizadaEm();
+    }
+
+    /**
+     * Lista a página de registros de movimentação posterior ao cursor informado.
+     *
+     * @param cursor cursor devolvido na página anterior, ou null para a
+     * primeira página
+     * @param limite quantidade máxima de itens na página
+     * @return uma {@link Resposta} contendo a página ou mensagem de erro
+     */
+    public Resposta<Pagina<Registro>> listarRegistrosApos(String cursor, int limite) {
+        return AssincronoUtil.aguardar(listarRegistrosAposAsync(cursor, limite));
+    }
+
+    /**
+     * Versão assíncrona de {@link #listarRegistrosApos(String, int)}.
+     *
+     * @param cursor cursor devolvido na página anterior, ou null para a
+     * primeira página
+     * @param limite quantidade máxima de itens na página
+     * @return futuro com a resposta do servidor
+     */
+    public CompletableFuture<Resposta<Pagina<Registro>>> listarRegistrosAposAsync(String cursor, int limite) {
+        Requisicao<Void> req = new Requisicao<>(Acao.LISTAR, Entidade.REGISTRO, null);
+        req.setCursor(cursor);
+        req.setLimite(limite);
+        return ClientSocket.enviarRequisicaoAsync(req, RESPOSTA_PAGINA);
+    }
+
+    /**
+     * Percorre registros de movimentação página a página, mantendo em memória apenas a
+     * página corrente.
+     *
+     * <p>
+     * O tamanho das páginas é lido da chave {@code listagem.limite} do arquivo
+     * de configuração do cliente. Cada página é buscada quando o iterador a
+     * alcança, portanto ele deve ser percorrido fora da thread de eventos.</p>
+     *
+     * @return iterador sobre todos os itens da listagem
+     */
+    public Paginador<Registro> percorrerRegistros() {
+        return new Paginador<>("registros", cursor -> listarRegistrosApos(cursor, LIMITE));
+    }
+
+
+    /**
+     * Acompanha os registros de movimentação criados por qualquer cliente.
+     *
+     * @param ouvinte ação chamada na thread do canal de notificações para
+     * cada notificação
+     * @return assinatura, a ser fechada quando a tela for encerrada
+     */
+    public CanalNotificacoes.Assinatura ouvirRegistros(Consumer<Notificacao<Registro>> ouvinte) {
+        return CanalNotificacoes.assinar(Entidade.REGISTRO, Registro.class, ouvinte);
+    }
 }
@@ -1,10 +1,16 @@
 package servico;
 
+import com.fasterxml.jackson.databind.JavaType;
+import dto.Pagina;
 import dto.Requisicao;
 import dto.Resposta;
+import java.util.concurrent.CompletableFuture;
+import modelo.Relatorio;
 import modelo.enums.Acao;
 import modelo.enums.Entidade;
 import socket.ClientSocket;
+import socket.ConfiguracaoCliente;
+import util.AssincronoUtil;
 
 /**
  * Serviço responsável por gerenciar as operações de negócio relacionadas a
@@ -16,18 +22,82 @@ import socket.ClientSocket;
  * processando as respostas recebidas.</p>
  *
  * <p>
- * Fornece métodos para obter dados consolidadas para geração de relatórios.</p>
+ * Fornece métodos para obter dados consolidadas para geração de relatórios.
+ * Assim como o histórico de movimentações de que derivam, esses dados são
+ * listados em páginas.</p>
  */
 public class RelatorioServico {
 
+    /** Tipo da resposta de listagem paginada, lida direto em uma {@link Pagina}. */
+    private static final JavaType RESPOSTA_PAGINA = ClientSocket.tipoRespostaPagina(Relatorio.class);
+
+    /** Quantidade de itens por página ao percorrer a listagem completa. */
+    private static final int LIMITE = ConfiguracaoCliente.inteiro("listagem.limite", 500);
+
+    /**
+     * Lista uma página de dados consolidados para relatórios.
+     *
+     * @param pagina número da página, a partir de 0
+     * @param limite quantidade máxima de itens na página
+     * @return uma {@link Resposta} contendo a página ou mensagem de erro
+     */
+    public Resposta<Pagina<Relatorio>> listarRelatorio(int pagina, int limite) {
+        return AssincronoUtil.aguardar(listarRelatorioAsync(pagina, limite));
+    }
+
+    /**
+     * Versão assíncrona de {@link #listarRelatorio(int, int)}.
+     *
+     * @param pagina número da página, a partir de 0
+     * @param limite quantidade máxima de itens na página
+     * @return futuro com a resposta do servidor
+     */
+    public CompletableFuture<Resposta<Pagina<Relatorio>>> listarRelatorioAsync(int pagina, int limite) {
+        Requisicao<Void> req = new Requisicao<>(Acao.LISTAR, Entidade.RELATORIO, null);
+        req.setPagina(pagina);
+        req.setLimite(limite);
+        return ClientSocket.enviarRequisicaoAsync(req, RESPOSTA_PAGINA);
+    }
+
+    /**
+     * Lista a página de dados consolidados para relatórios posterior ao cursor informado.
+     *
+     * @param cursor cursor devolvido na página anterior, ou null para a
+     * primeira página
+     * @param limite quantidade máxima de itens na página
+     * @return uma {@link Resposta} contendo a página ou mensagem de erro
+     */
+    public Resposta<Pagina<Relatorio>> listarRelatorioApos(String cursor, int limite) {
+        return AssincronoUtil.aguardar(listarRelatorioAposAsync(cursor, limite));
+    }
+
     /**
-     * Lista todos os dados consolidadas disponíveis para relatórios.
+     * Versão assíncrona de {@link #listarRelatorioApos(String, int)}.
      *
-     * @return uma {@link Resposta} contendo a lista de dados para relatório ou
-     * mensagem de erro
+     * @param cursor cursor devolvido na página anterior, ou null para a
+     * primeira página
+     * @param limite quantidade máxima de itens na página
+     * @return futuro com a resposta do servidor
      */
-    public Resposta<?> listarRelatorio() {
+    public CompletableFuture<Resposta<Pagina<Relatorio>>> listarRelatorioAposAsync(String cursor, int limite) {
         Requisicao<Void> req = new Requisicao<>(Acao.LISTAR, Entidade.RELATORIO, null);
-        return ClientSocket.enviarRequisicao(req);
+        req.setCursor(cursor);
+        req.setLimite(limite);
+        return ClientSocket.enviarRequisicaoAsync(req, RESPOSTA_PAGINA);
+    }
+
+    /**
+     * Percorre dados consolidados para relatórios página a página, mantendo em memória apenas a
+     * página corrente.
+     *
+     * <p>
+     * O tamanho das páginas é lido da chave {@code listagem.limite} do arquivo
+     * de configuração do cliente. Cada página é buscada quando o iterador a
+     * alcança, portanto ele deve ser percorrido fora da thread de eventos.</p>
+     *
+     * @return iterador sobre todos os itens da listagem
+     */
+    public Paginador<Relatorio> percorrerRelatorio() {
+        return new Paginador<>("relatório", cursor -> listarRelatorioApos(cursor, LIMITE));
     }
 }
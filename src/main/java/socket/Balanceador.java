@@ -0,0 +1,285 @@
+package socket;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import util.Formato;
+
+/**
+ * Distribui as requisições entre os servidores configurados.
+ *
+ * <p>
+ * Os nós são lidos de {@code servidores}, uma lista de {@code host:porta}
+ * separados por vírgula; sem ela, é usado o único servidor de {@code host} e
+ * {@code porta}. A escolha segue {@code balanceamento}:</p>
+ *
+ * <ul>
+ * <li>{@code menor-carga} (padrão): o nó com o menor produto entre as
+ * requisições em andamento (mais a nova) e a média do tempo de resposta, de
+ * modo que um nó lento precisa estar bem mais ocioso para ser escolhido;</li>
+ * <li>{@code rodizio}: rodízio ponderado, em que cada nó recebe uma parte das
+ * requisições inversamente proporcional ao seu tempo médio de resposta.</li>
+ * </ul>
+ *
+ * <p>
+ * Cada nó tem um disjuntor (ver {@link NoServidor}): depois de
+ * {@code servidores.falhas} falhas seguidas ele fica fora da escolha por
+ * {@code servidores.suspensao.ms}, tempo que dobra a cada nova abertura até
+ * {@code servidores.suspensao.maxima.ms}. Se todos os disjuntores estiverem
+ * abertos nenhum nó é escolhido e a requisição falha na hora, sem esperar
+ * pelos tempos limite de rede.</p>
+ */
+public class Balanceador {
+
+    /**
+     * Critério de escolha do nó.
+     */
+    public enum Estrategia {
+        /**
+         * Rodízio ponderado pelo tempo de resposta.
+         */
+        RODIZIO,
+        /**
+         * Menor carga: requisições em andamento ponderadas pelo tempo de
+         * resposta.
+         */
+        MENOR_CARGA
+    }
+
+    /**
+     * Peso, no rodízio, do nó com o menor tempo de resposta.
+     */
+    private static final int PESO_MAXIMO = 10;
+
+    /**
+     * Servidores configurados.
+     */
+    private final List<NoServidor> nos;
+
+    /**
+     * Critério de escolha.
+     */
+    private final Estrategia estrategia;
+
+    /**
+     * Falhas seguidas que abrem o disjuntor de um nó.
+     */
+    private final int limiteFalhas;
+
+    /**
+     * Suspensão de um nó na primeira abertura do disjuntor, em milissegundos.
+     */
+    private final long suspensaoMs;
+
+    /**
+     * Suspensão máxima de um nó, em milissegundos.
+     */
+    private final long suspensaoMaximaMs;
+
+    /**
+     * Posição a partir da qual os nós são percorridos, para desempatar.
+     */
+    private int inicio;
+
+    /**
+     * Cria um balanceador.
+     *
+     * @param nos servidores, ao menos um
+     * @param estrategia critério de escolha
+     * @param limiteFalhas falhas seguidas que abrem o disjuntor de um nó
+     * @param suspensaoMs suspensão de um nó na primeira abertura
+     * @param suspensaoMaximaMs suspensão máxima de um nó
+     */
+    public Balanceador(List<NoServidor> nos, Estrategia estrategia, int limiteFalhas, long suspensaoMs, long suspensaoMaximaMs) {
+        if (nos.isEmpty()) {
+            throw new IllegalArgumentException("Nenhum servidor configurado");
+        }
+        this.nos = List.copyOf(nos);
+        this.estrategia = estrategia;
+        this.limiteFalhas = Math.max(1, limiteFalhas);
+        this.suspensaoMs = Math.max(1, suspensaoMs);
+        this.suspensaoMaximaMs = Math.max(this.suspensaoMs, suspensaoMaximaMs);
+    }
+
+    /**
+     * Monta o balanceador a partir de {@code cliente.propriedade}.
+     *
+     * @return balanceador com os servidores configurados
+     */
+    public static Balanceador configurado() {
+        int tamanho = ConfiguracaoCliente.inteiro("pool.tamanho", 4);
+        long ociosoMs = ConfiguracaoCliente.longo("pool.ocioso.ms", 30000);
+        long validacaoMs = ConfiguracaoCliente.longo("pool.validacao.ms", 2000);
+        int conexaoMs = ConfiguracaoCliente.inteiro("conexao.timeout.ms", 3000);
+        int leituraMs = ConfiguracaoCliente.inteiro("leitura.timeout.ms", 15000);
+        String hostPadrao = ConfiguracaoCliente.texto("host", "localhost");
+        int portaPadrao = ConfiguracaoCliente.inteiro("porta", 3001);
+        List<Formato> formatos = Formato.disponiveis(ConfiguracaoCliente.texto("transporte.formatos", ""));
+        int compressaoMinima = ConfiguracaoCliente.inteiro("transporte.compressao.minimo", Enquadramento.COMPRESSAO_MINIMA);
+
+        List<NoServidor> nos = new ArrayList<>();
+        for (String endereco : ConfiguracaoCliente.texto("servidores", "").split(",")) {
+            endereco = endereco.trim();
+            if (endereco.isEmpty()) {
+                continue;
+            }
+            int separador = endereco.lastIndexOf(':');
+            String host = separador < 0 ? endereco : endereco.substring(0, separador);
+            int porta = portaPadrao;
+            if (separador >= 0) {
+                try {
+                    porta = Integer.parseInt(endereco.substring(separador + 1).trim());
+                } catch (NumberFormatException e) {
+                    System.out.println("Servidor ignorado, porta inválida: " + endereco);
+                    continue;
+                }
+            }
+            nos.add(new NoServidor(host.trim(), porta, tamanho, ociosoMs, validacaoMs, conexaoMs, leituraMs, formatos,
+                    compressaoMinima));
+        }
+        if (nos.isEmpty()) {
+            nos.add(new NoServidor(hostPadrao, portaPadrao, tamanho, ociosoMs, validacaoMs, conexaoMs, leituraMs, formatos,
+                    compressaoMinima));
+        }
+
+        Estrategia estrategia = "rodizio".equalsIgnoreCase(ConfiguracaoCliente.texto("balanceamento", "menor-carga"))
+                ? Estrategia.RODIZIO : Estrategia.MENOR_CARGA;
+        return new Balanceador(nos, estrategia,
+                ConfiguracaoCliente.inteiro("servidores.falhas", 3),
+                ConfiguracaoCliente.longo("servidores.suspensao.ms", 1000),
+                ConfiguracaoCliente.longo("servidores.suspensao.maxima.ms", 30000));
+    }
+
+    /**
+     * Obtém os servidores configurados.
+     *
+     * @return nós, na ordem da configuração
+     */
+    public List<NoServidor> getNos() {
+        return nos;
+    }
+
+    /**
+     * Obtém o estado do disjuntor de cada nó.
+     *
+     * @return estado por {@code host:porta}, na ordem da configuração
+     */
+    public Map<String, NoServidor.Estado> estados() {
+        Map<String, NoServidor.Estado> estados = new LinkedHashMap<>();
+        for (NoServidor no : nos) {
+            estados.put(no.toString(), no.getEstado());
+        }
+        return estados;
+    }
+
+    /**
+     * Escolhe o nó para a próxima requisição.
+     *
+     * @param excluidos nós que já falharam nesta requisição
+     * @return nó escolhido, ou null se todos estiverem excluídos ou com o
+     * disjuntor aberto
+     */
+    public synchronized NoServidor escolher(Collection<NoServidor> excluidos) {
+        long agora = System.currentTimeMillis();
+        List<NoServidor> candidatos = new ArrayList<>(nos.size());
+        for (int i = 0; i < nos.size(); i++) {
+            NoServidor no = nos.get((inicio + i) % nos.size());
+            if (!excluidos.contains(no) && no.isDisponivel(agora)) {
+                candidatos.add(no);
+            }
+        }
+        inicio = (inicio + 1) % nos.size();
+        if (candidatos.isEmpty()) {
+            return null;
+        }
+        NoServidor escolhido = candidatos.size() == 1 ? candidatos.get(0)
+                : estrategia == Estrategia.RODIZIO ? porRodizio(candidatos) : porMenorCarga(candidatos);
+        escolhido.reservar(agora);
+        return escolhido;
+    }
+
+    /**
+     * Registra uma falha de comunicação com um nó.
+     *
+     * @param no nó que falhou
+     */
+    public void falhar(NoServidor no) {
+        no.falhar(limiteFalhas, suspensaoMs, suspensaoMaximaMs);
+    }
+
+    /**
+     * Escolhe o candidato de menor carga ponderada pelo tempo de resposta.
+     *
+     * @param candidatos nós disponíveis
+     * @return nó escolhido
+     */
+    private NoServidor porMenorCarga(List<NoServidor> candidatos) {
+        double referencia = menorLatencia(candidatos);
+        NoServidor escolhido = null;
+        double menor = Double.MAX_VALUE;
+        for (NoServidor no : candidatos) {
+            double custo = (no.getPendentes() + 1) * latencia(no, referencia);
+            if (custo < menor) {
+                menor = custo;
+                escolhido = no;
+            }
+        }
+        return escolhido;
+    }
+
+    /**
+     * Rodízio ponderado suave: cada candidato acumula o próprio peso, o de
+     * maior acúmulo é escolhido e perde a soma dos pesos. Os nós mais lentos
+     * são escolhidos menos vezes, mas intercalados com os demais.
+     *
+     * @param candidatos nós disponíveis
+     * @return nó escolhido
+     */
+    private NoServidor porRodizio(List<NoServidor> candidatos) {
+        double referencia = menorLatencia(candidatos);
+        NoServidor escolhido = null;
+        int total = 0;
+        for (NoServidor no : candidatos) {
+            int peso = (int) Math.max(1, Math.round(PESO_MAXIMO * referencia / latencia(no, referencia)));
+            no.pesoCorrente += peso;
+            total += peso;
+            if (escolhido == null || no.pesoCorrente > escolhido.pesoCorrente) {
+                escolhido = no;
+            }
+        }
+        escolhido.pesoCorrente -= total;
+        return escolhido;
+    }
+
+    /**
+     * Menor tempo médio de resposta entre os candidatos já medidos.
+     *
+     * @param candidatos nós disponíveis
+     * @return menor média em milissegundos, ou 1 se nenhum foi medido
+     */
+    private static double menorLatencia(List<NoServidor> candidatos) {
+        double menor = Double.MAX_VALUE;
+        for (NoServidor no : candidatos) {
+            double latencia = no.getLatenciaMs();
+            if (!Double.isNaN(latencia) && latencia < menor) {
+                menor = latencia;
+            }
+        }
+        return menor == Double.MAX_VALUE ? 1 : Math.max(menor, 0.001);
+    }
+
+    /**
+     * Tempo médio de resposta de um nó. Um nó ainda não medido é tratado como
+     * o mais rápido, para que receba requisições e seja medido.
+     *
+     * @param no nó
+     * @param referencia menor média entre os candidatos
+     * @return média em milissegundos
+     */
+    private static double latencia(NoServidor no, double referencia) {
+        double latencia = no.getLatenciaMs();
+        return Double.isNaN(latencia) ? referencia : Math.max(latencia, referencia);
+    }
+}
@@ -0,0 +1,365 @@
+package socket;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JavaType;
+import dto.Notificacao;
+import dto.Requisicao;
+import dto.Resposta;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import modelo.enums.Acao;
+import modelo.enums.Entidade;
+import util.JsonUtil;
+
+/**
+ * Conexão de longa duração que recebe do servidor as alterações feitas por
+ * outros clientes e as repassa aos ouvintes registrados por entidade.
+ *
+ * <p>
+ * A conexão é separada das usadas pelo {@link ClientSocket}: ela envia uma
+ * única requisição {@code ASSINAR} e, depois da confirmação, apenas lê uma
+ * {@link Notificacao} por linha. É aberta quando o primeiro ouvinte é
+ * registrado e fechada quando o último é cancelado.</p>
+ *
+ * <p>
+ * O servidor é escolhido pelo mesmo {@link Balanceador} das requisições, que
+ * também fica sabendo quando a conexão não pode ser aberta. Se a conexão cair,
+ * ela é reaberta, possivelmente em outro servidor, com esperas crescentes
+ * entre as tentativas (até {@code notificacoes.reconexao.ms}). Como
+ * alterações podem ter sido perdidas enquanto ela esteve fechada, a cada
+ * confirmação da assinatura, inclusive a primeira, todos os ouvintes recebem
+ * uma notificação de sincronização ({@link Notificacao#isSincronizar()}). Um
+ * servidor que recuse a assinatura não é procurado de novo; as telas continuam
+ * funcionando apenas com as próprias listagens.</p>
+ *
+ * <p>
+ * Os ouvintes são chamados na thread leitora, na ordem em que as alterações
+ * chegam; quem atualiza a interface deve repassar o trabalho para a thread de
+ * eventos.</p>
+ */
+public class CanalNotificacoes {
+
+    /**
+     * Espera antes da primeira tentativa de reconexão, em milissegundos.
+     */
+    private static final long ESPERA_INICIAL_MS = 500;
+
+    /**
+     * Espera máxima entre tentativas de reconexão, em milissegundos.
+     */
+    private static final long ESPERA_MAXIMA_MS = ConfiguracaoCliente.longo("notificacoes.reconexao.ms", 30000);
+
+    /**
+     * Tipo da confirmação da assinatura.
+     */
+    private static final JavaType RESPOSTA = ClientSocket.tipoResposta(Object.class);
+
+    /**
+     * Tipo das notificações, com os dados ainda genéricos.
+     */
+    private static final JavaType NOTIFICACAO = JsonUtil.tipo(Notificacao.class, JsonUtil.tipo(Object.class));
+
+    /**
+     * Ouvintes registrados por entidade.
+     */
+    private static final Map<Entidade, List<Ouvinte<?>>> ouvintes = new ConcurrentHashMap<>();
+
+    /**
+     * Thread leitora em execução, ou null se não houver conexão.
+     */
+    private static Thread leitora;
+
+    /**
+     * Socket da conexão atual, fechado para interromper a leitura.
+     */
+    private static Socket socket;
+
+    /**
+     * Indica que o servidor recusou a assinatura.
+     */
+    private static boolean recusado;
+
+    /**
+     * Construtor privado para impedir instanciação da classe.
+     */
+    private CanalNotificacoes() {
+        // Impede instanciação
+    }
+
+    /**
+     * Registra um ouvinte das alterações de uma entidade, abrindo a conexão
+     * se for o primeiro.
+     *
+     * @param <T> tipo dos itens da entidade
+     * @param entidade entidade observada
+     * @param tipo classe em que os dados das notificações são convertidos
+     * @param ouvinte ação chamada na thread leitora para cada notificação
+     * @return assinatura, a ser fechada quando o ouvinte não for mais
+     * necessário
+     */
+    public static <T> Assinatura assinar(Entidade entidade, Class<T> tipo, Consumer<Notificacao<T>> ouvinte) {
+        Ouvinte<T> registro = new Ouvinte<>(tipo, ouvinte);
+        ouvintes.computeIfAbsent(entidade, e -> new CopyOnWriteArrayList<>()).add(registro);
+        iniciar();
+        return new Assinatura(entidade, registro);
+    }
+
+    /**
+     * Inicia a thread leitora, se ainda não estiver em execução.
+     */
+    private static synchronized void iniciar() {
+        if (leitora != null || recusado) {
+            return;
+        }
+        leitora = new Thread(CanalNotificacoes::manter, "canal-notificacoes");
+        leitora.setDaemon(true);
+        leitora.start();
+    }
+
+    /**
+     * Encerra a conexão se não houver mais ouvintes.
+     */
+    private static synchronized void encerrarSeOcioso() {
+        if (leitora == null || temOuvintes()) {
+            return;
+        }
+        leitora.interrupt();
+        leitora = null;
+        fecharSocket();
+    }
+
+    /**
+     * Laço da thread leitora: mantém a assinatura aberta enquanto houver
+     * ouvintes, reconectando após falhas.
+     */
+    private static void manter() {
+        Thread atual = Thread.currentThread();
+        long espera = ESPERA_INICIAL_MS;
+        while (continuar(atual)) {
+            try {
+                if (receber(atual)) {
+                    return; // servidor recusou a assinatura
+                }
+                espera = ESPERA_INICIAL_MS;
+            } catch (IOException | RuntimeException e) {
+                if (continuar(atual)) {
+                    System.out.println("Canal de notificações desconectado: " + e.getMessage());
+                }
+            }
+            try {
+                Thread.sleep(espera);
+            } catch (InterruptedException e) {
+                return; // último ouvinte cancelado
+            }
+            espera = Math.min(espera * 2, ESPERA_MAXIMA_MS);
+        }
+    }
+
+    /**
+     * Abre uma conexão, assina as notificações e as repassa até a conexão
+     * terminar.
+     *
+     * @param atual thread leitora
+     * @return true se o servidor recusou a assinatura
+     * @throws IOException se a conexão falhar
+     */
+    private static boolean receber(Thread atual) throws IOException {
+        Balanceador balanceador = ClientSocket.balanceador();
+        NoServidor no = balanceador.escolher(List.of());
+        if (no == null) {
+            throw new IOException("Servidor indisponível no momento");
+        }
+        long inicio = no.iniciar();
+        Socket conexao = new Socket();
+        JsonParser in;
+        boolean respondeu = false;
+        try {
+            conexao.connect(new InetSocketAddress(no.getHost(), no.getPorta()), no.getConexaoMs());
+            synchronized (CanalNotificacoes.class) {
+                if (!continuar(atual)) {
+                    no.abandonar();
+                    no.liberar();
+                    conexao.close();
+                    return false;
+                }
+                socket = conexao;
+            }
+            conexao.setTcpNoDelay(true);
+            conexao.setKeepAlive(true);
+            conexao.setSoTimeout(no.getLeituraMs());
+            OutputStream out = new BufferedOutputStream(conexao.getOutputStream());
+            out.write(JsonUtil.toJsonBytes(new Requisicao<>(Acao.ASSINAR, null, null)));
+            out.write('\n');
+            out.flush();
+
+            in = JsonUtil.abrirLeitura(conexao.getInputStream());
+            Resposta<?> confirmacao = JsonUtil.ler(in, RESPOSTA);
+            respondeu = true;
+            no.concluir(inicio);
+            if (!"sucesso".equalsIgnoreCase(confirmacao.getStatus())) {
+                System.out.println("Servidor não oferece notificações: " + confirmacao.getMensagem());
+                conexao.close();
+                synchronized (CanalNotificacoes.class) {
+                    recusado = true;
+                    leitora = null;
+                }
+                return true;
+            }
+            // Depois da confirmação, a espera por notificações não tem limite
+            conexao.setSoTimeout(0);
+        } catch (IOException e) {
+            if (!respondeu) {
+                no.abandonar();
+                if (continuar(atual)) {
+                    balanceador.falhar(no);
+                } else {
+                    no.liberar();
+                }
+            }
+            conexao.close();
+            throw e;
+        }
+
+        try (conexao) {
+            // Alterações podem ter ocorrido enquanto não havia conexão
+            for (Entidade entidade : ouvintes.keySet()) {
+                despachar(new Notificacao<>(entidade, Acao.ASSINAR, null, null, null));
+            }
+            while (true) {
+                despachar(JsonUtil.<Notificacao<Object>>ler(in, NOTIFICACAO));
+            }
+        }
+    }
+
+    /**
+     * Repassa uma notificação aos ouvintes da sua entidade. Uma falha em um
+     * ouvinte não impede os demais.
+     *
+     * @param notificacao notificação recebida
+     */
+    private static void despachar(Notificacao<Object> notificacao) {
+        List<Ouvinte<?>> daEntidade = notificacao.getEntidade() == null ? null : ouvintes.get(notificacao.getEntidade());
+        if (daEntidade == null) {
+            return;
+        }
+        for (Ouvinte<?> ouvinte : daEntidade) {
+            try {
+                ouvinte.receber(notificacao);
+            } catch (RuntimeException e) {
+                System.out.println("Erro ao tratar notificação: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Indica se a thread informada ainda deve manter a conexão.
+     *
+     * @param atual thread leitora
+     * @return true se ela for a leitora corrente
+     */
+    private static synchronized boolean continuar(Thread atual) {
+        return leitora == atual && !atual.isInterrupted();
+    }
+
+    /**
+     * Indica se há algum ouvinte registrado.
+     *
+     * @return true se houver ao menos um
+     */
+    private static boolean temOuvintes() {
+        for (List<Ouvinte<?>> daEntidade : ouvintes.values()) {
+            if (!daEntidade.isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Fecha o socket da conexão atual, ignorando erros.
+     */
+    private static void fecharSocket() {
+        if (socket == null) {
+            return;
+        }
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Conexão já encerrada
+        }
+        socket = null;
+    }
+
+    /**
+     * Ouvinte registrado, com a classe em que os dados são convertidos.
+     *
+     * @param <T> tipo dos itens
+     */
+    private static final class Ouvinte<T> {
+
+        /**
+         * Classe para a qual os dados da notificação são convertidos.
+         */
+        private final Class<T> tipo;
+
+        /**
+         * Ação chamada com cada notificação convertida.
+         */
+        private final Consumer<Notificacao<T>> acao;
+
+        private Ouvinte(Class<T> tipo, Consumer<Notificacao<T>> acao) {
+            this.tipo = tipo;
+            this.acao = acao;
+        }
+
+        /**
+         * Converte os dados da notificação e chama o ouvinte.
+         *
+         * @param notificacao notificação com dados genéricos
+         */
+        private void receber(Notificacao<Object> notificacao) {
+            acao.accept(new Notificacao<>(notificacao.getEntidade(), notificacao.getAcao(), notificacao.getId(),
+                    notificacao.getVersao(), JsonUtil.converter(notificacao.getDados(), tipo)));
+        }
+    }
+
+    /**
+     * Registro de um ouvinte, usado para cancelá-lo.
+     */
+    public static final class Assinatura implements AutoCloseable {
+
+        /**
+         * Entidade em cuja lista o ouvinte foi registrado.
+         */
+        private final Entidade entidade;
+
+        /**
+         * Ouvinte removido ao cancelar.
+         */
+        private final Ouvinte<?> ouvinte;
+
+        private Assinatura(Entidade entidade, Ouvinte<?> ouvinte) {
+            this.entidade = entidade;
+            this.ouvinte = ouvinte;
+        }
+
+        /**
+         * Cancela o ouvinte. A conexão é fechada quando não restar nenhum.
+         */
+        @Override
+        public void close() {
+            List<Ouvinte<?>> daEntidade = ouvintes.get(entidade);
+            if (daEntidade != null && daEntidade.remove(ouvinte)) {
+                encerrarSeOcioso();
+            }
+        }
+    }
+}
@@ -1,12 +1,32 @@
 package socket;
 
+import com.fasterxml.jackson.core.JacksonException;
+import com.fasterxml.jackson.databind.JavaType;
+import dto.Alteracoes;
+import dto.Pagina;
 import dto.Requisicao;
 import dto.Resposta;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.PrintWriter;
-import java.net.Socket;
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import metrica.EventoRequisicao;
+import metrica.Medidas;
+import metrica.MetricasTransporte;
+import modelo.enums.Acao;
+import modelo.enums.TipoErro;
+import util.AssincronoUtil;
 import util.JsonUtil;
 
 /**
@@ -15,19 +35,74 @@ import util.JsonUtil;
  * <p>Esta classe fornece métodos estáticos para enviar requisições ao servidor e
  * receber respostas, utilizando JSON como formato de serialização de dados.</p>
  *
- * <p>Gerencia automaticamente a conexão socket, incluindo abertura e fechamento de
- * recursos, garantindo o uso adequado de recursos do sistema.</p>
+ * <p>As conexões são mantidas abertas em um {@link PoolConexoes} e reutilizadas
+ * entre requisições, evitando um handshake TCP a cada chamada. O protocolo
+ * continua sendo uma linha JSON de requisição seguida de uma linha de resposta.</p>
  *
- * <p>Utiliza o padrão try-with-resources para garantir que os recursos de rede
- * sejam fechados adequadamente, mesmo em caso de exceções.</p>
+ * <p>Com {@code transporte.modo=pipeline}, todas as requisições passam por uma
+ * única {@link ConexaoPipeline}: várias podem estar em andamento ao mesmo tempo
+ * e as respostas são associadas pelo identificador de correlação. Esse modo
+ * exige um servidor que devolva o {@code id} recebido, como o servidor local
+ * usado pelos benchmarks.</p>
+ *
+ * <p>As respostas são lidas direto do fluxo do socket no tipo informado pelo
+ * chamador (ver {@link #tipoResposta(Class)}, {@link #tipoRespostaLista(Class)}
+ * e {@link #tipoRespostaPagina(Class)}),
+ * sem a conversão intermediária para {@code Map}. Sem tipo informado, os dados
+ * chegam como objetos genéricos do Jackson.</p>
+ *
+ * <p>Com {@code transporte.formatos} preenchido (por exemplo {@code smile,json}),
+ * cada conexão negocia ao abrir o modo de quadros do {@link Enquadramento}:
+ * mensagens com o tamanho à frente, no primeiro formato que o servidor aceitar.
+ * Um servidor que não conheça a negociação continua no protocolo de linhas.
+ * Nesse modo também é oferecida compressão: mensagens a partir de
+ * {@code transporte.compressao.minimo} bytes (zero desliga) trafegam
+ * comprimidas, e a taxa e o tempo gasto aparecem nas métricas.</p>
+ *
+ * <p>As requisições são distribuídas pelo {@link Balanceador} entre os
+ * servidores configurados, cada um com o próprio pool e a própria conexão
+ * pipeline. Listagens e consultas ({@code LISTAR} e {@code ENCONTRAR}) não
+ * alteram dados e, se o servidor escolhido falhar, são reenviadas até
+ * {@code repeticoes.maximo} vezes, de preferência a outro servidor e após uma
+ * espera aleatória que cresce a cada tentativa; as outras ações nunca são
+ * repetidas, pois poderiam ser aplicadas duas vezes.</p>
+ *
+ * <p>Abertura de conexão e espera pela resposta têm tempo limite
+ * ({@code conexao.timeout.ms} e {@code leitura.timeout.ms}). Enquanto os
+ * disjuntores de todos os servidores estiverem abertos, as requisições falham
+ * na hora, sem ocupar threads esperando pela rede. Toda resposta de erro
+ * montada pelo cliente informa o tipo da falha em {@link Resposta#getErro()}
+ * (ver {@link TipoErro}).</p>
+ *
+ * <p>Cada requisição é medida por etapa (obtenção da conexão, serialização,
+ * espera pelo servidor, desserialização e tamanhos) em
+ * {@link MetricasTransporte}, por par de ação e entidade. Cada chamada
+ * síncrona gera também um {@link EventoRequisicao} no JDK Flight Recorder.</p>
+ *
+ * <p>Servidores, modo de transporte e parâmetros do pool são lidos de
+ * {@code cliente.propriedade} (ver {@link ConfiguracaoCliente}).</p>
  */
 public class ClientSocket {
     
-    /** Endereço do servidor ao qual as requisições serão enviadas. */
-    private static final String HOST = "localhost";
-    
-    /** Porta do servidor na qual o serviço está escutando. */
-    private static final int PORTA = 3001;
+    /** Servidores configurados e critério de escolha entre eles. */
+    private static final Balanceador BALANCEADOR = Balanceador.configurado();
+
+    static {
+        MetricasTransporte.iniciar(ConfiguracaoCliente.longo("metricas.log.ms", 0), BALANCEADOR::estados);
+    }
+
+    /** Indica se o transporte com pipelining está habilitado. */
+    private static final boolean PIPELINE = "pipeline".equalsIgnoreCase(
+            ConfiguracaoCliente.texto("transporte.modo", "simples"));
+
+    /** Repetições, além da primeira tentativa, de listagens e consultas que falharem. */
+    private static final int REPETICOES = ConfiguracaoCliente.inteiro("repeticoes.maximo", 2);
+
+    /** Limite da espera aleatória antes da primeira repetição, em milissegundos; dobra a cada nova. */
+    private static final long ESPERA_REPETICAO_MS = ConfiguracaoCliente.longo("repeticoes.espera.ms", 100);
+
+    /** Tipo de resposta com dados genéricos ({@code Map}, {@code List}, etc.). */
+    private static final JavaType RESPOSTA_GENERICA = tipoResposta(Object.class);
 
     /**
      * Construtor privado para impedir instanciação da classe.
@@ -42,8 +117,16 @@ public class ClientSocket {
     /**
      * Envia uma requisição para o servidor e retorna a resposta recebida.
      *
-     * <p>Estabelece uma conexão socket com o servidor, serializa a requisição
-     * em formato JSON, envia os dados e aguarda a resposta do servidor.</p>
+     * <p>Empresta uma conexão do pool do servidor escolhido pelo
+     * {@link Balanceador}, serializa a requisição em formato JSON, envia os
+     * dados e aguarda a resposta do servidor, devolvendo a conexão ao pool em
+     * seguida.</p>
+     *
+     * <p>Se uma conexão reaproveitada falhar (por exemplo, porque o servidor a
+     * encerrou enquanto estava ociosa), ela é descartada e, se a requisição
+     * não alterar dados, reenviada uma única vez por uma conexão nova. Se o
+     * servidor não responder, a falha conta para o seu disjuntor e listagens
+     * e consultas são reenviadas, de preferência a outro servidor.</p>
      *
      * <p>Em caso de erro de comunicação, retorna uma resposta de erro padrão
      * contendo informações sobre a falha ocorrida.</p>
@@ -52,25 +135,552 @@ public class ClientSocket {
      * @return uma Resposta contendo o resultado processado pelo servidor ou mensagem de erro
      */
     public static Resposta<?> enviarRequisicao(Requisicao<?> requisicao) {
-        try (Socket socket = new Socket(HOST, PORTA);
-             PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
-             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()))) {
+        return enviarRequisicao(requisicao, RESPOSTA_GENERICA);
+    }
+
+    /**
+     * Envia uma requisição e lê a resposta direto no tipo informado.
+     *
+     * <p>Igual a {@link #enviarRequisicao(Requisicao)}, mas os dados da resposta
+     * são desserializados em uma única passada do fluxo do socket para o tipo de
+     * destino. Se a resposta não puder ser lida nesse tipo a conexão é descartada
+     * e é devolvida uma resposta de erro, sem reenvio.</p>
+     *
+     * @param <T> tipo dos dados da resposta
+     * @param requisicao objeto Requisicao contendo os dados da requisição a ser enviada
+     * @param tipoResposta tipo da resposta, montado com {@link #tipoResposta(Class)}
+     * ou {@link #tipoRespostaLista(Class)}
+     * @return uma Resposta contendo o resultado processado pelo servidor ou mensagem de erro
+     */
+    public static <T> Resposta<T> enviarRequisicao(Requisicao<?> requisicao, JavaType tipoResposta) {
+        EventoRequisicao evento = EventoRequisicao.iniciar();
+        Resposta<T> resposta;
+        if (PIPELINE) {
+            resposta = AssincronoUtil.aguardar(enviarRequisicaoAsync(requisicao, tipoResposta));
+        } else {
+            Medidas medidas = MetricasTransporte.de(requisicao.getAcao(), requisicao.getEntidade());
+            long inicio = System.nanoTime();
+            resposta = concluir(medidas, inicio, ClientSocket.<T>enviarComRepeticao(requisicao, tipoResposta, medidas));
+        }
+        evento.concluir(requisicao.getAcao(), requisicao.getEntidade(), resposta);
+        return resposta;
+    }
+
+    /**
+     * Envia uma requisição pelo pool do servidor escolhido, repetindo-a quando
+     * permitido.
+     *
+     * @param <T> tipo dos dados da resposta
+     * @param requisicao requisição a ser enviada
+     * @param tipoResposta tipo da resposta
+     * @param medidas medidas do par da requisição
+     * @return resposta do servidor ou de erro
+     */
+    private static <T> Resposta<T> enviarComRepeticao(Requisicao<?> requisicao, JavaType tipoResposta,
+            Medidas medidas) {
+        List<NoServidor> falhos = new ArrayList<>(1);
+        IOException falha = null;
+        while (true) {
+            NoServidor no = escolher(falhos);
+            if (no == null) {
+                return falha == null ? circuitoAberto() : erroComunicacao(falha);
+            }
+            try {
+                return trocar(no, requisicao, tipoResposta, medidas);
+            } catch (IOException e) {
+                BALANCEADOR.falhar(no);
+                falhos.add(no);
+                falha = e;
+                if (!podeRepetir(requisicao, falhos)) {
+                    return erroComunicacao(e);
+                }
+                try {
+                    Thread.sleep(espera(falhos));
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return erroComunicacao(ie);
+                }
+            }
+        }
+    }
+
+    /**
+     * Envia uma requisição sem bloquear o chamador.
+     *
+     * <p>No modo pipelining a requisição é escrita na conexão compartilhada e o
+     * futuro é completado pela thread leitora quando a resposta chegar. No modo
+     * simples a troca é feita por uma conexão do pool em uma thread virtual.</p>
+     *
+     * <p>O futuro nunca falha por erro de comunicação: nesse caso é completado
+     * com a mesma resposta de erro de {@link #enviarRequisicao(Requisicao)}.</p>
+     *
+     * @param requisicao objeto Requisicao contendo os dados da requisição a ser enviada
+     * @return futuro com a resposta do servidor ou mensagem de erro
+     */
+    public static CompletableFuture<Resposta<?>> enviarRequisicaoAsync(Requisicao<?> requisicao) {
+        return ClientSocket.<Object>enviarRequisicaoAsync(requisicao, RESPOSTA_GENERICA).thenApply(resposta -> resposta);
+    }
+
+    /**
+     * Envia uma requisição sem bloquear o chamador, lendo a resposta direto no
+     * tipo informado.
+     *
+     * @param <T> tipo dos dados da resposta
+     * @param requisicao objeto Requisicao contendo os dados da requisição a ser enviada
+     * @param tipoResposta tipo da resposta, montado com {@link #tipoResposta(Class)}
+     * ou {@link #tipoRespostaLista(Class)}
+     * @return futuro com a resposta do servidor ou mensagem de erro
+     */
+    public static <T> CompletableFuture<Resposta<T>> enviarRequisicaoAsync(Requisicao<?> requisicao, JavaType tipoResposta) {
+        if (!PIPELINE) {
+            return AssincronoUtil.executar(() -> enviarRequisicao(requisicao, tipoResposta));
+        }
+        Medidas medidas = MetricasTransporte.de(requisicao.getAcao(), requisicao.getEntidade());
+        long inicio = System.nanoTime();
+        return ClientSocket.<T>enviarPipeline(requisicao, tipoResposta, new ArrayList<>(1), null)
+                .thenApply(resposta -> concluir(medidas, inicio, resposta));
+    }
+
+    /**
+     * Envia várias requisições e retorna as respostas na mesma ordem.
+     *
+     * <p>No modo pipelining todas as requisições são escritas em sequência na
+     * mesma conexão antes de qualquer resposta ser lida, de modo que os tempos
+     * de ida e volta se sobrepõem. No modo simples são enviadas uma a uma.</p>
+     *
+     * @param requisicoes requisições a serem enviadas
+     * @return respostas do servidor ou de erro, uma para cada requisição
+     */
+    public static List<Resposta<?>> enviarRequisicoes(List<? extends Requisicao<?>> requisicoes) {
+        List<Resposta<?>> respostas = new ArrayList<>(requisicoes.size());
+        if (!PIPELINE) {
+            for (Requisicao<?> requisicao : requisicoes) {
+                respostas.add(enviarRequisicao(requisicao));
+            }
+            return respostas;
+        }
+
+        List<CompletableFuture<Resposta<?>>> futuros = new ArrayList<>(requisicoes.size());
+        long inicioLote = System.nanoTime();
+        NoServidor no = BALANCEADOR.escolher(List.of());
+        if (no == null) {
+            Resposta<?> erro = circuitoAberto();
+            for (int i = 0; i < requisicoes.size(); i++) {
+                respostas.add(erro);
+            }
+            return respostas;
+        }
+        ConexaoPipeline conexao;
+        try {
+            conexao = no.obterPipeline();
+            long obtida = System.nanoTime() - inicioLote;
+            for (Requisicao<?> requisicao : requisicoes) {
+                MetricasTransporte.de(requisicao.getAcao(), requisicao.getEntidade()).registrarConexao(obtida);
+            }
+        } catch (IOException e) {
+            // Servidor indisponível: cada requisição escolhe outro ou falha
+            BALANCEADOR.falhar(no);
+            for (Requisicao<?> requisicao : requisicoes) {
+                futuros.add(enviarRequisicaoAsync(requisicao));
+            }
+            conexao = null;
+        }
+        if (conexao != null) {
+            // Cada requisição do lote é uma em andamento no nó, concluída ou
+            // abandonada por acompanhar com o próprio instante de início
+            long[] inicios = new long[requisicoes.size()];
+            for (int i = 0; i < inicios.length; i++) {
+                inicios[i] = no.iniciar();
+            }
+            List<CompletableFuture<Resposta<?>>> enviados;
+            try {
+                enviados = conexao.enviarTodas(requisicoes, RESPOSTA_GENERICA);
+            } catch (RuntimeException e) {
+                for (int i = 0; i < inicios.length; i++) {
+                    no.abandonar();
+                }
+                no.liberar();
+                throw e;
+            }
+            for (int i = 0; i < enviados.size(); i++) {
+                Requisicao<?> requisicao = requisicoes.get(i);
+                Medidas medidas = MetricasTransporte.de(requisicao.getAcao(), requisicao.getEntidade());
+                futuros.add(ClientSocket.<Object>acompanhar(requisicao, RESPOSTA_GENERICA, new ArrayList<>(1),
+                        no, inicios[i], generico(enviados.get(i))).thenApply(resposta -> concluir(medidas, inicioLote, resposta)));
+            }
+        }
+        for (CompletableFuture<Resposta<?>> futuro : futuros) {
+            respostas.add(aguardar(futuro));
+        }
+        return respostas;
+    }
+
+    /**
+     * Monta o tipo de uma resposta cujos dados são um único objeto, como
+     * {@code Resposta<Produto>}.
+     *
+     * @param dados classe dos dados
+     * @return tipo da resposta
+     */
+    public static JavaType tipoResposta(Class<?> dados) {
+        return JsonUtil.tipo(Resposta.class, JsonUtil.tipo(dados));
+    }
+
+    /**
+     * Monta o tipo de uma resposta cujos dados são uma lista, como
+     * {@code Resposta<List<Produto>>}.
+     *
+     * @param elemento classe dos elementos da lista
+     * @return tipo da resposta
+     */
+    public static JavaType tipoRespostaLista(Class<?> elemento) {
+        return JsonUtil.tipo(Resposta.class, JsonUtil.tipoLista(elemento));
+    }
+
+    /**
+     * Monta o tipo de uma resposta de listagem paginada, como
+     * {@code Resposta<Pagina<Registro>>}.
+     *
+     * @param elemento classe dos itens da página
+     * @return tipo da resposta
+     */
+    public static JavaType tipoRespostaPagina(Class<?> elemento) {
+        return JsonUtil.tipo(Resposta.class, JsonUtil.tipo(Pagina.class, JsonUtil.tipo(elemento)));
+    }
+
+    /**
+     * Monta o tipo de uma resposta de listagem incremental, como
+     * {@code Resposta<Alteracoes<Produto>>}.
+     *
+     * @param elemento classe dos itens alterados
+     * @return tipo da resposta
+     */
+    public static JavaType tipoRespostaAlteracoes(Class<?> elemento) {
+        return JsonUtil.tipo(Resposta.class, JsonUtil.tipo(Alteracoes.class, JsonUtil.tipo(elemento)));
+    }
+
+    /**
+     * Monta o tipo da resposta a um {@link dto.Lote}, cujos dados são a lista
+     * das respostas de cada operação, como {@code Resposta<List<Resposta<Produto>>>}.
+     *
+     * @param dados classe dos dados devolvidos por cada operação
+     * @return tipo da resposta
+     */
+    public static JavaType tipoRespostaLote(Class<?> dados) {
+        return JsonUtil.tipo(Resposta.class, JsonUtil.tipo(List.class, tipoResposta(dados)));
+    }
+
+    /**
+     * Obtém o balanceador usado pelas requisições, compartilhado com o
+     * {@link CanalNotificacoes} para que ambos vejam a mesma saúde dos
+     * servidores.
+     *
+     * @return balanceador configurado
+     */
+    static Balanceador balanceador() {
+        return BALANCEADOR;
+    }
 
-            // Serializa a requisição
-            String jsonRequisicao = JsonUtil.toJson(requisicao);
-            out.println(jsonRequisicao); // println garante o envio imediato
+    /**
+     * Obtém o estado do disjuntor de cada servidor configurado.
+     *
+     * @return estado por {@code host:porta}
+     */
+    public static Map<String, NoServidor.Estado> estadoServidores() {
+        return BALANCEADOR.estados();
+    }
 
-            // Aguarda a resposta do servidor
-            String jsonResposta = in.readLine();
+    /**
+     * Troca uma requisição com um servidor por uma conexão do seu pool.
+     *
+     * <p>Se uma conexão reaproveitada falhar (por exemplo, porque o servidor a
+     * encerrou enquanto estava ociosa), ela é descartada e, em listagens e
+     * consultas, a requisição é reenviada uma única vez ao mesmo servidor por
+     * uma conexão nova. Escritas não são reenviadas: a falha pode ocorrer
+     * depois de o servidor ter recebido e aplicado a requisição. Um tempo
+     * limite esgotado também não é repetido aqui, pelo mesmo motivo.</p>
+     *
+     * @param <T> tipo dos dados da resposta
+     * @param no servidor escolhido
+     * @param requisicao requisição a ser enviada
+     * @param tipoResposta tipo da resposta
+     * @param medidas medidas do par da requisição
+     * @return resposta do servidor, ou de erro se ela for ilegível
+     * @throws IOException se não for possível falar com o servidor
+     */
+    private static <T> Resposta<T> trocar(NoServidor no, Requisicao<?> requisicao, JavaType tipoResposta,
+            Medidas medidas) throws IOException {
+        while (true) {
+            long pedida = System.nanoTime();
+            Conexao conexao = no.getPool().emprestar();
+            medidas.registrarConexao(System.nanoTime() - pedida);
+            long inicio = no.iniciar();
+            try {
+                // Serializa no formato da conexão, envia e lê a resposta já no tipo de destino
+                Resposta<T> resposta = conexao.trocar(requisicao, tipoResposta, medidas);
+                no.getPool().devolver(conexao);
+                no.concluir(inicio);
+                return resposta;
 
-            // Converte a resposta JSON para objeto
-            return JsonUtil.fromJson(jsonResposta, Resposta.class);
+            } catch (JacksonException e) {
+                // Resposta recebida, mas ilegível: reenviar não resolveria
+                no.getPool().descartar(conexao);
+                no.concluir(inicio);
+                return erroComunicacao(e);
+            } catch (RuntimeException e) {
+                // Falha na serialização, na escrita ou na leitura: a resposta pode
+                // ter ficado por ler, então a conexão não volta ao pool
+                no.abandonar();
+                no.liberar();
+                no.getPool().descartar(conexao);
+                throw e;
+            } catch (IOException e) {
+                no.abandonar();
+                no.getPool().descartar(conexao);
+                if (!conexao.isReutilizada() || e instanceof SocketTimeoutException || !idempotente(requisicao)) {
+                    throw e;
+                }
+                // conexão antiga inválida: tenta com uma nova
+            }
+        }
+    }
 
+    /**
+     * Envia uma requisição pela conexão pipeline do servidor escolhido.
+     *
+     * @param <T> tipo dos dados da resposta
+     * @param requisicao requisição a ser enviada
+     * @param tipoResposta tipo da resposta
+     * @param falhos servidores que já falharam nesta requisição
+     * @param falha última falha desta requisição, ou null na primeira tentativa
+     * @return futuro com a resposta do servidor ou mensagem de erro
+     */
+    private static <T> CompletableFuture<Resposta<T>> enviarPipeline(Requisicao<?> requisicao, JavaType tipoResposta,
+            List<NoServidor> falhos, Throwable falha) {
+        NoServidor no = escolher(falhos);
+        if (no == null) {
+            return CompletableFuture.completedFuture(falha == null ? circuitoAberto() : erroComunicacao(falha));
+        }
+        ConexaoPipeline conexao;
+        long pedida = System.nanoTime();
+        try {
+            conexao = no.obterPipeline();
         } catch (IOException e) {
-            System.out.println("Erro de IO: " + e.getMessage());
-            // Retorna um objeto de erro padrão
-            return new Resposta<>("ERRO", "Falha na comunicação com o servidor: " + e.getMessage(), null);
+            return repetir(requisicao, tipoResposta, falhos, no, e);
+        }
+        MetricasTransporte.de(requisicao.getAcao(), requisicao.getEntidade()).registrarConexao(System.nanoTime() - pedida);
+        long inicio = no.iniciar();
+        CompletableFuture<Resposta<T>> futuro;
+        try {
+            futuro = conexao.<T>enviar(requisicao, tipoResposta);
+        } catch (RuntimeException e) {
+            no.abandonar();
+            no.liberar();
+            throw e;
+        }
+        return acompanhar(requisicao, tipoResposta, falhos, no, inicio, futuro);
+    }
+
+    /**
+     * Registra o resultado de uma requisição enviada pelo pipeline e, se a
+     * comunicação falhar, a repete em outro servidor quando permitido.
+     *
+     * @param <T> tipo dos dados da resposta
+     * @param requisicao requisição enviada
+     * @param tipoResposta tipo da resposta
+     * @param falhos servidores que já falharam nesta requisição
+     * @param no servidor que recebeu a requisição
+     * @param inicio instante do envio, devolvido por {@link NoServidor#iniciar()}
+     * @param futuro futuro da resposta
+     * @return futuro com a resposta do servidor ou mensagem de erro
+     */
+    private static <T> CompletableFuture<Resposta<T>> acompanhar(Requisicao<?> requisicao, JavaType tipoResposta,
+            List<NoServidor> falhos, NoServidor no, long inicio, CompletableFuture<Resposta<T>> futuro) {
+        return futuro.handle((resposta, e) -> {
+            if (e == null) {
+                no.concluir(inicio);
+                return CompletableFuture.completedFuture(resposta);
+            }
+            Throwable causa = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (causa instanceof JacksonException) {
+                // Resposta recebida, mas ilegível: reenviar não resolveria
+                no.concluir(inicio);
+                return CompletableFuture.completedFuture(ClientSocket.<T>erroComunicacao(causa));
+            }
+            no.abandonar();
+            return ClientSocket.<T>repetir(requisicao, tipoResposta, falhos, no, causa);
+        }).thenCompose(proximo -> proximo);
+    }
+
+    /**
+     * Registra a falha de um servidor e, se a ação permitir, reenvia a
+     * requisição após a espera aleatória, em uma thread virtual, fora da
+     * thread leitora da conexão que caiu.
+     *
+     * @param <T> tipo dos dados da resposta
+     * @param requisicao requisição que falhou
+     * @param tipoResposta tipo da resposta
+     * @param falhos servidores que já falharam nesta requisição
+     * @param no servidor que falhou
+     * @param causa falha ocorrida
+     * @return futuro com a resposta de outro servidor ou mensagem de erro
+     */
+    private static <T> CompletableFuture<Resposta<T>> repetir(Requisicao<?> requisicao, JavaType tipoResposta,
+            List<NoServidor> falhos, NoServidor no, Throwable causa) {
+        BALANCEADOR.falhar(no);
+        falhos.add(no);
+        if (!podeRepetir(requisicao, falhos)) {
+            return CompletableFuture.completedFuture(erroComunicacao(causa));
+        }
+        Executor aposEspera = CompletableFuture.delayedExecutor(espera(falhos), TimeUnit.MILLISECONDS, AssincronoUtil.executor());
+        return CompletableFuture.supplyAsync(() -> ClientSocket.<T>enviarPipeline(requisicao, tipoResposta, falhos, causa), aposEspera)
+                .thenCompose(proximo -> proximo);
+    }
+
+    /**
+     * Escolhe o servidor da próxima tentativa, preferindo um que ainda não
+     * tenha falhado nesta requisição.
+     *
+     * @param falhos servidores que já falharam nesta requisição
+     * @return servidor escolhido, ou null se todos os disjuntores estiverem
+     * abertos
+     */
+    private static NoServidor escolher(List<NoServidor> falhos) {
+        NoServidor no = BALANCEADOR.escolher(falhos);
+        if (no == null && !falhos.isEmpty()) {
+            no = BALANCEADOR.escolher(List.of());
+        }
+        return no;
+    }
+
+    /**
+     * Sorteia a espera antes de uma repetição, entre zero e um limite que
+     * dobra a cada tentativa, para que clientes que falharam juntos não
+     * voltem todos ao mesmo tempo.
+     *
+     * @param falhos servidores que já falharam nesta requisição, um por
+     * tentativa
+     * @return espera em milissegundos
+     */
+    private static long espera(List<NoServidor> falhos) {
+        long limite = ESPERA_REPETICAO_MS << Math.min(falhos.size() - 1, 10);
+        return ThreadLocalRandom.current().nextLong(Math.max(1, limite + 1));
+    }
+
+    /**
+     * Indica se uma requisição que falhou pode ser reenviada: apenas ações que
+     * não alteram dados, até o limite de repetições.
+     *
+     * @param requisicao requisição que falhou
+     * @param falhos servidores que já falharam nesta requisição, um por
+     * tentativa
+     * @return true se a requisição deve ser reenviada
+     */
+    private static boolean podeRepetir(Requisicao<?> requisicao, List<NoServidor> falhos) {
+        return idempotente(requisicao) && falhos.size() <= REPETICOES;
+    }
+
+    /**
+     * Indica se a requisição não altera dados e pode, portanto, ser enviada
+     * mais de uma vez.
+     *
+     * @param requisicao requisição
+     * @return true para listagens e consultas
+     */
+    private static boolean idempotente(Requisicao<?> requisicao) {
+        return requisicao.getAcao() == Acao.LISTAR || requisicao.getAcao() == Acao.ENCONTRAR;
+    }
+
+    /**
+     * Registra nas medidas a conclusão de uma requisição.
+     *
+     * @param <R> tipo da resposta
+     * @param medidas medidas do par da requisição
+     * @param inicio instante em que a requisição foi pedida, em
+     * {@link System#nanoTime()}
+     * @param resposta resposta do servidor ou de erro
+     * @return a mesma resposta
+     */
+    private static <R extends Resposta<?>> R concluir(Medidas medidas, long inicio, R resposta) {
+        medidas.registrarConclusao(System.nanoTime() - inicio, resposta.getErro(),
+                !"sucesso".equalsIgnoreCase(resposta.getStatus()));
+        return resposta;
+    }
+
+    /**
+     * Ajusta o tipo do futuro de uma resposta genérica.
+     *
+     * @param futuro futuro devolvido por {@link ConexaoPipeline#enviarTodas}
+     * @return o mesmo futuro
+     */
+    @SuppressWarnings("unchecked")
+    private static CompletableFuture<Resposta<Object>> generico(CompletableFuture<Resposta<?>> futuro) {
+        return (CompletableFuture<Resposta<Object>>) (CompletableFuture<?>) futuro;
+    }
+
+    /**
+     * Aguarda a resposta de uma requisição enviada pelo pipeline.
+     *
+     * @param futuro futuro da resposta
+     * @return resposta do servidor ou resposta de erro
+     */
+    private static Resposta<?> aguardar(CompletableFuture<Resposta<?>> futuro) {
+        try {
+            return futuro.get();
+        } catch (ExecutionException e) {
+            return erroComunicacao(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return erroComunicacao(e);
+        }
+    }
+
+    /**
+     * Registra uma falha de comunicação e monta a resposta de erro padrão.
+     *
+     * @param e falha ocorrida
+     * @return resposta de erro
+     */
+    private static <T> Resposta<T> erroComunicacao(Throwable e) {
+        System.out.println("Erro de IO: " + e.getMessage());
+        // Retorna um objeto de erro padrão
+        Resposta<T> resposta = new Resposta<>("ERRO", "Falha na comunicação com o servidor: " + e.getMessage(), null);
+        resposta.setErro(tipoErro(e));
+        return resposta;
+    }
+
+    /**
+     * Monta a resposta de erro de uma requisição não enviada porque os
+     * disjuntores de todos os servidores estão abertos.
+     *
+     * @return resposta de erro
+     */
+    private static <T> Resposta<T> circuitoAberto() {
+        Resposta<T> resposta = new Resposta<>("ERRO", "Servidor indisponível no momento. Tente novamente em instantes.", null);
+        resposta.setErro(TipoErro.CIRCUITO_ABERTO);
+        return resposta;
+    }
+
+    /**
+     * Classifica uma falha de comunicação.
+     *
+     * @param e falha ocorrida
+     * @return tipo da falha
+     */
+    private static TipoErro tipoErro(Throwable e) {
+        if (e instanceof SocketTimeoutException || e instanceof TimeoutException) {
+            return TipoErro.TEMPO_ESGOTADO;
+        }
+        if (e instanceof ConnectException || e instanceof UnknownHostException || e instanceof NoRouteToHostException) {
+            return TipoErro.SERVIDOR_INDISPONIVEL;
+        }
+        if (e instanceof JacksonException) {
+            return TipoErro.RESPOSTA_INVALIDA;
+        }
+        if (e instanceof InterruptedException) {
+            return TipoErro.INTERROMPIDO;
         }
+        return TipoErro.CONEXAO_PERDIDA;
     }
     
-}
\ No newline at end of file
+}
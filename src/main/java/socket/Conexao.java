@@ -0,0 +1,292 @@
+package socket;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.JavaType;
+import dto.Requisicao;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.List;
+import metrica.EventoJson;
+import metrica.Medidas;
+import util.Formato;
+import util.JsonUtil;
+
+/**
+ * Conexão TCP persistente com o servidor, reutilizada entre requisições.
+ *
+ * <p>
+ * Mantém o socket aberto junto com o parser e o escritor já alocados, de modo
+ * que cada requisição paga apenas a troca de uma linha JSON, sem novo
+ * handshake. O protocolo continua sendo uma linha de requisição seguida de uma
+ * linha de resposta.</p>
+ *
+ * <p>
+ * A resposta é lida direto do fluxo do socket para o tipo pedido pelo
+ * chamador, sem passar por uma {@code String} intermediária. O parser é o
+ * mesmo durante toda a vida da conexão, pois pode ter lido antecipadamente
+ * bytes da resposta seguinte.</p>
+ *
+ * <p>
+ * Se o servidor aceitar um dos formatos oferecidos na abertura (ver
+ * {@link Enquadramento}), as mensagens passam a ser quadros com o tamanho à
+ * frente, possivelmente em formato binário, e a resposta é decodificada a
+ * partir do quadro recebido por inteiro. Se a compressão também for aceita,
+ * as requisições a partir de {@code compressaoMinima} bytes seguem
+ * comprimidas e as respostas comprimidas são descomprimidas durante a
+ * leitura.</p>
+ *
+ * <p>
+ * A abertura e cada leitura têm tempo limite: um servidor que pare de
+ * responder faz a troca falhar com {@link SocketTimeoutException} em vez de
+ * bloquear o chamador indefinidamente. Depois disso a conexão está fora de
+ * sincronia e deve ser descartada.</p>
+ *
+ * <p>
+ * Instâncias não são thread-safe: uma conexão é usada por um único chamador de
+ * cada vez, sob controle do {@link PoolConexoes}.</p>
+ */
+public class Conexao implements AutoCloseable {
+
+    /**
+     * Socket TCP subjacente.
+     */
+    private final Socket socket;
+
+    /**
+     * Parser das respostas do servidor, mantido entre requisições. Criado na
+     * primeira leitura, pois a detecção de codificação bloqueia até chegarem
+     * os primeiros bytes.
+     */
+    private JsonParser in;
+
+    /**
+     * Formato negociado para os quadros, ou null no protocolo de linhas.
+     */
+    private final Formato formato;
+
+    /**
+     * Fluxo de leitura dos quadros, ou null no protocolo de linhas.
+     */
+    private final DataInputStream entrada;
+
+    /**
+     * Tamanho mínimo para comprimir uma requisição, ou zero se a compressão
+     * não foi acordada.
+     */
+    private final int compressaoMinima;
+
+    /**
+     * Fluxo de escrita das requisições para o servidor.
+     */
+    private final BufferedOutputStream out;
+
+    /**
+     * Instante (em milissegundos) do último uso da conexão.
+     */
+    private long ultimoUso;
+
+    /**
+     * Indica se a conexão já foi usada em alguma requisição anterior.
+     */
+    private boolean reutilizada;
+
+    /**
+     * Tempo limite de cada leitura, em milissegundos.
+     */
+    private final int leituraMs;
+
+    /**
+     * Abre uma nova conexão com o servidor e negocia o formato das
+     * mensagens.
+     *
+     * @param host endereço do servidor
+     * @param porta porta do servidor
+     * @param conexaoMs tempo limite para abrir a conexão (zero para nenhum)
+     * @param leituraMs tempo limite de cada leitura (zero para nenhum)
+     * @param formatos formatos oferecidos ao servidor, em ordem de
+     * preferência; vazio para usar o protocolo de linhas sem negociar
+     * @param compressaoMinima tamanho mínimo, em bytes, para comprimir uma
+     * requisição; zero para não oferecer compressão
+     * @throws IOException se não for possível conectar ou negociar
+     */
+    public Conexao(String host, int porta, int conexaoMs, int leituraMs, List<Formato> formatos, int compressaoMinima)
+            throws IOException {
+        this.socket = new Socket();
+        Enquadramento.Acordo acordo;
+        try {
+            this.socket.connect(new InetSocketAddress(host, porta), conexaoMs);
+            this.socket.setSoTimeout(leituraMs);
+            this.socket.setTcpNoDelay(true);
+            this.socket.setKeepAlive(true);
+            this.out = new BufferedOutputStream(socket.getOutputStream());
+            acordo = Enquadramento.negociar(socket.getInputStream(), out, formatos, compressaoMinima > 0);
+        } catch (IOException | RuntimeException e) {
+            close();
+            throw e;
+        }
+        this.formato = acordo == null ? null : acordo.formato;
+        this.compressaoMinima = acordo != null && acordo.compressao ? compressaoMinima : 0;
+        this.entrada = formato == null ? null : new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        this.leituraMs = leituraMs;
+        this.ultimoUso = System.currentTimeMillis();
+    }
+
+    /**
+     * Envia uma requisição e lê a resposta no tipo informado.
+     *
+     * @param <T> tipo da resposta
+     * @param requisicao requisição a ser serializada no formato da conexão
+     * @param tipoResposta tipo de destino da resposta
+     * @param medidas medidas em que são registrados a serialização, a espera,
+     * a leitura e os tamanhos
+     * @return resposta desserializada
+     * @throws java.io.EOFException se o servidor encerrou a conexão
+     * @throws SocketTimeoutException se a resposta não chegar no tempo limite
+     * @throws com.fasterxml.jackson.core.JacksonException se a resposta não
+     * puder ser lida no tipo informado; a conexão fica fora de sincronia e
+     * deve ser descartada
+     * @throws IOException se ocorrer falha de comunicação
+     * @throws RuntimeException se a requisição não puder ser serializada;
+     * nada é enviado e a conexão continua utilizável
+     */
+    public <T> T trocar(Requisicao<?> requisicao, JavaType tipoResposta, Medidas medidas) throws IOException {
+        long inicio = System.nanoTime();
+        byte[] dados = formato == null ? JsonUtil.toJsonBytes(requisicao) : formato.serializar(requisicao);
+        medidas.registrarSerializacao(System.nanoTime() - inicio, dados.length);
+
+        if (formato != null) {
+            return trocarQuadro(dados, tipoResposta, medidas);
+        }
+        out.write(dados);
+        out.write('\n');
+        out.flush();
+        long enviado = System.nanoTime();
+        if (in == null) {
+            in = JsonUtil.abrirLeitura(socket.getInputStream());
+        }
+        if (in.nextToken() == null) {
+            throw new EOFException("Conexão encerrada pelo servidor");
+        }
+        long chegada = System.nanoTime();
+        long posicao = in.currentTokenLocation().getByteOffset();
+        EventoJson evento = EventoJson.iniciar();
+        T resposta = JsonUtil.leitor(tipoResposta).readValue(in);
+        long bytes = in.currentLocation().getByteOffset() - posicao;
+        evento.concluir(EventoJson.DESSERIALIZAR, tipoResposta, bytes);
+        medidas.registrarResposta(chegada - enviado, System.nanoTime() - chegada, bytes);
+        ultimoUso = System.currentTimeMillis();
+        reutilizada = true;
+        return resposta;
+    }
+
+    /**
+     * Envia uma requisição em um quadro e lê o quadro da resposta.
+     *
+     * @param <T> tipo da resposta
+     * @param dados requisição já codificada no formato da conexão
+     * @param tipoResposta tipo de destino da resposta
+     * @param medidas medidas da requisição
+     * @return resposta desserializada
+     * @throws IOException se ocorrer falha de comunicação ou a resposta for
+     * ilegível
+     */
+    private <T> T trocarQuadro(byte[] dados, JavaType tipoResposta, Medidas medidas) throws IOException {
+        byte[] comprimido = Enquadramento.comprimir(dados, compressaoMinima, medidas);
+        Enquadramento.escrever(out, comprimido != null ? comprimido : dados, comprimido != null);
+        out.flush();
+        long enviado = System.nanoTime();
+        int cabecalho = Enquadramento.lerCabecalho(entrada);
+        long chegada = System.nanoTime();
+        byte[] quadro = Enquadramento.lerMensagem(entrada, cabecalho);
+        EventoJson evento = EventoJson.iniciar();
+        T resposta = Enquadramento.ler(formato.leitor(tipoResposta), quadro, Enquadramento.comprimido(cabecalho), medidas);
+        evento.concluir(EventoJson.DESSERIALIZAR, tipoResposta, quadro.length);
+        medidas.registrarResposta(chegada - enviado, System.nanoTime() - chegada, quadro.length);
+        ultimoUso = System.currentTimeMillis();
+        reutilizada = true;
+        return resposta;
+    }
+
+    /**
+     * Obtém o formato negociado com o servidor.
+     *
+     * @return formato dos quadros, ou null no protocolo de linhas
+     */
+    public Formato getFormato() {
+        return formato;
+    }
+
+    /**
+     * Verifica se a conexão ainda pode ser usada.
+     *
+     * <p>
+     * As verificações locais do socket são sempre feitas. Se a conexão ficou
+     * parada por mais de {@code validacaoMs}, faz também uma leitura de 1 ms
+     * para detectar o encerramento pelo servidor: um fim de fluxo ou qualquer
+     * byte não solicitado invalida a conexão. No protocolo de linhas, a quebra
+     * de linha que encerra a resposta anterior pode ainda não ter sido
+     * consumida pelo parser e é aceita.</p>
+     *
+     * @param validacaoMs tempo ocioso a partir do qual a leitura de teste é
+     * feita
+     * @return true se a conexão estiver utilizável
+     */
+    public boolean estaSaudavel(long validacaoMs) {
+        if (socket.isClosed() || !socket.isConnected() || socket.isInputShutdown() || socket.isOutputShutdown()) {
+            return false;
+        }
+        if (ociosaHa() < validacaoMs) {
+            return true;
+        }
+        try {
+            socket.setSoTimeout(1);
+            try {
+                // Fim de fluxo ou byte inesperado invalidam; quadros não deixam sobras
+                int lido = entrada != null ? entrada.read() : socket.getInputStream().read();
+                return entrada == null && (lido == '\n' || lido == '\r');
+            } catch (SocketTimeoutException e) {
+                return true;
+            } finally {
+                socket.setSoTimeout(leituraMs);
+            }
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Obtém há quanto tempo a conexão está sem uso.
+     *
+     * @return tempo ocioso em milissegundos
+     */
+    public long ociosaHa() {
+        return System.currentTimeMillis() - ultimoUso;
+    }
+
+    /**
+     * Indica se a conexão já atendeu alguma requisição.
+     *
+     * @return true se a conexão veio reaproveitada do pool
+     */
+    public boolean isReutilizada() {
+        return reutilizada;
+    }
+
+    /**
+     * Fecha o socket e os fluxos associados, ignorando erros.
+     */
+    @Override
+    public void close() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Conexão já descartada
+        }
+    }
+}
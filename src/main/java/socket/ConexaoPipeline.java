@@ -0,0 +1,448 @@
+package socket;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.util.JsonParserSequence;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import dto.Requisicao;
+import dto.Resposta;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import metrica.EventoJson;
+import metrica.Medidas;
+import metrica.MetricasTransporte;
+import util.Formato;
+import util.JsonUtil;
+
+/**
+ * Conexão com pipelining: várias requisições em andamento no mesmo socket.
+ *
+ * <p>
+ * Cada requisição recebe um identificador de correlação ({@code id}) e é
+ * escrita imediatamente, sem esperar pelas respostas anteriores. Uma thread
+ * leitora dedicada consome as linhas de resposta, na ordem em que o servidor
+ * as enviar, e completa o {@link CompletableFuture} da requisição com o mesmo
+ * {@code id}.</p>
+ *
+ * <p>
+ * Como o tipo dos dados depende da requisição, a leitora consome os campos da
+ * resposta até encontrar o {@code id} (o primeiro campo, na ordem usada por
+ * {@link Resposta}), descobre o tipo registrado para ele e desserializa o
+ * restante direto do fluxo nesse tipo.</p>
+ *
+ * <p>
+ * Se o servidor aceitar um dos formatos oferecidos na abertura (ver
+ * {@link Enquadramento}), as mensagens passam a ser quadros. A leitora recebe
+ * cada quadro por inteiro, lê o {@code id} no início dele e decodifica o
+ * quadro no tipo registrado, sem o buffer de tokens. Com compressão acordada,
+ * as requisições grandes são comprimidas antes de entrar na vez de escrita, e
+ * as respostas comprimidas são descomprimidas durante a leitura; como o
+ * {@code id} é o primeiro campo, procurá-lo descomprime só o começo do
+ * quadro.</p>
+ *
+ * <p>
+ * Cada requisição tem o próprio tempo limite: se a resposta não chegar a
+ * tempo, o futuro falha com {@link TimeoutException} e a resposta que chegar
+ * depois é descartada, sem afetar as demais requisições da conexão.</p>
+ *
+ * <p>
+ * Pode ser usada por várias threads ao mesmo tempo. Se a conexão cair, todas
+ * as requisições pendentes falham com a exceção de comunicação e a instância
+ * fica inutilizável (ver {@link #isAberta()}).</p>
+ */
+public class ConexaoPipeline implements AutoCloseable {
+
+    /**
+     * Socket TCP subjacente.
+     */
+    private final Socket socket;
+
+    /**
+     * Requisição aguardando resposta.
+     */
+    private static final class Pendente {
+
+        /**
+         * Futuro completado com a resposta.
+         */
+        private final CompletableFuture<Resposta<?>> futuro = new CompletableFuture<>();
+
+        /**
+         * Tipo em que a resposta deve ser lida.
+         */
+        private final JavaType tipo;
+
+        /**
+         * Medidas do par (ação, entidade) da requisição.
+         */
+        private final Medidas medidas;
+
+        /**
+         * Instante do envio, em {@link System#nanoTime()}.
+         */
+        private volatile long enviado;
+
+        /**
+         * Cria o registro de uma requisição pendente.
+         *
+         * @param tipo tipo em que a resposta deve ser lida
+         * @param medidas medidas do par da requisição
+         */
+        Pendente(JavaType tipo, Medidas medidas) {
+            this.tipo = tipo;
+            this.medidas = medidas;
+        }
+    }
+
+    /**
+     * Fluxo de escrita, protegido por sincronização entre os chamadores.
+     */
+    private final BufferedOutputStream out;
+
+    /**
+     * Requisições aguardando resposta, indexadas pelo identificador.
+     */
+    private final Map<Long, Pendente> pendentes = new ConcurrentHashMap<>();
+
+    /**
+     * Gerador dos identificadores de correlação.
+     */
+    private final AtomicLong proximoId = new AtomicLong();
+
+    /**
+     * Indica se a conexão ainda está operante.
+     */
+    private volatile boolean aberta = true;
+
+    /**
+     * Tempo limite de espera por cada resposta, em milissegundos.
+     */
+    private final int leituraMs;
+
+    /**
+     * Formato negociado para os quadros, ou null no protocolo de linhas.
+     */
+    private final Formato formato;
+
+    /**
+     * Tamanho mínimo para comprimir uma requisição, ou zero se a compressão
+     * não foi acordada.
+     */
+    private final int compressaoMinima;
+
+    /**
+     * Abre a conexão, negocia o formato das mensagens e inicia a thread
+     * leitora.
+     *
+     * @param host endereço do servidor
+     * @param porta porta do servidor
+     * @param conexaoMs tempo limite para abrir a conexão (zero para nenhum)
+     * @param leituraMs tempo limite de espera por cada resposta (zero para
+     * nenhum)
+     * @param formatos formatos oferecidos ao servidor, em ordem de
+     * preferência; vazio para usar o protocolo de linhas sem negociar
+     * @param compressaoMinima tamanho mínimo, em bytes, para comprimir uma
+     * requisição; zero para não oferecer compressão
+     * @throws IOException se não for possível conectar ou negociar
+     */
+    public ConexaoPipeline(String host, int porta, int conexaoMs, int leituraMs, List<Formato> formatos, int compressaoMinima)
+            throws IOException {
+        this.socket = new Socket();
+        this.leituraMs = leituraMs;
+        Enquadramento.Acordo acordo;
+        try {
+            this.socket.connect(new InetSocketAddress(host, porta), conexaoMs);
+            this.socket.setTcpNoDelay(true);
+            this.socket.setKeepAlive(true);
+            this.out = new BufferedOutputStream(socket.getOutputStream());
+            // A negociação é a única leitura com tempo limite do socket; depois
+            // cada requisição controla o próprio
+            this.socket.setSoTimeout(leituraMs);
+            acordo = Enquadramento.negociar(socket.getInputStream(), out, formatos, compressaoMinima > 0);
+            this.socket.setSoTimeout(0);
+        } catch (IOException | RuntimeException e) {
+            socket.close();
+            throw e;
+        }
+        this.formato = acordo == null ? null : acordo.formato;
+        this.compressaoMinima = acordo != null && acordo.compressao ? compressaoMinima : 0;
+        Thread leitora = new Thread(this::ler, "conexao-pipeline-leitora");
+        leitora.setDaemon(true);
+        leitora.start();
+    }
+
+    /**
+     * Envia uma requisição sem aguardar a resposta.
+     *
+     * @param <T> tipo dos dados da resposta
+     * @param requisicao requisição a ser enviada
+     * @param tipoResposta tipo em que a resposta deve ser lida
+     * @return futuro completado com a resposta correspondente
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<Resposta<T>> enviar(Requisicao<?> requisicao, JavaType tipoResposta) {
+        CompletableFuture<?> futuro = enviarTodas(List.of(requisicao), tipoResposta).get(0);
+        return (CompletableFuture<Resposta<T>>) futuro;
+    }
+
+    /**
+     * Escreve várias requisições em sequência, com um único envio ao socket.
+     *
+     * @param requisicoes requisições a serem enviadas
+     * @param tipoResposta tipo em que as respostas devem ser lidas
+     * @return futuros das respostas, na mesma ordem das requisições
+     */
+    public List<CompletableFuture<Resposta<?>>> enviarTodas(List<? extends Requisicao<?>> requisicoes, JavaType tipoResposta) {
+        List<CompletableFuture<Resposta<?>>> futuros = new ArrayList<>(requisicoes.size());
+        List<byte[]> linhas = new ArrayList<>(requisicoes.size());
+        List<Boolean> comprimidas = new ArrayList<>(requisicoes.size());
+        List<Long> ids = new ArrayList<>(requisicoes.size());
+        List<Pendente> registrados = new ArrayList<>(requisicoes.size());
+
+        for (Requisicao<?> requisicao : requisicoes) {
+            long inicio = System.nanoTime();
+            long id = proximoId.incrementAndGet();
+            Requisicao<Object> copia = new Requisicao<>(requisicao.getAcao(), requisicao.getEntidade(), requisicao.getDados());
+            copia.setId(id);
+            copia.setPagina(requisicao.getPagina());
+            copia.setLimite(requisicao.getLimite());
+            copia.setCursor(requisicao.getCursor());
+            copia.setDesdeVersao(requisicao.getDesdeVersao());
+
+            byte[] linha = formato == null ? JsonUtil.toJsonBytes(copia) : formato.serializar(copia);
+            Medidas medidas = MetricasTransporte.de(requisicao.getAcao(), requisicao.getEntidade());
+            medidas.registrarSerializacao(System.nanoTime() - inicio, linha.length);
+            byte[] comprimida = formato == null ? null : Enquadramento.comprimir(linha, compressaoMinima, medidas);
+
+            Pendente pendente = new Pendente(tipoResposta, medidas);
+            pendentes.put(id, pendente);
+            registrados.add(pendente);
+            if (leituraMs > 0) {
+                pendente.futuro.orTimeout(leituraMs, TimeUnit.MILLISECONDS).whenComplete((resposta, e) -> {
+                    if (e instanceof TimeoutException) {
+                        pendentes.remove(id, pendente);
+                    }
+                });
+            }
+            futuros.add(pendente.futuro);
+            ids.add(id);
+            linhas.add(comprimida != null ? comprimida : linha);
+            comprimidas.add(comprimida != null);
+        }
+
+        try {
+            synchronized (out) {
+                if (!aberta) {
+                    throw new EOFException("Conexão pipeline encerrada");
+                }
+                long enviado = System.nanoTime();
+                for (Pendente pendente : registrados) {
+                    pendente.enviado = enviado;
+                }
+                for (int i = 0; i < linhas.size(); i++) {
+                    if (formato == null) {
+                        out.write(linhas.get(i));
+                        out.write('\n');
+                    } else {
+                        Enquadramento.escrever(out, linhas.get(i), comprimidas.get(i));
+                    }
+                }
+                out.flush();
+            }
+        } catch (IOException e) {
+            for (Long id : ids) {
+                Pendente pendente = pendentes.remove(id);
+                if (pendente != null) {
+                    pendente.futuro.completeExceptionally(e);
+                }
+            }
+            encerrar(e);
+        }
+        return futuros;
+    }
+
+    /**
+     * Indica se a conexão ainda aceita requisições.
+     *
+     * @return true enquanto a conexão estiver operante
+     */
+    public boolean isAberta() {
+        return aberta;
+    }
+
+    /**
+     * Fecha a conexão, falhando as requisições pendentes.
+     */
+    @Override
+    public void close() {
+        encerrar(new EOFException("Conexão pipeline fechada"));
+    }
+
+    /**
+     * Laço da thread leitora: associa cada resposta recebida à requisição de
+     * mesmo identificador.
+     */
+    private void ler() {
+        try {
+            if (formato != null) {
+                DataInputStream entrada = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                while (true) {
+                    lerQuadro(entrada);
+                }
+            }
+            // Criado aqui: a detecção de codificação bloqueia até a primeira resposta
+            JsonParser in = JsonUtil.abrirLeitura(socket.getInputStream());
+            while (in.nextToken() != null) {
+                lerResposta(in);
+            }
+            encerrar(new EOFException("Conexão encerrada pelo servidor"));
+        } catch (IOException | RuntimeException e) {
+            encerrar(e instanceof IOException io ? io : new IOException(e.getMessage(), e));
+        }
+    }
+
+    /**
+     * Lê uma resposta e completa a requisição correspondente.
+     *
+     * <p>
+     * Os campos anteriores ao {@code id} são copiados para um buffer de tokens;
+     * depois o buffer e o restante do fluxo são lidos em sequência como um
+     * único objeto, já no tipo registrado para a requisição.</p>
+     *
+     * @param in parser posicionado no início do objeto da resposta
+     * @throws IOException se a resposta for inválida ou não tiver
+     * identificador
+     */
+    private void lerResposta(JsonParser in) throws IOException {
+        if (in.currentToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Resposta inválida: esperado objeto JSON");
+        }
+        long chegada = System.nanoTime();
+        long inicio = in.currentTokenLocation().getByteOffset();
+        TokenBuffer lidos = new TokenBuffer(in);
+        lidos.writeStartObject();
+        Long id = null;
+        while (id == null && in.nextToken() == JsonToken.FIELD_NAME) {
+            String campo = in.currentName();
+            in.nextToken();
+            lidos.writeFieldName(campo);
+            lidos.copyCurrentStructure(in);
+            if ("id".equals(campo) && in.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+                id = in.getLongValue();
+            }
+        }
+        if (id == null) {
+            throw new IOException("Resposta sem identificador de correlação");
+        }
+        Pendente pendente = pendentes.remove(id);
+        if (pendente == null) {
+            // Requisição já expirada: descarta o restante da resposta
+            while (in.nextToken() == JsonToken.FIELD_NAME) {
+                in.nextToken();
+                in.skipChildren();
+            }
+            return;
+        }
+
+        JsonParser resposta = JsonParserSequence.createFlattened(false, lidos.asParser(), in);
+        resposta.nextToken();
+        try {
+            EventoJson evento = EventoJson.iniciar();
+            Resposta<?> lida = JsonUtil.leitor(pendente.tipo).readValue(resposta);
+            long bytes = in.currentLocation().getByteOffset() - inicio;
+            evento.concluir(EventoJson.DESSERIALIZAR, pendente.tipo, bytes);
+            pendente.medidas.registrarResposta(chegada - pendente.enviado, System.nanoTime() - chegada, bytes);
+            pendente.futuro.complete(lida);
+        } catch (IOException e) {
+            pendente.futuro.completeExceptionally(e);
+            throw e; // fluxo fora de sincronia
+        }
+    }
+
+    /**
+     * Lê o quadro de uma resposta e completa a requisição correspondente.
+     *
+     * <p>
+     * O {@code id} é procurado entre os campos do primeiro nível, sem
+     * decodificar os dados; depois o quadro é lido por inteiro no tipo
+     * registrado para a requisição. Um quadro comprimido é descomprimido nas
+     * duas leituras, mas a primeira para logo no {@code id}.</p>
+     *
+     * @param entrada fluxo de leitura dos quadros
+     * @throws IOException se a conexão falhar ou a resposta for inválida ou
+     * não tiver identificador
+     */
+    private void lerQuadro(DataInputStream entrada) throws IOException {
+        int cabecalho = Enquadramento.lerCabecalho(entrada);
+        long chegada = System.nanoTime();
+        byte[] quadro = Enquadramento.lerMensagem(entrada, cabecalho);
+        boolean comprimido = Enquadramento.comprimido(cabecalho);
+
+        Long id = null;
+        try (JsonParser in = comprimido
+                ? formato.abrirLeitura(new Enquadramento.Descompressao(quadro)) : formato.abrirLeitura(quadro)) {
+            if (in.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Resposta inválida: esperado objeto");
+            }
+            while (id == null && in.nextToken() == JsonToken.FIELD_NAME) {
+                String campo = in.currentName();
+                if (in.nextToken() == JsonToken.VALUE_NUMBER_INT && "id".equals(campo)) {
+                    id = in.getLongValue();
+                }
+                in.skipChildren();
+            }
+        }
+        if (id == null) {
+            throw new IOException("Resposta sem identificador de correlação");
+        }
+        Pendente pendente = pendentes.remove(id);
+        if (pendente == null) {
+            return; // requisição já expirada: o quadro inteiro já foi consumido
+        }
+
+        try {
+            EventoJson evento = EventoJson.iniciar();
+            Resposta<?> lida = Enquadramento.ler(formato.leitor(pendente.tipo), quadro, comprimido, pendente.medidas);
+            evento.concluir(EventoJson.DESSERIALIZAR, pendente.tipo, quadro.length);
+            pendente.medidas.registrarResposta(chegada - pendente.enviado, System.nanoTime() - chegada, quadro.length);
+            pendente.futuro.complete(lida);
+        } catch (IOException e) {
+            // Quadro inteiro consumido: o fluxo continua em sincronia
+            pendente.futuro.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Marca a conexão como encerrada, fecha o socket e falha as pendências.
+     *
+     * @param causa motivo do encerramento
+     */
+    private void encerrar(IOException causa) {
+        aberta = false;
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Conexão já encerrada
+        }
+        for (Long id : pendentes.keySet()) {
+            Pendente pendente = pendentes.remove(id);
+            if (pendente != null) {
+                pendente.futuro.completeExceptionally(causa);
+            }
+        }
+    }
+}
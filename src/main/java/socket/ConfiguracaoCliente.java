@@ -0,0 +1,104 @@
+package socket;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+
+/**
+ * Configuração do cliente socket carregada do arquivo
+ * {@code cliente.propriedade}.
+ *
+ * <p>
+ * O arquivo é lido do classpath (diretório {@code src/main/recurso}). Cada
+ * chave pode ser sobrescrita por uma propriedade de sistema de mesmo nome com o
+ * prefixo {@code cliente.} (ex.: {@code -Dcliente.porta=3002}). Chaves ausentes
+ * assumem os valores padrão informados na consulta.</p>
+ */
+public class ConfiguracaoCliente {
+
+    /**
+     * Nome do arquivo de configuração no classpath.
+     */
+    private static final String ARQUIVO = "/cliente.propriedade";
+
+    /**
+     * Prefixo usado nas propriedades de sistema que sobrescrevem o arquivo.
+     */
+    private static final String PREFIXO_SISTEMA = "cliente.";
+
+    /**
+     * Propriedades carregadas do arquivo.
+     */
+    private static final Properties propriedades = carregar();
+
+    /**
+     * Construtor privado para impedir instanciação da classe.
+     */
+    private ConfiguracaoCliente() {
+        // Impede instanciação
+    }
+
+    /**
+     * Lê o arquivo de configuração do classpath.
+     *
+     * @return propriedades lidas, ou vazias se o arquivo não existir
+     */
+    private static Properties carregar() {
+        Properties props = new Properties();
+        try (InputStream in = ConfiguracaoCliente.class.getResourceAsStream(ARQUIVO)) {
+            if (in != null) {
+                props.load(in);
+            }
+        } catch (IOException e) {
+            System.out.println("Erro ao ler " + ARQUIVO + ": " + e.getMessage());
+        }
+        return props;
+    }
+
+    /**
+     * Obtém o valor textual de uma chave.
+     *
+     * @param chave nome da chave
+     * @param padrao valor retornado quando a chave não estiver definida
+     * @return valor configurado ou o padrão
+     */
+    public static String texto(String chave, String padrao) {
+        String valor = System.getProperty(PREFIXO_SISTEMA + chave);
+        if (valor == null) {
+            valor = propriedades.getProperty(chave);
+        }
+        return valor == null || valor.isBlank() ? padrao : valor.trim();
+    }
+
+    /**
+     * Obtém o valor inteiro de uma chave.
+     *
+     * @param chave nome da chave
+     * @param padrao valor retornado quando a chave não estiver definida ou for
+     * inválida
+     * @return valor configurado ou o padrão
+     */
+    public static int inteiro(String chave, int padrao) {
+        try {
+            return Integer.parseInt(texto(chave, String.valueOf(padrao)));
+        } catch (NumberFormatException e) {
+            return padrao;
+        }
+    }
+
+    /**
+     * Obtém o valor inteiro longo de uma chave.
+     *
+     * @param chave nome da chave
+     * @param padrao valor retornado quando a chave não estiver definida ou for
+     * inválida
+     * @return valor configurado ou o padrão
+     */
+    public static long longo(String chave, long padrao) {
+        try {
+            return Long.parseLong(texto(chave, String.valueOf(padrao)));
+        } catch (NumberFormatException e) {
+            return padrao;
+        }
+    }
+}
@@ -0,0 +1,415 @@
+package socket;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import dto.Requisicao;
+import dto.Resposta;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import metrica.Medidas;
+import modelo.enums.Acao;
+import util.Formato;
+import util.JsonUtil;
+
+/**
+ * Negociação do formato e enquadramento das mensagens no modo de quadros.
+ *
+ * <p>
+ * Toda conexão começa no protocolo de linhas JSON. Se houver formatos
+ * configurados ({@code transporte.formatos}), o cliente envia como primeira
+ * linha uma requisição {@link Acao#NEGOCIAR} com os nomes deles em ordem de
+ * preferência. Um servidor que conheça o modo responde com o nome escolhido
+ * (e {@value #DEFLATE}, se aceitar compressão), e a partir daí as duas pontas trocam quadros: um inteiro de 4 bytes
+ * (big-endian) com o tamanho, seguido da mensagem codificada no formato.
+ * Qualquer outra resposta, como o erro de um servidor que não conhece a ação,
+ * mantém a conexão no protocolo de linhas.</p>
+ *
+ * <p>
+ * Com o tamanho à frente, o leitor recebe a mensagem inteira com uma única
+ * leitura em bloco e a decodifica a partir do vetor, sem procurar o fim da
+ * linha byte a byte, e a mensagem pode estar em um formato binário.</p>
+ *
+ * <p>
+ * Se as duas pontas aceitarem {@value #DEFLATE}, cada lado pode comprimir as
+ * mensagens a partir de um tamanho mínimo. O bit de sinal do cabeçalho marca
+ * o quadro comprimido, de modo que mensagens pequenas seguem sem custo
+ * algum. A mensagem comprimida é descomprimida aos poucos, à medida que o
+ * parser a consome, sem montar o texto inteiro na memória.</p>
+ */
+class Enquadramento {
+
+    /**
+     * Maior quadro aceito, em bytes. Um tamanho acima disso indica fluxo fora
+     * de sincronia.
+     */
+    static final int QUADRO_MAXIMO = 256 * 1024 * 1024;
+
+    /**
+     * Nome da compressão na negociação.
+     */
+    static final String DEFLATE = "deflate";
+
+    /**
+     * Tamanho mínimo padrão para comprimir uma mensagem, em bytes. Abaixo
+     * disso o ganho na rede não paga o processamento.
+     */
+    static final int COMPRESSAO_MINIMA = 8 * 1024;
+
+    /**
+     * Bit do cabeçalho que marca o quadro comprimido.
+     */
+    private static final int COMPRIMIDO = 0x80000000;
+
+    /**
+     * Maior resposta de negociação aceita, em bytes.
+     */
+    private static final int LINHA_MAXIMA = 4096;
+
+    /**
+     * Resultado da negociação: formato dos quadros e uso de compressão.
+     */
+    static final class Acordo {
+
+        /**
+         * Formato aceito pelo servidor.
+         */
+        final Formato formato;
+
+        /**
+         * Indica se o servidor aceitou a compressão.
+         */
+        final boolean compressao;
+
+        /**
+         * Cria o resultado de uma negociação aceita.
+         *
+         * @param formato formato aceito
+         * @param compressao true se a compressão foi aceita
+         */
+        Acordo(Formato formato, boolean compressao) {
+            this.formato = formato;
+            this.compressao = compressao;
+        }
+    }
+
+    /**
+     * Construtor privado para impedir instanciação da classe.
+     */
+    private Enquadramento() {
+        // Impede instanciação
+    }
+
+    /**
+     * Negocia o formato da conexão, antes de qualquer outra requisição.
+     *
+     * <p>
+     * A resposta é lida byte a byte do fluxo do socket, para não consumir nada
+     * além da linha: o que vier depois pertence ao protocolo escolhido.</p>
+     *
+     * @param entrada fluxo de leitura do socket, sem buffer
+     * @param saida fluxo de escrita do socket
+     * @param oferecidos formatos oferecidos, em ordem de preferência
+     * @param compressao true para oferecer também {@value #DEFLATE}
+     * @return acordo com o servidor, ou null para continuar no protocolo de
+     * linhas
+     * @throws IOException se a conexão falhar ou o servidor escolher algo
+     * não oferecido
+     */
+    static Acordo negociar(InputStream entrada, OutputStream saida, List<Formato> oferecidos, boolean compressao) throws IOException {
+        if (oferecidos.isEmpty()) {
+            return null;
+        }
+        List<String> nomes = new ArrayList<>(oferecidos.size() + 1);
+        for (Formato formato : oferecidos) {
+            nomes.add(formato.getNome());
+        }
+        if (compressao) {
+            nomes.add(DEFLATE);
+        }
+        saida.write(JsonUtil.toJsonBytes(new Requisicao<>(Acao.NEGOCIAR, null, nomes)));
+        saida.write('\n');
+        saida.flush();
+
+        Resposta<?> resposta = JsonUtil.fromJson(lerLinha(entrada), Resposta.class);
+        if (!"sucesso".equalsIgnoreCase(resposta.getStatus()) || !(resposta.getDados() instanceof List<?> aceitos)
+                || aceitos.isEmpty()) {
+            return null;
+        }
+        Formato formato = aceitos.get(0) instanceof String nome ? Formato.porNome(nome) : null;
+        if (formato == null || !oferecidos.contains(formato)) {
+            throw new IOException("Servidor escolheu um formato não oferecido: " + aceitos.get(0));
+        }
+        boolean comprimir = aceitos.contains(DEFLATE);
+        if (comprimir && !compressao) {
+            throw new IOException("Servidor aceitou uma compressão não oferecida");
+        }
+        return new Acordo(formato, comprimir);
+    }
+
+    /**
+     * Escolhe, do lado do servidor, o formato de uma requisição
+     * {@link Acao#NEGOCIAR}.
+     *
+     * @param requisicao requisição de negociação recebida
+     * @param aceitos formatos que o servidor aceita
+     * @return primeiro formato oferecido que o servidor aceita, ou null
+     */
+    static Formato escolher(Requisicao<Object> requisicao, List<Formato> aceitos) {
+        if (requisicao.getDados() instanceof List<?> nomes) {
+            for (Object nome : nomes) {
+                Formato formato = nome instanceof String texto ? Formato.porNome(texto) : null;
+                if (formato != null && aceitos.contains(formato)) {
+                    return formato;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Indica, do lado do servidor, se uma requisição {@link Acao#NEGOCIAR}
+     * oferece compressão.
+     *
+     * @param requisicao requisição de negociação recebida
+     * @return true se {@value #DEFLATE} estiver entre os nomes oferecidos
+     */
+    static boolean oferecido(Requisicao<Object> requisicao) {
+        return requisicao.getDados() instanceof List<?> nomes && nomes.contains(DEFLATE);
+    }
+
+    /**
+     * Comprime uma mensagem, se ela tiver o tamanho mínimo e a compressão
+     * reduzir o seu tamanho.
+     *
+     * @param dados mensagem codificada
+     * @param minimo tamanho mínimo para comprimir, ou zero se a compressão
+     * não foi acordada
+     * @param medidas medidas em que o tempo e os tamanhos são registrados, ou
+     * null
+     * @return mensagem comprimida, ou null para enviá-la como está
+     */
+    static byte[] comprimir(byte[] dados, int minimo, Medidas medidas) {
+        if (minimo <= 0 || dados.length < minimo) {
+            return null;
+        }
+        long inicio = System.nanoTime();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(dados);
+            deflater.finish();
+            // Saída do tamanho da entrada: se não couber, não houve ganho
+            byte[] saida = new byte[dados.length];
+            int tamanho = 0;
+            while (!deflater.finished() && tamanho < saida.length) {
+                tamanho += deflater.deflate(saida, tamanho, saida.length - tamanho);
+            }
+            byte[] comprimido = deflater.finished() && tamanho < dados.length ? Arrays.copyOf(saida, tamanho) : null;
+            if (medidas != null) {
+                medidas.registrarCompressao(System.nanoTime() - inicio, dados.length,
+                        comprimido == null ? dados.length : comprimido.length);
+            }
+            return comprimido;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Escreve um quadro, sem enviá-lo: o chamador faz o {@code flush}.
+     *
+     * @param saida fluxo de escrita
+     * @param dados mensagem codificada
+     * @throws IOException se a escrita falhar
+     */
+    static void escrever(OutputStream saida, byte[] dados) throws IOException {
+        escrever(saida, dados, false);
+    }
+
+    /**
+     * Escreve um quadro, sem enviá-lo: o chamador faz o {@code flush}.
+     *
+     * @param saida fluxo de escrita
+     * @param dados mensagem codificada, possivelmente comprimida
+     * @param comprimido true se {@code dados} veio de
+     * {@link #comprimir(byte[], int, Medidas)}
+     * @throws IOException se a escrita falhar
+     */
+    static void escrever(OutputStream saida, byte[] dados, boolean comprimido) throws IOException {
+        int cabecalho = comprimido ? dados.length | COMPRIMIDO : dados.length;
+        saida.write(cabecalho >>> 24);
+        saida.write(cabecalho >>> 16);
+        saida.write(cabecalho >>> 8);
+        saida.write(cabecalho);
+        saida.write(dados);
+    }
+
+    /**
+     * Lê o cabeçalho do próximo quadro, aguardando a sua chegada.
+     *
+     * @param entrada fluxo de leitura
+     * @return cabeçalho, interpretado por {@link #tamanho(int)} e
+     * {@link #comprimido(int)}
+     * @throws EOFException se o servidor encerrou a conexão
+     * @throws IOException se o tamanho for inválido ou a leitura falhar
+     */
+    static int lerCabecalho(DataInputStream entrada) throws IOException {
+        int cabecalho;
+        try {
+            cabecalho = entrada.readInt();
+        } catch (EOFException e) {
+            throw new EOFException("Conexão encerrada pelo servidor");
+        }
+        if (tamanho(cabecalho) > QUADRO_MAXIMO) {
+            throw new IOException("Quadro com tamanho inválido: " + tamanho(cabecalho));
+        }
+        return cabecalho;
+    }
+
+    /**
+     * Obtém o tamanho da mensagem informado em um cabeçalho.
+     *
+     * @param cabecalho cabeçalho lido
+     * @return tamanho em bytes, como trafegou
+     */
+    static int tamanho(int cabecalho) {
+        return cabecalho & ~COMPRIMIDO;
+    }
+
+    /**
+     * Indica se o cabeçalho marca uma mensagem comprimida.
+     *
+     * @param cabecalho cabeçalho lido
+     * @return true se a mensagem estiver comprimida
+     */
+    static boolean comprimido(int cabecalho) {
+        return (cabecalho & COMPRIMIDO) != 0;
+    }
+
+    /**
+     * Lê a mensagem de um quadro cujo cabeçalho já foi lido.
+     *
+     * @param entrada fluxo de leitura
+     * @param cabecalho cabeçalho lido
+     * @return mensagem como trafegou, possivelmente comprimida
+     * @throws IOException se a conexão terminar antes do fim da mensagem
+     */
+    static byte[] lerMensagem(DataInputStream entrada, int cabecalho) throws IOException {
+        byte[] dados = new byte[tamanho(cabecalho)];
+        entrada.readFully(dados);
+        return dados;
+    }
+
+    /**
+     * Decodifica a mensagem de um quadro, descomprimindo-a durante a leitura
+     * se preciso.
+     *
+     * @param <T> tipo do valor
+     * @param leitor leitor do formato no tipo de destino
+     * @param mensagem mensagem como trafegou
+     * @param comprimido true se o cabeçalho marcava compressão
+     * @param medidas medidas em que o tempo de descompressão e os tamanhos
+     * são registrados, ou null
+     * @return valor decodificado
+     * @throws IOException se a mensagem for ilegível
+     */
+    static <T> T ler(ObjectReader leitor, byte[] mensagem, boolean comprimido, Medidas medidas) throws IOException {
+        if (!comprimido) {
+            return leitor.readValue(mensagem);
+        }
+        try (Descompressao entrada = new Descompressao(mensagem)) {
+            T valor = leitor.readValue(entrada);
+            if (medidas != null) {
+                medidas.registrarCompressao(entrada.nanos, entrada.lidos, mensagem.length);
+            }
+            return valor;
+        }
+    }
+
+    /**
+     * Lê uma linha sem buffer, parando logo após a quebra de linha.
+     *
+     * @param entrada fluxo de leitura
+     * @return linha sem a quebra
+     * @throws IOException se a conexão terminar antes da quebra ou a linha
+     * for longa demais
+     */
+    private static String lerLinha(InputStream entrada) throws IOException {
+        ByteArrayOutputStream linha = new ByteArrayOutputStream(128);
+        int lido;
+        while ((lido = entrada.read()) != '\n') {
+            if (lido < 0) {
+                throw new EOFException("Conexão encerrada pelo servidor");
+            }
+            if (linha.size() >= LINHA_MAXIMA) {
+                throw new IOException("Resposta de negociação longa demais");
+            }
+            linha.write(lido);
+        }
+        return linha.toString(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Fluxo que descomprime uma mensagem sob demanda, contando o tempo gasto
+     * na descompressão e o tamanho original.
+     *
+     * <p>
+     * O parser pede blocos pequenos; o tempo de cada pedido é só o da
+     * descompressão, pois a mensagem comprimida já está na memória.</p>
+     */
+    static final class Descompressao extends InflaterInputStream {
+
+        /**
+         * Tempo gasto descomprimindo, em nanossegundos.
+         */
+        long nanos;
+
+        /**
+         * Bytes já descomprimidos.
+         */
+        long lidos;
+
+        /**
+         * Cria o fluxo sobre a mensagem comprimida.
+         *
+         * @param mensagem mensagem comprimida
+         */
+        Descompressao(byte[] mensagem) {
+            super(new ByteArrayInputStream(mensagem), new Inflater(), 8192);
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            long inicio = System.nanoTime();
+            int n = super.read(b, off, len);
+            nanos += System.nanoTime() - inicio;
+            if (n > 0) {
+                lidos += n;
+                if (lidos > QUADRO_MAXIMO) {
+                    throw new IOException("Mensagem descomprimida maior que o limite de " + QUADRO_MAXIMO + " bytes");
+                }
+            }
+            return n;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                // Inflater próprio: o fluxo não o libera sozinho
+                inf.end();
+            }
+        }
+    }
+}
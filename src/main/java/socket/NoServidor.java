@@ -0,0 +1,343 @@
+package socket;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import util.Formato;
+
+/**
+ * Um dos servidores entre os quais o {@link Balanceador} distribui as
+ * requisições.
+ *
+ * <p>
+ * Cada nó tem o próprio {@link PoolConexoes} e, no modo pipelining, a própria
+ * {@link ConexaoPipeline}, aberta sob demanda. Além das conexões, o nó guarda
+ * o que o balanceador usa para escolhê-lo: a quantidade de requisições em
+ * andamento, a média móvel exponencial do tempo de resposta e o estado do seu
+ * disjuntor.</p>
+ *
+ * <p>
+ * A saúde é avaliada apenas pelo próprio tráfego. Depois de um número de
+ * falhas seguidas o disjuntor abre e o nó fica fora da escolha por um tempo;
+ * passado esse tempo, uma única requisição de sonda é liberada. Se ela for
+ * bem sucedida o disjuntor fecha; se falhar, ele reabre pelo dobro do tempo
+ * anterior, até o máximo configurado.</p>
+ */
+public class NoServidor {
+
+    /**
+     * Estado do disjuntor de um nó.
+     */
+    public enum Estado {
+        /**
+         * Funcionamento normal
+         */
+        FECHADO,
+        /**
+         * Fora da escolha após falhas seguidas
+         */
+        ABERTO,
+        /**
+         * Tempo de suspensão encerrado; aguardando a sonda
+         */
+        MEIO_ABERTO;
+    }
+
+    /**
+     * Peso de cada nova amostra na média do tempo de resposta.
+     */
+    private static final double PESO_AMOSTRA = 0.2;
+
+    /**
+     * Endereço do servidor.
+     */
+    private final String host;
+
+    /**
+     * Porta do servidor.
+     */
+    private final int porta;
+
+    /**
+     * Pool de conexões do modo simples.
+     */
+    private final PoolConexoes pool;
+
+    /**
+     * Conexão do modo pipelining, aberta sob demanda.
+     */
+    private ConexaoPipeline pipeline;
+
+    /**
+     * Requisições enviadas a este nó e ainda sem resposta.
+     */
+    private final AtomicInteger pendentes = new AtomicInteger();
+
+    /**
+     * Média móvel do tempo de resposta, em milissegundos, ou {@code NaN}
+     * antes da primeira resposta.
+     */
+    private volatile double latenciaMs = Double.NaN;
+
+    /**
+     * Tempo limite para abrir uma conexão, em milissegundos.
+     */
+    private final int conexaoMs;
+
+    /**
+     * Tempo limite de espera por uma resposta, em milissegundos.
+     */
+    private final int leituraMs;
+
+    /**
+     * Formatos oferecidos ao servidor ao abrir cada conexão.
+     */
+    private final List<Formato> formatos;
+
+    /**
+     * Tamanho mínimo para comprimir uma requisição, ou zero para não oferecer
+     * compressão.
+     */
+    private final int compressaoMinima;
+
+    /**
+     * Falhas de comunicação seguidas, zerada na primeira troca bem sucedida.
+     */
+    private int falhasSeguidas;
+
+    /**
+     * Vezes seguidas que o disjuntor abriu, usada para dobrar a suspensão.
+     */
+    private int aberturas;
+
+    /**
+     * Instante, em {@link System#currentTimeMillis()}, até o qual o disjuntor
+     * fica aberto, ou zero se estiver fechado.
+     */
+    private long suspensoAte;
+
+    /**
+     * Indica que a sonda do disjuntor meio aberto já foi enviada.
+     */
+    private boolean sondando;
+
+    /**
+     * Peso acumulado do rodízio ponderado, mantido pelo {@link Balanceador}.
+     */
+    int pesoCorrente;
+
+    /**
+     * Cria um nó e o seu pool de conexões.
+     *
+     * @param host endereço do servidor
+     * @param porta porta do servidor
+     * @param tamanho número máximo de conexões em uso simultâneo
+     * @param ociosoMs tempo máximo de ociosidade de uma conexão livre
+     * @param validacaoMs tempo ocioso a partir do qual a conexão é testada
+     * @param conexaoMs tempo limite para abrir uma conexão
+     * @param leituraMs tempo limite de espera por uma resposta
+     * @param formatos formatos oferecidos ao servidor, em ordem de
+     * preferência; vazio para o protocolo de linhas
+     * @param compressaoMinima tamanho mínimo, em bytes, para comprimir uma
+     * requisição; zero para não oferecer compressão
+     */
+    public NoServidor(String host, int porta, int tamanho, long ociosoMs, long validacaoMs, int conexaoMs, int leituraMs,
+            List<Formato> formatos, int compressaoMinima) {
+        this.host = host;
+        this.porta = porta;
+        this.conexaoMs = conexaoMs;
+        this.leituraMs = leituraMs;
+        this.formatos = List.copyOf(formatos);
+        this.compressaoMinima = compressaoMinima;
+        this.pool = new PoolConexoes(host, porta, tamanho, ociosoMs, validacaoMs, conexaoMs, leituraMs, formatos, compressaoMinima);
+    }
+
+    /**
+     * Obtém o endereço do servidor.
+     *
+     * @return endereço
+     */
+    public String getHost() {
+        return host;
+    }
+
+    /**
+     * Obtém a porta do servidor.
+     *
+     * @return porta
+     */
+    public int getPorta() {
+        return porta;
+    }
+
+    /**
+     * Obtém o tempo limite para abrir uma conexão.
+     *
+     * @return tempo em milissegundos
+     */
+    public int getConexaoMs() {
+        return conexaoMs;
+    }
+
+    /**
+     * Obtém o tempo limite de espera por uma resposta.
+     *
+     * @return tempo em milissegundos
+     */
+    public int getLeituraMs() {
+        return leituraMs;
+    }
+
+    /**
+     * Obtém o pool de conexões do modo simples.
+     *
+     * @return pool do nó
+     */
+    public PoolConexoes getPool() {
+        return pool;
+    }
+
+    /**
+     * Obtém a conexão do modo pipelining, reabrindo-a se tiver caído.
+     *
+     * @return conexão pipeline aberta
+     * @throws IOException se não for possível conectar
+     */
+    public synchronized ConexaoPipeline obterPipeline() throws IOException {
+        if (pipeline == null || !pipeline.isAberta()) {
+            pipeline = new ConexaoPipeline(host, porta, conexaoMs, leituraMs, formatos, compressaoMinima);
+        }
+        return pipeline;
+    }
+
+    /**
+     * Obtém a quantidade de requisições em andamento.
+     *
+     * @return requisições sem resposta
+     */
+    public int getPendentes() {
+        return pendentes.get();
+    }
+
+    /**
+     * Obtém a média do tempo de resposta.
+     *
+     * @return média em milissegundos, ou {@code NaN} se ainda não houver
+     * resposta
+     */
+    public double getLatenciaMs() {
+        return latenciaMs;
+    }
+
+    /**
+     * Obtém o estado do disjuntor.
+     *
+     * @return estado atual
+     */
+    public synchronized Estado getEstado() {
+        if (suspensoAte == 0) {
+            return Estado.FECHADO;
+        }
+        return System.currentTimeMillis() < suspensoAte ? Estado.ABERTO : Estado.MEIO_ABERTO;
+    }
+
+    /**
+     * Indica se o nó pode ser escolhido: disjuntor fechado, ou meio aberto
+     * sem sonda em andamento.
+     *
+     * @param agora instante atual, em {@link System#currentTimeMillis()}
+     * @return true se o nó aceitar uma requisição
+     */
+    public synchronized boolean isDisponivel(long agora) {
+        return suspensoAte == 0 || (agora >= suspensoAte && !sondando);
+    }
+
+    /**
+     * Registra que o nó foi escolhido. Com o disjuntor meio aberto, a
+     * requisição passa a ser a sonda e nenhuma outra é liberada até ela
+     * terminar.
+     *
+     * @param agora instante atual, em {@link System#currentTimeMillis()}
+     */
+    synchronized void reservar(long agora) {
+        if (suspensoAte != 0 && agora >= suspensoAte) {
+            sondando = true;
+        }
+    }
+
+    /**
+     * Registra o envio de uma requisição.
+     *
+     * @return instante do envio, a ser informado em {@link #concluir(long)}
+     */
+    long iniciar() {
+        pendentes.incrementAndGet();
+        return System.nanoTime();
+    }
+
+    /**
+     * Registra a resposta de uma requisição, atualizando a média do tempo de
+     * resposta e fechando o disjuntor.
+     *
+     * @param inicio instante devolvido por {@link #iniciar()}
+     */
+    void concluir(long inicio) {
+        pendentes.decrementAndGet();
+        double amostra = (System.nanoTime() - inicio) / 1_000_000.0;
+        synchronized (this) {
+            latenciaMs = Double.isNaN(latenciaMs) ? amostra : latenciaMs + PESO_AMOSTRA * (amostra - latenciaMs);
+            falhasSeguidas = 0;
+            aberturas = 0;
+            sondando = false;
+            if (suspensoAte != 0) {
+                suspensoAte = 0;
+                System.out.println("Servidor " + this + " restabelecido");
+            }
+        }
+    }
+
+    /**
+     * Registra que uma requisição enviada ficou sem resposta.
+     */
+    void abandonar() {
+        pendentes.decrementAndGet();
+    }
+
+    /**
+     * Desfaz a reserva de {@link #reservar(long)} sem resultado, quando a
+     * requisição desiste antes de falar com o servidor. Uma sonda em
+     * andamento é encerrada e o nó meio aberto volta a poder ser escolhido.
+     */
+    synchronized void liberar() {
+        sondando = false;
+    }
+
+    /**
+     * Registra uma falha de comunicação. O disjuntor abre ao atingir o limite
+     * de falhas seguidas ou quando a sonda falha, por um tempo que dobra a
+     * cada abertura seguida.
+     *
+     * @param limiteFalhas falhas seguidas que abrem o disjuntor
+     * @param suspensaoMs tempo da primeira abertura
+     * @param suspensaoMaximaMs tempo máximo de abertura
+     */
+    synchronized void falhar(int limiteFalhas, long suspensaoMs, long suspensaoMaximaMs) {
+        falhasSeguidas++;
+        if (suspensoAte != 0 && !sondando) {
+            return; // já aberto: falha de uma requisição anterior à abertura
+        }
+        if (suspensoAte == 0 && falhasSeguidas < limiteFalhas) {
+            return;
+        }
+        aberturas++;
+        sondando = false;
+        long espera = Math.min(suspensaoMs << Math.min(aberturas - 1, 20), suspensaoMaximaMs);
+        suspensoAte = System.currentTimeMillis() + espera;
+        System.out.println("Servidor " + this + " indisponível, suspenso por " + espera + " ms");
+    }
+
+    @Override
+    public String toString() {
+        return host + ":" + porta;
+    }
+}
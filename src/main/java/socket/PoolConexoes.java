@@ -0,0 +1,214 @@
+package socket;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import util.Formato;
+
+/**
+ * Pool de conexões persistentes com o servidor.
+ *
+ * <p>
+ * Limita o número de conexões em uso simultâneo a {@code tamanho} e mantém as
+ * conexões devolvidas abertas para reaproveitamento, evitando um handshake TCP
+ * por requisição. As conexões livres são reutilizadas da mais recente para a
+ * mais antiga, para que as menos usadas envelheçam e sejam removidas.</p>
+ *
+ * <p>
+ * Conexões ociosas por mais de {@code ociosoMs} são fechadas por uma tarefa
+ * periódica, e toda conexão é verificada antes de ser emprestada (ver
+ * {@link Conexao#estaSaudavel(long)}).</p>
+ */
+public class PoolConexoes {
+
+    /**
+     * Endereço do servidor.
+     */
+    private final String host;
+
+    /**
+     * Porta do servidor.
+     */
+    private final int porta;
+
+    /**
+     * Tempo máximo, em milissegundos, que uma conexão livre permanece aberta.
+     */
+    private final long ociosoMs;
+
+    /**
+     * Tempo ocioso, em milissegundos, a partir do qual a conexão é testada
+     * antes do empréstimo.
+     */
+    private final long validacaoMs;
+
+    /**
+     * Tempo limite para abrir uma conexão, em milissegundos.
+     */
+    private final int conexaoMs;
+
+    /**
+     * Tempo limite de espera por uma resposta, em milissegundos.
+     */
+    private final int leituraMs;
+
+    /**
+     * Formatos oferecidos ao servidor ao abrir cada conexão.
+     */
+    private final List<Formato> formatos;
+
+    /**
+     * Tamanho mínimo para comprimir uma requisição, ou zero para não oferecer
+     * compressão.
+     */
+    private final int compressaoMinima;
+
+    /**
+     * Permissões que limitam a quantidade de conexões em uso.
+     */
+    private final Semaphore permissoes;
+
+    /**
+     * Conexões abertas aguardando reutilização.
+     */
+    private final Deque<Conexao> livres = new ArrayDeque<>();
+
+    /**
+     * Tarefa periódica de remoção de conexões ociosas.
+     */
+    private final ScheduledExecutorService limpeza;
+
+    /**
+     * Cria um pool de conexões.
+     *
+     * @param host endereço do servidor
+     * @param porta porta do servidor
+     * @param tamanho número máximo de conexões em uso simultâneo
+     * @param ociosoMs tempo máximo de ociosidade de uma conexão livre
+     * @param validacaoMs tempo ocioso a partir do qual a conexão é testada
+     * @param conexaoMs tempo limite para abrir uma conexão
+     * @param leituraMs tempo limite de espera por uma resposta
+     * @param formatos formatos oferecidos ao servidor, em ordem de
+     * preferência; vazio para o protocolo de linhas
+     * @param compressaoMinima tamanho mínimo, em bytes, para comprimir uma
+     * requisição; zero para não oferecer compressão
+     */
+    public PoolConexoes(String host, int porta, int tamanho, long ociosoMs, long validacaoMs, int conexaoMs, int leituraMs,
+            List<Formato> formatos, int compressaoMinima) {
+        this.host = host;
+        this.porta = porta;
+        this.ociosoMs = ociosoMs;
+        this.validacaoMs = validacaoMs;
+        this.conexaoMs = conexaoMs;
+        this.leituraMs = leituraMs;
+        this.formatos = List.copyOf(formatos);
+        this.compressaoMinima = compressaoMinima;
+        this.permissoes = new Semaphore(Math.max(1, tamanho), true);
+        this.limpeza = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "pool-conexoes-limpeza");
+            t.setDaemon(true);
+            return t;
+        });
+        long intervalo = Math.max(1000, ociosoMs / 2);
+        limpeza.scheduleWithFixedDelay(this::removerOciosas, intervalo, intervalo, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Empresta uma conexão, reaproveitando uma livre ou abrindo uma nova.
+     *
+     * <p>
+     * Bloqueia enquanto todas as conexões estiverem em uso. Toda conexão
+     * emprestada deve voltar ao pool por {@link #devolver(Conexao)} ou
+     * {@link #descartar(Conexao)}.</p>
+     *
+     * @return conexão pronta para uso
+     * @throws IOException se não for possível abrir uma nova conexão
+     */
+    public Conexao emprestar() throws IOException {
+        try {
+            permissoes.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrompido aguardando conexão livre", e);
+        }
+        try {
+            Conexao conexao;
+            while ((conexao = retirarLivre()) != null) {
+                if (conexao.ociosaHa() < ociosoMs && conexao.estaSaudavel(validacaoMs)) {
+                    return conexao;
+                }
+                conexao.close();
+            }
+            return new Conexao(host, porta, conexaoMs, leituraMs, formatos, compressaoMinima);
+        } catch (IOException | RuntimeException e) {
+            permissoes.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Devolve ao pool uma conexão que terminou a troca normalmente.
+     *
+     * @param conexao conexão emprestada
+     */
+    public void devolver(Conexao conexao) {
+        synchronized (livres) {
+            livres.push(conexao);
+        }
+        permissoes.release();
+    }
+
+    /**
+     * Fecha uma conexão que falhou e libera sua vaga no pool.
+     *
+     * @param conexao conexão emprestada
+     */
+    public void descartar(Conexao conexao) {
+        conexao.close();
+        permissoes.release();
+    }
+
+    /**
+     * Fecha todas as conexões livres e encerra a tarefa de limpeza.
+     */
+    public void fechar() {
+        limpeza.shutdownNow();
+        synchronized (livres) {
+            livres.forEach(Conexao::close);
+            livres.clear();
+        }
+    }
+
+    /**
+     * Retira a conexão livre mais recente.
+     *
+     * @return conexão livre ou null se não houver
+     */
+    private Conexao retirarLivre() {
+        synchronized (livres) {
+            return livres.poll();
+        }
+    }
+
+    /**
+     * Fecha as conexões livres que excederam o tempo de ociosidade.
+     */
+    private void removerOciosas() {
+        synchronized (livres) {
+            Iterator<Conexao> it = livres.descendingIterator();
+            while (it.hasNext()) {
+                Conexao conexao = it.next();
+                if (conexao.ociosaHa() >= ociosoMs) {
+                    conexao.close();
+                    it.remove();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * Utilitário para execução assíncrona das operações de rede.
+ *
+ * <p>
+ * Mantém um executor de threads virtuais compartilhado: cada tarefa ganha uma
+ * thread própria de custo baixo, de modo que operações bloqueantes de socket
+ * possam ser disparadas em paralelo sem esgotar um pool de threads.</p>
+ *
+ * <p>
+ * Também oferece a espera por um {@link CompletableFuture} devolvendo a causa
+ * original da falha, para que os métodos síncronos construídos sobre os
+ * assíncronos mantenham as mesmas exceções de antes.</p>
+ */
+public class AssincronoUtil {
+
+    /**
+     * Executor de threads virtuais usado por todas as tarefas assíncronas.
+     */
+    private static final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    /**
+     * Construtor privado para impedir instanciação da classe.
+     */
+    private AssincronoUtil() {
+        // Impede instanciação
+    }
+
+    /**
+     * Obtém o executor compartilhado de threads virtuais.
+     *
+     * @return executor de threads virtuais
+     */
+    public static Executor executor() {
+        return executor;
+    }
+
+    /**
+     * Executa uma tarefa em uma thread virtual.
+     *
+     * @param <T> tipo do resultado
+     * @param tarefa tarefa a ser executada
+     * @return futuro completado com o resultado da tarefa
+     */
+    public static <T> CompletableFuture<T> executar(Supplier<T> tarefa) {
+        return CompletableFuture.supplyAsync(tarefa, executor);
+    }
+
+    /**
+     * Aguarda o resultado de um futuro, relançando a causa original em caso
+     * de falha.
+     *
+     * @param <T> tipo do resultado
+     * @param futuro futuro a aguardar
+     * @return resultado do futuro
+     * @throws RuntimeException causa original da falha, ou a falha envolvida
+     * se não for uma exceção não verificada
+     */
+    public static <T> T aguardar(CompletableFuture<T> futuro) {
+        try {
+            return futuro.get();
+        } catch (ExecutionException e) {
+            throw desembrulhar(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException("Interrompido aguardando resultado", e);
+        }
+    }
+
+    /**
+     * Obtém a exceção original de uma falha assíncrona.
+     *
+     * @param erro falha recebida de um {@link CompletableFuture}
+     * @return causa original como exceção não verificada
+     */
+    public static RuntimeException desembrulhar(Throwable erro) {
+        Throwable causa = erro;
+        while (causa instanceof CompletionException && causa.getCause() != null) {
+            causa = causa.getCause();
+        }
+        if (causa instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (causa instanceof Error error) {
+            throw error;
+        }
+        return new CompletionException(causa);
+    }
+}
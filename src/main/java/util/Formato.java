@@ -0,0 +1,221 @@
+package util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import metrica.EventoJson;
+
+/**
+ * Codificações aceitas no modo de quadros do transporte.
+ *
+ * <p>
+ * {@link #JSON} usa o mesmo mapeamento do {@link JsonUtil}. Os formatos
+ * binários do Jackson ({@link #SMILE} e {@link #CBOR}) guardam os nomes de
+ * campo repetidos uma única vez e os números em binário, o que encolhe e
+ * acelera listas longas como as de produtos e do relatório. Os módulos desses
+ * formatos são opcionais: a fábrica é carregada por reflexão e, sem o módulo
+ * no classpath, o formato fica indisponível e não é oferecido ao
+ * servidor.</p>
+ */
+public enum Formato {
+
+    /**
+     * JSON textual, sempre disponível.
+     */
+    JSON("json", null),
+    /**
+     * Smile, o JSON binário do Jackson
+     * ({@code jackson-dataformat-smile}).
+     */
+    SMILE("smile", "com.fasterxml.jackson.dataformat.smile.SmileFactory"),
+    /**
+     * CBOR, RFC 8949 ({@code jackson-dataformat-cbor}).
+     */
+    CBOR("cbor", "com.fasterxml.jackson.dataformat.cbor.CBORFactory");
+
+    /**
+     * Tipo usado para abrir parsers sem tipo de destino.
+     */
+    private static final JavaType OBJETO = JsonUtil.tipo(Object.class);
+
+    /**
+     * Nome do formato na negociação e na configuração.
+     */
+    private final String nome;
+
+    /**
+     * Mapeador do formato, ou null se for JSON ou se o módulo não estiver no
+     * classpath.
+     */
+    private final ObjectMapper mapper;
+
+    /**
+     * Indica se o formato pode ser usado.
+     */
+    private final boolean disponivel;
+
+    /**
+     * Leitores já configurados, por tipo de destino.
+     */
+    private final Map<JavaType, ObjectReader> leitores = new ConcurrentHashMap<>();
+
+    /**
+     * Cria o formato, carregando a fábrica do Jackson se houver.
+     *
+     * @param nome nome do formato
+     * @param fabrica nome da classe da fábrica, ou null para JSON
+     */
+    Formato(String nome, String fabrica) {
+        this.nome = nome;
+        this.mapper = fabrica == null ? null : criarMapeador(fabrica);
+        this.disponivel = fabrica == null || mapper != null;
+    }
+
+    /**
+     * Obtém o nome do formato.
+     *
+     * @return nome usado na negociação
+     */
+    public String getNome() {
+        return nome;
+    }
+
+    /**
+     * Indica se o módulo do formato está no classpath.
+     *
+     * @return true se o formato puder ser usado
+     */
+    public boolean isDisponivel() {
+        return disponivel;
+    }
+
+    /**
+     * Serializa um objeto no formato.
+     *
+     * @param obj objeto a serializar
+     * @return bytes codificados
+     * @throws IllegalStateException se o formato não estiver disponível
+     * @throws RuntimeException se ocorrer erro durante a serialização
+     */
+    public byte[] serializar(Object obj) {
+        if (this == JSON) {
+            return JsonUtil.toJsonBytes(obj);
+        }
+        EventoJson evento = EventoJson.iniciar();
+        try {
+            byte[] dados = mapeador().writeValueAsBytes(obj);
+            evento.concluir(EventoJson.SERIALIZAR, obj == null ? null : obj.getClass(), dados.length);
+            return dados;
+        } catch (IOException e) {
+            throw new RuntimeException("Erro ao converter objeto para " + nome, e);
+        }
+    }
+
+    /**
+     * Obtém o leitor de um tipo, criado na primeira consulta. Como no
+     * {@link JsonUtil}, propriedades desconhecidas são ignoradas.
+     *
+     * @param tipo tipo de destino
+     * @return leitor reutilizável e thread-safe
+     * @throws IllegalStateException se o formato não estiver disponível
+     */
+    public ObjectReader leitor(JavaType tipo) {
+        if (this == JSON) {
+            return JsonUtil.leitor(tipo);
+        }
+        return leitores.computeIfAbsent(tipo,
+                t -> mapeador().readerFor(t).without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES));
+    }
+
+    /**
+     * Cria um parser sobre um valor já recebido por inteiro.
+     *
+     * @param dados bytes do valor
+     * @return parser posicionado antes do primeiro token
+     * @throws IOException se não for possível criar o parser
+     */
+    public JsonParser abrirLeitura(byte[] dados) throws IOException {
+        return leitor(OBJETO).createParser(dados);
+    }
+
+    /**
+     * Cria um parser sobre um fluxo, como o de uma mensagem comprimida.
+     *
+     * @param entrada fluxo do valor, fechado junto com o parser
+     * @return parser posicionado antes do primeiro token
+     * @throws IOException se não for possível criar o parser
+     */
+    public JsonParser abrirLeitura(InputStream entrada) throws IOException {
+        return leitor(OBJETO).createParser(entrada);
+    }
+
+    /**
+     * Localiza um formato pelo nome.
+     *
+     * @param nome nome do formato, sem distinção de maiúsculas
+     * @return formato correspondente, ou null se desconhecido
+     */
+    public static Formato porNome(String nome) {
+        for (Formato formato : values()) {
+            if (formato.nome.equalsIgnoreCase(nome.trim())) {
+                return formato;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Interpreta uma lista de formatos separados por vírgula, mantendo a
+     * ordem e descartando os desconhecidos e os indisponíveis.
+     *
+     * @param lista nomes separados por vírgula, possivelmente vazia
+     * @return formatos utilizáveis, em ordem de preferência
+     */
+    public static List<Formato> disponiveis(String lista) {
+        List<Formato> formatos = new ArrayList<>();
+        for (String nome : lista.split(",")) {
+            Formato formato = nome.isBlank() ? null : porNome(nome);
+            if (formato != null && formato.disponivel && !formatos.contains(formato)) {
+                formatos.add(formato);
+            }
+        }
+        return formatos;
+    }
+
+    /**
+     * Obtém o mapeador de um formato binário.
+     *
+     * @return mapeador
+     * @throws IllegalStateException se o módulo não estiver no classpath
+     */
+    private ObjectMapper mapeador() {
+        if (mapper == null) {
+            throw new IllegalStateException("Formato " + nome + " indisponível: módulo do Jackson ausente");
+        }
+        return mapper;
+    }
+
+    /**
+     * Cria o mapeador a partir da fábrica do formato, se ela estiver no
+     * classpath.
+     *
+     * @param fabrica nome da classe da fábrica
+     * @return mapeador, ou null se a fábrica não puder ser carregada
+     */
+    private static ObjectMapper criarMapeador(String fabrica) {
+        try {
+            return new ObjectMapper((JsonFactory) Class.forName(fabrica).getConstructor().newInstance());
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
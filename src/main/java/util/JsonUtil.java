@@ -1,6 +1,17 @@
 package util;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import metrica.EventoJson;
 
 /**
  * Utilitário para conversão entre objetos Java e formato JSON.
@@ -13,6 +24,17 @@ import com.fasterxml.jackson.databind.ObjectMapper;
  * <p>
  * Utiliza um ObjectMapper singleton compartilhado para melhor performance e
  * consistência nas configurações de serialização.</p>
+ *
+ * <p>
+ * Para as respostas do servidor oferece também leitura tipada direto do fluxo
+ * do socket: o {@link JavaType} de destino (ex.: {@code Resposta<List<Produto>>})
+ * é montado uma vez e o {@link ObjectReader} correspondente fica em cache, de
+ * modo que listas grandes são convertidas em uma única passada, sem a árvore
+ * intermediária de {@code Map}/{@code List}.</p>
+ *
+ * <p>
+ * Cada conversão gera um {@link EventoJson} no JDK Flight Recorder, com o
+ * tipo e o tamanho do JSON.</p>
  */
 public class JsonUtil {
 
@@ -25,6 +47,11 @@ public class JsonUtil {
      */
     private static final ObjectMapper mapper = new ObjectMapper();
 
+    /**
+     * Leitores já configurados, por tipo de destino.
+     */
+    private static final Map<JavaType, ObjectReader> leitores = new ConcurrentHashMap<>();
+
     /**
      * Construtor privado para impedir instanciação da classe.
      *
@@ -46,13 +73,37 @@ public class JsonUtil {
      * @throws RuntimeException se ocorrer erro durante a desserialização
      */
     public static <T> T fromJson(String json, Class<T> clazz) {
+        EventoJson evento = EventoJson.iniciar();
         try {
-            return mapper.readValue(json, clazz);
+            T valor = mapper.readValue(json, clazz);
+            evento.concluir(EventoJson.DESSERIALIZAR, clazz, json.length());
+            return valor;
         } catch (Exception e) {
             throw new RuntimeException("Erro ao converter JSON para objeto", e);
         }
     }
 
+    /**
+     * Converte um objeto já desserializado (ex.: {@code Map} ou {@code List})
+     * para o tipo especificado.
+     *
+     * @param <T> tipo de destino
+     * @param valor objeto de origem
+     * @param clazz classe de destino
+     * @return objeto convertido, ou null se a origem for null
+     * @throws RuntimeException se os dados não forem compatíveis com o tipo
+     */
+    public static <T> T converter(Object valor, Class<T> clazz) {
+        EventoJson evento = EventoJson.iniciar();
+        try {
+            T convertido = mapper.convertValue(valor, clazz);
+            evento.concluir(EventoJson.CONVERTER, clazz, 0);
+            return convertido;
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao converter objeto para " + clazz.getSimpleName(), e);
+        }
+    }
+
     /**
      * Converte um objeto Java em sua representação JSON como string.
      *
@@ -61,11 +112,122 @@ public class JsonUtil {
      * @throws RuntimeException se ocorrer erro durante a serialização
      */
     public static String toJson(Object obj) {
+        EventoJson evento = EventoJson.iniciar();
         try {
-            return mapper.writeValueAsString(obj);
+            String json = mapper.writeValueAsString(obj);
+            evento.concluir(EventoJson.SERIALIZAR, obj == null ? null : obj.getClass(), json.length());
+            return json;
         } catch (Exception e) {
             throw new RuntimeException("Erro ao converter objeto para JSON", e);
         }
     }
 
+    /**
+     * Converte um objeto Java em JSON codificado em UTF-8, pronto para ser
+     * escrito em um fluxo.
+     *
+     * @param obj objeto Java a ser serializado
+     * @return bytes do JSON
+     * @throws RuntimeException se ocorrer erro durante a serialização
+     */
+    public static byte[] toJsonBytes(Object obj) {
+        EventoJson evento = EventoJson.iniciar();
+        try {
+            byte[] json = mapper.writeValueAsBytes(obj);
+            evento.concluir(EventoJson.SERIALIZAR, obj == null ? null : obj.getClass(), json.length);
+            return json;
+        } catch (Exception e) {
+            throw new RuntimeException("Erro ao converter objeto para JSON", e);
+        }
+    }
+
+    /**
+     * Monta um tipo genérico, como {@code Resposta<Produto>}.
+     *
+     * @param classe classe genérica
+     * @param parametros tipos dos parâmetros
+     * @return tipo parametrizado
+     */
+    public static JavaType tipo(Class<?> classe, JavaType... parametros) {
+        return mapper.getTypeFactory().constructParametricType(classe, parametros);
+    }
+
+    /**
+     * Monta o tipo de uma classe simples.
+     *
+     * @param classe classe do tipo
+     * @return tipo correspondente
+     */
+    public static JavaType tipo(Class<?> classe) {
+        return mapper.getTypeFactory().constructType(classe);
+    }
+
+    /**
+     * Monta o tipo de uma lista, como {@code List<Produto>}.
+     *
+     * @param elemento classe dos elementos
+     * @return tipo da lista
+     */
+    public static JavaType tipoLista(Class<?> elemento) {
+        return mapper.getTypeFactory().constructCollectionType(List.class, elemento);
+    }
+
+    /**
+     * Obtém o leitor de um tipo, criado na primeira consulta.
+     *
+     * <p>
+     * Propriedades desconhecidas são ignoradas, para que campos novos no
+     * servidor não quebrem o cliente.</p>
+     *
+     * @param tipo tipo de destino
+     * @return leitor reutilizável e thread-safe
+     */
+    public static ObjectReader leitor(JavaType tipo) {
+        return leitores.computeIfAbsent(tipo,
+                t -> mapper.readerFor(t).without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES));
+    }
+
+    /**
+     * Cria um parser de fluxo para ler vários valores JSON em sequência do
+     * mesmo {@link InputStream}. O fluxo não é fechado junto com o parser.
+     *
+     * <p>
+     * A criação lê os primeiros bytes do fluxo para detectar a codificação e
+     * bloqueia até que eles cheguem: em um socket, crie o parser somente
+     * depois de enviar a requisição.</p>
+     *
+     * @param in fluxo de entrada
+     * @return parser posicionado antes do primeiro valor
+     * @throws IOException se não for possível criar o parser
+     */
+    public static JsonParser abrirLeitura(InputStream in) throws IOException {
+        JsonParser parser = mapper.getFactory().createParser(in);
+        parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+        return parser;
+    }
+
+    /**
+     * Lê o próximo valor JSON do parser direto no tipo informado.
+     *
+     * <p>
+     * Para logo após o fim do valor, sem aguardar novos bytes, de modo que o
+     * mesmo parser possa ser usado na próxima resposta da conexão.</p>
+     *
+     * @param <T> tipo de destino
+     * @param parser parser do fluxo
+     * @param tipo tipo de destino
+     * @return valor lido
+     * @throws EOFException se o fluxo terminar antes de um novo valor
+     * @throws IOException se ocorrer falha de leitura ou o JSON for inválido
+     */
+    public static <T> T ler(JsonParser parser, JavaType tipo) throws IOException {
+        if (parser.nextToken() == null) {
+            throw new EOFException("Conexão encerrada pelo servidor");
+        }
+        EventoJson evento = EventoJson.iniciar();
+        long inicio = parser.currentTokenLocation().getByteOffset();
+        T valor = leitor(tipo).readValue(parser);
+        evento.concluir(EventoJson.DESSERIALIZAR, tipo, parser.currentLocation().getByteOffset() - inicio);
+        return valor;
+    }
 }
@@ -1,6 +1,9 @@
 package util;
 
 import java.text.Normalizer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
 
 /**
  * Utilitário para manipulação e normalização de textos.
@@ -10,11 +13,57 @@ import java.text.Normalizer;
  * remoção de acentos, normalização de casos e tratamento de valores nulos.</p>
  *
  * <p>
- * Utiliza a classe Normalizer do Java para processamento de caracteres Unicode
- * e normalização de textos.</p>
+ * Como os métodos são chamados para cada nome comparado (busca, verificação de
+ * duplicidade, importação), o caso comum é resolvido sem alocações extras:
+ * textos só com ASCII são devolvidos como estão e textos em Latin-1 são
+ * convertidos em uma única passada por uma tabela. Apenas os demais passam
+ * pela classe Normalizer do Java, com a expressão regular pré-compilada e um
+ * pequeno cache dos resultados mais recentes.</p>
  */
 public class TextoUtil {
 
+    /**
+     * Marcas diacríticas combinantes que restam após a decomposição NFD.
+     */
+    private static final Pattern DIACRITICOS = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
+
+    /**
+     * Letra sem acento correspondente a cada caractere Latin-1 (U+0000 a
+     * U+00FF). Montada com o próprio Normalizer, para que o resultado seja
+     * idêntico ao da decomposição completa.
+     */
+    private static final char[] SEM_ACENTO = new char[256];
+
+    /**
+     * Quantidade de resultados guardados no cache da decomposição completa.
+     */
+    private static final int TAMANHO_CACHE = 256;
+
+    /**
+     * Resultados recentes da decomposição completa, do menos para o mais
+     * usado.
+     */
+    private static final Map<String, String> CACHE = new LinkedHashMap<>(TAMANHO_CACHE * 2, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> maisAntigo) {
+            return size() > TAMANHO_CACHE;
+        }
+    };
+
+    static {
+        for (char c = 0; c < SEM_ACENTO.length; c++) {
+            String semAcento = decompor(String.valueOf(c));
+            SEM_ACENTO[c] = semAcento.length() == 1 ? semAcento.charAt(0) : c;
+        }
+    }
+
+    /**
+     * Impede instanciação.
+     */
+    private TextoUtil() {
+        // Impede instanciação
+    }
+
     /**
      * Remove todos os acentos e diacríticos de uma string.
      *
@@ -25,10 +74,31 @@ public class TextoUtil {
         if (texto == null) {
             return null;
         }
-
-        String normalizado = Normalizer.normalize(texto, Normalizer.Form.NFD);
-
-        return normalizado.replaceAll("\\p{InCombiningDiacriticalMarks}+", "");
+        int maior = 0;
+        for (int i = 0; i < texto.length(); i++) {
+            maior |= texto.charAt(i);
+        }
+        if (maior < 0x80) {
+            return texto; // só ASCII: nada a remover
+        }
+        if (maior < 0x100) {
+            char[] letras = new char[texto.length()];
+            for (int i = 0; i < letras.length; i++) {
+                letras[i] = SEM_ACENTO[texto.charAt(i)];
+            }
+            return new String(letras);
+        }
+        synchronized (CACHE) {
+            String guardado = CACHE.get(texto);
+            if (guardado != null) {
+                return guardado;
+            }
+        }
+        String semAcentos = decompor(texto);
+        synchronized (CACHE) {
+            CACHE.put(texto, semAcentos);
+        }
+        return semAcentos;
     }
 
     /**
@@ -43,9 +113,16 @@ public class TextoUtil {
         if (texto == null) {
             return "";
         }
-        String semAcentos = Normalizer.normalize(texto, Normalizer.Form.NFD)
-                .replaceAll("\\p{InCombiningDiacriticalMarks}+", "");
-        return semAcentos.trim().toUpperCase();
+        return removerAcentos(texto).trim().toUpperCase();
     }
 
+    /**
+     * Remove os acentos pela decomposição NFD completa.
+     *
+     * @param texto string de entrada
+     * @return string sem as marcas diacríticas
+     */
+    private static String decompor(String texto) {
+        return DIACRITICOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+    }
 }
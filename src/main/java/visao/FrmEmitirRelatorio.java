@@ -8,14 +8,25 @@ import javax.swing.filechooser.FileNameExtensionFilter;
 import com.itextpdf.text.Document;
 import com.itextpdf.text.Font;
 import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.Rectangle;
+import com.itextpdf.text.pdf.BaseFont;
+import com.itextpdf.text.pdf.PdfContentByte;
 import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPCellEvent;
 import com.itextpdf.text.pdf.PdfPTable;
 import com.itextpdf.text.pdf.PdfWriter;
+import java.io.BufferedOutputStream;
 import java.io.FileOutputStream;
+import java.io.OutputStream;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import metrica.EventoRelatorio;
 import modelo.Relatorio;
+import servico.Paginador;
 import servico.RelatorioServico;
 
 /**
@@ -42,6 +53,46 @@ public class FrmEmitirRelatorio extends javax.swing.JFrame {
      */
     private String caminhoArquivoSelecionado = null;
 
+    /**
+     * Executor da busca e da geração do relatório fora da thread de eventos.
+     */
+    private final GerenciadorTarefas tarefas = new GerenciadorTarefas(this);
+
+    /**
+     * Quantidade de linhas acumuladas na tabela antes de gravá-las no arquivo.
+     */
+    private static final int LINHAS_POR_DESCARGA = 500;
+
+    /**
+     * Espaçamento interno das células de dados.
+     */
+    private static final float ESPACAMENTO = 4;
+
+    /**
+     * Fonte do título do relatório.
+     */
+    private static final Font FONTE_TITULO = new Font(Font.FontFamily.HELVETICA, 16, Font.BOLD);
+
+    /**
+     * Fonte da data de geração.
+     */
+    private static final Font FONTE_DATA = new Font(Font.FontFamily.HELVETICA, 10);
+
+    /**
+     * Fonte do cabeçalho da tabela.
+     */
+    private static final Font FONTE_CABECALHO = new Font(Font.FontFamily.HELVETICA, 10, Font.BOLD);
+
+    /**
+     * Fonte das linhas da tabela.
+     */
+    private static final Font FONTE_DADOS = new Font(Font.FontFamily.HELVETICA, 9);
+
+    /**
+     * Fonte do total de registros.
+     */
+    private static final Font FONTE_TOTAL = new Font(Font.FontFamily.HELVETICA, 10, Font.BOLD);
+
     /**
      * Construtor que inicializa os componentes da interface.
      */
@@ -184,17 +235,18 @@ public class FrmEmitirRelatorio extends javax.swing.JFrame {
      * Processa a emissão do relatório quando o botão Emitir é acionado.
      *
      * <p>
-     * Recupera os dados do servidor através do RelatorioServico, converte os
-     * dados para objetos Relatorio e gera o arquivo PDF no local selecionado
-     * pelo usuário.</p>
+     * Recupera os dados do servidor através do RelatorioServico, já lidos como
+     * objetos Relatorio, e gera o arquivo PDF no local selecionado pelo
+     * usuário.</p>
      *
      * <p>
      * <b>Fluxo de execução:</b></p>
      * <ol>
      * <li>Valida se um local de salvamento foi selecionado</li>
-     * <li>Recupera dados do relatório do servidor</li>
-     * <li>Converte os dados para objetos Relatorio</li>
-     * <li>Chama o método de geração do PDF</li>
+     * <li>Recupera os dados do relatório do servidor, página a página, à
+     * medida que o PDF é gerado</li>
+     * <li>Chama o método de geração do PDF em segundo plano, com monitor de
+     * progresso e opção de cancelamento</li>
      * <li>Exibe feedback sobre o resultado da operação</li>
      * </ol>
      *
@@ -215,51 +267,17 @@ public class FrmEmitirRelatorio extends javax.swing.JFrame {
             return;
         }
 
-        try {
+        String caminhoArquivo = caminhoArquivoSelecionado;
+        tarefas.executarComProgresso("emitir", "Gerando relatório...", progresso -> {
             RelatorioServico servico = new RelatorioServico();
-            var resposta = servico.listarRelatorio();
+            Paginador<Relatorio> relatorios = servico.percorrerRelatorio();
 
-            if (!"sucesso".equalsIgnoreCase(resposta.getStatus())) {
-                JOptionPane.showMessageDialog(this, "Erro ao buscar relatórios: " + resposta.getMensagem());
-                return;
-            }
-
-            List<?> dados = (List<?>) resposta.getDados();
-            List<Relatorio> relatorios = new java.util.ArrayList<>();
-
-            for (Object obj : dados) {
-                if (obj instanceof java.util.Map) {
-                    java.util.Map<?, ?> map = (java.util.Map<?, ?>) obj;
-
-                    Relatorio r = new Relatorio();
-                    r.setId(((Number) map.get("id")).intValue());
-                    r.setProdutoId(((Number) map.get("produtoId")).intValue());
-                    r.setNomeProduto((String) map.get("nomeProduto"));
-                    r.setQuantidade(((Number) map.get("quantidade")).intValue());
-                    r.setMovimentacao((String) map.get("movimentacao"));
-                    r.setStatus((String) map.get("status"));
-
-                    Object dataObj = map.get("data");
-                    if (dataObj != null) {
-                        try {
-                            long timestamp = Long.parseLong(dataObj.toString());
-                            r.setData(new java.util.Date(timestamp));
-                        } catch (NumberFormatException ex) {
-                            r.setData(null); // caso ocorra erro
-                        }
-                    }
-
-                    relatorios.add(r);
-                }
-            }
-
-            gerarPdf(relatorios, caminhoArquivoSelecionado);
-            JOptionPane.showMessageDialog(this, "Relatório gerado com sucesso em:\n" + caminhoArquivoSelecionado);
-
-        } catch (Exception e) {
+            gerarPdf(relatorios, caminhoArquivo, progresso);
+            return caminhoArquivo;
+        }, caminho -> JOptionPane.showMessageDialog(this, "Relatório gerado com sucesso em:\n" + caminho), e -> {
             e.printStackTrace();
             JOptionPane.showMessageDialog(this, "Erro ao gerar relatório: " + e.getMessage());
-        }
+        });
 
     }//GEN-LAST:event_JBEmitirActionPerformed
 
@@ -307,24 +325,48 @@ public class FrmEmitirRelatorio extends javax.swing.JFrame {
      * rodapé contendo o total de registros. A tabela inclui formatação com
      * cores e alinhamentos específicos para melhor legibilidade.</p>
      *
-     * @param relatorios lista de registros a serem incluídos no relatório
+     * <p>
+     * A tabela é gravada de forma incremental: ela é marcada como incompleta e
+     * adicionada ao documento a cada {@link #LINHAS_POR_DESCARGA} linhas, o que
+     * grava as páginas prontas no arquivo e libera as linhas já escritas. Com os
+     * dados também consumidos página a página, a memória usada não depende do
+     * número de registros. O cabeçalho da tabela se repete em cada página.</p>
+     *
+     * <p>
+     * Cada bloco passa por busca, mapeamento para texto, montagem das células
+     * e gravação, e cada fase gera um {@link EventoRelatorio} no JDK Flight
+     * Recorder.</p>
+     *
+     * <p>
+     * Executado fora da EDT: não exibe diálogos, informa o progresso a cada
+     * descarga e, se a tarefa for cancelada, interrompe a geração e apaga o
+     * arquivo parcial. Não depende do estado da janela; é visível no pacote
+     * para ser medido pelos benchmarks.</p>
+     *
+     * @param relatorios registros a serem incluídos no relatório, buscados
+     * página a página
      * @param caminhoArquivo caminho completo onde o arquivo será salvo
+     * @param progresso canal de progresso e cancelamento da tarefa
+     * @throws Exception se ocorrer erro na escrita do arquivo
+     * @throws CancellationException se a tarefa for cancelada
      */
-    private void gerarPdf(List<Relatorio> relatorios, String caminhoArquivo) {
-        try {
-            Document document = new Document();
-            PdfWriter.getInstance(document, new FileOutputStream(caminhoArquivo));
+    static void gerarPdf(Paginador<Relatorio> relatorios, String caminhoArquivo,
+            GerenciadorTarefas.Progresso progresso) throws Exception {
+        Document document = new Document();
+        boolean concluido = false;
+        try (OutputStream saida = new BufferedOutputStream(new FileOutputStream(caminhoArquivo))) {
+            PdfWriter escritor = PdfWriter.getInstance(document, saida);
             document.open();
 
+            SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy HH:mm");
+
             // ====== Título ======
-            Font tituloFont = new Font(Font.FontFamily.HELVETICA, 16, Font.BOLD);
-            Paragraph titulo = new Paragraph("RELATÓRIO DE MOVIMENTAÇÕES", tituloFont);
+            Paragraph titulo = new Paragraph("RELATÓRIO DE MOVIMENTAÇÕES", FONTE_TITULO);
             titulo.setAlignment(Paragraph.ALIGN_CENTER);
             document.add(titulo);
 
             // Data de geração
-            Font dataFont = new Font(Font.FontFamily.HELVETICA, 10);
-            Paragraph dataGeracao = new Paragraph("Gerado em: " + new SimpleDateFormat("dd/MM/yyyy HH:mm").format(new Date()), dataFont);
+            Paragraph dataGeracao = new Paragraph("Gerado em: " + sdf.format(new Date()), FONTE_DATA);
             dataGeracao.setAlignment(Paragraph.ALIGN_CENTER);
             document.add(dataGeracao);
 
@@ -334,67 +376,175 @@ public class FrmEmitirRelatorio extends javax.swing.JFrame {
             PdfPTable table = new PdfPTable(6);
             table.setWidthPercentage(100);
             table.setWidths(new float[]{1f, 2f, 3f, 1.5f, 2f, 2f});
+            table.setHeaderRows(1);
+            table.setComplete(false);
 
             // Cabeçalho com cor
-            Font cabecalhoFont = new Font(Font.FontFamily.HELVETICA, 10, Font.BOLD);
             String[] cabecalho = {"ID", "Data/Hora", "Produto", "Quantidade", "Movimentação", "Status"};
+            PdfPCell cabecalhoCell = new PdfPCell();
+            cabecalhoCell.setHorizontalAlignment(PdfPCell.ALIGN_CENTER);
+            cabecalhoCell.setBackgroundColor(new BaseColor(220, 220, 220)); // Cinza mais escuro
+            cabecalhoCell.setPadding(5);
             for (String col : cabecalho) {
-                PdfPCell cell = new PdfPCell(new Paragraph(col, cabecalhoFont));
-                cell.setHorizontalAlignment(PdfPCell.ALIGN_CENTER);
-                cell.setBackgroundColor(new BaseColor(220, 220, 220)); // Cinza mais escuro
-                cell.setPadding(5);
-                table.addCell(cell);
+                adicionarCelula(table, cabecalhoCell, col, FONTE_CABECALHO);
             }
 
-            // Dados da tabela
-            SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy HH:mm");
-            Font dadosFont = new Font(Font.FontFamily.HELVETICA, 9);
-
-            for (Relatorio r : relatorios) {
-                PdfPCell idCell = new PdfPCell(new Paragraph(String.valueOf(r.getId()), dadosFont));
-                idCell.setHorizontalAlignment(PdfPCell.ALIGN_CENTER);
-                idCell.setPadding(4);
-                table.addCell(idCell);
-
-                PdfPCell dataCell = new PdfPCell(new Paragraph(sdf.format(r.getData()), dadosFont));
-                dataCell.setHorizontalAlignment(PdfPCell.ALIGN_CENTER);
-                dataCell.setPadding(4);
-                table.addCell(dataCell);
-
-                PdfPCell produtoCell = new PdfPCell(new Paragraph(r.getNomeProduto(), dadosFont));
-                produtoCell.setHorizontalAlignment(PdfPCell.ALIGN_LEFT);
-                produtoCell.setPadding(4);
-                table.addCell(produtoCell);
-
-                PdfPCell qtdCell = new PdfPCell(new Paragraph(String.valueOf(r.getQuantidade()), dadosFont));
-                qtdCell.setHorizontalAlignment(PdfPCell.ALIGN_CENTER);
-                qtdCell.setPadding(4);
-                table.addCell(qtdCell);
-
-                PdfPCell movCell = new PdfPCell(new Paragraph(r.getMovimentacao(), dadosFont));
-                movCell.setHorizontalAlignment(PdfPCell.ALIGN_CENTER);
-                movCell.setPadding(4);
-                table.addCell(movCell);
-
-                PdfPCell statusCell = new PdfPCell(new Paragraph(r.getStatus(), dadosFont));
-                statusCell.setHorizontalAlignment(PdfPCell.ALIGN_CENTER);
-                statusCell.setPadding(4);
-                table.addCell(statusCell);
+            // Dados da tabela: modelos de célula reaproveitados em todas as linhas
+            PdfPCell centro = new PdfPCell();
+            centro.setPadding(ESPACAMENTO);
+            centro.setFixedHeight(2 * ESPACAMENTO + FONTE_DADOS.getSize());
+            PdfPCell esquerda = new PdfPCell();
+            esquerda.setHorizontalAlignment(PdfPCell.ALIGN_LEFT);
+            esquerda.setPadding(ESPACAMENTO);
+
+            Long totalServidor = relatorios.getTotal();
+            List<Relatorio> bloco = new ArrayList<>(LINHAS_POR_DESCARGA);
+            String[][] textos = new String[LINHAS_POR_DESCARGA][];
+            int linhas = 0;
+            while (true) {
+                EventoRelatorio fase = EventoRelatorio.iniciar();
+                bloco.clear();
+                while (bloco.size() < LINHAS_POR_DESCARGA && relatorios.hasNext()) {
+                    if (progresso.cancelado()) {
+                        throw new CancellationException("Geração do relatório cancelada");
+                    }
+                    bloco.add(relatorios.next());
+                }
+                fase.concluir(EventoRelatorio.BUSCA, bloco.size(), 0);
+                if (bloco.isEmpty()) {
+                    break;
+                }
+
+                fase = EventoRelatorio.iniciar();
+                for (int i = 0; i < bloco.size(); i++) {
+                    Relatorio r = bloco.get(i);
+                    textos[i] = new String[]{String.valueOf(r.getId()),
+                        r.getData() == null ? "-" : sdf.format(r.getData()), r.getNomeProduto(),
+                        String.valueOf(r.getQuantidade()), r.getMovimentacao(), r.getStatus()};
+                }
+                fase.concluir(EventoRelatorio.MAPEAMENTO, bloco.size(), 0);
+
+                fase = EventoRelatorio.iniciar();
+                for (int i = 0; i < bloco.size(); i++) {
+                    String[] texto = textos[i];
+                    adicionarTextoCurto(table, centro, texto[0]);
+                    adicionarTextoCurto(table, centro, texto[1]);
+                    adicionarCelula(table, esquerda, texto[2], FONTE_DADOS);
+                    adicionarTextoCurto(table, centro, texto[3]);
+                    adicionarTextoCurto(table, centro, texto[4]);
+                    adicionarTextoCurto(table, centro, texto[5]);
+                }
+                fase.concluir(EventoRelatorio.MONTAGEM, bloco.size(), 0);
+
+                fase = EventoRelatorio.iniciar();
+                long gravados = escritor.getOs().getCounter();
+                document.add(table); // grava as linhas prontas e as descarta da tabela
+                fase.concluir(EventoRelatorio.GRAVACAO, bloco.size(), escritor.getOs().getCounter() - gravados);
+
+                linhas += bloco.size();
+                if (totalServidor != null && totalServidor > 0) {
+                    progresso.informar((int) (linhas * 100 / totalServidor));
+                }
             }
 
+            EventoRelatorio fase = EventoRelatorio.iniciar();
+            long gravados = escritor.getOs().getCounter();
+            table.setComplete(true);
             document.add(table);
 
             // Total de registros
-            Font totalFont = new Font(Font.FontFamily.HELVETICA, 10, Font.BOLD);
-            Paragraph total = new Paragraph("Total de registros: " + relatorios.size(), totalFont);
+            Paragraph total = new Paragraph("Total de registros: " + linhas, FONTE_TOTAL);
             total.setAlignment(Paragraph.ALIGN_LEFT);
             document.add(new Paragraph(" "));
             document.add(total);
 
             document.close();
-            JOptionPane.showMessageDialog(null, "PDF gerado com sucesso!");
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(null, "Erro ao gerar PDF: " + e.getMessage());
+            fase.concluir(EventoRelatorio.GRAVACAO, 0, escritor.getOs().getCounter() - gravados);
+            concluido = true;
+        } finally {
+            if (!concluido) {
+                if (document.isOpen()) {
+                    try {
+                        document.close();
+                    } catch (RuntimeException e) {
+                        // Documento incompleto: o arquivo é descartado abaixo
+                    }
+                }
+                new File(caminhoArquivo).delete();
+            }
+        }
+    }
+
+    /**
+     * Adiciona à tabela uma célula de uma linha só, centralizada.
+     *
+     * <p>
+     * A célula é criada vazia e com altura fixa, e o texto é escrito por um
+     * {@link TextoCentralizado} quando a linha é desenhada. Isso evita a
+     * simulação de layout que o iText faz para calcular a altura de cada
+     * célula com texto, que é a parte mais cara de tabelas com muitas linhas.
+     * Serve para conteúdos curtos que sempre cabem na coluna (números, datas e
+     * status).</p>
+     *
+     * @param table tabela de destino
+     * @param modelo célula vazia com altura fixa e espaçamento
+     * @param texto conteúdo da célula; null é exibido como "-"
+     */
+    private static void adicionarTextoCurto(PdfPTable table, PdfPCell modelo, String texto) {
+        modelo.setCellEvent(null);
+        modelo.setCellEvent(new TextoCentralizado(texto == null ? "-" : texto));
+        table.addCell(modelo);
+    }
+
+    /**
+     * Adiciona uma célula à tabela a partir de um modelo.
+     *
+     * <p>
+     * A tabela guarda uma cópia da célula, portanto o mesmo modelo pode ser
+     * reaproveitado para todas as células com a mesma formatação.</p>
+     *
+     * @param table tabela de destino
+     * @param modelo célula com alinhamento, cor e espaçamento desejados
+     * @param texto conteúdo da célula; null é exibido como "-"
+     * @param fonte fonte do conteúdo
+     */
+    private static void adicionarCelula(PdfPTable table, PdfPCell modelo, String texto, Font fonte) {
+        modelo.setPhrase(new Phrase(texto == null ? "-" : texto, fonte));
+        table.addCell(modelo);
+    }
+
+    /**
+     * Escreve uma linha de texto centralizada na célula, com a fonte das
+     * linhas da tabela.
+     */
+    private static final class TextoCentralizado implements PdfPCellEvent {
+
+        /**
+         * Texto a escrever.
+         */
+        private final String texto;
+
+        /**
+         * Cria o evento.
+         *
+         * @param texto texto a escrever
+         */
+        TextoCentralizado(String texto) {
+            this.texto = texto;
+        }
+
+        @Override
+        public void cellLayout(PdfPCell cell, Rectangle posicao, PdfContentByte[] canvases) {
+            BaseFont fonte = FONTE_DADOS.getCalculatedBaseFont(false);
+            float tamanho = FONTE_DADOS.getSize();
+            // Mesma linha de base das células de texto comuns: a célula tem o
+            // espaçamento, a altura da fonte e o espaçamento
+            float base = posicao.getBottom() + ESPACAMENTO;
+            PdfContentByte canvas = canvases[PdfPTable.TEXTCANVAS];
+            canvas.beginText();
+            canvas.setFontAndSize(fonte, tamanho);
+            canvas.showTextAligned(PdfContentByte.ALIGN_CENTER, texto, (posicao.getLeft() + posicao.getRight()) / 2, base, 0);
+            canvas.endText();
         }
     }
 
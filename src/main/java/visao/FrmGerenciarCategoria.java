@@ -1,16 +1,26 @@
 package visao;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import controlador.CategoriaControlador;
+import dto.Alteracoes;
+import dto.Notificacao;
 import dto.Resposta;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import java.text.Normalizer;
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 import javax.swing.table.DefaultTableModel;
+import metrica.EventoTabela;
 import modelo.Categoria;
+import modelo.enums.Acao;
 import modelo.enums.Embalagem;
 import modelo.enums.Tamanho;
+import socket.CanalNotificacoes;
 import util.TextoUtil;
 
 /**
@@ -24,6 +34,17 @@ import util.TextoUtil;
  * <p>
  * Utiliza um controlador para comunicação com a camada de serviço e formatação
  * adequada dos dados para exibição na interface gráfica.</p>
+ *
+ * <p>
+ * Enquanto a janela está aberta, as alterações de categorias feitas por
+ * outros operadores chegam pelo canal de notificações e atualizam apenas a
+ * linha correspondente.</p>
+ *
+ * <p>
+ * Ao abrir, a tabela é preenchida de imediato com a cópia local da última
+ * sessão. Se o servidor estiver indisponível a janela continua exibindo a
+ * cópia em {@link ModoSomenteLeitura}, com as operações de escrita
+ * desabilitadas, até que uma nova tentativa de carga tenha sucesso.</p>
  */
 public class FrmGerenciarCategoria extends javax.swing.JFrame {
 
@@ -32,11 +53,6 @@ public class FrmGerenciarCategoria extends javax.swing.JFrame {
      */
     private CategoriaControlador categoriaControlador;
 
-    /**
-     * Mapeador JSON para conversão de objetos.
-     */
-    private ObjectMapper mapper;
-
     /**
      * Modelo de dados para a tabela de categorias.
      */
@@ -47,13 +63,38 @@ public class FrmGerenciarCategoria extends javax.swing.JFrame {
      */
     private String[] colunas = {"ID", "Nome", "Tamanho", "Embalagem"};
 
+    /**
+     * Executor das chamadas ao servidor fora da thread de eventos.
+     */
+    private final GerenciadorTarefas tarefas = new GerenciadorTarefas(this);
+
+    /**
+     * Versão das categorias exibidas na tabela, ou 0 antes da primeira carga.
+     */
+    private long versaoTabela;
+
+    /**
+     * Assinatura das alterações de categorias, cancelada ao fechar a janela.
+     */
+    private final CanalNotificacoes.Assinatura assinatura;
+
+    /**
+     * Indica que chegou uma notificação enquanto a carga das categorias estava
+     * em andamento, e que ela pode não estar refletida no resultado.
+     */
+    private boolean alteradoDuranteCarga;
+
+    /**
+     * Modo ativado enquanto o servidor estiver indisponível.
+     */
+    private final ModoSomenteLeitura somenteLeitura;
+
     /**
      * Construtor que inicializa os componentes e configura a interface.
      */
     public FrmGerenciarCategoria() {
         initComponents();
         this.categoriaControlador = new CategoriaControlador();
-        this.mapper = new ObjectMapper();
         JTableCategoria.setColumnSelectionAllowed(true);
         tabela = new DefaultTableModel(colunas, 0) {
             @Override
@@ -62,7 +103,19 @@ public class FrmGerenciarCategoria extends javax.swing.JFrame {
             }
         };
         JTableCategoria.setModel(tabela);
+        somenteLeitura = new ModoSomenteLeitura(this, this::carregarCategoriasNaTela,
+                BtnCriarCategoria, JBAlterarGerenciamentoC, JBExcluirGerenciamentoC);
+        exibirCopiaLocal();
         carregarCategoriasNaTela();
+
+        assinatura = categoriaControlador.ouvirAlteracoes(
+                notificacao -> SwingUtilities.invokeLater(() -> receberCategoria(notificacao)));
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                assinatura.close();
+            }
+        });
     }
 
     /**
@@ -77,25 +130,157 @@ public class FrmGerenciarCategoria extends javax.swing.JFrame {
     }
 
     /**
-     * Carrega todas as categorias do servidor e exibe na tabela.
+     * Carrega as categorias do servidor e exibe na tabela.
      *
      * <p>
-     * Recupera a lista de categorias através do controlador, converte os dados
-     * para o formato adequado e popula a tabela da interface gráfica.</p>
+     * Recupera as categorias através do controlador, converte os dados para o
+     * formato adequado e popula a tabela da interface gráfica. Uma recarga em
+     * andamento é substituída pela mais recente.</p>
+     *
+     * <p>
+     * Depois da primeira carga, são pedidas apenas as categorias alteradas
+     * desde a versão exibida, e só as linhas correspondentes são incluídas,
+     * alteradas ou removidas.</p>
+     *
+     * <p>
+     * Se o servidor estiver indisponível a tabela não é alterada e a janela
+     * entra em modo somente leitura; a primeira carga bem-sucedida sai
+     * dele.</p>
      */
     private void carregarCategoriasNaTela() {
-        Resposta<?> resposta = categoriaControlador.listarCategoria();
+        long desde = versaoTabela;
+        tarefas.executar("categorias", GerenciadorTarefas.Politica.SUBSTITUIR, progresso -> {
+            Resposta<Alteracoes<Categoria>> resposta = categoriaControlador.sincronizar(desde);
+            if (resposta.getErro() != null) {
+                return null; // servidor indisponível
+            }
+            if (resposta.getDados() == null) {
+                throw new RuntimeException("Erro ao listar categorias: " + resposta.getMensagem());
+            }
+            return resposta.getDados();
+        }, alteracoes -> {
+            if (alteracoes == null) {
+                somenteLeitura.entrar(categoriaControlador.copiaLocalAtualizadaEm());
+                return;
+            }
+            somenteLeitura.sair();
+            if (alteradoDuranteCarga) {
+                // Notificações recebidas durante a carga podem não estar nela
+                alteradoDuranteCarga = false;
+                SwingUtilities.invokeLater(this::carregarCategoriasNaTela);
+            }
+            versaoTabela = alteracoes.getVersao() == null ? 0 : alteracoes.getVersao();
+            EventoTabela evento = EventoTabela.iniciar();
+            if (alteracoes.isCompleto()) {
+                tabela.setRowCount(0);
+                for (Categoria c : alteracoes.getAlterados()) {
+                    tabela.addRow(new Object[]{c.getId(), c.getNome(), c.getTamanho(), c.getEmbalagem()});
+                }
+                evento.concluir("categorias", alteracoes.getAlterados().size(), true);
+                return;
+            }
 
-        Categoria[] categoriasArray = mapper.convertValue(resposta.getDados(), Categoria[].class);
+            Map<Object, Integer> posicoes = new HashMap<>();
+            for (int i = 0; i < tabela.getRowCount(); i++) {
+                posicoes.put(tabela.getValueAt(i, 0), i);
+            }
+            for (Categoria c : alteracoes.getAlterados()) {
+                Integer posicao = posicoes.get(c.getId());
+                if (posicao == null) {
+                    tabela.addRow(new Object[]{c.getId(), c.getNome(), c.getTamanho(), c.getEmbalagem()});
+                    posicoes.put(c.getId(), tabela.getRowCount() - 1);
+                } else {
+                    tabela.setValueAt(c.getNome(), posicao, 1);
+                    tabela.setValueAt(c.getTamanho(), posicao, 2);
+                    tabela.setValueAt(c.getEmbalagem(), posicao, 3);
+                }
+            }
+            // Remove de baixo para cima para não deslocar as posições ainda a remover
+            List<Integer> remover = new ArrayList<>();
+            for (Integer id : alteracoes.getRemovidos()) {
+                Integer posicao = posicoes.get(id);
+                if (posicao != null) {
+                    remover.add(posicao);
+                }
+            }
+            remover.sort(Collections.reverseOrder());
+            for (int posicao : remover) {
+                tabela.removeRow(posicao);
+            }
+            evento.concluir("categorias", alteracoes.getAlterados().size() + remover.size(), false);
+        });
+    }
 
-        List<Categoria> categorias = Arrays.asList(categoriasArray);
+    /**
+     * Exibe a cópia local das categorias, sem ir ao servidor.
+     *
+     * <p>
+     * Chamado ao abrir a janela, antes da primeira carga. A versão da cópia
+     * passa a ser a exibida, de modo que a carga peça ao servidor só o que
+     * mudou desde a última sessão.</p>
+     */
+    private void exibirCopiaLocal() {
+        Alteracoes<Categoria> categorias = categoriaControlador.lerCopiaLocal();
+        if (categorias == null) {
+            return;
+        }
+        EventoTabela evento = EventoTabela.iniciar();
+        for (Categoria c : categorias.getAlterados()) {
+            tabela.addRow(new Object[]{c.getId(), c.getNome(), c.getTamanho(), c.getEmbalagem()});
+        }
+        versaoTabela = categorias.getVersao();
+        evento.concluir("categorias-copia", categorias.getAlterados().size(), true);
+    }
 
-        tabela.setRowCount(0);
-        for (Categoria c : categorias) {
+    /**
+     * Aplica à tabela a alteração de uma categoria feita por qualquer cliente.
+     *
+     * <p>
+     * Apenas a linha da categoria é incluída, alterada ou removida. Durante
+     * uma carga a notificação é adiada: a carga é repetida ao terminar,
+     * pedindo só o que mudou.</p>
+     *
+     * @param notificacao alteração recebida, na thread de eventos
+     */
+    private void receberCategoria(Notificacao<Categoria> notificacao) {
+        if (tarefas.emAndamento("categorias")) {
+            alteradoDuranteCarga = true;
+            return;
+        }
+        if (notificacao.isSincronizar()) {
+            carregarCategoriasNaTela();
+            return;
+        }
+        int linha = localizarLinha(notificacao.getId());
+        Categoria c = notificacao.getDados();
+        if (notificacao.getAcao() == Acao.DELETAR) {
+            if (linha != -1) {
+                tabela.removeRow(linha);
+            }
+        } else if (c != null && linha == -1) {
             tabela.addRow(new Object[]{c.getId(), c.getNome(), c.getTamanho(), c.getEmbalagem()});
+        } else if (c != null) {
+            tabela.setValueAt(c.getNome(), linha, 1);
+            tabela.setValueAt(c.getTamanho(), linha, 2);
+            tabela.setValueAt(c.getEmbalagem(), linha, 3);
         }
     }
 
+    /**
+     * Localiza a linha da tabela que exibe a categoria informada.
+     *
+     * @param id identificador da categoria
+     * @return índice da linha, ou -1 se a categoria não estiver na tabela
+     */
+    private int localizarLinha(Integer id) {
+        for (int i = 0; i < tabela.getRowCount(); i++) {
+            if (id.equals(tabela.getValueAt(i, 0))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     @SuppressWarnings("unchecked")
     // <editor-fold defaultstate="collapsed" desc="Generated Code">//GEN-BEGIN:initComponents
     private void initComponents() {
@@ -296,21 +481,30 @@ public class FrmGerenciarCategoria extends javax.swing.JFrame {
         Embalagem embalagem = Embalagem.valueOf(embalagemNormalizado);
 
         Categoria cat = new Categoria(id, nome, tamanho, embalagem);
-        Resposta<?> resposta = categoriaControlador.atualizarCategoria(cat);
-
-        if ("sucesso".equalsIgnoreCase(resposta.getStatus())) {
+        if (categoriaControlador.nomeEmUso(cat)) {
             JOptionPane.showMessageDialog(this,
-                    "Categoria atualizada com sucesso!", // Confirmação simples
-                    "Sucesso",
-                    JOptionPane.INFORMATION_MESSAGE);
-            carregarCategoriasNaTela();
-            limparCampos();
-        } else {
-            JOptionPane.showMessageDialog(this,
-                    "Erro ao alterar categoria: " + resposta.getMensagem(),
-                    "Erro",
+                    "Já existe uma categoria com o nome " + nome + ".",
+                    "Erro de Validação",
                     JOptionPane.ERROR_MESSAGE);
+            return;
         }
+        tarefas.executar("alterar", GerenciadorTarefas.Politica.IGNORAR,
+                progresso -> categoriaControlador.atualizarCategoria(cat),
+                resposta -> {
+                    if ("sucesso".equalsIgnoreCase(resposta.getStatus())) {
+                        JOptionPane.showMessageDialog(this,
+                                "Categoria atualizada com sucesso!", // Confirmação simples
+                                "Sucesso",
+                                JOptionPane.INFORMATION_MESSAGE);
+                        carregarCategoriasNaTela();
+                        limparCampos();
+                    } else {
+                        JOptionPane.showMessageDialog(this,
+                                "Erro ao alterar categoria: " + resposta.getMensagem(),
+                                "Erro",
+                                JOptionPane.ERROR_MESSAGE);
+                    }
+                });
     }//GEN-LAST:event_JBAlterarGerenciamentoCActionPerformed
 
     /**
@@ -379,30 +573,30 @@ public class FrmGerenciarCategoria extends javax.swing.JFrame {
             return;
         }
 
-        try {
-            Resposta<?> resposta = categoriaControlador.deletarCategoria(id);
-
-            if ("sucesso".equalsIgnoreCase(resposta.getStatus())) {
-                JOptionPane.showMessageDialog(this,
-                        "Categoria '" + nomeCategoria + "' excluída com sucesso!",
-                        "Sucesso",
-                        JOptionPane.INFORMATION_MESSAGE);
-                carregarCategoriasNaTela();
-                limparCampos();
-            } else {
-                JOptionPane.showMessageDialog(this,
-                        "Erro ao excluir categoria: " + resposta.getMensagem(),
-                        "Erro",
-                        JOptionPane.ERROR_MESSAGE);
-            }
-        } catch (Exception e) {
-            System.out.println("EXCEÇÃO: " + e.getMessage());
-            e.printStackTrace();
-            JOptionPane.showMessageDialog(this,
-                    "Erro ao excluir categoria: " + e.getMessage(),
-                    "Erro",
-                    JOptionPane.ERROR_MESSAGE);
-        }
+        tarefas.executar("excluir", GerenciadorTarefas.Politica.IGNORAR,
+                progresso -> categoriaControlador.deletarCategoria(id),
+                resposta -> {
+                    if ("sucesso".equalsIgnoreCase(resposta.getStatus())) {
+                        JOptionPane.showMessageDialog(this,
+                                "Categoria '" + nomeCategoria + "' excluída com sucesso!",
+                                "Sucesso",
+                                JOptionPane.INFORMATION_MESSAGE);
+                        carregarCategoriasNaTela();
+                        limparCampos();
+                    } else {
+                        JOptionPane.showMessageDialog(this,
+                                "Erro ao excluir categoria: " + resposta.getMensagem(),
+                                "Erro",
+                                JOptionPane.ERROR_MESSAGE);
+                    }
+                }, e -> {
+                    System.out.println("EXCEÇÃO: " + e.getMessage());
+                    e.printStackTrace();
+                    JOptionPane.showMessageDialog(this,
+                            "Erro ao excluir categoria: " + e.getMessage(),
+                            "Erro",
+                            JOptionPane.ERROR_MESSAGE);
+                });
     }//GEN-LAST:event_JBExcluirGerenciamentoCActionPerformed
 
     /**
@@ -417,6 +611,8 @@ public class FrmGerenciarCategoria extends javax.swing.JFrame {
      * <ul>
      * <li>Nome da categoria não pode estar vazio</li>
      * <li>Conversão dos valores dos combobox para os enums correspondentes</li>
+     * <li>Nome ainda não usado por outra categoria (RN01), conferido
+     * localmente antes do envio</li>
      * </ul>
      *
      * @param evt evento de ação do botão
@@ -441,21 +637,30 @@ public class FrmGerenciarCategoria extends javax.swing.JFrame {
         Embalagem embalagem = Embalagem.valueOf(embalagemNormalizado);
 
         Categoria cat = new Categoria(null, nome, tamanho, embalagem);
-        Resposta<?> resposta = categoriaControlador.criarCategoria(cat);
-
-        if ("sucesso".equalsIgnoreCase(resposta.getStatus())) {
-            JOptionPane.showMessageDialog(this,
-                    "Categoria criada com sucesso!",
-                    "Sucesso",
-                    JOptionPane.INFORMATION_MESSAGE);
-            carregarCategoriasNaTela();
-            limparCampos();
-        } else {
+        if (categoriaControlador.nomeEmUso(cat)) {
             JOptionPane.showMessageDialog(this,
-                    "Erro ao criar categoria: " + resposta.getMensagem(),
-                    "Erro",
+                    "Já existe uma categoria com o nome " + nome + ".",
+                    "Erro de Validação",
                     JOptionPane.ERROR_MESSAGE);
+            return;
         }
+        tarefas.executar("criar", GerenciadorTarefas.Politica.IGNORAR,
+                progresso -> categoriaControlador.criarCategoria(cat),
+                resposta -> {
+                    if ("sucesso".equalsIgnoreCase(resposta.getStatus())) {
+                        JOptionPane.showMessageDialog(this,
+                                "Categoria criada com sucesso!",
+                                "Sucesso",
+                                JOptionPane.INFORMATION_MESSAGE);
+                        carregarCategoriasNaTela();
+                        limparCampos();
+                    } else {
+                        JOptionPane.showMessageDialog(this,
+                                "Erro ao criar categoria: " + resposta.getMensagem(),
+                                "Erro",
+                                JOptionPane.ERROR_MESSAGE);
+                    }
+                });
     }//GEN-LAST:event_BtnCriarCategoriaActionPerformed
 
     /**
@@ -1,16 +1,36 @@
 package visao;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import controlador.CategoriaControlador;
 import controlador.ProdutoControlador;
+import dto.Alteracoes;
+import dto.Notificacao;
 import dto.Resposta;
+import dto.SaldoEstoque;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
+import javax.swing.RowFilter;
+import javax.swing.RowSorter;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableRowSorter;
+import metrica.EventoTabela;
 import modelo.Categoria;
 import modelo.Produto;
+import modelo.enums.Acao;
+import socket.CanalNotificacoes;
+import util.AssincronoUtil;
 
 /**
  * Formulário para gerenciamento de produtos do sistema.
@@ -23,6 +43,29 @@ import modelo.Produto;
  * <p>
  * Utiliza controladores para comunicação com a camada de serviço e mantém
  * sincronização entre a interface gráfica e os dados do servidor.</p>
+ *
+ * <p>
+ * A busca filtra a tabela enquanto o usuário digita, consultando um
+ * {@link IndiceProdutos} mantido junto com as linhas em vez de percorrer o
+ * modelo da tabela. A consulta só é feita depois de uma breve pausa na
+ * digitação.</p>
+ *
+ * <p>
+ * Depois da primeira carga, as recargas pedem ao servidor apenas os produtos e
+ * categorias alterados desde a última versão exibida e corrigem só as linhas
+ * afetadas; se nada mudou, a tabela não é tocada.</p>
+ *
+ * <p>
+ * Enquanto a janela está aberta, as alterações de produtos feitas por outros
+ * operadores chegam pelo canal de notificações e atualizam apenas a linha
+ * correspondente, sem nova listagem.</p>
+ *
+ * <p>
+ * Ao abrir, a tabela é preenchida de imediato com a cópia local da última
+ * sessão, e a primeira carga pede ao servidor só o que mudou desde ela. Se o
+ * servidor estiver indisponível, a janela continua exibindo a cópia em
+ * {@link ModoSomenteLeitura}, com as operações de escrita desabilitadas, até
+ * que uma nova tentativa de carga tenha sucesso.</p>
  */
 public class FrmGerenciarProduto extends javax.swing.JFrame {
 
@@ -41,11 +84,6 @@ public class FrmGerenciarProduto extends javax.swing.JFrame {
      */
     private CategoriaControlador categoriaControlador;
 
-    /**
-     * Mapeador JSON para conversão de objetos.
-     */
-    private ObjectMapper mapper;
-
     /**
      * Mapa para relacionar nomes de categorias com seus respectivos IDs.
      */
@@ -61,6 +99,91 @@ public class FrmGerenciarProduto extends javax.swing.JFrame {
      */
     private String[] colunas = {"ID", "Nome", "Preço", "Unidade", "Qtd Estoque", "Qtd Mínima", "Qtd Máxima", "Categoria"};
 
+    /**
+     * Executor das chamadas ao servidor fora da thread de eventos.
+     */
+    private final GerenciadorTarefas tarefas = new GerenciadorTarefas(this);
+
+    /**
+     * Pausa na digitação, em milissegundos, antes de a busca ser aplicada.
+     */
+    private static final int ATRASO_BUSCA_MS = 200;
+
+    /**
+     * Opção do filtro de categoria que não restringe a busca.
+     */
+    private static final String TODAS_CATEGORIAS = "Todas as categorias";
+
+    /**
+     * Versão dos produtos exibidos na tabela, ou 0 antes da primeira carga.
+     */
+    private long versaoProdutos;
+
+    /**
+     * Versão das categorias usadas na coluna de categoria, ou 0 antes da
+     * primeira carga.
+     */
+    private long versaoCategorias;
+
+    /**
+     * Nome de cada categoria exibido na coluna de categoria, por id.
+     */
+    private Map<Integer, String> nomesCategorias = new HashMap<>();
+
+    /**
+     * Assinatura das alterações de produtos, cancelada ao fechar a janela.
+     */
+    private final CanalNotificacoes.Assinatura assinaturaProdutos;
+
+    /**
+     * Assinatura das alterações de categorias, cancelada ao fechar a janela.
+     */
+    private final CanalNotificacoes.Assinatura assinaturaCategorias;
+
+    /**
+     * Indica que chegou uma notificação enquanto a carga dos produtos estava
+     * em andamento, e que ela pode não estar refletida no resultado.
+     */
+    private boolean alteradoDuranteCarga;
+
+    /**
+     * Índice dos nomes e categorias dos produtos exibidos na tabela.
+     */
+    private IndiceProdutos indice = new IndiceProdutos();
+
+    /**
+     * Ids dos produtos encontrados pela última busca, ou null quando não há
+     * filtro.
+     */
+    private BitSet resultadoBusca;
+
+    /**
+     * Ordenador da tabela, que aplica o filtro da busca.
+     */
+    private TableRowSorter<DefaultTableModel> ordenador;
+
+    /**
+     * Filtro que mantém visíveis apenas as linhas encontradas pela busca.
+     */
+    private final RowFilter<DefaultTableModel, Integer> filtroBusca = new RowFilter<>() {
+        @Override
+        public boolean include(Entry<? extends DefaultTableModel, ? extends Integer> linha) {
+            Object id = linha.getValue(0);
+            return id instanceof Integer && resultadoBusca.get((Integer) id);
+        }
+    };
+
+    /**
+     * Temporizador reiniciado a cada tecla, que aplica a busca quando a
+     * digitação para.
+     */
+    private final Timer atrasoBusca = new Timer(ATRASO_BUSCA_MS, evento -> filtrar());
+
+    /**
+     * Modo ativado enquanto o servidor estiver indisponível.
+     */
+    private final ModoSomenteLeitura somenteLeitura;
+
     /**
      * Construtor que inicializa os componentes e configura a interface.
      */
@@ -68,10 +191,12 @@ public class FrmGerenciarProduto extends javax.swing.JFrame {
         initComponents();
         this.produtoControlador = new ProdutoControlador();
         this.categoriaControlador = new CategoriaControlador();
-        this.mapper = new ObjectMapper();
         this.categoriasMap = new HashMap<>();
-        carregarCategoriasNoComboBox();
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        somenteLeitura = new ModoSomenteLeitura(this, () -> {
+            carregarCategoriasNoComboBox();
+            carregarProdutosNaTela();
+        }, JBNovoProduto, JBAlterarProduto, JBExcluirProduto, jBEntrada, jBSaida);
 
         tabela = new DefaultTableModel(dados, colunas) {
             @Override
@@ -80,7 +205,55 @@ public class FrmGerenciarProduto extends javax.swing.JFrame {
             }
         };
         JTableProdutos.setModel(tabela);
+        ordenador = new TableRowSorter<>(tabela);
+        JTableProdutos.setRowSorter(ordenador);
+
+        atrasoBusca.setRepeats(false);
+        JTFBuscar.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                atrasoBusca.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                atrasoBusca.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                atrasoBusca.restart();
+            }
+        });
+        exibirCopiaLocal();
+        carregarCategoriasNoComboBox();
         carregarProdutosNaTela();
+
+        assinaturaProdutos = produtoControlador.ouvirAlteracoes(
+                notificacao -> SwingUtilities.invokeLater(() -> receberProduto(notificacao)));
+        assinaturaCategorias = categoriaControlador.ouvirAlteracoes(
+                notificacao -> SwingUtilities.invokeLater(() -> receberCategoria(notificacao)));
+        addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                assinaturaProdutos.close();
+                assinaturaCategorias.close();
+            }
+        });
+    }
+
+    /**
+     * Aplica a busca e o filtro de categoria atuais à tabela.
+     *
+     * <p>
+     * Os produtos são obtidos do índice; a tabela apenas consulta o resultado
+     * pelo id de cada linha.</p>
+     */
+    private void filtrar() {
+        atrasoBusca.stop();
+        Integer categoriaId = categoriasMap.get((String) ComboBoxFiltroCategoria.getSelectedItem());
+        resultadoBusca = indice.buscar(JTFBuscar.getText(), categoriaId);
+        ordenador.setRowFilter(resultadoBusca == null ? null : filtroBusca);
     }
 
     /**
@@ -96,10 +269,9 @@ public class FrmGerenciarProduto extends javax.swing.JFrame {
      * <ol>
      * <li>Valida se um produto foi selecionado na tabela</li>
      * <li>Converte o valor informado para inteiro</li>
-     * <li>Busca o produto atual no banco de dados</li>
-     * <li>Calcula a nova quantidade (adiciona ou subtrai)</li>
-     * <li>Atualiza o produto no banco</li>
-     * <li>Recarrega a tabela e limpa o campo</li>
+     * <li>Envia a variação ao servidor, que a aplica sobre a quantidade
+     * atual</li>
+     * <li>Atualiza a quantidade na linha do produto e limpa o campo</li>
      * </ol>
      *
      * @param entrada true para entrada de estoque, false para saída
@@ -111,37 +283,32 @@ public class FrmGerenciarProduto extends javax.swing.JFrame {
             return;
         }
 
+        int valor;
         try {
             // Pega o valor digitado
-            int valor = Integer.parseInt(jTEntradaSaida.getText().trim());
-            if (!entrada) {
-                valor *= -1; // se for saída, torna negativo
-            }
-
-            // Pega o ID do produto selecionado
-            Integer id = (Integer) JTableProdutos.getValueAt(linha, 0);
-
-            // Cria um produto só com o ID
-            Produto produtoParaBuscar = new Produto();
-            produtoParaBuscar.setId(id);
+            valor = Integer.parseInt(jTEntradaSaida.getText().trim());
+        } catch (NumberFormatException e) {
+            JOptionPane.showMessageDialog(this, "Digite um valor válido!", "Erro", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        int delta = entrada ? valor : -valor; // se for saída, torna negativo
 
-            // Busca o produto no banco
-            Resposta<?> resposta = produtoControlador.encontrarProduto(produtoParaBuscar);
-            Produto p = new ObjectMapper().convertValue(resposta.getDados(), Produto.class);
+        // Pega o ID do produto selecionado
+        Integer id = (Integer) JTableProdutos.getValueAt(linha, 0);
 
-            if (p == null) {
-                JOptionPane.showMessageDialog(this, "Produto não encontrado!", "Erro", JOptionPane.ERROR_MESSAGE);
+        tarefas.executar("estoque", GerenciadorTarefas.Politica.IGNORAR,
+                progresso -> produtoControlador.movimentarEstoque(id, delta), resposta -> {
+            SaldoEstoque saldo = resposta.getDados();
+            if (!"sucesso".equalsIgnoreCase(resposta.getStatus()) || saldo == null) {
+                JOptionPane.showMessageDialog(this, resposta.getMensagem(), "Erro", JOptionPane.ERROR_MESSAGE);
                 return;
             }
 
-            // Atualiza a quantidade
-            p.setQuantidade(p.getQuantidade() + valor);
-
-            // Salva a alteração no banco
-            produtoControlador.atualizarProduto(p);
-
-            // Atualiza a tabela na tela
-            carregarProdutosNaTela();
+            // Atualiza só a quantidade do produto na tabela, sem recarregar as listas
+            int linhaAtual = localizarLinha(id);
+            if (linhaAtual != -1) {
+                tabela.setValueAt(saldo.getQuantidade(), linhaAtual, 4);
+            }
 
             // Limpa o campo de entrada
             jTEntradaSaida.setText("");
@@ -149,10 +316,7 @@ public class FrmGerenciarProduto extends javax.swing.JFrame {
             // Mensagem de sucesso
             String tipo = entrada ? "adicionada" : "removida";
             JOptionPane.showMessageDialog(this, "Quantidade " + tipo + " com sucesso!", "Sucesso", JOptionPane.INFORMATION_MESSAGE);
-
-        } catch (NumberFormatException e) {
-            JOptionPane.showMessageDialog(this, "Digite um valor válido!", "Erro", JOptionPane.ERROR_MESSAGE);
-        }
+        });
     }
 
     /**
@@ -169,68 +333,196 @@ public class FrmGerenciarProduto extends javax.swing.JFrame {
      * <li>Remove todos os itens existentes do ComboBox</li>
      * <li>Limpa o mapa de categorias</li>
      * <li>Busca categorias do servidor</li>
-     * <li>Adiciona cada categoria ao ComboBox e ao mapa</li>
+     * <li>Adiciona cada categoria ao ComboBox, ao filtro da busca e ao
+     * mapa</li>
      * </ul>
+     *
+     * <p>
+     * Com o servidor indisponível as opções atuais, vindas da cópia local,
+     * são mantidas; o aviso fica a cargo da carga dos produtos.</p>
      */
     private void carregarCategoriasNoComboBox() {
+        tarefas.executar("categorias", GerenciadorTarefas.Politica.SUBSTITUIR, progresso -> {
+            Resposta<List<Categoria>> resposta = categoriaControlador.listarCategoria();
+            if (resposta.getErro() != null) {
+                return null;
+            }
+            if (resposta.getDados() == null) {
+                throw new RuntimeException("Erro ao listar categorias: " + resposta.getMensagem());
+            }
+            return resposta.getDados();
+        }, categorias -> {
+            if (categorias != null) {
+                preencherCategorias(categorias);
+            }
+        });
+    }
+
+    /**
+     * Substitui as opções dos ComboBox de categoria e o mapa de nomes para
+     * IDs, mantendo a categoria selecionada no filtro.
+     *
+     * @param categorias categorias disponíveis
+     */
+    private void preencherCategorias(List<Categoria> categorias) {
+        Object filtroAtual = ComboBoxFiltroCategoria.getSelectedItem();
         ComboBoxCategoria.removeAllItems();
+        ComboBoxFiltroCategoria.removeAllItems();
         categoriasMap.clear();
 
-        Resposta<?> resposta = categoriaControlador.listarCategoria();
-        Categoria[] categoriasArray = mapper.convertValue(resposta.getDados(), Categoria[].class);
-
-        for (Categoria cat : categoriasArray) {
+        ComboBoxFiltroCategoria.addItem(TODAS_CATEGORIAS);
+        for (Categoria cat : categorias) {
             ComboBoxCategoria.addItem(cat.getNome());
+            ComboBoxFiltroCategoria.addItem(cat.getNome());
             categoriasMap.put(cat.getNome(), cat.getId());
         }
+        ComboBoxFiltroCategoria.setSelectedItem(filtroAtual);
+    }
+
+    /**
+     * Exibe a cópia local de produtos e categorias, sem ir ao servidor.
+     *
+     * <p>
+     * Chamado ao abrir a janela, antes da primeira carga. As versões da cópia
+     * passam a ser as exibidas, de modo que a carga peça ao servidor só o que
+     * mudou desde a última sessão.</p>
+     */
+    private void exibirCopiaLocal() {
+        Alteracoes<Produto> produtos = produtoControlador.lerCopiaLocal();
+        Alteracoes<Categoria> categorias = categoriaControlador.lerCopiaLocal();
+        if (produtos == null || categorias == null) {
+            return;
+        }
+        EventoTabela evento = EventoTabela.iniciar();
+        Map<Integer, String> nomes = new HashMap<>();
+        for (Categoria c : categorias.getAlterados()) {
+            nomes.put(c.getId(), c.getNome());
+        }
+        preencherCategorias(categorias.getAlterados());
+        for (Produto p : produtos.getAlterados()) {
+            tabela.addRow(linhaProduto(p, nomes));
+        }
+        indice = IndiceProdutos.construir(produtos.getAlterados());
+        nomesCategorias = nomes;
+        versaoProdutos = produtos.getVersao();
+        versaoCategorias = categorias.getVersao();
+        filtrar();
+        evento.concluir("produtos-copia", produtos.getAlterados().size(), true);
     }
 
     /**
-     * Carrega todos os produtos do servidor e exibe na tabela.
+     * Carrega os produtos do servidor e exibe na tabela.
      *
      * <p>
-     * Recupera a lista completa de produtos e suas categorias correspondentes,
-     * formatando os dados para exibição na tabela da interface gráfica.</p>
+     * Na primeira carga a tabela recebe a listagem completa. Nas seguintes,
+     * são pedidos apenas os produtos e categorias alterados desde as versões já
+     * exibidas, e somente as linhas afetadas são incluídas, alteradas ou
+     * removidas.</p>
      *
      * <p>
      * <b>Processamento:</b></p>
      * <ul>
-     * <li>Limpa a tabela atual</li>
-     * <li>Busca produtos e categorias do servidor</li>
-     * <li>Mapeia IDs de categoria para nomes</li>
-     * <li>Popula a tabela com os dados formatados</li>
+     * <li>Busca as alterações de produtos e categorias em paralelo</li>
+     * <li>Atualiza o mapa de IDs de categoria para nomes</li>
+     * <li>Monta as linhas e, na carga completa, o índice da busca</li>
+     * <li>Aplica as linhas à tabela e reaplica a busca</li>
      * </ul>
+     *
+     * <p>
+     * Se o servidor estiver indisponível a tabela não é alterada e a janela
+     * entra em modo somente leitura; a primeira carga bem-sucedida sai
+     * dele.</p>
      */
     private void carregarProdutosNaTela() {
-        tabela.setRowCount(0);
+        long desdeProdutos = versaoProdutos;
+        long desdeCategorias = versaoCategorias;
+        Map<Integer, String> categoriasAtuais = new HashMap<>(nomesCategorias);
+        tarefas.executar("produtos", GerenciadorTarefas.Politica.SUBSTITUIR, progresso -> {
+            // Dispara as duas listagens juntas para sobrepor as idas ao servidor
+            CompletableFuture<Resposta<Alteracoes<Produto>>> produtosFuturo = produtoControlador.sincronizarAsync(desdeProdutos);
+            CompletableFuture<Resposta<Alteracoes<Categoria>>> categoriasFuturo = categoriaControlador.sincronizarAsync(desdeCategorias);
+
+            Resposta<Alteracoes<Produto>> respostaProdutos = AssincronoUtil.aguardar(produtosFuturo);
+            Resposta<Alteracoes<Categoria>> respostaCategorias = AssincronoUtil.aguardar(categoriasFuturo);
+            if (respostaProdutos.getErro() != null || respostaCategorias.getErro() != null) {
+                return null; // servidor indisponível
+            }
+            if (respostaProdutos.getDados() == null) {
+                throw new RuntimeException("Erro ao listar produtos: " + respostaProdutos.getMensagem());
+            }
+            if (respostaCategorias.getDados() == null) {
+                throw new RuntimeException("Erro ao listar categorias: " + respostaCategorias.getMensagem());
+            }
+            Alteracoes<Produto> produtos = respostaProdutos.getDados();
+            Alteracoes<Categoria> categorias = respostaCategorias.getDados();
 
-        Resposta<?> resposta = produtoControlador.listarProduto();
-        Produto[] produtosArray = mapper.convertValue(resposta.getDados(), Produto[].class);
+            Map<Integer, String> categoriasMapLocal = categorias.isCompleto() ? new HashMap<>() : new HashMap<>(categoriasAtuais);
+            for (Integer id : categorias.getRemovidos()) {
+                categoriasMapLocal.remove(id);
+            }
+            for (Categoria c : categorias.getAlterados()) {
+                categoriasMapLocal.put(c.getId(), c.getNome());
+            }
 
-        Resposta<?> respostaCat = categoriaControlador.listarCategoria();
-        Categoria[] categoriasArray = mapper.convertValue(respostaCat.getDados(), Categoria[].class);
+            Listagem listagem = new Listagem(produtos, categoriasMapLocal, categorias.getVersao());
+            if (produtos.isCompleto()) {
+                listagem.indice = IndiceProdutos.construir(produtos.getAlterados());
+            } else {
+                // Linhas que não mudaram podem exibir o nome antigo de uma categoria
+                for (Map.Entry<Integer, String> anterior : categoriasAtuais.entrySet()) {
+                    String atual = categoriasMapLocal.get(anterior.getKey());
+                    if (atual != null && !atual.equals(anterior.getValue())) {
+                        listagem.renomeadas.put(anterior.getValue(), atual);
+                    }
+                }
+            }
+            for (Produto p : produtos.getAlterados()) {
+                if (p.getId() == null) {
+                    continue; // ignora produtos sem id
+                }
+                listagem.linhas.add(linhaProduto(p, categoriasMapLocal));
+            }
+            return listagem;
+        }, listagem -> {
+            if (listagem == null) {
+                somenteLeitura.entrar(produtoControlador.copiaLocalAtualizadaEm());
+                return;
+            }
+            somenteLeitura.sair();
+            if (alteradoDuranteCarga) {
+                // Notificações recebidas durante a carga podem não estar nela
+                alteradoDuranteCarga = false;
+                SwingUtilities.invokeLater(this::carregarProdutosNaTela);
+            }
+            nomesCategorias = listagem.categorias;
+            versaoCategorias = listagem.versaoCategorias;
+            versaoProdutos = listagem.versaoProdutos;
+            if (!listagem.completo && listagem.linhas.isEmpty()
+                    && listagem.removidos.isEmpty() && listagem.renomeadas.isEmpty()) {
+                return; // nada mudou desde a última carga
+            }
 
-        Map<Integer, String> categoriasMapLocal = new HashMap<>();
-        for (Categoria c : categoriasArray) {
-            categoriasMapLocal.put(c.getId(), c.getNome());
-        }
+            EventoTabela evento = EventoTabela.iniciar();
+
+            // Sem ordenação nem filtro, cada linha incluída não reorganiza a visão
+            List<? extends RowSorter.SortKey> ordem = ordenador.getSortKeys();
+            ordenador.setSortKeys(null);
+            ordenador.setRowFilter(null);
+
+            if (listagem.completo) {
+                tabela.setRowCount(0);
+                for (Object[] linha : listagem.linhas) {
+                    tabela.addRow(linha);
+                }
+                indice = listagem.indice;
+            } else {
+                aplicarAlteracoes(listagem);
+            }
 
-        for (Produto p : produtosArray) {
-            if (p.getId() == null) {
-                continue; // ignora produtos sem id
-            }
-            String nomeCategoria = categoriasMapLocal.get(p.getCategoriaId());
-            tabela.addRow(new Object[]{
-                p.getId(),
-                p.getNome(),
-                p.getPreco(),
-                p.getUnidade(),
-                p.getQuantidade(),
-                p.getQuantidadeMinima(),
-                p.getQuantidadeMaxima(),
-                nomeCategoria
-            });
-        }
+            ordenador.setSortKeys(ordem);
+            filtrar();
+            evento.concluir("produtos", listagem.linhas.size() + listagem.removidos.size(), listagem.completo);
+        });
     }
 
     @SuppressWarnings("unchecked")
@@ -262,6 +554,9 @@ public class FrmGerenciarProduto extends javax.swing.JFrame {
         JTFNomeProduto = new javax.swing.JTextField();
         JTFPrecoUnitario = new javax.swing.JTextField();
         ComboBoxUnidade = new javax.swing.JComboBox<>();
+        JLBuscar = new javax.swing.JLabel();
+        JTFBuscar = new javax.swing.JTextField();
+        ComboBoxFiltroCategoria = new javax.swing.JComboBox<>();
 
         setDefaultCloseOperation(javax.swing.WindowConstants.DISPOSE_ON_CLOSE);
         setTitle("Gerenciar Produtos");
@@ -368,6 +663,18 @@ public class FrmGerenciarProduto extends javax.swing.JFrame {
 
         ComboBoxUnidade.setModel(new javax.swing.DefaultComboBoxModel<>(new String[] { "KG", "g", "L", "ml" }));
 
+        JLBuscar.setFont(new java.awt.Font("Arial", 0, 12)); // NOI18N
+        JLBuscar.setText("Buscar");
+
+        JTFBuscar.setToolTipText("Digite o início das palavras do nome; acentos e maiúsculas são ignorados");
+
+        ComboBoxFiltroCategoria.setModel(new javax.swing.DefaultComboBoxModel<>(new String[] { "Todas as categorias" }));
+        ComboBoxFiltroCategoria.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                ComboBoxFiltroCategoriaActionPerformed(evt);
+            }
+        });
+
         javax.swing.GroupLayout layout = new javax.swing.GroupLayout(getContentPane());
         getContentPane().setLayout(layout);
         layout.setHorizontalGroup(
@@ -418,6 +725,14 @@ public class FrmGerenciarProduto extends javax.swing.JFrame {
                 .addGap(53, 53, 53)
                 .addComponent(JBVoltarProduto, javax.swing.GroupLayout.PREFERRED_SIZE, 85, javax.swing.GroupLayout.PREFERRED_SIZE)
                 .addContainerGap(60, Short.MAX_VALUE))
+            .addGroup(layout.createSequentialGroup()
+                .addGap(25, 25, 25)
+                .addComponent(JLBuscar)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.UNRELATED)
+                .addComponent(JTFBuscar)
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.UNRELATED)
+                .addComponent(ComboBoxFiltroCategoria, javax.swing.GroupLayout.PREFERRED_SIZE, 180, javax.swing.GroupLayout.PREFERRED_SIZE)
+                .addGap(32, 32, 32))
         );
 
         layout.linkSize(javax.swing.SwingConstants.HORIZONTAL, new java.awt.Component[] {JLNome, JLPrecoUnitario, JLQtdEstoque, JLQtdMaxima, JLQtdMinima, JLUnidade});
@@ -478,6 +793,11 @@ public class FrmGerenciarProduto extends javax.swing.JFrame {
                     .addComponent(JBExcluirProduto)
                     .addComponent(JBVoltarProduto))
                 .addGap(18, 18, 18)
+                .addGroup(layout.createParallelGroup(javax.swing.GroupLayout.Alignment.BASELINE)
+                    .addComponent(JLBuscar)
+                    .addComponent(JTFBuscar, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE)
+                    .addComponent(ComboBoxFiltroCategoria, javax.swing.GroupLayout.PREFERRED_SIZE, javax.swing.GroupLayout.DEFAULT_SIZE, javax.swing.GroupLayout.PREFERRED_SIZE))
+                .addPreferredGap(javax.swing.LayoutStyle.ComponentPlacement.RELATED)
                 .addComponent(jScrollPane1, javax.swing.GroupLayout.PREFERRED_SIZE, 302, javax.swing.GroupLayout.PREFERRED_SIZE))
         );
 
@@ -525,6 +845,8 @@ public class FrmGerenciarProduto extends javax.swing.JFrame {
      * <ul>
      * <li>Verifica se uma categoria foi selecionada</li>
      * <li>Converte os valores numéricos para os tipos apropriados</li>
+     * <li>Verifica localmente se o nome já está em uso na categoria
+     * (RN11)</li>
      * </ul>
      *
      * @param evt evento de ação do botão
@@ -547,11 +869,39 @@ public class FrmGerenciarProduto extends javax.swing.JFrame {
         }
 
         Produto produto = new Produto(null, nome, precoUni, unidade, categoriaId, estoque, minima, maxima);
+        if (produtoControlador.nomeEmUso(produto)) {
+            JOptionPane.showMessageDialog(this, "Já existe um produto com o nome " + nome + " nesta categoria.", "Erro", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
 
         // Chama o controlador para criar o produto
-        produtoControlador.criarProduto(produto);
-        limparCampos();
-        carregarProdutosNaTela();
+        tarefas.executar("novo", GerenciadorTarefas.Politica.IGNORAR,
+                progresso -> produtoControlador.criarProduto(produto),
+                resposta -> {
+                    if (!"sucesso".equalsIgnoreCase(resposta.getStatus())) {
+                        JOptionPane.showMessageDialog(this, resposta.getMensagem(), "Erro", JOptionPane.ERROR_MESSAGE);
+                        return;
+                    }
+                    limparCampos();
+
+                    Produto criado = resposta.getDados();
+                    if (criado == null || criado.getId() == null) {
+                        carregarProdutosNaTela(); // servidor não devolveu o id
+                        return;
+                    }
+                    tabela.addRow(new Object[]{
+                        criado.getId(),
+                        criado.getNome(),
+                        criado.getPreco(),
+                        criado.getUnidade(),
+                        criado.getQuantidade(),
+                        criado.getQuantidadeMinima(),
+                        criado.getQuantidadeMaxima(),
+                        nomeCategoria
+                    });
+                    indice.adicionar(criado.getId(), criado.getNome(), criado.getCategoriaId());
+                    filtrar();
+                });
     }//GEN-LAST:event_JBNovoProdutoActionPerformed
 
     /**
@@ -594,6 +944,7 @@ public class FrmGerenciarProduto extends javax.swing.JFrame {
      * <li>Valida se um produto foi selecionado</li>
      * <li>Coleta os dados dos campos do formulário</li>
      * <li>Converte os valores para os tipos apropriados</li>
+     * <li>Verifica localmente se o nome já está em uso na categoria</li>
      * <li>Envia a atualização para o servidor</li>
      * <li>Atualiza a linha correspondente na tabela</li>
      * </ol>
@@ -616,21 +967,34 @@ public class FrmGerenciarProduto extends javax.swing.JFrame {
         Integer qtdMax = Integer.parseInt(JTFQtdMaxima.getText());
         Integer categoriaId = categoriasMap.get(ComboBoxCategoria.getSelectedItem().toString());
 
+        String nomeCategoria = ComboBoxCategoria.getSelectedItem().toString();
+
         Produto produto = new Produto(id, nome, preco, unidade, categoriaId, qtdEstoque, qtdMin, qtdMax);
+        if (produtoControlador.nomeEmUso(produto)) {
+            JOptionPane.showMessageDialog(this, "Já existe um produto com o nome " + nome + " nesta categoria.", "Erro", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
 
         // Atualiza no banco
-        produtoControlador.atualizarProduto(produto);
-
-        // Atualiza os valores na tabela
-        JTableProdutos.setValueAt(JTFNomeProduto.getText(), linha, 1);
-        JTableProdutos.setValueAt(preco, linha, 2);
-        JTableProdutos.setValueAt(ComboBoxUnidade.getSelectedItem().toString(), linha, 3);
-        JTableProdutos.setValueAt(qtdEstoque, linha, 4);
-        JTableProdutos.setValueAt(qtdMin, linha, 5);
-        JTableProdutos.setValueAt(qtdMax, linha, 6);
-        JTableProdutos.setValueAt(ComboBoxCategoria.getSelectedItem().toString(), linha, 7);
-
-        JOptionPane.showMessageDialog(this, "Produto alterado com sucesso!", "Sucesso", JOptionPane.INFORMATION_MESSAGE);
+        tarefas.executar("alterar", GerenciadorTarefas.Politica.IGNORAR,
+                progresso -> produtoControlador.atualizarProduto(produto),
+                resposta -> {
+                    // Atualiza os valores na linha do produto, que pode ter mudado de posição
+                    int linhaAtual = localizarLinha(id);
+                    if (linhaAtual != -1) {
+                        tabela.setValueAt(nome, linhaAtual, 1);
+                        tabela.setValueAt(preco, linhaAtual, 2);
+                        tabela.setValueAt(unidade, linhaAtual, 3);
+                        tabela.setValueAt(qtdEstoque, linhaAtual, 4);
+                        tabela.setValueAt(qtdMin, linhaAtual, 5);
+                        tabela.setValueAt(qtdMax, linhaAtual, 6);
+                        tabela.setValueAt(nomeCategoria, linhaAtual, 7);
+                    }
+                    indice.atualizar(id, nome, categoriaId);
+                    filtrar();
+
+                    JOptionPane.showMessageDialog(this, "Produto alterado com sucesso!", "Sucesso", JOptionPane.INFORMATION_MESSAGE);
+                });
 
     }//GEN-LAST:event_JBAlterarProdutoActionPerformed
 
@@ -667,16 +1031,22 @@ public class FrmGerenciarProduto extends javax.swing.JFrame {
                 JOptionPane.YES_NO_OPTION);
 
         if (confirm == JOptionPane.YES_OPTION) {
-            // Remove a linha da tabela
             Integer id = (Integer) JTableProdutos.getValueAt(linha, 0);
-            produtoControlador.deletarProduto(id);
-            DefaultTableModel model = (DefaultTableModel) JTableProdutos.getModel();
-            model.removeRow(linha);
-
-            // Limpa os campos de texto e combos
-            limparCampos();
-
-            JOptionPane.showMessageDialog(this, "Produto excluído com sucesso!", "Sucesso", JOptionPane.INFORMATION_MESSAGE);
+            tarefas.executar("excluir", GerenciadorTarefas.Politica.IGNORAR,
+                    progresso -> produtoControlador.deletarProduto(id),
+                    resposta -> {
+                        // Remove a linha da tabela
+                        int linhaAtual = localizarLinha(id);
+                        if (linhaAtual != -1) {
+                            tabela.removeRow(linhaAtual);
+                        }
+                        indice.remover(id);
+
+                        // Limpa os campos de texto e combos
+                        limparCampos();
+
+                        JOptionPane.showMessageDialog(this, "Produto excluído com sucesso!", "Sucesso", JOptionPane.INFORMATION_MESSAGE);
+                    });
         }
     }//GEN-LAST:event_JBExcluirProdutoActionPerformed
 
@@ -704,6 +1074,163 @@ public class FrmGerenciarProduto extends javax.swing.JFrame {
         alterarEstoque(false);
     }//GEN-LAST:event_jBSaidaActionPerformed
 
+    /**
+     * Reaplica a busca quando outra categoria é escolhida no filtro.
+     *
+     * @param evt evento de ação do ComboBox
+     */
+    private void ComboBoxFiltroCategoriaActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_ComboBoxFiltroCategoriaActionPerformed
+        filtrar();
+    }//GEN-LAST:event_ComboBoxFiltroCategoriaActionPerformed
+
+    /**
+     * Localiza a linha da tabela que exibe o produto informado.
+     *
+     * @param id identificador do produto
+     * @return índice da linha no modelo, ou -1 se o produto não estiver na
+     * tabela
+     */
+    private int localizarLinha(Integer id) {
+        for (int i = 0; i < tabela.getRowCount(); i++) {
+            if (id.equals(tabela.getValueAt(i, 0))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Aplica à tabela a alteração de um produto feita por qualquer cliente.
+     *
+     * <p>
+     * Apenas a linha do produto é incluída, alterada ou removida. Durante uma
+     * carga a notificação é adiada: a carga é repetida ao terminar, pedindo só
+     * o que mudou. Uma notificação de sincronização também recarrega apenas o
+     * que mudou.</p>
+     *
+     * @param notificacao alteração recebida, na thread de eventos
+     */
+    private void receberProduto(Notificacao<Produto> notificacao) {
+        if (tarefas.emAndamento("produtos")) {
+            alteradoDuranteCarga = true;
+            return;
+        }
+        if (notificacao.isSincronizar()) {
+            carregarProdutosNaTela();
+            return;
+        }
+        Integer id = notificacao.getId();
+        int linhaAtual = localizarLinha(id);
+        if (notificacao.getAcao() == Acao.DELETAR) {
+            if (linhaAtual != -1) {
+                tabela.removeRow(linhaAtual);
+            }
+            indice.remover(id);
+        } else if (notificacao.getDados() != null) {
+            Produto p = notificacao.getDados();
+            Object[] linha = linhaProduto(p, nomesCategorias);
+            if (linhaAtual == -1) {
+                tabela.addRow(linha);
+            } else {
+                for (int coluna = 1; coluna < linha.length; coluna++) {
+                    tabela.setValueAt(linha[coluna], linhaAtual, coluna);
+                }
+            }
+            indice.atualizar(p.getId(), p.getNome(), p.getCategoriaId());
+        }
+        filtrar();
+    }
+
+    /**
+     * Trata a alteração de uma categoria feita por qualquer cliente,
+     * atualizando as opções de categoria e a coluna de categoria das linhas
+     * afetadas.
+     *
+     * @param notificacao alteração recebida, na thread de eventos
+     */
+    private void receberCategoria(Notificacao<Categoria> notificacao) {
+        carregarCategoriasNoComboBox();
+        if (tarefas.emAndamento("produtos")) {
+            alteradoDuranteCarga = true;
+            return;
+        }
+        carregarProdutosNaTela();
+    }
+
+    /**
+     * Aplica à tabela e ao índice da busca uma listagem incremental.
+     *
+     * <p>
+     * As linhas são localizadas pelo id uma única vez; as alteradas são
+     * substituídas, as novas incluídas no fim e as excluídas removidas de
+     * baixo para cima, para não deslocar as posições ainda a remover.</p>
+     *
+     * @param listagem alterações já convertidas em linhas
+     */
+    private void aplicarAlteracoes(Listagem listagem) {
+        Map<Object, Integer> posicoes = new HashMap<>();
+        for (int i = 0; i < tabela.getRowCount(); i++) {
+            posicoes.put(tabela.getValueAt(i, 0), i);
+        }
+
+        for (Object[] linha : listagem.linhas) {
+            Integer posicao = posicoes.get(linha[0]);
+            if (posicao == null) {
+                tabela.addRow(linha);
+                posicoes.put(linha[0], tabela.getRowCount() - 1);
+            } else {
+                for (int coluna = 1; coluna < linha.length; coluna++) {
+                    tabela.setValueAt(linha[coluna], posicao, coluna);
+                }
+            }
+        }
+        for (Produto p : listagem.produtos) {
+            indice.atualizar(p.getId(), p.getNome(), p.getCategoriaId());
+        }
+
+        if (!listagem.renomeadas.isEmpty()) {
+            for (int i = 0; i < tabela.getRowCount(); i++) {
+                String novoNome = listagem.renomeadas.get(tabela.getValueAt(i, 7));
+                if (novoNome != null) {
+                    tabela.setValueAt(novoNome, i, 7);
+                }
+            }
+        }
+
+        List<Integer> remover = new ArrayList<>();
+        for (Integer id : listagem.removidos) {
+            Integer posicao = posicoes.get(id);
+            if (posicao != null) {
+                remover.add(posicao);
+            }
+            indice.remover(id);
+        }
+        remover.sort(Collections.reverseOrder());
+        for (int posicao : remover) {
+            tabela.removeRow(posicao);
+        }
+    }
+
+    /**
+     * Monta a linha da tabela de um produto.
+     *
+     * @param p produto
+     * @param categorias nome de cada categoria, por id
+     * @return valores das colunas
+     */
+    private static Object[] linhaProduto(Produto p, Map<Integer, String> categorias) {
+        return new Object[]{
+            p.getId(),
+            p.getNome(),
+            p.getPreco(),
+            p.getUnidade(),
+            p.getQuantidade(),
+            p.getQuantidadeMinima(),
+            p.getQuantidadeMaxima(),
+            categorias.get(p.getCategoriaId())
+        };
+    }
+
     /**
      * Limpa todos os campos de entrada do formulário.
      *
@@ -734,13 +1261,78 @@ public class FrmGerenciarProduto extends javax.swing.JFrame {
     }
 
 
+    /**
+     * Resultado da carga dos produtos, montado fora da thread de eventos: as
+     * linhas da tabela (todas, ou só as alteradas), os ids excluídos e, na
+     * carga completa, o índice da busca.
+     */
+    private static final class Listagem {
+
+        /**
+         * Indica se a listagem de produtos é completa, substituindo a tabela.
+         */
+        private final boolean completo;
+
+        /**
+         * Produtos recebidos: todos, ou só os alterados.
+         */
+        private final List<Produto> produtos;
+
+        /**
+         * Ids dos produtos excluídos desde a versão pedida.
+         */
+        private final List<Integer> removidos;
+
+        /**
+         * Versão da listagem de produtos recebida.
+         */
+        private final long versaoProdutos;
+
+        /**
+         * Nomes das categorias por id, já com as alterações recebidas.
+         */
+        private final Map<Integer, String> categorias;
+
+        /**
+         * Versão da listagem de categorias recebida.
+         */
+        private final long versaoCategorias;
+
+        /**
+         * Linhas da tabela montadas a partir dos produtos recebidos.
+         */
+        private final List<Object[]> linhas = new ArrayList<>();
+
+        /**
+         * Nomes novos das categorias renomeadas, pelo nome anterior, para
+         * atualizar as linhas que não mudaram.
+         */
+        private final Map<String, String> renomeadas = new HashMap<>();
+
+        /**
+         * Índice da busca, montado só na carga completa.
+         */
+        private IndiceProdutos indice;
+
+        private Listagem(Alteracoes<Produto> produtos, Map<Integer, String> categorias, Long versaoCategorias) {
+            this.completo = produtos.isCompleto();
+            this.produtos = produtos.getAlterados();
+            this.removidos = produtos.getRemovidos();
+            this.versaoProdutos = produtos.getVersao() == null ? 0 : produtos.getVersao();
+            this.categorias = categorias;
+            this.versaoCategorias = versaoCategorias == null ? 0 : versaoCategorias;
+        }
+    }
+
     // Variables declaration - do not modify//GEN-BEGIN:variables
     private javax.swing.JComboBox<String> ComboBoxCategoria;
+    private javax.swing.JComboBox<String> ComboBoxFiltroCategoria;
     private javax.swing.JComboBox<String> ComboBoxUnidade;
     private javax.swing.JButton JBAlterarProduto;
     private javax.swing.JButton JBExcluirProduto;
     private javax.swing.JButton JBNovoProduto;
     private javax.swing.JButton JBVoltarProduto;
+    private javax.swing.JLabel JLBuscar;
     private javax.swing.JLabel JLGerenciamentoProdutos;
     private javax.swing.JLabel JLNome;
     private javax.swing.JLabel JLPrecoUnitario;
@@ -748,6 +1340,7 @@ public class FrmGerenciarProduto extends javax.swing.JFrame {
     private javax.swing.JLabel JLQtdMaxima;
     private javax.swing.JLabel JLQtdMinima;
     private javax.swing.JLabel JLUnidade;
+    private javax.swing.JTextField JTFBuscar;
     private javax.swing.JTextField JTFNomeProduto;
     private javax.swing.JTextField JTFPrecoUnitario;
     private javax.swing.JTextField JTFQtdEstoque;
@@ -1,13 +1,14 @@
 package visao;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import controlador.RegistroControlador;
-import dto.Resposta;
-import java.util.Arrays;
-import java.util.List;
+import dto.Notificacao;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import javax.swing.JFrame;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 import modelo.Registro;
+import socket.CanalNotificacoes;
 
 /**
  * Formulário para visualização das movimentações de estoque do sistema.
@@ -20,6 +21,17 @@ import modelo.Registro;
  * <p>
  * Apresenta os dados em formato de tabela com informações detalhadas sobre cada
  * movimentação registrada no sistema.</p>
+ *
+ * <p>
+ * Enquanto a janela está aberta, as movimentações feitas por outros operadores
+ * chegam pelo canal de notificações e são acrescentadas ao fim da tabela, sem
+ * nova busca.</p>
+ *
+ * <p>
+ * As primeiras linhas do histórico guardadas na cópia local são exibidas ao
+ * abrir, antes da resposta do servidor. Enquanto o servidor estiver
+ * indisponível a tabela continua exibindo a cópia em
+ * {@link ModoSomenteLeitura}, e a carga é repetida periodicamente.</p>
  */
 public class FrmMovimentacao extends javax.swing.JFrame {
 
@@ -29,24 +41,29 @@ public class FrmMovimentacao extends javax.swing.JFrame {
     private RegistroControlador registroControlador;
 
     /**
-     * Modelo de dados para a tabela de movimentações.
+     * Quantidade de movimentações buscadas por vez ao rolar a tabela.
+     */
+    private static final int TAMANHO_BLOCO = 200;
+
+    /**
+     * Quantidade máxima de blocos mantidos em memória.
      */
-    private DefaultTableModel tabela;
+    private static final int BLOCOS_EM_MEMORIA = 20;
 
     /**
-     * Mapeador JSON para conversão de objetos.
+     * Modelo de dados da tabela, que busca as movimentações sob demanda.
      */
-    private ObjectMapper mapper;
+    private final ModeloTabelaRegistros tabela;
 
     /**
-     * Dados iniciais da tabela.
+     * Assinatura dos registros criados, cancelada ao fechar a janela.
      */
-    private Object[][] dados = new Object[0][0];
+    private final CanalNotificacoes.Assinatura assinatura;
 
     /**
-     * Nomes das colunas da tabela de movimentações.
+     * Modo ativado enquanto o servidor estiver indisponível.
      */
-    private String[] colunas = {"ID", "Data", "Produto_id", "Quntidade", "Movimentação", "Status_Estoque"};
+    private final ModoSomenteLeitura somenteLeitura;
 
     /**
      * Construtor que inicializa os componentes e configura a interface.
@@ -54,46 +71,67 @@ public class FrmMovimentacao extends javax.swing.JFrame {
     public FrmMovimentacao() {
         initComponents();
         this.registroControlador = new RegistroControlador();
-        this.mapper = new ObjectMapper();
         setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
 
-        tabela = new DefaultTableModel(dados, colunas) {
+        somenteLeitura = new ModoSomenteLeitura(this, this::carregarRegistroNaTela);
+        tabela = new ModeloTabelaRegistros(registroControlador, TAMANHO_BLOCO, BLOCOS_EM_MEMORIA,
+                e -> JOptionPane.showMessageDialog(this, "Erro: " + e.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE),
+                disponivel -> {
+                    if (disponivel) {
+                        somenteLeitura.sair();
+                    } else {
+                        somenteLeitura.entrar(registroControlador.copiaLocalAtualizadaEm());
+                    }
+                });
+        jTableRegistro.setModel(tabela);
+        assinatura = registroControlador.ouvirRegistros(
+                notificacao -> SwingUtilities.invokeLater(() -> receberRegistro(notificacao)));
+        addWindowListener(new WindowAdapter() {
             @Override
-            public boolean isCellEditable(int row, int column) {
-                return column != 0; // ID não pode ser editado
+            public void windowClosed(WindowEvent e) {
+                assinatura.close();
+                tabela.descartar();
             }
-        };
-        jTableRegistro.setModel(tabela);
+        });
         carregarRegistroNaTela();
     }
 
     /**
-     * Carrega todos os registros de movimentação do servidor e exibe na tabela.
+     * Acrescenta à tabela um registro criado por qualquer cliente. Uma
+     * notificação de sincronização recarrega a tabela, pois registros podem
+     * ter sido perdidos.
+     *
+     * @param notificacao registro recebido, na thread de eventos
+     */
+    private void receberRegistro(Notificacao<Registro> notificacao) {
+        if (notificacao.isSincronizar()) {
+            carregarRegistroNaTela();
+        } else {
+            tabela.acrescentar(notificacao.getDados());
+        }
+    }
+
+    /**
+     * Exibe o histórico de movimentações na tabela.
      *
      * <p>
-     * Recupera a lista completa de movimentações através do controlador e
-     * popula a tabela da interface gráfica com os dados obtidos.</p>
+     * Apenas o primeiro bloco é buscado de imediato, informando o total de
+     * registros; os demais são buscados em segundo plano à medida que a tabela
+     * é rolada. O tempo de abertura da tela, portanto, não depende do tamanho
+     * do histórico.</p>
      *
      * <p>
      * <b>Processamento:</b></p>
      * <ul>
-     * <li>Limpa a tabela atual</li>
-     * <li>Busca registros do servidor</li>
-     * <li>Converte os dados para objetos Registro</li>
-     * <li>Popula a tabela com os dados formatados</li>
+     * <li>Descarta os blocos já carregados</li>
+     * <li>Exibe os blocos guardados na cópia local</li>
+     * <li>Busca o primeiro bloco em segundo plano</li>
+     * <li>Ajusta o número de linhas da tabela ao total informado pelo
+     * servidor</li>
      * </ul>
      */
     private void carregarRegistroNaTela() {
-        Resposta<?> resposta = registroControlador.listarRegistro();
-
-        Registro[] registroArray = mapper.convertValue(resposta.getDados(), Registro[].class);
-
-        List<Registro> registro = Arrays.asList(registroArray);
-
-        tabela.setRowCount(0);
-        for (Registro r : registro) {
-            tabela.addRow(new Object[]{r.getId(), r.getData(), r.getProdutoId(), r.getQuantidade(), r.getMovimentacao(), r.getStatus()});
-        }
+        tabela.recarregar();
     }
 
     @SuppressWarnings("unchecked")
@@ -22,6 +22,11 @@ public class FrmReajustarPreco extends javax.swing.JFrame {
      */
     private ProdutoControlador produtoControlador;
 
+    /**
+     * Executor das chamadas ao servidor fora da thread de eventos.
+     */
+    private final GerenciadorTarefas tarefas = new GerenciadorTarefas(this);
+
     /**
      * Construtor que inicializa os componentes e configura a interface.
      */
@@ -196,14 +201,17 @@ public class FrmReajustarPreco extends javax.swing.JFrame {
                 return;
             }
 
-            Resposta<?> resposta = produtoControlador.aumentarPrecoProduto(percentual);
-
-            if ("sucesso".equals(resposta.getStatus())) {
-                javax.swing.JOptionPane.showMessageDialog(this, "Preços aumentados com sucesso em " + percentual + "%!");
-                JTFAjustePorcentagem.setText("");
-            } else {
-                javax.swing.JOptionPane.showMessageDialog(this, "Erro: " + resposta.getMensagem());
-            }
+            // Um reajuste por vez: cliques enquanto o anterior não termina são ignorados
+            tarefas.executar("reajuste", GerenciadorTarefas.Politica.IGNORAR,
+                    progresso -> produtoControlador.aumentarPrecoProduto(percentual),
+                    resposta -> {
+                        if ("sucesso".equals(resposta.getStatus())) {
+                            javax.swing.JOptionPane.showMessageDialog(this, "Preços aumentados com sucesso em " + percentual + "%!");
+                            JTFAjustePorcentagem.setText("");
+                        } else {
+                            javax.swing.JOptionPane.showMessageDialog(this, "Erro: " + resposta.getMensagem());
+                        }
+                    });
         } catch (NumberFormatException e) {
             javax.swing.JOptionPane.showMessageDialog(this, "Por favor, informe um percentual válido!");
         }
@@ -248,14 +256,17 @@ public class FrmReajustarPreco extends javax.swing.JFrame {
                 return;
             }
 
-            Resposta<?> resposta = produtoControlador.diminuirPrecoProduto(percentual);
-
-            if ("sucesso".equals(resposta.getStatus())) {
-                javax.swing.JOptionPane.showMessageDialog(this, "Preços diminuídos com sucesso em " + percentual + "%!");
-                JTFAjustePorcentagem.setText("");
-            } else {
-                javax.swing.JOptionPane.showMessageDialog(this, "Erro: " + resposta.getMensagem());
-            }
+            // Um reajuste por vez: cliques enquanto o anterior não termina são ignorados
+            tarefas.executar("reajuste", GerenciadorTarefas.Politica.IGNORAR,
+                    progresso -> produtoControlador.diminuirPrecoProduto(percentual),
+                    resposta -> {
+                        if ("sucesso".equals(resposta.getStatus())) {
+                            javax.swing.JOptionPane.showMessageDialog(this, "Preços diminuídos com sucesso em " + percentual + "%!");
+                            JTFAjustePorcentagem.setText("");
+                        } else {
+                            javax.swing.JOptionPane.showMessageDialog(this, "Erro: " + resposta.getMensagem());
+                        }
+                    });
         } catch (NumberFormatException e) {
             javax.swing.JOptionPane.showMessageDialog(this, "Por favor, informe um percentual válido!");
         }
@@ -0,0 +1,335 @@
+package visao;
+
+import java.awt.Cursor;
+import java.awt.Window;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+import javax.swing.JOptionPane;
+import javax.swing.ProgressMonitor;
+import javax.swing.SwingWorker;
+import util.AssincronoUtil;
+
+/**
+ * Executa as chamadas aos controladores fora da thread de eventos do Swing
+ * (EDT).
+ *
+ * <p>
+ * Cada formulário mantém um gerenciador. O trabalho (chamadas de rede,
+ * conversões, geração de arquivos) roda em uma thread virtual e o resultado é
+ * entregue de volta na EDT, onde os componentes podem ser alterados com
+ * segurança. Enquanto houver tarefas em andamento o cursor da janela fica em
+ * modo de espera.</p>
+ *
+ * <p>
+ * Tarefas são identificadas por uma chave, usada para agrupar cliques
+ * repetidos conforme a {@link Politica}: operações de escrita ignoram novos
+ * cliques enquanto a anterior não termina; recargas de tela cancelam a recarga
+ * anterior e mantêm apenas a mais recente. Ao fechar a janela todas as tarefas
+ * são canceladas.</p>
+ */
+public class GerenciadorTarefas {
+
+    /**
+     * Como tratar uma nova tarefa cuja chave já está em andamento.
+     */
+    public enum Politica {
+        /**
+         * Descarta a nova tarefa e mantém a que está em andamento.
+         */
+        IGNORAR,
+        /**
+         * Cancela a tarefa em andamento e inicia a nova.
+         */
+        SUBSTITUIR
+    }
+
+    /**
+     * Trabalho executado em segundo plano.
+     *
+     * @param <T> tipo do resultado
+     */
+    @FunctionalInterface
+    public interface Trabalho<T> {
+
+        /**
+         * Executa o trabalho.
+         *
+         * @param progresso canal para informar progresso e consultar
+         * cancelamento
+         * @return resultado entregue na EDT
+         * @throws Exception qualquer falha, entregue ao tratador de erro
+         */
+        T executar(Progresso progresso) throws Exception;
+    }
+
+    /**
+     * Canal entre o trabalho em segundo plano e a interface.
+     */
+    public interface Progresso {
+
+        /**
+         * Informa o percentual concluído.
+         *
+         * @param percentual valor entre 0 e 100
+         */
+        void informar(int percentual);
+
+        /**
+         * Indica se a tarefa foi cancelada e deve ser interrompida.
+         *
+         * @return true se o trabalho deve parar
+         */
+        boolean cancelado();
+    }
+
+    /**
+     * Janela dona das tarefas.
+     */
+    private final Window janela;
+
+    /**
+     * Tarefas em andamento por chave. Acessado apenas na EDT.
+     */
+    private final Map<String, Tarefa<?>> emAndamento = new HashMap<>();
+
+    /**
+     * Cria o gerenciador de tarefas de uma janela.
+     *
+     * @param janela janela dona das tarefas
+     */
+    public GerenciadorTarefas(Window janela) {
+        this.janela = janela;
+        janela.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                cancelarTodas();
+            }
+        });
+    }
+
+    /**
+     * Executa uma tarefa em segundo plano, exibindo as falhas em uma caixa de
+     * diálogo.
+     *
+     * @param <T> tipo do resultado
+     * @param chave identificador usado para agrupar execuções repetidas
+     * @param politica tratamento de uma chave já em andamento
+     * @param trabalho trabalho a executar fora da EDT
+     * @param aoConcluir ação executada na EDT com o resultado
+     */
+    public <T> void executar(String chave, Politica politica, Trabalho<T> trabalho, Consumer<? super T> aoConcluir) {
+        executar(chave, politica, trabalho, aoConcluir, this::mostrarErro);
+    }
+
+    /**
+     * Executa uma tarefa em segundo plano.
+     *
+     * @param <T> tipo do resultado
+     * @param chave identificador usado para agrupar execuções repetidas
+     * @param politica tratamento de uma chave já em andamento
+     * @param trabalho trabalho a executar fora da EDT
+     * @param aoConcluir ação executada na EDT com o resultado
+     * @param aoFalhar ação executada na EDT com a falha
+     */
+    public <T> void executar(String chave, Politica politica, Trabalho<T> trabalho,
+            Consumer<? super T> aoConcluir, Consumer<Throwable> aoFalhar) {
+        iniciar(new Tarefa<>(chave, trabalho, aoConcluir, aoFalhar, null), politica);
+    }
+
+    /**
+     * Executa uma tarefa longa exibindo um monitor de progresso com opção de
+     * cancelamento.
+     *
+     * <p>
+     * O monitor só aparece se a tarefa demorar mais que meio segundo. Cliques
+     * repetidos enquanto a tarefa estiver em andamento são ignorados.</p>
+     *
+     * @param <T> tipo do resultado
+     * @param chave identificador da tarefa
+     * @param descricao texto exibido no monitor de progresso
+     * @param trabalho trabalho a executar fora da EDT
+     * @param aoConcluir ação executada na EDT com o resultado
+     * @param aoFalhar ação executada na EDT com a falha
+     */
+    public <T> void executarComProgresso(String chave, String descricao, Trabalho<T> trabalho,
+            Consumer<? super T> aoConcluir, Consumer<Throwable> aoFalhar) {
+        ProgressMonitor monitor = new ProgressMonitor(janela, descricao, null, 0, 100);
+        monitor.setMillisToDecideToPopup(200);
+        monitor.setMillisToPopup(500);
+        iniciar(new Tarefa<>(chave, trabalho, aoConcluir, aoFalhar, monitor), Politica.IGNORAR);
+    }
+
+    /**
+     * Indica se há uma tarefa em andamento com a chave informada.
+     *
+     * @param chave identificador da tarefa
+     * @return true se a tarefa ainda não terminou
+     */
+    public boolean emAndamento(String chave) {
+        return emAndamento.containsKey(chave);
+    }
+
+    /**
+     * Cancela a tarefa em andamento com a chave informada, se houver.
+     *
+     * @param chave identificador da tarefa
+     */
+    public void cancelar(String chave) {
+        Tarefa<?> tarefa = emAndamento.remove(chave);
+        if (tarefa != null) {
+            tarefa.cancel(true);
+        }
+        atualizarCursor();
+    }
+
+    /**
+     * Cancela todas as tarefas em andamento.
+     */
+    public void cancelarTodas() {
+        for (Tarefa<?> tarefa : new ArrayList<>(emAndamento.values())) {
+            tarefa.cancel(true);
+        }
+        emAndamento.clear();
+        atualizarCursor();
+    }
+
+    /**
+     * Registra e dispara uma tarefa conforme a política.
+     *
+     * @param tarefa tarefa a iniciar
+     * @param politica tratamento de uma chave já em andamento
+     */
+    private void iniciar(Tarefa<?> tarefa, Politica politica) {
+        Tarefa<?> anterior = emAndamento.get(tarefa.chave);
+        if (anterior != null) {
+            if (politica == Politica.IGNORAR) {
+                return;
+            }
+            anterior.cancel(true);
+        }
+        emAndamento.put(tarefa.chave, tarefa);
+        atualizarCursor();
+        AssincronoUtil.executor().execute(tarefa);
+    }
+
+    /**
+     * Mostra o cursor de espera enquanto houver tarefas em andamento.
+     */
+    private void atualizarCursor() {
+        janela.setCursor(Cursor.getPredefinedCursor(emAndamento.isEmpty() ? Cursor.DEFAULT_CURSOR : Cursor.WAIT_CURSOR));
+    }
+
+    /**
+     * Tratador de erro padrão: exibe a mensagem em uma caixa de diálogo.
+     *
+     * @param erro falha ocorrida
+     */
+    private void mostrarErro(Throwable erro) {
+        JOptionPane.showMessageDialog(janela, "Erro: " + erro.getMessage(), "Erro", JOptionPane.ERROR_MESSAGE);
+    }
+
+    /**
+     * Tarefa em segundo plano executada em uma thread virtual.
+     *
+     * @param <T> tipo do resultado
+     */
+    private final class Tarefa<T> extends SwingWorker<T, Void> implements Progresso {
+
+        /**
+         * Identificador da tarefa.
+         */
+        private final String chave;
+
+        /**
+         * Trabalho a executar.
+         */
+        private final Trabalho<T> trabalho;
+
+        /**
+         * Ação de conclusão.
+         */
+        private final Consumer<? super T> aoConcluir;
+
+        /**
+         * Ação de falha.
+         */
+        private final Consumer<Throwable> aoFalhar;
+
+        /**
+         * Monitor de progresso opcional.
+         */
+        private final ProgressMonitor monitor;
+
+        /**
+         * Cria a tarefa.
+         *
+         * @param chave identificador da tarefa
+         * @param trabalho trabalho a executar
+         * @param aoConcluir ação de conclusão
+         * @param aoFalhar ação de falha
+         * @param monitor monitor de progresso, ou null
+         */
+        Tarefa(String chave, Trabalho<T> trabalho, Consumer<? super T> aoConcluir,
+                Consumer<Throwable> aoFalhar, ProgressMonitor monitor) {
+            this.chave = chave;
+            this.trabalho = trabalho;
+            this.aoConcluir = aoConcluir;
+            this.aoFalhar = aoFalhar;
+            this.monitor = monitor;
+            if (monitor != null) {
+                addPropertyChangeListener(evt -> {
+                    if ("progress".equals(evt.getPropertyName())) {
+                        monitor.setProgress((Integer) evt.getNewValue());
+                        if (monitor.isCanceled()) {
+                            cancel(true);
+                        }
+                    }
+                });
+            }
+        }
+
+        @Override
+        protected T doInBackground() throws Exception {
+            return trabalho.executar(this);
+        }
+
+        @Override
+        public void informar(int percentual) {
+            setProgress(Math.max(0, Math.min(100, percentual)));
+        }
+
+        @Override
+        public boolean cancelado() {
+            return isCancelled() || Thread.currentThread().isInterrupted();
+        }
+
+        @Override
+        protected void done() {
+            if (emAndamento.get(chave) == this) {
+                emAndamento.remove(chave);
+            }
+            atualizarCursor();
+            if (monitor != null) {
+                monitor.close();
+            }
+            if (isCancelled()) {
+                return;
+            }
+            try {
+                aoConcluir.accept(get());
+            } catch (ExecutionException e) {
+                if (!(e.getCause() instanceof CancellationException)) {
+                    aoFalhar.accept(e.getCause());
+                }
+            } catch (InterruptedException | CancellationException e) {
+                // Tarefa cancelada
+            }
+        }
+    }
+}
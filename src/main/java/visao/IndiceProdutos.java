@@ -0,0 +1,375 @@
+package visao;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import modelo.Produto;
+import util.TextoUtil;
+
+/**
+ * Índice em memória dos nomes de produtos para a busca enquanto se digita.
+ *
+ * <p>
+ * Cada palavra do nome normalizado ({@link TextoUtil#normalizar(String)}) é
+ * guardada em um vetor ordenado junto com o id do produto. Como palavras com o
+ * mesmo prefixo ficam vizinhas, a busca por um prefixo é resolvida com duas
+ * buscas binárias e uma varredura apenas das entradas encontradas, sem
+ * percorrer o modelo da tabela. Acentos e maiúsculas são ignorados tanto nos
+ * nomes quanto no texto buscado.</p>
+ *
+ * <p>
+ * Para o filtro por categoria é mantido, para cada categoria, o conjunto dos
+ * ids de seus produtos. O resultado de uma busca é um {@link BitSet} indexado
+ * pelo id do produto, que o filtro da tabela consulta em tempo constante.</p>
+ *
+ * <p>
+ * O índice é montado fora da thread de eventos a cada listagem completa e
+ * depois atualizado nela, uma entrada por vez, com os resultados das
+ * inclusões, alterações e exclusões. A classe não é sincronizada.</p>
+ */
+public class IndiceProdutos {
+
+    /**
+     * Palavras dos nomes normalizados, em ordem crescente.
+     */
+    private String[] palavras;
+
+    /**
+     * Id do produto dono de cada palavra, na mesma posição de
+     * {@link #palavras}.
+     */
+    private int[] ids;
+
+    /**
+     * Quantidade de posições ocupadas nos vetores.
+     */
+    private int tamanho;
+
+    /**
+     * Palavras indexadas de cada produto, usadas para removê-las.
+     */
+    private final Map<Integer, String[]> palavrasPorProduto = new HashMap<>();
+
+    /**
+     * Categoria de cada produto indexado.
+     */
+    private final Map<Integer, Integer> categoriaPorProduto = new HashMap<>();
+
+    /**
+     * Ids dos produtos de cada categoria.
+     */
+    private final Map<Integer, BitSet> produtosPorCategoria = new HashMap<>();
+
+    /**
+     * Cria um índice vazio.
+     */
+    public IndiceProdutos() {
+        this.palavras = new String[16];
+        this.ids = new int[16];
+    }
+
+    /**
+     * Monta o índice de uma listagem completa de produtos, ordenando todas as
+     * palavras de uma só vez. Produtos sem id são ignorados.
+     *
+     * @param produtos produtos a indexar
+     * @return índice com todos os produtos
+     */
+    public static IndiceProdutos construir(List<Produto> produtos) {
+        IndiceProdutos indice = new IndiceProdutos();
+        Entrada[] entradas = new Entrada[Math.max(16, produtos.size() * 2)];
+        int total = 0;
+        for (Produto p : produtos) {
+            if (p.getId() == null || indice.palavrasPorProduto.containsKey(p.getId())) {
+                continue;
+            }
+            String[] doProduto = indice.registrar(p.getId(), p.getNome(), p.getCategoriaId());
+            for (String palavra : doProduto) {
+                if (total == entradas.length) {
+                    entradas = Arrays.copyOf(entradas, total * 2);
+                }
+                entradas[total++] = new Entrada(palavra, p.getId());
+            }
+        }
+        Arrays.sort(entradas, 0, total);
+
+        indice.palavras = new String[Math.max(16, total)];
+        indice.ids = new int[indice.palavras.length];
+        for (int i = 0; i < total; i++) {
+            indice.palavras[i] = entradas[i].palavra;
+            indice.ids[i] = entradas[i].id;
+        }
+        indice.tamanho = total;
+        return indice;
+    }
+
+    /**
+     * Inclui um produto no índice, substituindo a entrada anterior se ele já
+     * estiver indexado.
+     *
+     * @param id identificador do produto
+     * @param nome nome do produto
+     * @param categoriaId identificador da categoria, ou null
+     */
+    public void adicionar(Integer id, String nome, Integer categoriaId) {
+        if (id == null) {
+            return;
+        }
+        remover(id);
+        for (String palavra : registrar(id, nome, categoriaId)) {
+            inserir(palavra, id);
+        }
+    }
+
+    /**
+     * Atualiza o nome e a categoria de um produto indexado.
+     *
+     * @param id identificador do produto
+     * @param nome novo nome do produto
+     * @param categoriaId nova categoria, ou null
+     */
+    public void atualizar(Integer id, String nome, Integer categoriaId) {
+        adicionar(id, nome, categoriaId);
+    }
+
+    /**
+     * Remove um produto do índice. Nada acontece se ele não estiver
+     * indexado.
+     *
+     * @param id identificador do produto
+     */
+    public void remover(Integer id) {
+        if (id == null) {
+            return;
+        }
+        String[] doProduto = palavrasPorProduto.remove(id);
+        if (doProduto == null) {
+            return;
+        }
+        for (String palavra : doProduto) {
+            int posicao = localizar(palavra, id);
+            if (posicao < 0) {
+                continue;
+            }
+            System.arraycopy(palavras, posicao + 1, palavras, posicao, tamanho - posicao - 1);
+            System.arraycopy(ids, posicao + 1, ids, posicao, tamanho - posicao - 1);
+            palavras[--tamanho] = null;
+        }
+        Integer categoriaId = categoriaPorProduto.remove(id);
+        BitSet daCategoria = categoriaId == null ? null : produtosPorCategoria.get(categoriaId);
+        if (daCategoria != null) {
+            daCategoria.clear(id);
+        }
+    }
+
+    /**
+     * Busca os produtos cujo nome tem uma palavra começando por cada palavra
+     * do texto informado, opcionalmente restritos a uma categoria.
+     *
+     * <p>
+     * Por exemplo, "arr tip" encontra "Arroz Tipo 1" e "cafe" encontra
+     * "Café Torrado". A ordem das palavras não importa.</p>
+     *
+     * @param texto texto digitado pelo usuário
+     * @param categoriaId categoria a que os produtos devem pertencer, ou null
+     * para todas
+     * @return ids dos produtos encontrados, ou null se não houver filtro (texto
+     * em branco e nenhuma categoria)
+     */
+    public BitSet buscar(String texto, Integer categoriaId) {
+        String[] prefixos = separar(TextoUtil.normalizar(texto));
+        if (prefixos.length == 0 && categoriaId == null) {
+            return null;
+        }
+
+        BitSet resultado = null;
+        if (categoriaId != null) {
+            BitSet daCategoria = produtosPorCategoria.get(categoriaId);
+            resultado = daCategoria == null ? new BitSet() : (BitSet) daCategoria.clone();
+        }
+        for (String prefixo : prefixos) {
+            BitSet encontrados = new BitSet();
+            int fim = inicio(prefixo + Character.MAX_VALUE);
+            for (int i = inicio(prefixo); i < fim; i++) {
+                encontrados.set(ids[i]);
+            }
+            if (resultado == null) {
+                resultado = encontrados;
+            } else {
+                resultado.and(encontrados);
+            }
+            if (resultado.isEmpty()) {
+                break; // nenhuma palavra seguinte pode ampliar o resultado
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Quantidade de produtos indexados.
+     *
+     * @return total de produtos
+     */
+    public int tamanho() {
+        return palavrasPorProduto.size();
+    }
+
+    /**
+     * Guarda a categoria e as palavras de um produto, sem inseri-las no vetor
+     * ordenado.
+     *
+     * @param id identificador do produto
+     * @param nome nome do produto
+     * @param categoriaId identificador da categoria, ou null
+     * @return palavras do nome normalizado
+     */
+    private String[] registrar(Integer id, String nome, Integer categoriaId) {
+        String[] doProduto = separar(TextoUtil.normalizar(nome));
+        palavrasPorProduto.put(id, doProduto);
+        if (categoriaId != null) {
+            categoriaPorProduto.put(id, categoriaId);
+            produtosPorCategoria.computeIfAbsent(categoriaId, c -> new BitSet()).set(id);
+        }
+        return doProduto;
+    }
+
+    /**
+     * Insere uma palavra na posição que mantém o vetor ordenado.
+     *
+     * @param palavra palavra normalizada
+     * @param id identificador do produto
+     */
+    private void inserir(String palavra, int id) {
+        if (tamanho == palavras.length) {
+            palavras = Arrays.copyOf(palavras, tamanho * 2);
+            ids = Arrays.copyOf(ids, tamanho * 2);
+        }
+        int posicao = localizar(palavra, id);
+        if (posicao >= 0) {
+            return; // já indexada
+        }
+        posicao = -posicao - 1;
+        System.arraycopy(palavras, posicao, palavras, posicao + 1, tamanho - posicao);
+        System.arraycopy(ids, posicao, ids, posicao + 1, tamanho - posicao);
+        palavras[posicao] = palavra;
+        ids[posicao] = id;
+        tamanho++;
+    }
+
+    /**
+     * Busca binária pelo par palavra e id.
+     *
+     * @param palavra palavra normalizada
+     * @param id identificador do produto
+     * @return posição do par, ou {@code -(ponto de inserção) - 1} se ele não
+     * estiver no vetor
+     */
+    private int localizar(String palavra, int id) {
+        int baixo = 0;
+        int alto = tamanho - 1;
+        while (baixo <= alto) {
+            int meio = (baixo + alto) >>> 1;
+            int comparacao = comparar(palavras[meio], ids[meio], palavra, id);
+            if (comparacao < 0) {
+                baixo = meio + 1;
+            } else if (comparacao > 0) {
+                alto = meio - 1;
+            } else {
+                return meio;
+            }
+        }
+        return -(baixo + 1);
+    }
+
+    /**
+     * Primeira posição cuja palavra não é menor que a informada.
+     *
+     * @param palavra limite inferior
+     * @return posição no vetor, entre 0 e {@link #tamanho}
+     */
+    private int inicio(String palavra) {
+        int baixo = 0;
+        int alto = tamanho;
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (palavras[meio].compareTo(palavra) < 0) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
+            }
+        }
+        return baixo;
+    }
+
+    /**
+     * Ordem do vetor: pela palavra e, em caso de empate, pelo id.
+     *
+     * @param palavraA palavra da primeira entrada
+     * @param idA id do produto da primeira entrada
+     * @param palavraB palavra da segunda entrada
+     * @param idB id do produto da segunda entrada
+     * @return negativo, zero ou positivo conforme a primeira entrada venha
+     * antes, na mesma posição ou depois da segunda
+     */
+    private static int comparar(String palavraA, int idA, String palavraB, int idB) {
+        int comparacao = palavraA.compareTo(palavraB);
+        return comparacao != 0 ? comparacao : Integer.compare(idA, idB);
+    }
+
+    /**
+     * Separa um texto normalizado em palavras, descartando espaços e
+     * pontuação.
+     *
+     * @param normalizado texto já normalizado
+     * @return palavras do texto, possivelmente vazio
+     */
+    private static String[] separar(String normalizado) {
+        if (normalizado.isEmpty()) {
+            return new String[0];
+        }
+        return Arrays.stream(normalizado.split("[^\\p{L}\\p{N}]+"))
+                .filter(palavra -> !palavra.isEmpty())
+                .distinct()
+                .toArray(String[]::new);
+    }
+
+    /**
+     * Par palavra e id usado na montagem do índice completo.
+     */
+    private static final class Entrada implements Comparable<Entrada> {
+
+        /**
+         * Palavra do nome normalizado.
+         */
+        private final String palavra;
+
+        /**
+         * Id do produto dono da palavra.
+         */
+        private final int id;
+
+        /**
+         * Cria uma entrada.
+         *
+         * @param palavra palavra do nome normalizado
+         * @param id id do produto
+         */
+        private Entrada(String palavra, int id) {
+            this.palavra = palavra;
+            this.id = id;
+        }
+
+        /**
+         * Compara na ordem do vetor do índice.
+         *
+         * @param outra entrada comparada
+         * @return resultado de {@link IndiceProdutos#comparar}
+         */
+        @Override
+        public int compareTo(Entrada outra) {
+            return comparar(palavra, id, outra.palavra, outra.id);
+        }
+    }
+}
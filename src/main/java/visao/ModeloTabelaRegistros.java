@@ -0,0 +1,421 @@
+package visao;
+
+import controlador.RegistroControlador;
+import dto.Pagina;
+import dto.Resposta;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+import javax.swing.table.AbstractTableModel;
+import metrica.EventoTabela;
+import modelo.Registro;
+import util.AssincronoUtil;
+
+/**
+ * Modelo de tabela do histórico de movimentações com carregamento sob demanda.
+ *
+ * <p>
+ * Em vez de copiar todo o histórico para a tabela, o modelo conhece apenas o
+ * total de registros e busca no servidor os blocos de linhas que a
+ * {@link javax.swing.JTable} pede para desenhar. Enquanto um bloco não chega as
+ * células ficam vazias; quando ele chega é disparado um único evento de
+ * atualização para todas as suas linhas.</p>
+ *
+ * <p>
+ * Os blocos carregados ficam em um cache limitado, do qual o menos usado
+ * recentemente é descartado, de modo que a memória ocupada não depende do
+ * tamanho do histórico. Todos os métodos devem ser chamados na thread de
+ * eventos; as buscas rodam em threads virtuais e entregam o resultado de volta
+ * nela.</p>
+ *
+ * <p>
+ * Registros criados depois da carga podem ser acrescentados ao fim com
+ * {@link #acrescentar(Registro)}, sem nova busca. O total informado por
+ * qualquer bloco buscado depois prevalece sobre a contagem local.</p>
+ *
+ * <p>
+ * A cada recarga os blocos guardados na cópia local são exibidos antes da
+ * resposta do servidor. Como o histórico só cresce pelo fim, um bloco
+ * completo da cópia não muda e não precisa ser buscado de novo; apenas o
+ * primeiro bloco, que informa o total, e um bloco final incompleto são
+ * pedidos. Se o primeiro bloco recebido não coincidir com o da cópia, como
+ * depois de o servidor ser reiniciado, os demais blocos da cópia são
+ * descartados.</p>
+ *
+ * <p>
+ * Um servidor sem paginação devolve o histórico inteiro a qualquer pedido de
+ * bloco. Nesse caso a lista recebida é exibida a partir da primeira linha e
+ * nenhum outro bloco é buscado até a próxima recarga.</p>
+ */
+public class ModeloTabelaRegistros extends AbstractTableModel {
+
+    /**
+     * Nomes das colunas da tabela de movimentações.
+     */
+    private static final String[] COLUNAS = {"ID", "Data", "Produto_id", "Quntidade", "Movimentação", "Status_Estoque"};
+
+    /**
+     * Controlador usado para buscar os blocos.
+     */
+    private final RegistroControlador controlador;
+
+    /**
+     * Quantidade de linhas por bloco.
+     */
+    private final int tamanhoBloco;
+
+    /**
+     * Quantidade máxima de blocos mantidos em memória.
+     */
+    private final int maximoBlocos;
+
+    /**
+     * Blocos carregados por número, em ordem de acesso (o primeiro é o menos
+     * usado).
+     */
+    private final LinkedHashMap<Integer, List<Registro>> blocos;
+
+    /**
+     * Blocos com busca em andamento ou que falharam desde a última recarga.
+     */
+    private final Set<Integer> carregando = new HashSet<>();
+
+    /**
+     * Blocos exibidos a partir da cópia local e ainda não confirmados pelo
+     * servidor.
+     */
+    private final Set<Integer> copiados = new HashSet<>();
+
+    /**
+     * Ação executada quando uma busca falha.
+     */
+    private final Consumer<Throwable> aoFalhar;
+
+    /**
+     * Ação executada com false quando uma busca falha por o servidor estar
+     * indisponível, e com true quando uma busca tem sucesso.
+     */
+    private final Consumer<Boolean> aoMudarDisponibilidade;
+
+    /**
+     * Total de linhas informado pelo servidor.
+     */
+    private int total;
+
+    /**
+     * Histórico inteiro, quando o servidor responde sem paginação, ou null
+     * enquanto a listagem for por blocos.
+     */
+    private List<Registro> listagemCompleta;
+
+    /**
+     * Contador de recargas, usado para descartar blocos de buscas anteriores.
+     */
+    private long geracao;
+
+    /**
+     * Cria o modelo, inicialmente vazio.
+     *
+     * @param controlador controlador usado para buscar os blocos
+     * @param tamanhoBloco quantidade de linhas por bloco
+     * @param maximoBlocos quantidade máxima de blocos mantidos em memória
+     * @param aoFalhar ação executada na thread de eventos quando uma busca
+     * falha
+     * @param aoMudarDisponibilidade ação executada na thread de eventos com
+     * false quando o servidor está indisponível, em vez de {@code aoFalhar},
+     * e com true a cada busca bem-sucedida
+     */
+    public ModeloTabelaRegistros(RegistroControlador controlador, int tamanhoBloco, int maximoBlocos,
+            Consumer<Throwable> aoFalhar, Consumer<Boolean> aoMudarDisponibilidade) {
+        this.controlador = controlador;
+        this.tamanhoBloco = tamanhoBloco;
+        this.aoFalhar = aoFalhar;
+        this.aoMudarDisponibilidade = aoMudarDisponibilidade;
+        this.maximoBlocos = maximoBlocos;
+        this.blocos = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<Registro>> maisAntigo) {
+                return size() > maximoBlocos;
+            }
+        };
+    }
+
+    /**
+     * Descarta as linhas carregadas, exibe os blocos da cópia local e busca o
+     * primeiro bloco, que informa o total de registros.
+     */
+    public void recarregar() {
+        geracao++;
+        blocos.clear();
+        carregando.clear();
+        copiados.clear();
+        listagemCompleta = null;
+        total = 0;
+        Pagina<Registro> copia = controlador.lerCopiaLocal();
+        if (copia != null) {
+            exibirCopia(copia);
+        }
+        fireTableDataChanged();
+        carregar(0);
+    }
+
+    /**
+     * Exibe os blocos do início do histórico guardados na cópia local, até o
+     * limite de blocos em memória.
+     *
+     * @param copia registros guardados, a partir do primeiro, e o total
+     * conhecido
+     */
+    private void exibirCopia(Pagina<Registro> copia) {
+        List<Registro> registros = copia.getItens();
+        for (int inicio = 0; inicio < registros.size() && copiados.size() < maximoBlocos; inicio += tamanhoBloco) {
+            int bloco = inicio / tamanhoBloco;
+            blocos.put(bloco, new ArrayList<>(registros.subList(inicio, Math.min(registros.size(), inicio + tamanhoBloco))));
+            copiados.add(bloco);
+        }
+        long conhecido = copia.getTotal() == null ? registros.size() : copia.getTotal();
+        total = (int) Math.min(Integer.MAX_VALUE, Math.max(conhecido, registros.size()));
+    }
+
+    /**
+     * Ignora as buscas em andamento. Usado ao fechar a janela.
+     */
+    public void descartar() {
+        geracao++;
+        carregando.clear();
+    }
+
+    /**
+     * Acrescenta ao fim da tabela um registro criado depois da carga.
+     *
+     * <p>
+     * O histórico só cresce pelo fim: basta aumentar o total e, se o bloco
+     * final estiver carregado, incluir o registro nele. Enquanto o primeiro
+     * bloco não chega o total ainda é desconhecido, e o registro é ignorado.
+     * Um registro que já está no bloco final carregado também é ignorado.</p>
+     *
+     * @param registro registro criado
+     */
+    public void acrescentar(Registro registro) {
+        if (registro == null || registro.getId() == null || (total == 0 && !carregando.isEmpty())) {
+            return;
+        }
+        if (listagemCompleta != null) {
+            for (int i = Math.max(0, listagemCompleta.size() - tamanhoBloco); i < listagemCompleta.size(); i++) {
+                if (registro.getId().equals(listagemCompleta.get(i).getId())) {
+                    return; // já recebido na listagem
+                }
+            }
+            listagemCompleta.add(registro);
+            total = listagemCompleta.size();
+            fireTableRowsInserted(total - 1, total - 1);
+            return;
+        }
+        List<Registro> ultimo = total == 0 ? null : blocos.get((total - 1) / tamanhoBloco);
+        if (ultimo != null) {
+            for (Registro r : ultimo) {
+                if (registro.getId().equals(r.getId())) {
+                    return; // já contado pela busca do bloco
+                }
+            }
+        }
+
+        int bloco = total / tamanhoBloco;
+        List<Registro> destino = total % tamanhoBloco == 0 ? new ArrayList<>() : blocos.get(bloco);
+        if (destino != null && !carregando.contains(bloco)) {
+            List<Registro> atualizado = new ArrayList<>(destino);
+            atualizado.add(registro);
+            blocos.put(bloco, atualizado);
+        }
+        total++;
+        fireTableRowsInserted(total - 1, total - 1);
+    }
+
+    @Override
+    public int getRowCount() {
+        return total;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUNAS.length;
+    }
+
+    @Override
+    public String getColumnName(int coluna) {
+        return COLUNAS[coluna];
+    }
+
+    @Override
+    public Object getValueAt(int linha, int coluna) {
+        Registro r = obter(linha);
+        if (r == null) {
+            return null;
+        }
+        return switch (coluna) {
+            case 0 ->
+                r.getId();
+            case 1 ->
+                r.getData();
+            case 2 ->
+                r.getProdutoId();
+            case 3 ->
+                r.getQuantidade();
+            case 4 ->
+                r.getMovimentacao();
+            case 5 ->
+                r.getStatus();
+            default ->
+                null;
+        };
+    }
+
+    /**
+     * Obtém o registro de uma linha, pedindo o bloco ao servidor se ainda não
+     * estiver carregado.
+     *
+     * @param linha índice da linha
+     * @return registro da linha, ou null enquanto o bloco não chegar
+     */
+    public Registro obter(int linha) {
+        if (listagemCompleta != null) {
+            return linha < listagemCompleta.size() ? listagemCompleta.get(linha) : null;
+        }
+        int bloco = linha / tamanhoBloco;
+        List<Registro> registros = blocos.get(bloco);
+        if (registros == null) {
+            carregar(bloco);
+            return null;
+        }
+        int posicao = linha % tamanhoBloco;
+        if (posicao >= registros.size() && copiados.contains(bloco)) {
+            carregar(bloco); // bloco final da cópia, incompleto
+        }
+        return posicao < registros.size() ? registros.get(posicao) : null;
+    }
+
+    /**
+     * Inicia a busca de um bloco, se ainda não estiver em andamento.
+     *
+     * @param bloco número do bloco, que corresponde à página no servidor
+     */
+    private void carregar(int bloco) {
+        if (!carregando.add(bloco)) {
+            return;
+        }
+        long solicitacao = geracao;
+        controlador.listarRegistroAsync(bloco, tamanhoBloco).whenComplete((resposta, erro)
+                -> SwingUtilities.invokeLater(() -> receber(bloco, solicitacao, resposta, erro)));
+    }
+
+    /**
+     * Guarda um bloco recebido e notifica a tabela. Executado na thread de
+     * eventos.
+     *
+     * @param bloco número do bloco
+     * @param solicitacao geração em que a busca foi feita
+     * @param resposta resposta do servidor, ou null em caso de falha
+     * @param erro falha da busca, ou null
+     */
+    private void receber(int bloco, long solicitacao, Resposta<Pagina<Registro>> resposta, Throwable erro) {
+        if (solicitacao != geracao) {
+            return;
+        }
+        // Em caso de falha o bloco continua marcado, para não repetir a busca a
+        // cada repintura; uma nova tentativa só ocorre em recarregar()
+        if (erro != null) {
+            aoFalhar.accept(AssincronoUtil.desembrulhar(erro));
+            return;
+        }
+        if (resposta.getErro() != null) {
+            aoMudarDisponibilidade.accept(false);
+            return;
+        }
+        if (!"sucesso".equalsIgnoreCase(resposta.getStatus()) || resposta.getDados() == null) {
+            aoFalhar.accept(new IllegalStateException("Erro ao listar registros: " + resposta.getMensagem()));
+            return;
+        }
+        aoMudarDisponibilidade.accept(true);
+        EventoTabela evento = EventoTabela.iniciar();
+        carregando.remove(bloco);
+        Pagina<Registro> pagina = resposta.getDados();
+        List<Registro> registros = pagina.getItens() == null ? List.of() : pagina.getItens();
+        if (semPaginacao(bloco, pagina, registros)) {
+            // A lista começa no primeiro registro, qualquer que seja o bloco pedido
+            carregando.clear();
+            blocos.clear();
+            copiados.clear();
+            listagemCompleta = new ArrayList<>(registros);
+            total = listagemCompleta.size();
+            fireTableDataChanged();
+            evento.concluir("registros", registros.size(), true);
+            return;
+        }
+        List<Registro> anterior = blocos.put(bloco, registros);
+        if (copiados.remove(bloco) && !mesmosRegistros(anterior, registros)) {
+            // O histórico do servidor não é o da cópia: os demais blocos dela também não valem
+            blocos.keySet().removeAll(copiados);
+            copiados.clear();
+            fireTableDataChanged();
+        }
+
+        int novoTotal = pagina.getTotal() != null
+                ? (int) Math.min(Integer.MAX_VALUE, pagina.getTotal())
+                : Math.max(total, bloco * tamanhoBloco + registros.size());
+        if (novoTotal != total) {
+            // O histórico mudou de tamanho: a tabela precisa recalcular as linhas
+            total = novoTotal;
+            fireTableDataChanged();
+        } else if (!registros.isEmpty()) {
+            int inicio = bloco * tamanhoBloco;
+            fireTableRowsUpdated(inicio, Math.min(total, inicio + registros.size()) - 1);
+        }
+        evento.concluir("registros", registros.size(), false);
+    }
+
+    /**
+     * Verifica se a resposta a um pedido de bloco é o histórico inteiro,
+     * devolvido por um servidor sem paginação.
+     *
+     * @param bloco número do bloco pedido
+     * @param pagina página recebida
+     * @param registros itens da página
+     * @return true se a página não corresponder ao bloco pedido
+     */
+    private boolean semPaginacao(int bloco, Pagina<Registro> pagina, List<Registro> registros) {
+        if (registros.size() > tamanhoBloco) {
+            return true;
+        }
+        if (pagina.getPagina() != null && pagina.getPagina() != bloco) {
+            return true;
+        }
+        return pagina.getLimite() != null && pagina.getLimite() != tamanhoBloco
+                && pagina.getTotal() != null && pagina.getTotal() == registros.size();
+    }
+
+    /**
+     * Verifica se dois blocos trazem os mesmos registros nas posições que têm
+     * em comum.
+     *
+     * @param copia bloco exibido a partir da cópia local, ou null
+     * @param recebido bloco recebido do servidor
+     * @return true se os ids coincidirem
+     */
+    private static boolean mesmosRegistros(List<Registro> copia, List<Registro> recebido) {
+        if (copia == null) {
+            return true;
+        }
+        for (int i = 0; i < Math.min(copia.size(), recebido.size()); i++) {
+            if (!Objects.equals(copia.get(i).getId(), recebido.get(i).getId())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
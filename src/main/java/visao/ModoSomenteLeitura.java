@@ -0,0 +1,118 @@
+package visao;
+
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import javax.swing.JComponent;
+import javax.swing.JFrame;
+import javax.swing.Timer;
+import socket.ConfiguracaoCliente;
+
+/**
+ * Modo em que uma janela exibe os dados da cópia local enquanto o servidor
+ * está indisponível.
+ *
+ * <p>
+ * Ao entrar no modo os componentes de escrita são desabilitados e o título da
+ * janela passa a indicar a data dos dados exibidos. Uma nova tentativa de
+ * carga é agendada a cada intervalo da chave {@code copia.reconexao.ms} do
+ * arquivo de configuração do cliente; a primeira carga bem-sucedida sai do
+ * modo e reabilita os componentes. Todos os métodos devem ser chamados na
+ * thread de eventos.</p>
+ */
+public class ModoSomenteLeitura {
+
+    /**
+     * Intervalo entre as tentativas de reconexão, em milissegundos.
+     */
+    private static final int RECONEXAO_MS = ConfiguracaoCliente.inteiro("copia.reconexao.ms", 10000);
+
+    /**
+     * Janela controlada.
+     */
+    private final JFrame janela;
+
+    /**
+     * Componentes que alteram dados no servidor.
+     */
+    private final JComponent[] escritas;
+
+    /**
+     * Título original da janela.
+     */
+    private final String titulo;
+
+    /**
+     * Temporizador da próxima tentativa de carga.
+     */
+    private final Timer reconexao;
+
+    /**
+     * Indica se a janela está em modo somente leitura.
+     */
+    private boolean ativo;
+
+    /**
+     * Cria o modo somente leitura de uma janela, inicialmente inativo.
+     *
+     * @param janela janela controlada
+     * @param recarregar carga repetida a cada tentativa de reconexão
+     * @param escritas componentes desabilitados enquanto o modo estiver ativo
+     */
+    public ModoSomenteLeitura(JFrame janela, Runnable recarregar, JComponent... escritas) {
+        this.janela = janela;
+        this.escritas = escritas;
+        this.titulo = janela.getTitle();
+        this.reconexao = new Timer(RECONEXAO_MS, evento -> recarregar.run());
+        reconexao.setRepeats(false);
+        janela.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                reconexao.stop();
+            }
+        });
+    }
+
+    /**
+     * Entra no modo, ou permanece nele, e agenda a próxima tentativa de carga.
+     *
+     * @param dadosDe instante em que os dados exibidos foram recebidos do
+     * servidor, em milissegundos desde a época, ou 0 se desconhecido
+     */
+    public void entrar(long dadosDe) {
+        if (!ativo) {
+            ativo = true;
+            for (JComponent componente : escritas) {
+                componente.setEnabled(false);
+            }
+        }
+        String data = dadosDe > 0 ? ", dados de " + new SimpleDateFormat("dd/MM/yyyy HH:mm").format(new Date(dadosDe)) : "";
+        janela.setTitle(titulo + " (somente leitura: servidor indisponível" + data + ")");
+        reconexao.restart();
+    }
+
+    /**
+     * Sai do modo, se estiver ativo, reabilitando os componentes de escrita.
+     */
+    public void sair() {
+        reconexao.stop();
+        if (!ativo) {
+            return;
+        }
+        ativo = false;
+        for (JComponent componente : escritas) {
+            componente.setEnabled(true);
+        }
+        janela.setTitle(titulo);
+    }
+
+    /**
+     * Indica se a janela está em modo somente leitura.
+     *
+     * @return true enquanto o servidor estiver indisponível
+     */
+    public boolean isAtivo() {
+        return ativo;
+    }
+}